@@ -0,0 +1,103 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares encoding an entity to, and decoding it from, BSON with its {@link AbstractEntityCodec} and with its mapper
+ * (which goes through a {@link Document} and the driver's {@link DocumentCodec}, as the session does without codecs).
+ *
+ * Run with: mvn -B -Pjmh verify (JMH options can be passed with -Djmh.args="...", e.g. -Djmh.args="-p entity=TASK").
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityCodecBenchmark {
+
+    @Param({ "EXECUTION", "TASK", "VARIABLE", "JOB", "HISTORIC_ACTIVITY" })
+    protected EntityCodecFixture entity;
+
+    protected Entity entityToEncode;
+    protected byte[] bytesToDecode;
+    protected DocumentCodec documentCodec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EntityCodecFixture.openCommandContext();
+        entityToEncode = entity.createEntity();
+        documentCodec = new DocumentCodec();
+
+        BasicOutputBuffer outputBuffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(outputBuffer), entity.encodeWithMapper(entityToEncode), EncoderContext.builder().build());
+        bytesToDecode = outputBuffer.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EntityCodecFixture.closeCommandContext();
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        BasicOutputBuffer outputBuffer = new BasicOutputBuffer();
+        entity.getCodec().encode(new BsonBinaryWriter(outputBuffer), entityToEncode, EncoderContext.builder().build());
+        return outputBuffer.getInternalBuffer();
+    }
+
+    @Benchmark
+    public byte[] encodeWithMapper() {
+        BasicOutputBuffer outputBuffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(outputBuffer), entity.getMapper().toDocument(entityToEncode), EncoderContext.builder().build());
+        return outputBuffer.getInternalBuffer();
+    }
+
+    @Benchmark
+    public Entity decodeWithCodec() {
+        return entity.getCodec().decode(new BsonBinaryReader(ByteBuffer.wrap(bytesToDecode)), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public Entity decodeWithMapper() {
+        Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytesToDecode)), DecoderContext.builder().build());
+        return entity.getMapper().fromDocument(document);
+    }
+
+}
@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.Objects;
+
+import org.flowable.common.engine.impl.persistence.cache.CachedEntity;
+
+/**
+ * {@link CachedEntity} of a {@link MongoDbChangeTrackedEntity}: the persistent state is only built and compared
+ * when the entity was changed, instead of when it is cached and again at every flush.
+ *
+ * Like a {@link CachedEntity} without stored state, an entity that was explicitly updated is always seen as changed.
+ */
+public class MongoDbChangeTrackedCachedEntity extends CachedEntity {
+
+    protected boolean alwaysChanged;
+
+    public MongoDbChangeTrackedCachedEntity(MongoDbChangeTrackedEntity entity, boolean storeState) {
+        super(entity, false);
+        entity.startChangeTracking();
+        if (!storeState) {
+            entity.markChanged();
+            this.alwaysChanged = true;
+        }
+    }
+
+    @Override
+    public boolean hasChanged() {
+        if (alwaysChanged) {
+            return true;
+        }
+        MongoDbChangeTrackedEntity entity = (MongoDbChangeTrackedEntity) getEntity();
+        return entity.isChanged() && !Objects.equals(entity.getPersistentState(), entity.getOriginalPersistentState());
+    }
+
+    @Override
+    public Object getOriginalPersistentState() {
+        return getEntity().getOriginalPersistentState();
+    }
+
+}
@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+/**
+ * An entity that records that it was changed, by intercepting all the setters of the fields of its persistent state,
+ * so the {@link MongoDbEntityCache} doesn't need to compare the persistent state of every cached entity at flush time.
+ *
+ * Once tracking has started, the persistent state is only taken right before the first change,
+ * as the original persistent state the changed fields are determined against.
+ * Entities that are only read never build a persistent state.
+ */
+public interface MongoDbChangeTrackedEntity extends Entity {
+
+    /**
+     * Starts tracking the changes of the entity, from its current state on.
+     * Does nothing but discarding an original persistent state that isn't needed (yet) when the changes were already being tracked.
+     */
+    void startChangeTracking();
+
+    /**
+     * Marks the entity as changed, taking its original persistent state first if it wasn't changed yet.
+     */
+    void markChanged();
+
+    boolean isChanged();
+
+}
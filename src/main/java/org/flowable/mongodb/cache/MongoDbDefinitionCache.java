@@ -0,0 +1,219 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.flowable.mongodb.persistence.manager.MongoDbDeploymentDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbProcessDefinitionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbResourceDataManager;
+
+/**
+ * Engine wide cache of the documents of collections that (nearly) never change once written,
+ * such as process definitions, deployments and deployment resources.
+ *
+ * Contrary to the entity cache, which lives as long as one command, this cache is shared by all commands,
+ * so the lookup of e.g. the latest process definition for a key doesn't need a round trip once it's cached.
+ * Documents are cached (and not entities), so every command still gets its own entity instances.
+ *
+ * Documents are found by their id, or by a lookup key that stands for a query (e.g. the latest version for a key and tenant).
+ * Every collection has a bounded LRU map for both. Any write to a cached collection invalidates all of its entries:
+ * writes are rare (deployments, suspension, a new latest version) and the lookup keys can't be derived from a single document.
+ *
+ * A document read from the database is only put in the cache when the collection wasn't invalidated since before the read started
+ * (see {@link #getGeneration(String)}), so a concurrent write never leaves a stale document behind.
+ */
+public class MongoDbDefinitionCache {
+
+    public static final List<String> DEFAULT_COLLECTIONS = Arrays.asList(
+            MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS,
+            MongoDbDeploymentDataManager.COLLECTION_DEPLOYMENT,
+            MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY);
+
+    protected static final char LOOKUP_KEY_SEPARATOR = '\u001F';
+
+    protected int maxSize;
+    protected Map<String, CollectionCache> collectionCaches = new HashMap<>();
+
+    protected AtomicLong hitCount = new AtomicLong();
+    protected AtomicLong missCount = new AtomicLong();
+    protected AtomicLong invalidationCount = new AtomicLong();
+
+    public MongoDbDefinitionCache(int maxSize) {
+        this(maxSize, DEFAULT_COLLECTIONS);
+    }
+
+    public MongoDbDefinitionCache(int maxSize, Collection<String> collections) {
+        this.maxSize = maxSize;
+        for (String collection : collections) {
+            collectionCaches.put(collection, new CollectionCache(maxSize));
+        }
+    }
+
+    /**
+     * Creates the lookup key for a query with the given name and parameter values (null values included).
+     */
+    public static String lookupKey(String name, Object... values) {
+        StringBuilder lookupKey = new StringBuilder(name);
+        for (Object value : values) {
+            lookupKey.append(LOOKUP_KEY_SEPARATOR).append(value);
+        }
+        return lookupKey.toString();
+    }
+
+    public boolean isCached(String collection) {
+        return collectionCaches.containsKey(collection);
+    }
+
+    /**
+     * The generation of the collection, which changes with every invalidation.
+     * Needs to be fetched before reading from the database, and passed when putting the result in the cache.
+     */
+    public long getGeneration(String collection) {
+        return collectionCaches.get(collection).getGeneration();
+    }
+
+    public Document get(String collection, String id) {
+        return countHitOrMiss(collectionCaches.get(collection).get(id));
+    }
+
+    public Document getByLookupKey(String collection, String lookupKey) {
+        return countHitOrMiss(collectionCaches.get(collection).getByLookupKey(lookupKey));
+    }
+
+    public void put(String collection, Document document, long generation) {
+        collectionCaches.get(collection).put(null, document, generation);
+    }
+
+    public void put(String collection, String lookupKey, Document document, long generation) {
+        collectionCaches.get(collection).put(lookupKey, document, generation);
+    }
+
+    public void invalidate(String collection) {
+        CollectionCache collectionCache = collectionCaches.get(collection);
+        if (collectionCache != null) {
+            collectionCache.invalidate();
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    public void invalidateAll() {
+        for (String collection : collectionCaches.keySet()) {
+            invalidate(collection);
+        }
+    }
+
+    protected Document countHitOrMiss(Document document) {
+        if (document != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return document;
+    }
+
+    public int size(String collection) {
+        return collectionCaches.get(collection).size();
+    }
+
+    public Collection<String> getCollections() {
+        return collectionCaches.keySet();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    protected static class CollectionCache {
+
+        protected long generation;
+        protected Map<String, Document> documents;
+        protected Map<String, String> lookupKeyToId;
+
+        public CollectionCache(int maxSize) {
+            this.documents = createLruMap(maxSize);
+            this.lookupKeyToId = createLruMap(maxSize);
+        }
+
+        protected static <V> Map<String, V> createLruMap(int maxSize) {
+            return new LinkedHashMap<String, V>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        public synchronized long getGeneration() {
+            return generation;
+        }
+
+        public synchronized Document get(String id) {
+            return documents.get(id);
+        }
+
+        public synchronized Document getByLookupKey(String lookupKey) {
+            String id = lookupKeyToId.get(lookupKey);
+            if (id != null) {
+                return documents.get(id); // null when evicted in the meantime
+            }
+            return null;
+        }
+
+        public synchronized void put(String lookupKey, Document document, long readGeneration) {
+            if (readGeneration != generation) {
+                return; // invalidated while the document was being read
+            }
+
+            String id = document.getString("_id");
+            documents.put(id, document);
+            if (lookupKey != null) {
+                lookupKeyToId.put(lookupKey, id);
+            }
+        }
+
+        public synchronized void invalidate() {
+            generation++;
+            documents.clear();
+            lookupKeyToId.clear();
+        }
+
+        public synchronized int size() {
+            return documents.size();
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.api.Engine;
+import org.flowable.common.engine.api.engine.EngineLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+/**
+ * Watches the collections of the {@link MongoDbDefinitionCache} with a change stream on the database,
+ * and invalidates a collection in the cache when another node (or a direct database change) writes to it.
+ * Writes of this node are already invalidated when they are flushed and committed.
+ *
+ * Changes that happen while the change stream is (re)opened are not seen, so the whole cache is invalidated every time it is (re)opened.
+ * Started when the engine is built and stopped when it is closed.
+ */
+public class MongoDbDefinitionCacheChangeStreamWatcher implements Runnable, EngineLifecycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbDefinitionCacheChangeStreamWatcher.class);
+
+    protected MongoDatabase mongoDatabase;
+    protected MongoDbDefinitionCache definitionCache;
+
+    protected long maxAwaitTimeInMillis = 1000L;
+    protected long reopenWaitTimeInMillis = 5000L;
+
+    protected volatile boolean isInterrupted;
+    protected Thread thread;
+
+    public MongoDbDefinitionCacheChangeStreamWatcher(MongoDatabase mongoDatabase, MongoDbDefinitionCache definitionCache) {
+        this.mongoDatabase = mongoDatabase;
+        this.definitionCache = definitionCache;
+    }
+
+    @Override
+    public void onEngineBuilt(Engine engine) {
+        isInterrupted = false;
+        thread = new Thread(this, "flowable-" + engine.getName() + "-watch-definitions");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onEngineClosed(Engine engine) {
+        stop();
+        if (thread != null) {
+            try {
+                thread.join(maxAwaitTimeInMillis * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        LOGGER.info("starting to watch the {} collections for definition cache invalidation", definitionCache.getCollections());
+
+        while (!isInterrupted) {
+            // maxAwaitTime makes tryNext() return regularly, so the interrupted flag is checked
+            try (MongoCursor<ChangeStreamDocument<Document>> cursor = mongoDatabase
+                    .watch(createPipeline())
+                    .maxAwaitTime(maxAwaitTimeInMillis, TimeUnit.MILLISECONDS)
+                    .iterator()) {
+
+                definitionCache.invalidateAll();
+
+                while (!isInterrupted) {
+                    ChangeStreamDocument<Document> changeStreamDocument = cursor.tryNext();
+                    if (changeStreamDocument != null && changeStreamDocument.getNamespace() != null) {
+                        String collection = changeStreamDocument.getNamespace().getCollectionName();
+                        LOGGER.debug("definition change {} in {}, invalidating the definition cache", changeStreamDocument.getOperationType(), collection);
+                        definitionCache.invalidate(collection);
+                    }
+                }
+
+            } catch (MongoException e) {
+                if (!isInterrupted) {
+                    LOGGER.warn("definition change stream failed, reopening in {} ms", reopenWaitTimeInMillis, e);
+                    definitionCache.invalidateAll();
+                    waitBeforeReopen();
+                }
+            }
+        }
+
+        LOGGER.info("stopped watching the {} collections", definitionCache.getCollections());
+    }
+
+    protected List<Bson> createPipeline() {
+        return Collections.singletonList(Aggregates.match(Filters.in("ns.coll", new ArrayList<>(definitionCache.getCollections()))));
+    }
+
+    protected void waitBeforeReopen() {
+        try {
+            Thread.sleep(reopenWaitTimeInMillis);
+        } catch (InterruptedException e) {
+            isInterrupted = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        isInterrupted = true;
+    }
+
+    public long getMaxAwaitTimeInMillis() {
+        return maxAwaitTimeInMillis;
+    }
+
+    public void setMaxAwaitTimeInMillis(long maxAwaitTimeInMillis) {
+        this.maxAwaitTimeInMillis = maxAwaitTimeInMillis;
+    }
+
+    public long getReopenWaitTimeInMillis() {
+        return reopenWaitTimeInMillis;
+    }
+
+    public void setReopenWaitTimeInMillis(long reopenWaitTimeInMillis) {
+        this.reopenWaitTimeInMillis = reopenWaitTimeInMillis;
+    }
+
+}
@@ -0,0 +1,200 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.flowable.common.engine.impl.persistence.cache.CachedEntity;
+import org.flowable.common.engine.impl.persistence.cache.CachedEntityMatcher;
+import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+/**
+ * {@link EntityCacheImpl} that keeps hash indexes on fields of the cached entities (e.g. the parent id of executions),
+ * so the lookups of the {@link org.flowable.mongodb.persistence.MongoDbSession} with a {@link CachedEntityMatcher}
+ * only need to check the entities with the matching value, instead of all cached entities of the type.
+ * Without it, e.g. fetching the children of every execution of a large multi instance is quadratic in the number of executions.
+ *
+ * An entity is indexed when it is put in the cache. Changes of the indexed fields afterwards are picked up
+ * through {@link MongoDbIndexedEntity}: when an entity of an indexed type can't notify its changes, the index is no longer used.
+ *
+ * When change tracking is enabled, a {@link MongoDbChangeTrackedEntity} is cached without taking its persistent state,
+ * and is only compared with its original state at flush time when one of its setters was called.
+ * Other entities keep the default behaviour of comparing the persistent state of every cached entity.
+ */
+public class MongoDbEntityCache extends EntityCacheImpl {
+
+    protected List<MongoDbEntityCacheIndex> indexes;
+
+    /**
+     * Per index name: indexed value -> (entity id -> cached entity).
+     */
+    protected Map<String, Map<String, Map<String, CachedEntity>>> indexEntries = new HashMap<>();
+
+    /**
+     * Per index name: entity id -> the value the entity is indexed with.
+     */
+    protected Map<String, Map<String, String>> indexedValues = new HashMap<>();
+
+    protected Set<String> disabledIndexes = new HashSet<>();
+
+    protected boolean changeTrackingEnabled;
+
+    public MongoDbEntityCache(List<MongoDbEntityCacheIndex> indexes) {
+        this(indexes, false);
+    }
+
+    public MongoDbEntityCache(List<MongoDbEntityCacheIndex> indexes, boolean changeTrackingEnabled) {
+        this.indexes = indexes;
+        this.changeTrackingEnabled = changeTrackingEnabled;
+        for (MongoDbEntityCacheIndex index : indexes) {
+            indexEntries.put(index.getName(), new HashMap<>());
+            indexedValues.put(index.getName(), new HashMap<>());
+        }
+    }
+
+    @Override
+    public CachedEntity put(Entity entity, boolean storeState) {
+        CachedEntity cachedEntity;
+        if (changeTrackingEnabled && entity instanceof MongoDbChangeTrackedEntity) {
+            cachedEntity = putChangeTracked((MongoDbChangeTrackedEntity) entity, storeState);
+        } else {
+            cachedEntity = super.put(entity, storeState);
+        }
+
+        for (MongoDbEntityCacheIndex index : indexes) {
+            if (index.isIndexed(entity) && !disabledIndexes.contains(index.getName())) {
+                if (entity instanceof MongoDbIndexedEntity) {
+                    ((MongoDbIndexedEntity) entity).setIndexingEntityCache(this);
+                    addToIndex(index, cachedEntity);
+                } else {
+                    disableIndex(index);
+                }
+            }
+        }
+        return cachedEntity;
+    }
+
+    protected CachedEntity putChangeTracked(MongoDbChangeTrackedEntity entity, boolean storeState) {
+        CachedEntity cachedEntity = new MongoDbChangeTrackedCachedEntity(entity, storeState);
+        cachedObjects.computeIfAbsent(entity.getClass(), key -> new HashMap<>()).put(entity.getId(), cachedEntity);
+        return cachedEntity;
+    }
+
+    /**
+     * Called by a {@link MongoDbIndexedEntity} when one of its indexed fields has changed.
+     */
+    public void reindex(Entity entity) {
+        for (MongoDbEntityCacheIndex index : indexes) {
+            if (!index.isIndexed(entity) || disabledIndexes.contains(index.getName())) {
+                continue;
+            }
+
+            Map<String, String> values = indexedValues.get(index.getName());
+            if (!values.containsKey(entity.getId())) {
+                continue; // not (or no longer) cached
+            }
+
+            String indexedValue = values.get(entity.getId());
+            String value = index.getValue(entity);
+            if (!Objects.equals(indexedValue, value)) {
+                CachedEntity cachedEntity = indexEntries.get(index.getName()).get(indexedValue).get(entity.getId());
+                if (cachedEntity.getEntity() == entity) { // the entity could have been replaced in the cache by another instance
+                    removeFromIndex(index, entity.getId());
+                    addToIndex(index, cachedEntity);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void cacheRemove(Class<?> entityClass, String entityId) {
+        super.cacheRemove(entityClass, entityId);
+        for (MongoDbEntityCacheIndex index : indexes) {
+            if (index.getEntityClass().isAssignableFrom(entityClass) || entityClass.isAssignableFrom(index.getEntityClass())) {
+                removeFromIndex(index, entityId);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached entities that can be retained by the matcher, by probing the index that can answer the matcher.
+     * Returns null when no index can answer the matcher, in which case all cached entities of the type need to be checked.
+     */
+    public Collection<CachedEntity> findIndexedCachedObjects(Class<?> entityClass, CachedEntityMatcher<?> matcher, Object parameter) {
+        if (matcher == null || parameter == null) {
+            return null;
+        }
+
+        for (MongoDbEntityCacheIndex index : indexes) {
+            Function<Object, String> parameterValueProvider = index.getParameterValueProvider(matcher);
+            if (parameterValueProvider != null && index.getEntityClass().isAssignableFrom(entityClass) && !disabledIndexes.contains(index.getName())) {
+                String value = parameterValueProvider.apply(parameter);
+                if (value == null) {
+                    return null;
+                }
+
+                Map<String, CachedEntity> cachedEntities = indexEntries.get(index.getName()).get(value);
+                return cachedEntities != null ? new ArrayList<>(cachedEntities.values()) : Collections.emptyList();
+            }
+        }
+        return null;
+    }
+
+    public boolean isChangeTrackingEnabled() {
+        return changeTrackingEnabled;
+    }
+
+    protected void addToIndex(MongoDbEntityCacheIndex index, CachedEntity cachedEntity) {
+        String id = cachedEntity.getEntity().getId();
+        String value = index.getValue(cachedEntity.getEntity());
+
+        removeFromIndex(index, id); // a new instance of an already cached entity replaces the previous one
+        indexEntries.get(index.getName()).computeIfAbsent(value, key -> new LinkedHashMap<>()).put(id, cachedEntity);
+        indexedValues.get(index.getName()).put(id, value);
+    }
+
+    protected void removeFromIndex(MongoDbEntityCacheIndex index, String id) {
+        Map<String, String> values = indexedValues.get(index.getName());
+        if (!values.containsKey(id)) {
+            return;
+        }
+
+        String value = values.remove(id);
+        Map<String, Map<String, CachedEntity>> entries = indexEntries.get(index.getName());
+        Map<String, CachedEntity> cachedEntities = entries.get(value);
+        if (cachedEntities != null) {
+            cachedEntities.remove(id);
+            if (cachedEntities.isEmpty()) {
+                entries.remove(value);
+            }
+        }
+    }
+
+    protected void disableIndex(MongoDbEntityCacheIndex index) {
+        disabledIndexes.add(index.getName());
+        indexEntries.get(index.getName()).clear();
+        indexedValues.get(index.getName()).clear();
+    }
+
+}
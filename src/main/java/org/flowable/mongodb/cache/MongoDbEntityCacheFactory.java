@@ -0,0 +1,99 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.interceptor.Session;
+import org.flowable.common.engine.impl.interceptor.SessionFactory;
+import org.flowable.common.engine.impl.persistence.cache.EntityCache;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionByProcessInstanceMatcher;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionsByParentExecutionIdEntityMatcher;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionsByProcessInstanceIdEntityMatcher;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionsByRootProcessInstanceMatcher;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.InactiveExecutionsByProcInstMatcher;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.InactiveExecutionsInActivityAndProcInstMatcher;
+import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntity;
+import org.flowable.variable.service.impl.persistence.entity.data.impl.cachematcher.VariableInstanceByExecutionIdMatcher;
+
+/**
+ * Opens a {@link MongoDbEntityCache} as the {@link EntityCache} of every command.
+ */
+public class MongoDbEntityCacheFactory implements SessionFactory {
+
+    protected List<MongoDbEntityCacheIndex> indexes;
+    protected boolean changeTrackingEnabled;
+
+    public MongoDbEntityCacheFactory() {
+        this(createDefaultIndexes());
+    }
+
+    public MongoDbEntityCacheFactory(List<MongoDbEntityCacheIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * The indexes for the cache matchers used by the execution and variable instance data managers.
+     */
+    public static List<MongoDbEntityCacheIndex> createDefaultIndexes() {
+        List<MongoDbEntityCacheIndex> indexes = new ArrayList<>();
+
+        indexes.add(new MongoDbEntityCacheIndex("executionParentId", ExecutionEntity.class, entity -> ((ExecutionEntity) entity).getParentId())
+                .addMatcher(ExecutionsByParentExecutionIdEntityMatcher.class, parameter -> (String) parameter));
+
+        indexes.add(new MongoDbEntityCacheIndex("executionProcessInstanceId", ExecutionEntity.class, entity -> ((ExecutionEntity) entity).getProcessInstanceId())
+                .addMatcher(ExecutionsByProcessInstanceIdEntityMatcher.class, parameter -> (String) parameter)
+                .addMatcher(ExecutionByProcessInstanceMatcher.class, parameter -> (String) parameter)
+                .addMatcher(InactiveExecutionsByProcInstMatcher.class, parameter -> (String) ((Map<?, ?>) parameter).get("processInstanceId"))
+                .addMatcher(InactiveExecutionsInActivityAndProcInstMatcher.class, parameter -> (String) ((Map<?, ?>) parameter).get("processInstanceId")));
+
+        indexes.add(new MongoDbEntityCacheIndex("executionRootProcessInstanceId", ExecutionEntity.class, entity -> ((ExecutionEntity) entity).getRootProcessInstanceId())
+                .addMatcher(ExecutionsByRootProcessInstanceMatcher.class, parameter -> (String) parameter));
+
+        indexes.add(new MongoDbEntityCacheIndex("variableExecutionId", VariableInstanceEntity.class, entity -> ((VariableInstanceEntity) entity).getExecutionId())
+                .addMatcher(VariableInstanceByExecutionIdMatcher.class, parameter -> (String) parameter));
+
+        return indexes;
+    }
+
+    @Override
+    public Class<?> getSessionType() {
+        return EntityCache.class;
+    }
+
+    @Override
+    public Session openSession(CommandContext commandContext) {
+        return new MongoDbEntityCache(indexes, changeTrackingEnabled);
+    }
+
+    public List<MongoDbEntityCacheIndex> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<MongoDbEntityCacheIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    public boolean isChangeTrackingEnabled() {
+        return changeTrackingEnabled;
+    }
+
+    public void setChangeTrackingEnabled(boolean changeTrackingEnabled) {
+        this.changeTrackingEnabled = changeTrackingEnabled;
+    }
+
+}
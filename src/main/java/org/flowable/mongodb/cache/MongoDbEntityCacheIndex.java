@@ -0,0 +1,71 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.flowable.common.engine.impl.persistence.cache.CachedEntityMatcher;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+/**
+ * Definition of an index of the {@link MongoDbEntityCache} on one field of an entity type,
+ * together with the {@link CachedEntityMatcher}s that can be answered by probing it.
+ *
+ * A matcher can only be added when it retains an entity solely based on the entity itself
+ * and when it never retains an entity of which the field differs from the value derived from the matcher parameter,
+ * as the matcher then only gets the entities with that value (and not all cached entities).
+ */
+public class MongoDbEntityCacheIndex {
+
+    protected String name;
+    protected Class<? extends Entity> entityClass;
+    protected Function<Entity, String> valueProvider;
+    protected Map<Class<?>, Function<Object, String>> matcherParameterValueProviders = new HashMap<>();
+
+    public MongoDbEntityCacheIndex(String name, Class<? extends Entity> entityClass, Function<Entity, String> valueProvider) {
+        this.name = name;
+        this.entityClass = entityClass;
+        this.valueProvider = valueProvider;
+    }
+
+    public MongoDbEntityCacheIndex addMatcher(Class<? extends CachedEntityMatcher<?>> matcherClass, Function<Object, String> parameterValueProvider) {
+        matcherParameterValueProviders.put(matcherClass, parameterValueProvider);
+        return this;
+    }
+
+    public boolean isIndexed(Entity entity) {
+        return entityClass.isInstance(entity);
+    }
+
+    public String getValue(Entity entity) {
+        return valueProvider.apply(entity);
+    }
+
+    /**
+     * Returns the function deriving the indexed value from the parameter of the matcher, or null when this index can't answer the matcher.
+     */
+    public Function<Object, String> getParameterValueProvider(CachedEntityMatcher<?> matcher) {
+        return matcherParameterValueProviders.get(matcher.getClass());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<? extends Entity> getEntityClass() {
+        return entityClass;
+    }
+
+}
@@ -51,7 +51,7 @@ public class MongoDbJobServiceConfiguration extends JobServiceConfiguration {
             this.deadLetterJobDataManager = mongoDbDeadLetterJobDataManager;
         }
         if (externalWorkerJobDataManager == null) {
-            MongoDbExternalWorkerJobDataManager mongoDbExternalWorkerJobDataManager = new MongoDbExternalWorkerJobDataManager();
+            MongoDbExternalWorkerJobDataManager mongoDbExternalWorkerJobDataManager = new MongoDbExternalWorkerJobDataManager(this);
             this.externalWorkerJobDataManager = mongoDbExternalWorkerJobDataManager;
         }
 
@@ -15,22 +15,44 @@ package org.flowable.mongodb.cfg;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
 import org.flowable.common.engine.api.scope.ScopeTypes;
 import org.flowable.common.engine.impl.interceptor.CommandInterceptor;
 import org.flowable.common.engine.impl.persistence.GenericManagerFactory;
-import org.flowable.common.engine.impl.persistence.StrongUuidGenerator;
 import org.flowable.common.engine.impl.persistence.cache.EntityCache;
 import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
 import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.flowable.eventsubscription.service.EventSubscriptionServiceConfiguration;
 import org.flowable.identitylink.service.IdentityLinkServiceConfiguration;
 import org.flowable.job.service.JobServiceConfiguration;
+import org.flowable.mongodb.cache.MongoDbChangeTrackedEntity;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
+import org.flowable.mongodb.cache.MongoDbDefinitionCacheChangeStreamWatcher;
+import org.flowable.mongodb.cache.MongoDbEntityCache;
+import org.flowable.mongodb.cache.MongoDbEntityCacheFactory;
+import org.flowable.mongodb.job.MongoDbAsyncExecutor;
+import org.flowable.mongodb.job.MongoDbExternalWorkerJobLongPoll;
+import org.flowable.mongodb.persistence.MongoDbSession;
 import org.flowable.mongodb.persistence.MongoDbSessionFactory;
+import org.flowable.mongodb.persistence.aggregate.ExecutionAggregateBoundary;
+import org.flowable.mongodb.persistence.aggregate.MongoDbColocatedEntities;
+import org.flowable.mongodb.persistence.aggregate.MongoDbEmbeddedAggregate;
+import org.flowable.mongodb.persistence.compression.DeflatePayloadCompressor;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompression;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompressionStatistics;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompressor;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
+import org.flowable.mongodb.persistence.id.MongoDbIdStrategy;
+import org.flowable.mongodb.persistence.id.ObjectIdFieldConverter;
+import org.flowable.mongodb.persistence.id.ObjectIdStringCodec;
 import org.flowable.mongodb.persistence.manager.*;
 import org.flowable.mongodb.schema.MongoProcessSchemaManager;
 import org.flowable.mongodb.transaction.MongoDbTransactionContextFactory;
+import org.flowable.mongodb.transaction.MongoDbTransactionRetryInterceptor;
+import org.flowable.mongodb.transaction.MongoDbTransactionRetryPolicy;
 import org.flowable.task.service.TaskServiceConfiguration;
 import org.flowable.variable.service.VariableServiceConfiguration;
+import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntity;
 
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
@@ -50,6 +72,134 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
 
     protected MongoDbSessionFactory mongoDbSessionFactory;
 
+    /**
+     * When enabled, all changes of a flush are sent with one bulkWrite call per collection
+     * instead of one call per inserted class, updated entity and deleted entity.
+     */
+    protected boolean bulkWriteFlushEnabled;
+
+    /**
+     * The number of documents fetched per round trip by the streaming cursors of the {@link MongoDbSession},
+     * which are used for the queries that can return a large number of documents (e.g. when cleaning up history).
+     */
+    protected int cursorBatchSize = 1000;
+
+    /**
+     * When enabled, the data managers announce the ids of related entities (e.g. the executions of the tasks of a process instance)
+     * to the {@link MongoDbSession}, which loads them with one query on the first lookup by id instead of one query per id.
+     */
+    protected boolean findByIdBatchingEnabled;
+
+    /**
+     * When enabled, the executions, tasks, variables, jobs and historic activities are decoded from and encoded to BSON
+     * by the entity codecs registered on the database, instead of going through an intermediate Document.
+     * See {@link MongoDbSessionFactory#registerDefaultEntityCodecs()}.
+     */
+    protected boolean entityCodecsEnabled;
+
+    /**
+     * The format of the ids of new entities, used when no id generator is set. Random UUIDs by default;
+     * the time ordered strategies keep the entities created after each other close together in the indexes.
+     */
+    protected MongoDbIdStrategy idStrategy = MongoDbIdStrategy.RANDOM_UUID;
+
+    /**
+     * When enabled, ObjectId hex string ids (and the foreign keys holding them) are stored as 12 byte ObjectIds instead of 24 character strings,
+     * while they're still strings for the engine. Only the id and foreign key fields are converted, free text fields stay strings.
+     * Requires the {@link MongoDbIdStrategy#OBJECT_ID} id strategy and a new database, see {@link ObjectIdFieldConverter} and {@link ObjectIdStringCodec}.
+     */
+    protected boolean binaryIdStorageEnabled;
+
+    /**
+     * When set, the child executions are embedded in the document of their process instance (or root process instance),
+     * so an execution tree is read and written as one document. Null (the default) stores every execution as a document of its own.
+     * See {@link MongoDbEmbeddedAggregate}.
+     */
+    protected ExecutionAggregateBoundary executionAggregateBoundary;
+
+    /**
+     * The size in bytes up to which executions are embedded in their aggregate document. Executions created beyond it are stored
+     * as a document of their own, which keeps the aggregate document well below the 16 MB document limit.
+     */
+    protected long maxEmbeddedExecutionsSize = 12L * 1024 * 1024;
+
+    /**
+     * When enabled, the variables of an execution or task are stored in the execution or task document, keyed by variable id,
+     * so they're read together with it and all changes of a flush are one update of the document. See {@link MongoDbColocatedEntities}.
+     * The variables of executions and tasks created before enabling this stay in the variables collection.
+     * Can't be combined with an {@link #executionAggregateBoundary}.
+     */
+    protected boolean colocatedVariablesEnabled;
+
+    /**
+     * When enabled, the bytes of deployment resources and job byte arrays larger than the {@link #gridFsThresholdInBytes}
+     * are stored in a GridFS bucket, with only a reference in the document. They're downloaded when they're used.
+     * See {@link MongoDbGridFsStorage}.
+     */
+    protected boolean gridFsStorageEnabled;
+    protected int gridFsThresholdInBytes = 256 * 1024;
+    protected String gridFsBucketName = MongoDbGridFsStorage.DEFAULT_BUCKET_NAME;
+
+    /**
+     * When enabled, byte array bytes and variable text values of at least {@link #payloadCompressionThresholdInBytes}
+     * are compressed by the compressor named {@link #payloadCompressorName}. See {@link MongoDbPayloadCompression}.
+     * Compressed payloads stay readable after disabling it again. Compressors besides the built-in deflate are registered
+     * from the {@link #customPayloadCompressors} and with the {@link java.util.ServiceLoader}.
+     */
+    protected boolean payloadCompressionEnabled;
+    protected int payloadCompressionThresholdInBytes = 1024;
+    protected String payloadCompressorName = DeflatePayloadCompressor.NAME;
+    protected List<MongoDbPayloadCompressor> customPayloadCompressors;
+
+    /**
+     * When enabled, the documents of process definitions, deployments and deployment resources are cached
+     * over commands in the {@link MongoDbDefinitionCache}, so looking them up (e.g. the latest process definition for a key)
+     * doesn't need a round trip. Writes of this engine invalidate the cache; changes of other nodes are only seen
+     * when the definition cache change stream is enabled too.
+     */
+    protected boolean definitionCacheEnabled;
+    protected int definitionCacheSize = 1000;
+    protected boolean definitionCacheChangeStreamEnabled;
+    protected MongoDbDefinitionCache definitionCache;
+
+    /**
+     * When enabled, the {@link MongoDbEntityCache} is used as the entity cache of every command,
+     * which indexes the cached executions and variables so the lookups of e.g. the child executions of an execution don't scan the whole cache.
+     */
+    protected boolean indexedEntityCacheEnabled = true;
+
+    /**
+     * When enabled (and the indexed entity cache is used), executions and variables record their changes through their setters,
+     * so at flush time only the changed ones are compared with their original state instead of every cached entity.
+     * See {@link MongoDbChangeTrackedEntity}.
+     */
+    protected boolean changeTrackingEnabled;
+
+    /**
+     * When enabled, commands failing with a TransientTransactionError are executed again
+     * and commits with an unknown result are retried, as defined by the {@link MongoDbTransactionRetryPolicy}.
+     * Disabled by default: a command is executed again as a whole, so everything it does outside of the transaction
+     * (e.g. service tasks calling external systems, listeners, sending mail) must be idempotent when enabling this.
+     */
+    protected boolean transactionRetryEnabled;
+    protected MongoDbTransactionRetryPolicy transactionRetryPolicy;
+
+    /**
+     * When enabled (and no custom async executor is set), the {@link MongoDbAsyncExecutor}
+     * wakes up the async job acquisition through a change stream on the jobs collection.
+     */
+    protected boolean asyncExecutorChangeStreamEnabled;
+
+    /**
+     * The maximum number of expired jobs that are reset with one updateMany by the {@link MongoDbAsyncExecutor}.
+     */
+    protected int asyncExecutorResetExpiredJobsBatchSize = 1000;
+
+    /**
+     * Acquires external worker jobs waiting on a change stream until jobs become available, see {@link MongoDbExternalWorkerJobLongPoll}.
+     */
+    protected MongoDbExternalWorkerJobLongPoll externalWorkerJobLongPoll;
+    protected long externalWorkerJobLongPollMaxAwaitTime = 1000L;
 
     public MongoDbProcessEngineConfiguration() {
         this.usingRelationalDatabase = false;
@@ -67,8 +217,6 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
         this.performanceSettings.setEnableExecutionRelationshipCounts(true);
         this.performanceSettings.setEnableTaskRelationshipCounts(true);
 
-        this.idGenerator = new StrongUuidGenerator();
-
         this.disableEventRegistry = true;
     }
 
@@ -104,6 +252,15 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
 
         mongoDbSessionFactory.registerDataManager(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES, (AbstractMongoDbDataManager) variableServiceConfiguration.getVariableInstanceDataManager());
         mongoDbSessionFactory.registerDataManager(MongoDbHistoricVariableInstanceDataManager.COLLECTION_HISTORIC_VARIABLE_INSTANCES, (AbstractMongoDbDataManager) variableServiceConfiguration.getHistoricVariableInstanceDataManager());
+
+        initExternalWorkerJobLongPoll();
+    }
+
+    public void initExternalWorkerJobLongPoll() {
+        if (externalWorkerJobLongPoll == null) {
+            externalWorkerJobLongPoll = new MongoDbExternalWorkerJobLongPoll(mongoDatabase);
+            externalWorkerJobLongPoll.setMaxAwaitTimeInMillis(externalWorkerJobLongPollMaxAwaitTime);
+        }
     }
 
     @Override
@@ -133,14 +290,44 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
     }
     @Override
     public CommandInterceptor createTransactionInterceptor() {
+        // Note: the transaction itself is started in MongoDbSession
+        if (transactionRetryEnabled) {
+            initTransactionRetryPolicy();
+            return new MongoDbTransactionRetryInterceptor(transactionRetryPolicy);
+        }
         return null;
-//        return new MongoDbTransactionInterceptor(mongoClient); --> commented out, transaction is started in MongoDbSession
+    }
+
+    @Override
+    public void initAsyncExecutor() {
+        if (asyncExecutor == null) {
+            initNonRelationalDataSource();
+            MongoDbAsyncExecutor mongoDbAsyncExecutor = new MongoDbAsyncExecutor(mongoDatabase, asyncExecutorConfiguration);
+            mongoDbAsyncExecutor.setJobChangeStreamEnabled(asyncExecutorChangeStreamEnabled);
+            mongoDbAsyncExecutor.setResetExpiredJobsBatchSize(asyncExecutorResetExpiredJobsBatchSize);
+            if (asyncExecutorExecuteAsyncRunnableFactory != null) {
+                mongoDbAsyncExecutor.setExecuteAsyncRunnableFactory(asyncExecutorExecuteAsyncRunnableFactory);
+            }
+            this.asyncExecutor = mongoDbAsyncExecutor;
+        }
+        super.initAsyncExecutor();
     }
 
     @Override
     public void initTransactionContextFactory() {
         if (transactionContextFactory == null) {
-            transactionContextFactory = new MongoDbTransactionContextFactory();
+            if (transactionRetryEnabled) {
+                initTransactionRetryPolicy();
+                transactionContextFactory = new MongoDbTransactionContextFactory(transactionRetryPolicy);
+            } else {
+                transactionContextFactory = new MongoDbTransactionContextFactory();
+            }
+        }
+    }
+
+    public void initTransactionRetryPolicy() {
+        if (transactionRetryPolicy == null) {
+            transactionRetryPolicy = new MongoDbTransactionRetryPolicy();
         }
     }
 
@@ -220,7 +407,13 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
             this.customSessionFactories = new ArrayList<>();
         }
 
-        this.customSessionFactories.add(new GenericManagerFactory(EntityCache.class, EntityCacheImpl.class));
+        if (indexedEntityCacheEnabled) {
+            MongoDbEntityCacheFactory entityCacheFactory = new MongoDbEntityCacheFactory();
+            entityCacheFactory.setChangeTrackingEnabled(changeTrackingEnabled);
+            this.customSessionFactories.add(entityCacheFactory);
+        } else {
+            this.customSessionFactories.add(new GenericManagerFactory(EntityCache.class, EntityCacheImpl.class));
+        }
 
         initMongoDbSessionFactory();
         this.customSessionFactories.add(mongoDbSessionFactory);
@@ -231,6 +424,104 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
     public void initMongoDbSessionFactory() {
         if (this.mongoDbSessionFactory == null) {
             this.mongoDbSessionFactory = new MongoDbSessionFactory(mongoClient, mongoDatabase);
+            this.mongoDbSessionFactory.setBulkWriteFlushEnabled(bulkWriteFlushEnabled);
+            this.mongoDbSessionFactory.setCursorBatchSize(cursorBatchSize);
+            this.mongoDbSessionFactory.setFindByIdBatchingEnabled(findByIdBatchingEnabled);
+            this.mongoDbSessionFactory.setBinaryIdStorageEnabled(binaryIdStorageEnabled);
+            initDefinitionCache();
+            initEntityCodecs();
+            initBinaryIdStorage();
+            initEmbeddedExecutions();
+            initColocatedVariables();
+            initGridFsStorage();
+            initPayloadCompression();
+        }
+    }
+
+    public void initGridFsStorage() {
+        if (!gridFsStorageEnabled) {
+            return;
+        }
+        MongoDbGridFsStorage gridFsStorage = new MongoDbGridFsStorage(mongoDatabase, gridFsBucketName, gridFsThresholdInBytes);
+        gridFsStorage.registerCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY, "bytes");
+        gridFsStorage.registerCollection(MongoDbJobByteArrayDataManager.COLLECTION_JOB_BYTE_ARRAY, "bytes");
+        mongoDbSessionFactory.setGridFsStorage(gridFsStorage);
+    }
+
+    public void initPayloadCompression() {
+        MongoDbPayloadCompression payloadCompression = mongoDbSessionFactory.getPayloadCompression();
+        payloadCompression.registerServiceLoaderCompressors(classLoader != null ? classLoader : getClass().getClassLoader());
+        if (customPayloadCompressors != null) {
+            for (MongoDbPayloadCompressor customPayloadCompressor : customPayloadCompressors) {
+                payloadCompression.registerCompressor(customPayloadCompressor);
+            }
+        }
+
+        if (payloadCompressionEnabled) {
+            payloadCompression.setCompressor(payloadCompression.getCompressor(payloadCompressorName));
+            payloadCompression.setThresholdInBytes(payloadCompressionThresholdInBytes);
+        }
+    }
+
+    public void initColocatedVariables() {
+        if (!colocatedVariablesEnabled) {
+            return;
+        }
+        if (executionAggregateBoundary != null) {
+            throw new FlowableIllegalArgumentException("Colocated variables can't be combined with embedded executions");
+        }
+        mongoDbSessionFactory.registerColocatedEntities(new MongoDbColocatedEntities(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES, "variables")
+                .addOwner(MongoDbTaskDataManager.COLLECTION_TASKS, entity -> ((VariableInstanceEntity) entity).getTaskId())
+                .addOwner(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, entity -> ((VariableInstanceEntity) entity).getExecutionId()));
+    }
+
+    public void initEmbeddedExecutions() {
+        if (executionAggregateBoundary == null) {
+            return;
+        }
+        mongoDbSessionFactory.registerEmbeddedAggregate(new MongoDbEmbeddedAggregate(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS,
+                MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS, executionAggregateBoundary::getAggregateId, maxEmbeddedExecutionsSize));
+    }
+
+    public void initEntityCodecs() {
+        if (!entityCodecsEnabled) {
+            return;
+        }
+        mongoDbSessionFactory.registerDefaultEntityCodecs();
+        this.mongoDatabase = mongoDatabase.withCodecRegistry(mongoDbSessionFactory.createCodecRegistry(mongoDatabase.getCodecRegistry()));
+        mongoDbSessionFactory.setMongoDatabase(mongoDatabase);
+    }
+
+    public void initBinaryIdStorage() {
+        if (!binaryIdStorageEnabled) {
+            return;
+        }
+        if (idStrategy != MongoDbIdStrategy.OBJECT_ID) {
+            throw new FlowableIllegalArgumentException("Binary id storage requires the " + MongoDbIdStrategy.OBJECT_ID + " id strategy, but it is " + idStrategy);
+        }
+        this.mongoDatabase = mongoDatabase.withCodecRegistry(ObjectIdStringCodec.createCodecRegistry(mongoDatabase.getCodecRegistry()));
+        mongoDbSessionFactory.setMongoDatabase(mongoDatabase);
+    }
+
+    @Override
+    public void initIdGenerator() {
+        if (idGenerator == null) {
+            idGenerator = idStrategy.createIdGenerator();
+        }
+        super.initIdGenerator();
+    }
+
+    public void initDefinitionCache() {
+        if (!definitionCacheEnabled) {
+            return;
+        }
+        if (definitionCache == null) {
+            definitionCache = new MongoDbDefinitionCache(definitionCacheSize);
+        }
+        mongoDbSessionFactory.setDefinitionCache(definitionCache);
+
+        if (definitionCacheChangeStreamEnabled) {
+            addEngineLifecycleListener(new MongoDbDefinitionCacheChangeStreamWatcher(mongoDatabase, definitionCache));
         }
     }
 
@@ -301,4 +592,269 @@ public class MongoDbProcessEngineConfiguration extends ProcessEngineConfiguratio
         return this;
     }
 
+    public boolean isBulkWriteFlushEnabled() {
+        return bulkWriteFlushEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setBulkWriteFlushEnabled(boolean bulkWriteFlushEnabled) {
+        this.bulkWriteFlushEnabled = bulkWriteFlushEnabled;
+        return this;
+    }
+
+    public int getCursorBatchSize() {
+        return cursorBatchSize;
+    }
+
+    public MongoDbProcessEngineConfiguration setCursorBatchSize(int cursorBatchSize) {
+        this.cursorBatchSize = cursorBatchSize;
+        return this;
+    }
+
+    public boolean isFindByIdBatchingEnabled() {
+        return findByIdBatchingEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setFindByIdBatchingEnabled(boolean findByIdBatchingEnabled) {
+        this.findByIdBatchingEnabled = findByIdBatchingEnabled;
+        return this;
+    }
+
+    public boolean isEntityCodecsEnabled() {
+        return entityCodecsEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setEntityCodecsEnabled(boolean entityCodecsEnabled) {
+        this.entityCodecsEnabled = entityCodecsEnabled;
+        return this;
+    }
+
+    public MongoDbIdStrategy getIdStrategy() {
+        return idStrategy;
+    }
+
+    public MongoDbProcessEngineConfiguration setIdStrategy(MongoDbIdStrategy idStrategy) {
+        this.idStrategy = idStrategy;
+        return this;
+    }
+
+    public boolean isBinaryIdStorageEnabled() {
+        return binaryIdStorageEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setBinaryIdStorageEnabled(boolean binaryIdStorageEnabled) {
+        this.binaryIdStorageEnabled = binaryIdStorageEnabled;
+        return this;
+    }
+
+    public ExecutionAggregateBoundary getExecutionAggregateBoundary() {
+        return executionAggregateBoundary;
+    }
+
+    public MongoDbProcessEngineConfiguration setExecutionAggregateBoundary(ExecutionAggregateBoundary executionAggregateBoundary) {
+        this.executionAggregateBoundary = executionAggregateBoundary;
+        return this;
+    }
+
+    public long getMaxEmbeddedExecutionsSize() {
+        return maxEmbeddedExecutionsSize;
+    }
+
+    public MongoDbProcessEngineConfiguration setMaxEmbeddedExecutionsSize(long maxEmbeddedExecutionsSize) {
+        this.maxEmbeddedExecutionsSize = maxEmbeddedExecutionsSize;
+        return this;
+    }
+
+    public boolean isColocatedVariablesEnabled() {
+        return colocatedVariablesEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setColocatedVariablesEnabled(boolean colocatedVariablesEnabled) {
+        this.colocatedVariablesEnabled = colocatedVariablesEnabled;
+        return this;
+    }
+
+    public boolean isGridFsStorageEnabled() {
+        return gridFsStorageEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setGridFsStorageEnabled(boolean gridFsStorageEnabled) {
+        this.gridFsStorageEnabled = gridFsStorageEnabled;
+        return this;
+    }
+
+    public int getGridFsThresholdInBytes() {
+        return gridFsThresholdInBytes;
+    }
+
+    public MongoDbProcessEngineConfiguration setGridFsThresholdInBytes(int gridFsThresholdInBytes) {
+        this.gridFsThresholdInBytes = gridFsThresholdInBytes;
+        return this;
+    }
+
+    public String getGridFsBucketName() {
+        return gridFsBucketName;
+    }
+
+    public MongoDbProcessEngineConfiguration setGridFsBucketName(String gridFsBucketName) {
+        this.gridFsBucketName = gridFsBucketName;
+        return this;
+    }
+
+    public boolean isPayloadCompressionEnabled() {
+        return payloadCompressionEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setPayloadCompressionEnabled(boolean payloadCompressionEnabled) {
+        this.payloadCompressionEnabled = payloadCompressionEnabled;
+        return this;
+    }
+
+    public int getPayloadCompressionThresholdInBytes() {
+        return payloadCompressionThresholdInBytes;
+    }
+
+    public MongoDbProcessEngineConfiguration setPayloadCompressionThresholdInBytes(int payloadCompressionThresholdInBytes) {
+        this.payloadCompressionThresholdInBytes = payloadCompressionThresholdInBytes;
+        return this;
+    }
+
+    public String getPayloadCompressorName() {
+        return payloadCompressorName;
+    }
+
+    public MongoDbProcessEngineConfiguration setPayloadCompressorName(String payloadCompressorName) {
+        this.payloadCompressorName = payloadCompressorName;
+        return this;
+    }
+
+    public List<MongoDbPayloadCompressor> getCustomPayloadCompressors() {
+        return customPayloadCompressors;
+    }
+
+    public MongoDbProcessEngineConfiguration setCustomPayloadCompressors(List<MongoDbPayloadCompressor> customPayloadCompressors) {
+        this.customPayloadCompressors = customPayloadCompressors;
+        return this;
+    }
+
+    /**
+     * The counters (and compression ratio) of the payload compression, available once the engine is built.
+     */
+    public MongoDbPayloadCompressionStatistics getPayloadCompressionStatistics() {
+        return mongoDbSessionFactory != null ? mongoDbSessionFactory.getPayloadCompression().getStatistics() : null;
+    }
+
+    public boolean isDefinitionCacheEnabled() {
+        return definitionCacheEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setDefinitionCacheEnabled(boolean definitionCacheEnabled) {
+        this.definitionCacheEnabled = definitionCacheEnabled;
+        return this;
+    }
+
+    public int getDefinitionCacheSize() {
+        return definitionCacheSize;
+    }
+
+    /**
+     * The maximum number of documents cached per collection of the definition cache.
+     */
+    public MongoDbProcessEngineConfiguration setDefinitionCacheSize(int definitionCacheSize) {
+        this.definitionCacheSize = definitionCacheSize;
+        return this;
+    }
+
+    public boolean isDefinitionCacheChangeStreamEnabled() {
+        return definitionCacheChangeStreamEnabled;
+    }
+
+    /**
+     * Watches the cached collections with a change stream, so changes of other engines are seen. Requires a replica set.
+     */
+    public MongoDbProcessEngineConfiguration setDefinitionCacheChangeStreamEnabled(boolean definitionCacheChangeStreamEnabled) {
+        this.definitionCacheChangeStreamEnabled = definitionCacheChangeStreamEnabled;
+        return this;
+    }
+
+    public MongoDbDefinitionCache getDefinitionCache() {
+        return definitionCache;
+    }
+
+    public MongoDbProcessEngineConfiguration setDefinitionCache(MongoDbDefinitionCache definitionCache) {
+        this.definitionCache = definitionCache;
+        return this;
+    }
+
+    public boolean isIndexedEntityCacheEnabled() {
+        return indexedEntityCacheEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setIndexedEntityCacheEnabled(boolean indexedEntityCacheEnabled) {
+        this.indexedEntityCacheEnabled = indexedEntityCacheEnabled;
+        return this;
+    }
+
+    public boolean isChangeTrackingEnabled() {
+        return changeTrackingEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setChangeTrackingEnabled(boolean changeTrackingEnabled) {
+        this.changeTrackingEnabled = changeTrackingEnabled;
+        return this;
+    }
+
+    public boolean isTransactionRetryEnabled() {
+        return transactionRetryEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setTransactionRetryEnabled(boolean transactionRetryEnabled) {
+        this.transactionRetryEnabled = transactionRetryEnabled;
+        return this;
+    }
+
+    public MongoDbTransactionRetryPolicy getTransactionRetryPolicy() {
+        return transactionRetryPolicy;
+    }
+
+    public MongoDbProcessEngineConfiguration setTransactionRetryPolicy(MongoDbTransactionRetryPolicy transactionRetryPolicy) {
+        this.transactionRetryPolicy = transactionRetryPolicy;
+        return this;
+    }
+
+    public boolean isAsyncExecutorChangeStreamEnabled() {
+        return asyncExecutorChangeStreamEnabled;
+    }
+
+    public MongoDbProcessEngineConfiguration setAsyncExecutorChangeStreamEnabled(boolean asyncExecutorChangeStreamEnabled) {
+        this.asyncExecutorChangeStreamEnabled = asyncExecutorChangeStreamEnabled;
+        return this;
+    }
+
+    public int getAsyncExecutorResetExpiredJobsBatchSize() {
+        return asyncExecutorResetExpiredJobsBatchSize;
+    }
+
+    public MongoDbProcessEngineConfiguration setAsyncExecutorResetExpiredJobsBatchSize(int asyncExecutorResetExpiredJobsBatchSize) {
+        this.asyncExecutorResetExpiredJobsBatchSize = asyncExecutorResetExpiredJobsBatchSize;
+        return this;
+    }
+
+    public MongoDbExternalWorkerJobLongPoll getExternalWorkerJobLongPoll() {
+        return externalWorkerJobLongPoll;
+    }
+
+    public MongoDbProcessEngineConfiguration setExternalWorkerJobLongPoll(MongoDbExternalWorkerJobLongPoll externalWorkerJobLongPoll) {
+        this.externalWorkerJobLongPoll = externalWorkerJobLongPoll;
+        return this;
+    }
+
+    public long getExternalWorkerJobLongPollMaxAwaitTime() {
+        return externalWorkerJobLongPollMaxAwaitTime;
+    }
+
+    public MongoDbProcessEngineConfiguration setExternalWorkerJobLongPollMaxAwaitTime(long externalWorkerJobLongPollMaxAwaitTime) {
+        this.externalWorkerJobLongPollMaxAwaitTime = externalWorkerJobLongPollMaxAwaitTime;
+        return this;
+    }
+
 }
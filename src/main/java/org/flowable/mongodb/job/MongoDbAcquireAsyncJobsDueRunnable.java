@@ -0,0 +1,60 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.flowable.job.service.impl.asyncexecutor.AcquireAsyncJobsDueLifecycleListener;
+import org.flowable.job.service.impl.asyncexecutor.AcquireAsyncJobsDueRunnable;
+import org.flowable.job.service.impl.asyncexecutor.AcquireJobsRunnableConfiguration;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntity;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntityManager;
+
+/**
+ * {@link AcquireAsyncJobsDueRunnable} that can be woken up before its wait time has passed,
+ * e.g. when the {@link MongoDbJobChangeStreamWatcher} sees a new job.
+ */
+public class MongoDbAcquireAsyncJobsDueRunnable extends AcquireAsyncJobsDueRunnable {
+
+    protected final AtomicBoolean wakeUpRequested = new AtomicBoolean(false);
+
+    public MongoDbAcquireAsyncJobsDueRunnable(String name, AsyncExecutor asyncExecutor, JobInfoEntityManager<? extends JobInfoEntity> jobEntityManager,
+            AcquireAsyncJobsDueLifecycleListener lifecycleListener, AcquireJobsRunnableConfiguration configuration) {
+        super(name, asyncExecutor, jobEntityManager, lifecycleListener, configuration);
+    }
+
+    /**
+     * Wakes up the acquire thread when it's waiting. When it's busy acquiring,
+     * the next wait is skipped, as the new job possibly wasn't part of the current acquire cycle.
+     */
+    public void wakeUp() {
+        synchronized (MONITOR) {
+            wakeUpRequested.set(true);
+            MONITOR.notifyAll();
+        }
+    }
+
+    @Override
+    protected void sleep(long millisToWait) {
+        // Checking the flag and starting to wait happens while holding the monitor, so a wake up can't get lost in between
+        synchronized (MONITOR) {
+            if (wakeUpRequested.getAndSet(false)) {
+                return;
+            }
+            super.sleep(millisToWait);
+            wakeUpRequested.set(false);
+        }
+    }
+
+}
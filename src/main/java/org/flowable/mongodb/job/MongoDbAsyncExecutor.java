@@ -0,0 +1,127 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import org.flowable.job.service.impl.asyncexecutor.AsyncJobExecutorConfiguration;
+import org.flowable.job.service.impl.asyncexecutor.DefaultAsyncJobExecutor;
+import org.flowable.job.service.impl.asyncexecutor.ResetExpiredJobsRunnable;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntity;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntityManager;
+
+import com.mongodb.client.MongoDatabase;
+
+/**
+ * {@link DefaultAsyncJobExecutor} tailored to MongoDB:
+ * - Expired jobs are reset in bulk, see {@link MongoDbResetExpiredJobsRunnable}.
+ * - Optionally, the async job acquisition is woken up by a change stream on the jobs collection,
+ *   instead of only finding new jobs when the acquire wait time has passed. The polling stays in place as fallback.
+ *   Note that change streams require a replica set (which is also needed for the transactions).
+ */
+public class MongoDbAsyncExecutor extends DefaultAsyncJobExecutor {
+
+    protected MongoDatabase mongoDatabase;
+
+    protected boolean jobChangeStreamEnabled;
+    protected int resetExpiredJobsBatchSize = 1000;
+
+    protected MongoDbJobChangeStreamWatcher jobChangeStreamWatcher;
+    protected Thread jobChangeStreamWatcherThread;
+
+    public MongoDbAsyncExecutor(MongoDatabase mongoDatabase) {
+        this.mongoDatabase = mongoDatabase;
+    }
+
+    public MongoDbAsyncExecutor(MongoDatabase mongoDatabase, AsyncJobExecutorConfiguration configuration) {
+        super(configuration);
+        this.mongoDatabase = mongoDatabase;
+    }
+
+    @Override
+    protected void initializeRunnables() {
+        if (asyncJobsDueRunnable == null) {
+            String acquireJobsRunnableName = configuration.getAcquireRunnableThreadName() != null ? configuration.getAcquireRunnableThreadName()
+                    : "flowable-" + getJobServiceConfiguration().getEngineName() + "-acquire-async-jobs";
+            JobInfoEntityManager<? extends JobInfoEntity> jobEntityManagerToUse = jobEntityManager != null
+                    ? jobEntityManager : jobServiceConfiguration.getJobEntityManager();
+
+            asyncJobsDueRunnable = new MongoDbAcquireAsyncJobsDueRunnable(acquireJobsRunnableName, this, jobEntityManagerToUse,
+                    asyncJobsDueLifecycleListener, new AcquireAsyncJobsDueRunnableConfiguration());
+        }
+
+        super.initializeRunnables();
+    }
+
+    @Override
+    protected ResetExpiredJobsRunnable createResetExpiredJobsRunnable(String resetRunnableName) {
+        return new MongoDbResetExpiredJobsRunnable(resetRunnableName, this, resetExpiredJobsBatchSize,
+                jobServiceConfiguration.getJobEntityManager(),
+                jobServiceConfiguration.getTimerJobEntityManager(),
+                jobServiceConfiguration.getExternalWorkerJobEntityManager());
+    }
+
+    @Override
+    protected void startAdditionalComponents() {
+        super.startAdditionalComponents();
+
+        if (jobChangeStreamEnabled && configuration.isAsyncJobAcquisitionEnabled() && asyncJobsDueRunnable instanceof MongoDbAcquireAsyncJobsDueRunnable) {
+            if (jobChangeStreamWatcher == null) {
+                jobChangeStreamWatcher = new MongoDbJobChangeStreamWatcher(mongoDatabase, (MongoDbAcquireAsyncJobsDueRunnable) asyncJobsDueRunnable);
+            }
+            jobChangeStreamWatcherThread = new Thread(jobChangeStreamWatcher, "flowable-" + getJobServiceConfiguration().getEngineName() + "-watch-jobs");
+            jobChangeStreamWatcherThread.setDaemon(true);
+            jobChangeStreamWatcherThread.start();
+        }
+    }
+
+    @Override
+    protected void shutdownAdditionalComponents() {
+        if (jobChangeStreamWatcher != null) {
+            jobChangeStreamWatcher.stop();
+        }
+        if (jobChangeStreamWatcherThread != null) {
+            try {
+                jobChangeStreamWatcherThread.join(jobChangeStreamWatcher.getMaxAwaitTimeInMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jobChangeStreamWatcherThread = null;
+        }
+
+        super.shutdownAdditionalComponents();
+    }
+
+    public boolean isJobChangeStreamEnabled() {
+        return jobChangeStreamEnabled;
+    }
+
+    public void setJobChangeStreamEnabled(boolean jobChangeStreamEnabled) {
+        this.jobChangeStreamEnabled = jobChangeStreamEnabled;
+    }
+
+    public int getResetExpiredJobsBatchSize() {
+        return resetExpiredJobsBatchSize;
+    }
+
+    public void setResetExpiredJobsBatchSize(int resetExpiredJobsBatchSize) {
+        this.resetExpiredJobsBatchSize = resetExpiredJobsBatchSize;
+    }
+
+    public MongoDbJobChangeStreamWatcher getJobChangeStreamWatcher() {
+        return jobChangeStreamWatcher;
+    }
+
+    public void setJobChangeStreamWatcher(MongoDbJobChangeStreamWatcher jobChangeStreamWatcher) {
+        this.jobChangeStreamWatcher = jobChangeStreamWatcher;
+    }
+
+}
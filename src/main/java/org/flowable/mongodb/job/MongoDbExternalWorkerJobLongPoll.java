@@ -0,0 +1,167 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
+import org.flowable.common.engine.api.scope.ScopeTypes;
+import org.flowable.job.api.AcquiredExternalWorkerJob;
+import org.flowable.job.api.ExternalWorkerJobAcquireBuilder;
+import org.flowable.job.service.impl.ExternalWorkerJobAcquireBuilderImpl;
+import org.flowable.mongodb.persistence.manager.MongoDbExternalWorkerJobDataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+
+/**
+ * Long polling acquisition of external worker jobs: when no job is available,
+ * the calling thread blocks on a change stream on the external worker jobs collection
+ * until a job for the topic becomes available (inserted or its lock reset), or until the timeout has passed.
+ *
+ * This way, idle workers don't need to poll the database in a tight loop.
+ * The change stream is opened before the first acquire attempt, so a job created in between is never missed.
+ * Note that change streams require a replica set: when the change stream can't be opened or fails,
+ * the jobs are acquired once more without waiting.
+ *
+ * The long poll of an engine is available through {@link org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration#getExternalWorkerJobLongPoll()}:
+ * <pre>
+ * List&lt;AcquiredExternalWorkerJob&gt; jobs = processEngineConfiguration.getExternalWorkerJobLongPoll()
+ *         .acquireAndLock(managementService.createExternalWorkerJobAcquireBuilder().topic("myTopic", Duration.ofMinutes(5)),
+ *                 10, "worker1", Duration.ofSeconds(30));
+ * </pre>
+ */
+public class MongoDbExternalWorkerJobLongPoll {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbExternalWorkerJobLongPoll.class);
+
+    protected MongoDatabase mongoDatabase;
+
+    protected long maxAwaitTimeInMillis = 1000L;
+
+    public MongoDbExternalWorkerJobLongPoll(MongoDatabase mongoDatabase) {
+        this.mongoDatabase = mongoDatabase;
+    }
+
+    /**
+     * Acquires and locks up to numberOfJobs jobs for the topic of the builder, waiting at most the given timeout for jobs to become available.
+     * Returns an empty list when no job became available in time.
+     * As the max await time of the change stream cursor is fixed when it is opened, the last wait can overrun the timeout
+     * by at most the max await time (capped to the timeout).
+     */
+    public List<AcquiredExternalWorkerJob> acquireAndLock(ExternalWorkerJobAcquireBuilder acquireBuilder, int numberOfJobs, String workerId, Duration timeout) {
+        if (!(acquireBuilder instanceof ExternalWorkerJobAcquireBuilderImpl)) {
+            throw new FlowableIllegalArgumentException("Long polling is only supported for the default external worker job acquire builder");
+        }
+        if (timeout == null || timeout.isNegative()) {
+            throw new FlowableIllegalArgumentException("timeout must be a positive duration");
+        }
+
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+
+        MongoCursor<ChangeStreamDocument<Document>> cursor;
+        try {
+            cursor = openChangeStream((ExternalWorkerJobAcquireBuilderImpl) acquireBuilder, timeout.toMillis());
+        } catch (MongoException e) {
+            LOGGER.warn("Could not open a change stream on the external worker jobs (change streams require a replica set), "
+                    + "acquiring jobs for topic {} without waiting", ((ExternalWorkerJobAcquireBuilderImpl) acquireBuilder).getTopic(), e);
+            return acquireBuilder.acquireAndLock(numberOfJobs, workerId);
+        }
+
+        try {
+            List<AcquiredExternalWorkerJob> jobs = acquireBuilder.acquireAndLock(numberOfJobs, workerId);
+            while (jobs.isEmpty() && System.currentTimeMillis() < deadline) {
+                boolean jobChanged;
+                try {
+                    jobChanged = waitForJob(cursor, deadline);
+                } catch (MongoException e) {
+                    LOGGER.warn("The change stream on the external worker jobs failed while waiting for jobs for topic {}, "
+                            + "acquiring once more without waiting", ((ExternalWorkerJobAcquireBuilderImpl) acquireBuilder).getTopic(), e);
+                    return acquireBuilder.acquireAndLock(numberOfJobs, workerId);
+                }
+                if (jobChanged) {
+                    jobs = acquireBuilder.acquireAndLock(numberOfJobs, workerId);
+                }
+            }
+            return jobs;
+
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * The max await time of the cursor is capped to the timeout of the caller, as a getMore blocks for the max await time
+     * and would otherwise keep a caller with a short timeout waiting well beyond its deadline.
+     */
+    protected MongoCursor<ChangeStreamDocument<Document>> openChangeStream(ExternalWorkerJobAcquireBuilderImpl acquireBuilder, long timeoutInMillis) {
+        return mongoDatabase.getCollection(MongoDbExternalWorkerJobDataManager.COLLECTION_EXTERNAL_WORKER_JOBS)
+                .watch(createPipeline(acquireBuilder))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(getMaxAwaitTimeInMillis(timeoutInMillis), TimeUnit.MILLISECONDS)
+                .iterator();
+    }
+
+    protected long getMaxAwaitTimeInMillis(long timeoutInMillis) {
+        return Math.max(1L, Math.min(maxAwaitTimeInMillis, timeoutInMillis));
+    }
+
+    protected boolean waitForJob(MongoCursor<ChangeStreamDocument<Document>> cursor, long deadline) {
+        while (System.currentTimeMillis() < deadline) {
+            ChangeStreamDocument<Document> changeStreamDocument = cursor.tryNext();
+            if (changeStreamDocument != null) {
+                LOGGER.debug("external worker job change {} for job {}", changeStreamDocument.getOperationType(), changeStreamDocument.getDocumentKey());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected List<Bson> createPipeline(ExternalWorkerJobAcquireBuilderImpl acquireBuilder) {
+        List<Bson> jobFilters = new ArrayList<>();
+        jobFilters.add(Filters.eq("fullDocument.jobHandlerConfiguration", acquireBuilder.getTopic()));
+        jobFilters.add(Filters.eq("fullDocument.lockOwner", null));
+        if (acquireBuilder.getTenantId() != null) {
+            jobFilters.add(Filters.eq("fullDocument.tenantId", acquireBuilder.getTenantId()));
+        }
+        if (acquireBuilder.getScopeType() != null) {
+            jobFilters.add(Filters.eq("fullDocument.scopeType", ScopeTypes.BPMN.equals(acquireBuilder.getScopeType()) ? null : acquireBuilder.getScopeType()));
+        }
+        jobFilters.add(Filters.in("operationType", Arrays.asList("insert", "update", "replace")));
+
+        return Collections.singletonList(Aggregates.match(Filters.and(jobFilters)));
+    }
+
+    public long getMaxAwaitTimeInMillis() {
+        return maxAwaitTimeInMillis;
+    }
+
+    public void setMaxAwaitTimeInMillis(long maxAwaitTimeInMillis) {
+        this.maxAwaitTimeInMillis = maxAwaitTimeInMillis;
+    }
+
+}
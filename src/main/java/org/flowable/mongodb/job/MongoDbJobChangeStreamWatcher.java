@@ -0,0 +1,131 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.mongodb.persistence.manager.MongoDbJobDataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+/**
+ * Watches the jobs collection with a change stream and wakes up the acquire thread
+ * when a job becomes available: an unlocked job is inserted, or the lock of a job is reset.
+ *
+ * Changes that happen while the change stream is (re)opened are not seen: the regular polling of the acquire thread picks those up.
+ */
+public class MongoDbJobChangeStreamWatcher implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbJobChangeStreamWatcher.class);
+
+    protected MongoDatabase mongoDatabase;
+    protected MongoDbAcquireAsyncJobsDueRunnable acquireAsyncJobsDueRunnable;
+
+    protected long maxAwaitTimeInMillis = 1000L;
+    protected long reopenWaitTimeInMillis = 5000L;
+
+    protected volatile boolean isInterrupted;
+
+    public MongoDbJobChangeStreamWatcher(MongoDatabase mongoDatabase, MongoDbAcquireAsyncJobsDueRunnable acquireAsyncJobsDueRunnable) {
+        this.mongoDatabase = mongoDatabase;
+        this.acquireAsyncJobsDueRunnable = acquireAsyncJobsDueRunnable;
+    }
+
+    @Override
+    public void run() {
+        LOGGER.info("starting to watch the {} collection for available jobs", MongoDbJobDataManager.COLLECTION_JOBS);
+
+        while (!isInterrupted) {
+            // maxAwaitTime makes tryNext() return regularly, so the interrupted flag is checked
+            try (MongoCursor<ChangeStreamDocument<Document>> cursor = mongoDatabase.getCollection(MongoDbJobDataManager.COLLECTION_JOBS)
+                    .watch(createPipeline())
+                    .maxAwaitTime(maxAwaitTimeInMillis, TimeUnit.MILLISECONDS)
+                    .iterator()) {
+
+                while (!isInterrupted) {
+                    ChangeStreamDocument<Document> changeStreamDocument = cursor.tryNext();
+                    if (changeStreamDocument != null) {
+                        LOGGER.debug("job change {} for job {}, waking up async job acquisition",
+                                changeStreamDocument.getOperationType(), changeStreamDocument.getDocumentKey());
+                        acquireAsyncJobsDueRunnable.wakeUp();
+                    }
+                }
+
+            } catch (MongoException e) {
+                if (!isInterrupted) {
+                    LOGGER.warn("job change stream failed, reopening in {} ms. Async jobs are acquired by polling in the meantime", reopenWaitTimeInMillis, e);
+                    waitBeforeReopen();
+                }
+            }
+        }
+
+        LOGGER.info("stopped watching the {} collection", MongoDbJobDataManager.COLLECTION_JOBS);
+    }
+
+    protected List<Bson> createPipeline() {
+        Bson insertedUnlockedJob = Filters.and(
+                Filters.eq("operationType", "insert"),
+                Filters.eq("fullDocument.lockOwner", null)
+        );
+        Bson lockResetJob = Filters.and(
+                Filters.eq("operationType", "update"),
+                Filters.or(
+                        Filters.in("updateDescription.removedFields", Arrays.asList("lockOwner", "lockExpirationTime")),
+                        Filters.and(Filters.exists("updateDescription.updatedFields.lockOwner"), Filters.eq("updateDescription.updatedFields.lockOwner", null))
+                )
+        );
+        return Collections.singletonList(Aggregates.match(Filters.or(insertedUnlockedJob, lockResetJob)));
+    }
+
+    protected void waitBeforeReopen() {
+        try {
+            Thread.sleep(reopenWaitTimeInMillis);
+        } catch (InterruptedException e) {
+            isInterrupted = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        isInterrupted = true;
+    }
+
+    public long getMaxAwaitTimeInMillis() {
+        return maxAwaitTimeInMillis;
+    }
+
+    public void setMaxAwaitTimeInMillis(long maxAwaitTimeInMillis) {
+        this.maxAwaitTimeInMillis = maxAwaitTimeInMillis;
+    }
+
+    public long getReopenWaitTimeInMillis() {
+        return reopenWaitTimeInMillis;
+    }
+
+    public void setReopenWaitTimeInMillis(long reopenWaitTimeInMillis) {
+        this.reopenWaitTimeInMillis = reopenWaitTimeInMillis;
+    }
+
+}
@@ -0,0 +1,119 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.flowable.common.engine.api.FlowableOptimisticLockingException;
+import org.flowable.job.service.JobServiceConfiguration;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
+import org.flowable.job.service.impl.asyncexecutor.ResetExpiredJobsRunnable;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntity;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntityManager;
+import org.flowable.mongodb.persistence.manager.AbstractMongoDbJobDataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ResetExpiredJobsRunnable} that resets the expired jobs of a MongoDB job collection with one updateMany per batch,
+ * instead of fetching a page of expired jobs and resetting them one by one.
+ *
+ * Job collections that aren't backed by a MongoDB data manager are reset the default way.
+ */
+public class MongoDbResetExpiredJobsRunnable extends ResetExpiredJobsRunnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbResetExpiredJobsRunnable.class);
+
+    protected int batchSize;
+
+    protected AtomicLong resetJobCount = new AtomicLong();
+
+    /**
+     * The job entity managers are only read (by the constructor of the {@link ResetExpiredJobsRunnable}),
+     * so passing them on to its varargs constructor is safe.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public MongoDbResetExpiredJobsRunnable(String name, AsyncExecutor asyncExecutor, int batchSize,
+            JobInfoEntityManager<? extends JobInfoEntity>... jobEntityManagers) {
+        super(name, asyncExecutor, jobEntityManagers);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected void resetJobs(JobInfoEntityManager<? extends JobInfoEntity> jobEntityManager) {
+        AbstractMongoDbJobDataManager<?> jobDataManager = getMongoDbJobDataManager(jobEntityManager);
+        if (jobDataManager == null) {
+            super.resetJobs(jobEntityManager);
+            return;
+        }
+
+        JobServiceConfiguration jobServiceConfiguration = asyncExecutor.getJobServiceConfiguration();
+        List<String> enabledCategories = jobServiceConfiguration.getEnabledJobCategories();
+
+        // A full batch means there are probably more expired jobs (e.g. after a node crash), so keep going until the backlog is gone
+        long resetCount = batchSize;
+        while (!isInterrupted && resetCount >= batchSize) {
+            try {
+                resetCount = jobServiceConfiguration.getCommandExecutor().execute(
+                        commandContext -> jobDataManager.bulkResetExpiredJobs(enabledCategories, batchSize));
+                resetJobCount.addAndGet(resetCount);
+
+                if (resetCount > 0) {
+                    LOGGER.info("Reset {} expired jobs in {} for engine {}", resetCount, jobDataManager.getCollection(),
+                            jobServiceConfiguration.getEngineName());
+                }
+
+            } catch (FlowableOptimisticLockingException e) {
+                LOGGER.debug("Optimistic lock exception while resetting expired jobs in {} for engine {}", jobDataManager.getCollection(),
+                        jobServiceConfiguration.getEngineName(), e);
+                return;
+
+            } catch (Throwable e) {
+                LOGGER.warn("Exception while resetting expired jobs in {} for engine {}", jobDataManager.getCollection(),
+                        jobServiceConfiguration.getEngineName(), e);
+                return;
+            }
+        }
+    }
+
+    protected AbstractMongoDbJobDataManager<?> getMongoDbJobDataManager(JobInfoEntityManager<? extends JobInfoEntity> jobEntityManager) {
+        JobServiceConfiguration jobServiceConfiguration = asyncExecutor.getJobServiceConfiguration();
+        Object jobDataManager = null;
+        if (jobEntityManager == jobServiceConfiguration.getJobEntityManager()) {
+            jobDataManager = jobServiceConfiguration.getJobDataManager();
+        } else if (jobEntityManager == jobServiceConfiguration.getTimerJobEntityManager()) {
+            jobDataManager = jobServiceConfiguration.getTimerJobDataManager();
+        } else if (jobEntityManager == jobServiceConfiguration.getExternalWorkerJobEntityManager()) {
+            jobDataManager = jobServiceConfiguration.getExternalWorkerJobDataManager();
+        }
+
+        if (jobDataManager instanceof AbstractMongoDbJobDataManager) {
+            return (AbstractMongoDbJobDataManager<?>) jobDataManager;
+        }
+        return null;
+    }
+
+    /**
+     * The total number of jobs that were reset by this runnable.
+     */
+    public long getResetJobCount() {
+        return resetJobCount.get();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+}
@@ -0,0 +1,117 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Collects all write operations of one flush for a single collection,
+ * so they can be sent to MongoDB with one bulkWrite call.
+ *
+ * The entities for which an optimistic locking check is needed are kept next to the write models,
+ * as the {@link com.mongodb.bulk.BulkWriteResult} only returns the aggregated counts.
+ */
+public class MongoDbBulkWrite {
+
+    protected String collectionName;
+
+    protected List<WriteModel<Document>> writeModels = new ArrayList<>();
+    protected List<WriteModel<Document>> bulkDeleteModels = new ArrayList<>();
+
+    protected List<Entity> updatedEntities = new ArrayList<>();
+    protected List<Entity> deletedEntities = new ArrayList<>();
+    protected List<Entity> checkedDeletedEntities = new ArrayList<>();
+
+    public MongoDbBulkWrite(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    public void addInsert(Document document) {
+        writeModels.add(new InsertOneModel<>(document));
+    }
+
+    public void addUpdate(Entity entity, Bson filter, Bson update) {
+        writeModels.add(new UpdateOneModel<>(filter, update));
+        updatedEntities.add(entity);
+    }
+
+    public void addDelete(Entity entity, Bson filter, boolean checkDeletedCount) {
+        writeModels.add(new DeleteOneModel<>(filter));
+        deletedEntities.add(entity);
+        if (checkDeletedCount) {
+            checkedDeletedEntities.add(entity);
+        }
+    }
+
+    public void addBulkDelete(Bson filter) {
+        bulkDeleteModels.add(new DeleteManyModel<>(filter));
+    }
+
+    /**
+     * The write models that are sent in the first (and typically only) bulkWrite call.
+     *
+     * When there are deletes that need a revision check, the bulk deletes (which delete an unknown number of documents)
+     * can't be part of the same call, as they would make the deleted count meaningless.
+     */
+    public List<WriteModel<Document>> getWriteModels() {
+        if (checkedDeletedEntities.isEmpty() && !bulkDeleteModels.isEmpty()) {
+            List<WriteModel<Document>> allWriteModels = new ArrayList<>(writeModels.size() + bulkDeleteModels.size());
+            allWriteModels.addAll(writeModels);
+            allWriteModels.addAll(bulkDeleteModels);
+            return allWriteModels;
+        }
+        return writeModels;
+    }
+
+    /**
+     * The bulk deletes that need to be sent in a separate bulkWrite call, after the one of {@link #getWriteModels()}.
+     */
+    public List<WriteModel<Document>> getSeparateBulkDeleteModels() {
+        if (!checkedDeletedEntities.isEmpty()) {
+            return bulkDeleteModels;
+        }
+        return new ArrayList<>();
+    }
+
+    public boolean isEmpty() {
+        return writeModels.isEmpty() && bulkDeleteModels.isEmpty();
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public List<Entity> getUpdatedEntities() {
+        return updatedEntities;
+    }
+
+    public List<Entity> getDeletedEntities() {
+        return deletedEntities;
+    }
+
+    public List<Entity> getCheckedDeletedEntities() {
+        return checkedDeletedEntities;
+    }
+
+}
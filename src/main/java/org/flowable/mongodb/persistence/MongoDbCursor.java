@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Iterates lazily over the result of a query: documents are fetched from the server per batch,
+ * and every document is only mapped when it is reached.
+ * Contrary to the find methods of the {@link MongoDbSession}, the result is never held in memory as a whole.
+ *
+ * The cursor must be closed when it isn't fully iterated, typically with a try-with-resources block.
+ */
+public class MongoDbCursor<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+    protected MongoCursor<?> cursor;
+    protected Function<Object, T> documentMapper;
+
+    /**
+     * The cursor either iterates over documents, or over entities already decoded by an entity codec.
+     */
+    @SuppressWarnings("unchecked")
+    public <D> MongoDbCursor(MongoCursor<D> cursor, Function<D, T> documentMapper) {
+        this.cursor = cursor;
+        this.documentMapper = (Function<Object, T>) documentMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!cursor.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return documentMapper.apply(cursor.next());
+    }
+
+    /**
+     * Returns this cursor, so it can be used in a for-each loop. Like the cursor itself, this can only be iterated once.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+
+}
@@ -18,13 +18,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.flowable.common.engine.api.FlowableIllegalArgumentException;
 import org.flowable.common.engine.api.FlowableOptimisticLockingException;
 import org.flowable.common.engine.impl.context.Context;
@@ -36,17 +39,37 @@ import org.flowable.common.engine.impl.persistence.cache.EntityCache;
 import org.flowable.common.engine.impl.persistence.entity.AlwaysUpdatedPersistentObject;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.impl.util.CommandContextUtil;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
+import org.flowable.mongodb.cache.MongoDbEntityCache;
+import org.flowable.mongodb.persistence.aggregate.MongoDbColocatedEntities;
+import org.flowable.mongodb.persistence.aggregate.MongoDbColocatedWrite;
+import org.flowable.mongodb.persistence.aggregate.MongoDbEmbeddedAggregate;
+import org.flowable.mongodb.persistence.aggregate.MongoDbEmbeddedAggregateWrite;
+import org.flowable.mongodb.persistence.codec.AbstractEntityCodec;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsEntity;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
+import org.flowable.mongodb.persistence.id.ObjectIdFieldConverter;
+import org.flowable.mongodb.persistence.manager.AbstractMongoDbDataManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.ClientSessionOptions;
 import com.mongodb.MongoClient;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 
@@ -62,6 +85,12 @@ public class MongoDbSession implements Session {
     protected MongoDatabase mongoDatabase;
     
     protected ClientSession clientSession;
+
+    /**
+     * True when the transaction of the client session is started and committed elsewhere.
+     * Otherwise, the transaction is only started when this session writes for the first time.
+     */
+    protected boolean externallyManagedTransaction;
     
     protected EntityCache entityCache;
     protected Map<Class<? extends Entity>, Map<String, Entity>> insertedObjects = new HashMap<>();
@@ -69,9 +98,65 @@ public class MongoDbSession implements Session {
     protected List<Entity> updatedObjects = new ArrayList<>();
     protected Map<String, List<Bson>> bulkDeletes = new HashMap<>();
 
+    /**
+     * The collections of the {@link MongoDbDefinitionCache} that were written in this session.
+     * These bypass the definition cache for the rest of the session and are invalidated again when the transaction is committed.
+     */
+    protected Set<String> changedDefinitionCacheCollections = new HashSet<>();
+
+    /**
+     * For the entities that were read from or written to an aggregate document in this session,
+     * the id of the aggregate document they're embedded in. See {@link MongoDbEmbeddedAggregate}.
+     */
+    protected Map<String, String> embeddedEntityAggregateIds = new HashMap<>();
+
+    /**
+     * The size of the embedded documents of the aggregate documents read or written in this session.
+     */
+    protected Map<String, Long> aggregateEmbeddedSizes = new HashMap<>();
+
+    /**
+     * The changes to embedded entities of the current flush, per aggregate id.
+     */
+    protected Map<String, MongoDbEmbeddedAggregateWrite> embeddedAggregateWrites = new LinkedHashMap<>();
+
+    /**
+     * The ids of the entities that were read from or written to the document of their owner in this session.
+     * See {@link MongoDbColocatedEntities}.
+     */
+    protected Set<String> colocatedEntityIds = new HashSet<>();
+
+    /**
+     * The ids of the owner documents that hold their entities, of which the entities are all in the entity cache:
+     * the owner document was read or inserted in this session.
+     */
+    protected Set<String> loadedColocatedOwnerIds = new HashSet<>();
+
+    /**
+     * The ids of the owner documents that were checked for holding their entities in this session,
+     * see {@link #fetchUnknownColocatedOwners()}.
+     */
+    protected Map<String, Boolean> colocatedOwners = new HashMap<>();
+
+    /**
+     * The changes to entities stored in their owner document of the current flush, per collection and owner id.
+     */
+    protected Map<String, MongoDbColocatedWrite> colocatedWrites = new LinkedHashMap<>();
+
+    /**
+     * Updates of fields that are derived from other entities (e.g. the identity links of a task), per collection.
+     * See {@link #addDerivedUpdate(String, Bson, Bson)}.
+     */
+    protected Map<String, List<WriteModel<Document>>> derivedUpdates = new LinkedHashMap<>();
+
+    /**
+     * Ids per collection that were announced with {@link #prefetch(String, Collection)} and aren't loaded yet.
+     */
+    protected Map<String, Set<String>> pendingIdLookups = new HashMap<>();
+
     public MongoDbSession(MongoDbSessionFactory mongoDbSessionFactory, MongoClient mongoClient, MongoDatabase mongoDatabase, EntityCache entityCache) {
         this(mongoDbSessionFactory, mongoClient, mongoDatabase, entityCache, mongoClient.startSession(ClientSessionOptions.builder().causallyConsistent(true).build()));
-        startTransaction();
+        this.externallyManagedTransaction = false;
     }
 
     /**
@@ -83,12 +168,30 @@ public class MongoDbSession implements Session {
         this.mongoDatabase = mongoDatabase;
         this.entityCache = entityCache;
         this.clientSession = clientSession;
+        this.externallyManagedTransaction = true;
     }
     
     public void startTransaction() {
         clientSession.startTransaction();
     }
 
+    /**
+     * Starts the transaction, unless it is already active or managed externally.
+     * Called before the first write: commands that only read never start a transaction
+     * and their reads are plain causally consistent reads of the client session.
+     * Data managers that need a snapshot for their reads can call this before reading.
+     */
+    public void ensureTransactionStarted() {
+        if (!externallyManagedTransaction && !clientSession.hasActiveTransaction()) {
+            LOGGER.debug("starting transaction");
+            startTransaction();
+        }
+    }
+
+    public boolean hasActiveTransaction() {
+        return clientSession.hasActiveTransaction();
+    }
+
     @Override
     public void close() {
         if (clientSession != null) {
@@ -97,6 +200,8 @@ public class MongoDbSession implements Session {
     }
     
     public void insertOne(Entity entity) {
+        ensureTransactionStarted();
+
         if (entity.getId() == null) {
             String id = CommandContextUtil.getProcessEngineConfiguration().getIdGenerator().getNextId();
             entity.setId(id);
@@ -110,6 +215,11 @@ public class MongoDbSession implements Session {
         insertedObjects.get(clazz).put(entity.getId(), entity);
         entityCache.put(entity, false); // False -> entity is inserted, so always changed
         entity.setInserted(true);
+
+        if (!mongoDbSessionFactory.getColocatedEntitiesOfOwner(mongoDbSessionFactory.getCollectionForEntityClass(clazz)).isEmpty()) {
+            loadedColocatedOwnerIds.add(entity.getId());
+            colocatedOwners.put(entity.getId(), Boolean.TRUE);
+        }
     }
     
     @Override
@@ -121,9 +231,512 @@ public class MongoDbSession implements Session {
             debugFlush();
         }
         
-        flushInserts();
-        flushUpdates();
-        flushDeletes();
+        if (!hasChangesToFlush()) {
+            return;
+        }
+        ensureTransactionStarted();
+        invalidateDefinitionCache();
+        collectEmbeddedAggregateWrites();
+        collectColocatedWrites();
+        deleteGridFsFiles();
+
+        if (mongoDbSessionFactory.isBulkWriteFlushEnabled()) {
+            flushBulkWrites();
+        } else {
+            flushInserts();
+            flushUpdates();
+            flushDeletes();
+        }
+
+        flushEmbeddedAggregateWrites();
+        flushColocatedWrites();
+        flushDerivedUpdates();
+    }
+
+    protected void invalidateDefinitionCache() {
+        if (mongoDbSessionFactory.getDefinitionCache() == null) {
+            return;
+        }
+        for (Class<? extends Entity> clazz : insertedObjects.keySet()) {
+            definitionCacheCollectionChanged(mongoDbSessionFactory.getCollectionForEntityClass(clazz));
+        }
+        for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
+            definitionCacheCollectionChanged(mongoDbSessionFactory.getCollectionForEntityClass(clazz));
+        }
+        for (Entity updatedObject : updatedObjects) {
+            definitionCacheCollectionChanged(mongoDbSessionFactory.getCollectionForEntityClass(updatedObject.getClass()));
+        }
+        for (String collection : bulkDeletes.keySet()) {
+            definitionCacheCollectionChanged(collection);
+        }
+    }
+
+    /**
+     * Invalidates the collection in the definition cache, when it's cached, before it gets written.
+     * This is done again after the commit (see {@link #transactionCommitted()}),
+     * as other sessions can still read and cache the previous version until then.
+     */
+    protected void definitionCacheCollectionChanged(String collection) {
+        MongoDbDefinitionCache definitionCache = mongoDbSessionFactory.getDefinitionCache();
+        if (definitionCache != null && collection != null && definitionCache.isCached(collection)) {
+            changedDefinitionCacheCollections.add(collection);
+            definitionCache.invalidate(collection);
+        }
+    }
+
+    /**
+     * Called when the transaction of this session is committed.
+     * When the transaction is managed externally, the definition cache is only invalidated when flushing.
+     */
+    public void transactionCommitted() {
+        MongoDbDefinitionCache definitionCache = mongoDbSessionFactory.getDefinitionCache();
+        if (definitionCache != null) {
+            for (String collection : changedDefinitionCacheCollections) {
+                definitionCache.invalidate(collection);
+            }
+        }
+    }
+
+    /**
+     * Returns the definition cache when it caches the given collection and the collection can be cached in this session:
+     * once a session wrote to the collection, its reads need to see its own (uncommitted) writes.
+     */
+    protected MongoDbDefinitionCache getDefinitionCache(String collection) {
+        MongoDbDefinitionCache definitionCache = mongoDbSessionFactory.getDefinitionCache();
+        if (definitionCache != null && definitionCache.isCached(collection) && !changedDefinitionCacheCollections.contains(collection)) {
+            return definitionCache;
+        }
+        return null;
+    }
+
+    /**
+     * Reads within a transaction come from its snapshot, which can be older than the latest invalidation.
+     * Hence, only documents read outside of a transaction are put in the definition cache.
+     */
+    protected boolean canPopulateDefinitionCache() {
+        return !clientSession.hasActiveTransaction();
+    }
+
+    protected boolean hasChangesToFlush() {
+        if (!updatedObjects.isEmpty() || !bulkDeletes.isEmpty() || !derivedUpdates.isEmpty()) {
+            return true;
+        }
+        for (Map<String, Entity> entities : insertedObjects.values()) {
+            if (!entities.isEmpty()) {
+                return true;
+            }
+        }
+        for (Map<String, Entity> entities : deletedObjects.values()) {
+            if (!entities.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the inserts, updates and deletes of embedded entities (see {@link MongoDbEmbeddedAggregate}) out of the regular flush,
+     * grouped per aggregate document. Embedded entities of an aggregate root that is deleted in this flush are gone with it.
+     * Inserted entities that don't fit in their aggregate document anymore are left to be inserted as a document of their own.
+     */
+    @SuppressWarnings("unchecked")
+    protected void collectEmbeddedAggregateWrites() {
+        for (Class<? extends Entity> clazz : insertedObjects.keySet()) {
+            MongoDbEmbeddedAggregate embeddedAggregate = getEmbeddedAggregate(clazz);
+            if (embeddedAggregate != null) {
+                EntityToDocumentMapper<Entity> entityMapper = getEntityMapper(clazz);
+                Iterator<Entity> iterator = insertedObjects.get(clazz).values().iterator();
+                while (iterator.hasNext()) {
+                    Entity entity = iterator.next();
+                    String aggregateId = embeddedAggregate.getAggregateId(entity);
+                    if (aggregateId != null && !isDeleted(clazz, aggregateId)) {
+                        Document document = entityMapper.toDocument(entity);
+                        getEmbeddedAggregateWrite(embeddedAggregate, aggregateId).addInsert(entity, document, getDocumentSize(embeddedAggregate, document));
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        Iterator<Entity> updatedIterator = updatedObjects.iterator();
+        while (updatedIterator.hasNext()) {
+            Entity entity = updatedIterator.next();
+            String aggregateId = embeddedEntityAggregateIds.get(entity.getId());
+            MongoDbEmbeddedAggregate embeddedAggregate = getEmbeddedAggregate(entity.getClass());
+            if (aggregateId != null && embeddedAggregate != null) {
+                if (!isDeleted(entity.getClass(), aggregateId)) {
+                    BasicDBObject updateBasicDBObject = mongoDbSessionFactory.getDataManagerForCollection(embeddedAggregate.getCollection()).createUpdateObject(entity);
+                    if (updateBasicDBObject != null) {
+                        getEmbeddedAggregateWrite(embeddedAggregate, aggregateId)
+                            .addUpdate(entity, createRevisionFilter(entity), createUpdateDocument(entity, updateBasicDBObject));
+                    }
+                }
+                updatedIterator.remove();
+            }
+        }
+
+        for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
+            MongoDbEmbeddedAggregate embeddedAggregate = getEmbeddedAggregate(clazz);
+            if (embeddedAggregate != null) {
+                EntityToDocumentMapper<Entity> entityMapper = getEntityMapper(clazz);
+                Map<String, Entity> entities = deletedObjects.get(clazz);
+                Iterator<Entity> iterator = entities.values().iterator();
+                while (iterator.hasNext()) {
+                    Entity entity = iterator.next();
+                    String aggregateId = embeddedEntityAggregateIds.get(entity.getId());
+                    if (aggregateId != null) {
+                        if (!entities.containsKey(aggregateId)) {
+                            getEmbeddedAggregateWrite(embeddedAggregate, aggregateId)
+                                .addDelete(entity, createRevisionFilter(entity), getDocumentSize(embeddedAggregate, entityMapper.toDocument(entity)));
+                        }
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        fetchUnknownEmbeddedSizes();
+        for (MongoDbEmbeddedAggregateWrite embeddedAggregateWrite : embeddedAggregateWrites.values()) {
+            List<Entity> insertedEntities = embeddedAggregateWrite.getInsertedEntities();
+            if (!insertedEntities.isEmpty()) {
+                long embeddedSize = isInserted(insertedEntities.get(0).getClass(), embeddedAggregateWrite.getAggregateId())
+                        ? 0L : aggregateEmbeddedSizes.getOrDefault(embeddedAggregateWrite.getAggregateId(), 0L);
+                if (!embeddedAggregateWrite.getEmbeddedAggregate().canEmbed(embeddedSize, embeddedAggregateWrite.getInsertedSize())) {
+                    LOGGER.debug("aggregate {} is too large to embed {} more entities", embeddedAggregateWrite.getAggregateId(), insertedEntities.size());
+                    for (Entity insertedEntity : insertedEntities) {
+                        insertedObjects.get(insertedEntity.getClass()).put(insertedEntity.getId(), insertedEntity);
+                    }
+                    embeddedAggregateWrite.clearInserts();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches the embedded size of the aggregate documents that get new embedded entities, but weren't read in this session.
+     */
+    protected void fetchUnknownEmbeddedSizes() {
+        Map<String, List<String>> unknownAggregateIds = new HashMap<>();
+        for (MongoDbEmbeddedAggregateWrite embeddedAggregateWrite : embeddedAggregateWrites.values()) {
+            List<Entity> insertedEntities = embeddedAggregateWrite.getInsertedEntities();
+            String aggregateId = embeddedAggregateWrite.getAggregateId();
+            if (!insertedEntities.isEmpty() && !aggregateEmbeddedSizes.containsKey(aggregateId) && !isInserted(insertedEntities.get(0).getClass(), aggregateId)) {
+                unknownAggregateIds.computeIfAbsent(embeddedAggregateWrite.getEmbeddedAggregate().getCollection(), key -> new ArrayList<>()).add(aggregateId);
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : unknownAggregateIds.entrySet()) {
+            for (String aggregateId : entry.getValue()) {
+                aggregateEmbeddedSizes.put(aggregateId, 0L);
+            }
+            for (Document document : getCollection(entry.getKey()).find(clientSession, convertIdFields(Filters.in("_id", entry.getValue())))
+                    .projection(Projections.include(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD))) {
+                trackEmbeddedAggregateDocument(document);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes of the embedded entities with one ordered bulkWrite per aggregate document, see {@link MongoDbEmbeddedAggregateWrite}.
+     * Runs after the regular flush, so a new aggregate root is inserted before entities are pushed into it.
+     */
+    protected void flushEmbeddedAggregateWrites() {
+        for (MongoDbEmbeddedAggregateWrite embeddedAggregateWrite : embeddedAggregateWrites.values()) {
+            if (embeddedAggregateWrite.isEmpty()) {
+                continue;
+            }
+
+            String aggregateId = embeddedAggregateWrite.getAggregateId();
+            List<WriteModel<Document>> writeModels = convertIdFieldsOfWriteModels(embeddedAggregateWrite.createWriteModels());
+            LOGGER.debug("writing {} embedded entity changes to aggregate {}", embeddedAggregateWrite.getEntities().size(), aggregateId);
+            BulkWriteResult bulkWriteResult = getCollection(embeddedAggregateWrite.getEmbeddedAggregate().getCollection())
+                    .bulkWrite(clientSession, writeModels, new BulkWriteOptions().ordered(true));
+            if (bulkWriteResult.getMatchedCount() < writeModels.size()) {
+                throw createOptimisticLockingException(embeddedAggregateWrite.getEntities(), "changed");
+            }
+
+            for (Entity insertedEntity : embeddedAggregateWrite.getInsertedEntities()) {
+                embeddedEntityAggregateIds.put(insertedEntity.getId(), aggregateId);
+            }
+            for (Entity updatedEntity : embeddedAggregateWrite.getUpdatedEntities()) {
+                if (updatedEntity instanceof HasRevision) {
+                    ((HasRevision) updatedEntity).setRevision(((HasRevision) updatedEntity).getRevisionNext());
+                }
+            }
+            for (Entity deletedEntity : embeddedAggregateWrite.getDeletedEntities()) {
+                embeddedEntityAggregateIds.remove(deletedEntity.getId());
+            }
+            aggregateEmbeddedSizes.computeIfPresent(aggregateId,
+                (id, size) -> size + embeddedAggregateWrite.getInsertedSize() - embeddedAggregateWrite.getDeletedSize());
+        }
+        embeddedAggregateWrites.clear();
+    }
+
+    /**
+     * Moves the inserts, updates and deletes of entities stored in their owner document (see {@link MongoDbColocatedEntities})
+     * out of the regular flush, grouped per owner document. Entities of an owner that is deleted in this flush are gone with it.
+     * New entities are only stored in their owner document when it holds the other entities of the owner as well,
+     * otherwise they're inserted as a document of their own, like the entities that were read from their own document.
+     */
+    @SuppressWarnings("unchecked")
+    protected void collectColocatedWrites() {
+        for (Class<? extends Entity> clazz : insertedObjects.keySet()) {
+            MongoDbColocatedEntities colocatedEntities = getColocatedEntities(clazz);
+            if (colocatedEntities != null) {
+                fetchUnknownColocatedOwners(colocatedEntities, insertedObjects.get(clazz).values());
+
+                EntityToDocumentMapper<Entity> entityMapper = getEntityMapper(clazz);
+                Iterator<Entity> iterator = insertedObjects.get(clazz).values().iterator();
+                while (iterator.hasNext()) {
+                    Entity entity = iterator.next();
+                    String ownerId = colocatedEntities.getOwnerId(entity);
+                    if (ownerId != null && colocatedOwners.getOrDefault(ownerId, Boolean.FALSE)) {
+                        if (!isOwnerDeleted(colocatedEntities, entity, ownerId)) {
+                            getColocatedWrite(colocatedEntities, entity, ownerId).addInsert(entity, entityMapper.toDocument(entity));
+                        }
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        Iterator<Entity> updatedIterator = updatedObjects.iterator();
+        while (updatedIterator.hasNext()) {
+            Entity entity = updatedIterator.next();
+            if (colocatedEntityIds.contains(entity.getId())) {
+                MongoDbColocatedEntities colocatedEntities = getColocatedEntities(entity.getClass());
+                String ownerId = colocatedEntities.getOwnerId(entity);
+                if (!isOwnerDeleted(colocatedEntities, entity, ownerId)) {
+                    BasicDBObject updateBasicDBObject = mongoDbSessionFactory.getDataManagerForCollection(colocatedEntities.getCollection()).createUpdateObject(entity);
+                    if (updateBasicDBObject != null) {
+                        getColocatedWrite(colocatedEntities, entity, ownerId).addUpdate(entity, createUpdateDocument(entity, updateBasicDBObject));
+                    }
+                }
+                updatedIterator.remove();
+            }
+        }
+
+        for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
+            MongoDbColocatedEntities colocatedEntities = getColocatedEntities(clazz);
+            if (colocatedEntities != null) {
+                Iterator<Entity> iterator = deletedObjects.get(clazz).values().iterator();
+                while (iterator.hasNext()) {
+                    Entity entity = iterator.next();
+                    if (colocatedEntityIds.contains(entity.getId())) {
+                        String ownerId = colocatedEntities.getOwnerId(entity);
+                        if (!isOwnerDeleted(colocatedEntities, entity, ownerId)) {
+                            getColocatedWrite(colocatedEntities, entity, ownerId).addDelete(entity);
+                        }
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the owner documents of new entities, that weren't read in this session, hold their entities.
+     */
+    protected void fetchUnknownColocatedOwners(MongoDbColocatedEntities colocatedEntities, Collection<Entity> entities) {
+        Map<String, List<String>> unknownOwnerIds = new HashMap<>();
+        for (Entity entity : entities) {
+            String ownerId = colocatedEntities.getOwnerId(entity);
+            if (ownerId != null && !colocatedOwners.containsKey(ownerId)) {
+                unknownOwnerIds.computeIfAbsent(colocatedEntities.getOwnerCollection(entity), key -> new ArrayList<>()).add(ownerId);
+                colocatedOwners.put(ownerId, Boolean.FALSE);
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : unknownOwnerIds.entrySet()) {
+            Bson filter = Filters.and(Filters.in("_id", entry.getValue()), Filters.exists(colocatedEntities.getField()));
+            for (Document document : getCollection(entry.getKey()).find(clientSession, convertIdFields(filter)).projection(Projections.include("_id"))) {
+                colocatedOwners.put(document.getString("_id"), Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes of the entities stored in their owner document with one update per owner document, see {@link MongoDbColocatedWrite}.
+     * The entities of an owner document that is inserted in this flush are part of its insert already.
+     */
+    protected void flushColocatedWrites() {
+        for (MongoDbColocatedWrite colocatedWrite : colocatedWrites.values()) {
+            if (colocatedWrite.isEmpty()) {
+                continue;
+            }
+
+            LOGGER.debug("writing {} entity changes to owner {}", colocatedWrite.getEntities().size(), colocatedWrite.getOwnerId());
+            UpdateResult updateResult = getCollection(colocatedWrite.getOwnerCollection())
+                    .updateOne(clientSession, convertIdFields(colocatedWrite.createFilter()), convertIdFields(colocatedWrite.createUpdate()));
+            if (updateResult.getMatchedCount() == 0) {
+                throw createOptimisticLockingException(colocatedWrite.getEntities(), "changed");
+            }
+
+            for (Entity insertedEntity : colocatedWrite.getInsertedEntities()) {
+                colocatedEntityIds.add(insertedEntity.getId());
+            }
+            for (Entity updatedEntity : colocatedWrite.getUpdatedEntities()) {
+                if (updatedEntity instanceof HasRevision) {
+                    ((HasRevision) updatedEntity).setRevision(((HasRevision) updatedEntity).getRevisionNext());
+                }
+            }
+            for (Entity deletedEntity : colocatedWrite.getDeletedEntities()) {
+                colocatedEntityIds.remove(deletedEntity.getId());
+            }
+        }
+        colocatedWrites.clear();
+    }
+
+    /**
+     * Adds an update of fields that are derived from other entities, which is sent in the flush after all entities are written,
+     * so it also applies to documents that are inserted in the same flush. The update is not guarded by a revision:
+     * it should only touch the derived fields, with operators that don't depend on the current state of the document (e.g. $addToSet, $pull).
+     */
+    public void addDerivedUpdate(String collection, Bson filter, Bson update) {
+        derivedUpdates.computeIfAbsent(collection, key -> new ArrayList<>()).add(new UpdateOneModel<>(filter, update));
+    }
+
+    protected void flushDerivedUpdates() {
+        for (Map.Entry<String, List<WriteModel<Document>>> entry : derivedUpdates.entrySet()) {
+            LOGGER.debug("writing {} derived updates to {}", entry.getValue().size(), entry.getKey());
+            getCollection(entry.getKey()).bulkWrite(clientSession, convertIdFieldsOfWriteModels(entry.getValue()), new BulkWriteOptions().ordered(true));
+        }
+        derivedUpdates.clear();
+    }
+
+    protected MongoDbColocatedEntities getColocatedEntities(Class<?> entityClass) {
+        String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(entityClass);
+        return collectionName != null ? mongoDbSessionFactory.getColocatedEntities(collectionName) : null;
+    }
+
+    protected MongoDbColocatedWrite getColocatedWrite(MongoDbColocatedEntities colocatedEntities, Entity entity, String ownerId) {
+        return colocatedWrites.computeIfAbsent(getColocatedWriteKey(colocatedEntities, ownerId),
+            key -> new MongoDbColocatedWrite(colocatedEntities, colocatedEntities.getOwnerCollection(entity), ownerId));
+    }
+
+    protected String getColocatedWriteKey(MongoDbColocatedEntities colocatedEntities, String ownerId) {
+        return colocatedEntities.getCollection() + ":" + ownerId;
+    }
+
+    protected boolean isOwnerDeleted(MongoDbColocatedEntities colocatedEntities, Entity entity, String ownerId) {
+        return isDeleted(mongoDbSessionFactory.getClassForCollection(colocatedEntities.getOwnerCollection(entity)), ownerId);
+    }
+
+    /**
+     * Deletes the GridFS files referenced by the documents that are about to be deleted, see {@link MongoDbGridFsStorage}.
+     * The files of deleted entities are known, for the bulk deletes the references are read first.
+     */
+    protected void deleteGridFsFiles() {
+        MongoDbGridFsStorage gridFsStorage = mongoDbSessionFactory.getGridFsStorage();
+        if (gridFsStorage == null) {
+            return;
+        }
+
+        for (Map<String, Entity> entities : deletedObjects.values()) {
+            for (Entity entity : entities.values()) {
+                if (entity instanceof MongoDbGridFsEntity && ((MongoDbGridFsEntity) entity).getGridFsId() != null) {
+                    gridFsStorage.delete(clientSession, ((MongoDbGridFsEntity) entity).getGridFsId());
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Bson>> bulkDelete : bulkDeletes.entrySet()) {
+            String field = gridFsStorage.getField(bulkDelete.getKey());
+            if (field != null) {
+                String referenceField = MongoDbGridFsStorage.getReferenceField(field);
+                for (Bson filter : bulkDelete.getValue()) {
+                    for (Document document : getCollection(bulkDelete.getKey())
+                            .find(clientSession, convertIdFields(Filters.and(filter, Filters.exists(referenceField))))
+                            .projection(Projections.include(referenceField))) {
+                        gridFsStorage.delete(clientSession, MongoDbGridFsStorage.getReference(document, field));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the binary field of a document to GridFS when it's larger than the threshold, see {@link MongoDbGridFsStorage}.
+     * The document is changed in place. Returns the id of the new GridFS file, or null when the field stays in the document.
+     */
+    protected ObjectId storeInGridFs(String collection, Entity entity, Map<String, Object> document) {
+        MongoDbGridFsStorage gridFsStorage = mongoDbSessionFactory.getGridFsStorage();
+        String field = gridFsStorage != null ? gridFsStorage.getField(collection) : null;
+        if (field == null) {
+            return null;
+        }
+
+        byte[] bytes = gridFsStorage.getBytesToStore(document.get(field));
+        if (bytes == null) {
+            return null;
+        }
+
+        ObjectId gridFsId = gridFsStorage.upload(clientSession, collection + "/" + entity.getId(), bytes);
+        LOGGER.debug("stored {} bytes of {} in GridFS file {}", bytes.length, entity, gridFsId);
+        document.remove(field);
+        document.put(MongoDbGridFsStorage.getReferenceField(field), gridFsId);
+        return gridFsId;
+    }
+
+    /**
+     * Stores the bytes of an update in GridFS (or back in the document) and deletes the GridFS file of the previous bytes.
+     */
+    @SuppressWarnings("unchecked")
+    protected void updateGridFsField(Entity entity, Document updateDocument) {
+        MongoDbGridFsStorage gridFsStorage = mongoDbSessionFactory.getGridFsStorage();
+        String collection = mongoDbSessionFactory.getCollectionForEntityClass(entity.getClass());
+        String field = gridFsStorage != null ? gridFsStorage.getField(collection) : null;
+        Map<String, Object> setFields = (Map<String, Object>) updateDocument.get("$set");
+        if (field == null || setFields == null || !setFields.containsKey(field)) {
+            return;
+        }
+
+        ObjectId previousGridFsId = entity instanceof MongoDbGridFsEntity ? ((MongoDbGridFsEntity) entity).getGridFsId() : null;
+        ObjectId gridFsId = storeInGridFs(collection, entity, setFields);
+        if (gridFsId == null) {
+            Map<String, Object> unsetFields = (Map<String, Object>) updateDocument.computeIfAbsent("$unset", key -> new Document());
+            unsetFields.put(MongoDbGridFsStorage.getReferenceField(field), "");
+        }
+
+        if (previousGridFsId != null) {
+            gridFsStorage.delete(clientSession, previousGridFsId);
+        }
+        if (entity instanceof MongoDbGridFsEntity) {
+            ((MongoDbGridFsEntity) entity).setGridFsId(gridFsId);
+        }
+    }
+
+    /**
+     * Downloads the bytes of a GridFS file, see {@link MongoDbGridFsEntity}.
+     */
+    public byte[] downloadGridFsFile(ObjectId gridFsId) {
+        // compressed bytes are uploaded with their payload header
+        byte[] bytes = mongoDbSessionFactory.getGridFsStorage().download(clientSession, gridFsId);
+        return mongoDbSessionFactory.getPayloadCompression().decompressIfCompressed(bytes);
+    }
+
+    protected MongoDbEmbeddedAggregate getEmbeddedAggregate(Class<?> entityClass) {
+        String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(entityClass);
+        return collectionName != null ? mongoDbSessionFactory.getEmbeddedAggregate(collectionName) : null;
+    }
+
+    protected MongoDbEmbeddedAggregateWrite getEmbeddedAggregateWrite(MongoDbEmbeddedAggregate embeddedAggregate, String aggregateId) {
+        return embeddedAggregateWrites.computeIfAbsent(aggregateId, id -> new MongoDbEmbeddedAggregateWrite(embeddedAggregate, id));
+    }
+
+    protected long getDocumentSize(MongoDbEmbeddedAggregate embeddedAggregate, Document document) {
+        MongoCollection<Document> collection = getCollection(embeddedAggregate.getCollection());
+        return new RawBsonDocument(document, collection.getCodecRegistry().get(Document.class)).getByteBuffer().remaining();
+    }
+
+    protected boolean isInserted(Class<?> entityClass, String id) {
+        Map<String, Entity> entities = insertedObjects.get(entityClass);
+        return entities != null && entities.containsKey(id);
+    }
+
+    protected boolean isDeleted(Class<?> entityClass, String id) {
+        Map<String, Entity> entities = deletedObjects.get(entityClass);
+        return entities != null && entities.containsKey(id);
     }
 
     @SuppressWarnings("unchecked")
@@ -142,12 +755,15 @@ public class MongoDbSession implements Session {
             }
             MongoCollection<Document> mongoDbCollection = getMongoDatabase().getCollection(collectionName);
 
-            EntityToDocumentMapper entityMapper = mongoDbSessionFactory.getMapperForEntityClass(clazz);
+            EntityToDocumentMapper<Entity> entityMapper = getEntityMapper(clazz);
             Map<String, Entity> entities = insertedObjects.get(clazz);
-            if (!entities.isEmpty()) { // Could have 0 elements due to the optimizations before
+            if (!entities.isEmpty() && getCodecEntityClass(collectionName) == clazz) {
+                insertEntities(getCollection(collectionName, clazz), entities.values());
+
+            } else if (!entities.isEmpty()) { // Could have 0 elements due to the optimizations before
                 List<Document> documents = entities
                     .values().stream()
-                    .map(entity -> entityMapper.toDocument(entity))
+                    .map(entity -> convertIdFieldsOfDocument(createInsertDocument(entityMapper, entity)))
                     .collect(Collectors.toList());
 
                 if (documents.size() == 1) {
@@ -165,83 +781,380 @@ public class MongoDbSession implements Session {
             
             LOGGER.debug("updating: {}", updatedEntity);
 
-            Class<?> entityClass = updatedEntity.getClass();
-            String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(entityClass);
+            Class<?> entityClass = updatedEntity.getClass();
+            String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(entityClass);
+            BasicDBObject updateBasicDBObject = mongoDbSessionFactory.getDataManagerForCollection(collectionName).createUpdateObject(updatedEntity);
+            if (updateBasicDBObject != null) {
+
+                MongoCollection<Document> collection = getMongoDatabase().getCollection(collectionName);
+                UpdateResult updateResult = collection
+                    .updateOne(clientSession, convertIdFields(createRevisionFilter(updatedEntity)), convertIdFields(createUpdateDocument(updatedEntity, updateBasicDBObject)));
+                if (updateResult.getMatchedCount() == 0) {
+                    throw new FlowableOptimisticLockingException(updatedEntity + " was updated by another transaction concurrently");
+                }
+
+                if (updatedEntity instanceof HasRevision) {
+                    ((HasRevision) updatedEntity).setRevision(((HasRevision) updatedEntity).getRevisionNext());
+                }
+            }
+
+        }
+        updatedObjects.clear();
+    }
+
+    /**
+     * The document of an inserted entity. When the entity is an aggregate root that is inserted together with entities embedded in it,
+     * these are part of the inserted document, so the whole aggregate is written at once.
+     * The same goes for an owner document and the new entities stored in it (see {@link MongoDbColocatedEntities}).
+     */
+    @SuppressWarnings("unchecked")
+    protected Document createInsertDocument(EntityToDocumentMapper<Entity> entityMapper, Entity entity) {
+        Document document = entityMapper.toDocument(entity);
+
+        ObjectId gridFsId = storeInGridFs(mongoDbSessionFactory.getCollectionForEntityClass(entity.getClass()), entity, document);
+        if (gridFsId != null && entity instanceof MongoDbGridFsEntity) {
+            ((MongoDbGridFsEntity) entity).setGridFsId(gridFsId);
+        }
+
+        MongoDbEmbeddedAggregateWrite embeddedAggregateWrite = embeddedAggregateWrites.get(entity.getId());
+        if (embeddedAggregateWrite != null && !embeddedAggregateWrite.getInsertedEntities().isEmpty()) {
+            document.append(embeddedAggregateWrite.getEmbeddedAggregate().getEmbeddedField(), new ArrayList<>(embeddedAggregateWrite.getInsertedDocuments()));
+            document.append(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD, embeddedAggregateWrite.getInsertedSize());
+
+            for (Entity embeddedEntity : embeddedAggregateWrite.getInsertedEntities()) {
+                embeddedEntityAggregateIds.put(embeddedEntity.getId(), entity.getId());
+            }
+            aggregateEmbeddedSizes.put(entity.getId(), embeddedAggregateWrite.getInsertedSize());
+            embeddedAggregateWrite.clearInserts();
+        }
+
+        String collection = mongoDbSessionFactory.getCollectionForEntityClass(entity.getClass());
+        for (MongoDbColocatedEntities colocatedEntities : mongoDbSessionFactory.getColocatedEntitiesOfOwner(collection)) {
+            // Also when empty, marking the owner document as holding all of its entities
+            Document colocatedDocuments = new Document();
+            MongoDbColocatedWrite colocatedWrite = colocatedWrites.get(getColocatedWriteKey(colocatedEntities, entity.getId()));
+            if (colocatedWrite != null) {
+                for (int i = 0; i < colocatedWrite.getInsertedEntities().size(); i++) {
+                    Entity colocatedEntity = colocatedWrite.getInsertedEntities().get(i);
+                    colocatedDocuments.append(colocatedEntity.getId(), colocatedWrite.getInsertedDocuments().get(i));
+                    colocatedEntityIds.add(colocatedEntity.getId());
+                }
+                colocatedWrite.clearInserts();
+            }
+            document.append(colocatedEntities.getField(), colocatedDocuments);
+        }
+
+        return document;
+    }
+
+    /**
+     * Inserts the entities encoded by the entity codec of the collection.
+     */
+    @SuppressWarnings("unchecked")
+    protected <E extends Entity> void insertEntities(MongoCollection<E> collection, Collection<Entity> entities) {
+        List<E> entityList = new ArrayList<>((Collection<E>) entities);
+        if (entityList.size() == 1) {
+            collection.insertOne(clientSession, entityList.get(0));
+        } else {
+            collection.insertMany(clientSession, entityList);
+        }
+    }
+
+    /**
+     * For entities with a revision, the filter only matches the document when the stored revision
+     * is still the one that was read. A concurrent change thus results in no match, without needing an extra read.
+     * Documents written before revisions were stored (e.g. job byte arrays and historic details) have no revision
+     * field and are read as revision 1, so for revision 1 a missing field matches as well.
+     */
+    protected Bson createRevisionFilter(Entity entity) {
+        if (entity instanceof HasRevision) {
+            int revision = ((HasRevision) entity).getRevision();
+            Bson revisionFilter = Filters.eq("revision", revision);
+            if (revision == 1) {
+                revisionFilter = Filters.or(revisionFilter, Filters.exists("revision", false));
+            }
+            return Filters.and(Filters.eq("_id", entity.getId()), revisionFilter);
+        }
+        return Filters.eq("_id", entity.getId());
+    }
+
+    /**
+     * The revision is incremented on the server (matching {@link HasRevision#getRevisionNext()}),
+     * so any revision set by the data manager in the update object is ignored.
+     */
+    protected Document createUpdateDocument(Entity entity, BasicDBObject updateBasicDBObject) {
+        Document updateDocument = new Document();
+        if (entity instanceof HasRevision) {
+            updateBasicDBObject.removeField("revision");
+            updateDocument.append("$inc", new Document("revision", 1));
+        }
+        Object unsetFields = updateBasicDBObject.removeField(AbstractMongoDbDataManager.UNSET_FIELDS);
+        if (unsetFields != null) {
+            updateDocument.append("$unset", unsetFields);
+        }
+        if (!updateBasicDBObject.isEmpty()) {
+            updateDocument.append("$set", updateBasicDBObject);
+        }
+        updateGridFsField(entity, updateDocument);
+        return updateDocument;
+    }
+
+    public UpdateResult updateImmediately(String collection, Bson filter, BasicDBObject updateDBObject) {
+        ensureTransactionStarted();
+        definitionCacheCollectionChanged(collection);
+        MongoCollection<Document> mongoDbCollection = getCollection(collection);
+        return mongoDbCollection.updateOne(clientSession, convertIdFields(filter), convertIdFields(new Document().append("$set", updateDBObject)));
+    }
+
+    /**
+     * Like {@link #updateImmediately(String, Bson, BasicDBObject)}, for the document with the given id that matches the condition (if any).
+     * For a collection with embedded aggregates, the embedded document with the id is updated when there is no such document at the top level.
+     */
+    public UpdateResult updateImmediately(String collection, String id, Bson condition, BasicDBObject updateDBObject) {
+        Bson filter = condition != null ? Filters.and(Filters.eq("_id", id), condition) : Filters.eq("_id", id);
+
+        MongoDbEmbeddedAggregate embeddedAggregate = mongoDbSessionFactory.getEmbeddedAggregate(collection);
+        if (embeddedAggregate == null) {
+            return updateImmediately(collection, filter, updateDBObject);
+        }
+
+        if (!embeddedEntityAggregateIds.containsKey(id)) {
+            UpdateResult updateResult = updateImmediately(collection, filter, updateDBObject);
+            if (updateResult.getMatchedCount() > 0) {
+                return updateResult;
+            }
+        }
+
+        BasicDBObject embeddedUpdateDBObject = new BasicDBObject();
+        for (String field : updateDBObject.keySet()) {
+            embeddedUpdateDBObject.append(embeddedAggregate.getPositionalPath(field), updateDBObject.get(field));
+        }
+        return updateImmediately(collection, Filters.elemMatch(embeddedAggregate.getEmbeddedField(), filter), embeddedUpdateDBObject);
+    }
+    
+    protected void flushDeletes() {
+
+        // Regular deletes
+        if (!deletedObjects.isEmpty()) {
+            for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
+
+                Map<String, ? extends Entity> entities = deletedObjects.get(clazz);
+                if (!entities.isEmpty()) {
+
+                    MongoCollection<Document> mongoDbCollection = getMongoDatabase().getCollection(mongoDbSessionFactory.getClassToCollectionsMap().get(clazz));
+                    for (Entity entity : entities.values()) {
+                        DeleteResult deleteResult = mongoDbCollection.deleteOne(clientSession, convertIdFields(createRevisionFilter(entity)));
+
+                        if (entity instanceof HasRevision && deleteResult.getDeletedCount() == 0) {
+                            throw new FlowableOptimisticLockingException(entity + " was deleted by another transaction concurrently");
+                        }
+                    }
+                }
+
+            }
+        }
+
+        // Bulk deletes (no revision check)
+        if (!bulkDeletes.isEmpty()) {
+            for (String collectionName : bulkDeletes.keySet()) {
+                MongoCollection<Document> collection = getCollection(collectionName);
+
+                List<Bson> deleteFilters = bulkDeletes.get(collectionName);
+                for (Bson deleteFilter : deleteFilters) {
+                    collection.deleteMany(clientSession, convertIdFields(deleteFilter));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Alternative for {@link #flushInserts()}, {@link #flushUpdates()} and {@link #flushDeletes()}:
+     * all inserts, updates and deletes are grouped per collection and sent using one bulkWrite call per collection.
+     */
+    protected void flushBulkWrites() {
+        Map<String, MongoDbBulkWrite> bulkWrites = new LinkedHashMap<>();
+        collectBulkInserts(bulkWrites);
+        collectBulkUpdates(bulkWrites);
+        collectBulkDeletes(bulkWrites);
+
+        for (MongoDbBulkWrite bulkWrite : bulkWrites.values()) {
+            if (!bulkWrite.isEmpty()) {
+                executeBulkWrite(bulkWrite);
+            }
+        }
+
+        for (MongoDbBulkWrite bulkWrite : bulkWrites.values()) {
+            for (Entity updatedEntity : bulkWrite.getUpdatedEntities()) {
+                if (updatedEntity instanceof HasRevision) {
+                    ((HasRevision) updatedEntity).setRevision(((HasRevision) updatedEntity).getRevisionNext());
+                }
+            }
+        }
+        updatedObjects.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void collectBulkInserts(Map<String, MongoDbBulkWrite> bulkWrites) {
+        for (Class<? extends Entity> clazz : insertedObjects.keySet()) {
+            Map<String, Entity> entities = insertedObjects.get(clazz);
+            if (!entities.isEmpty()) { // Could have 0 elements due to the optimizations before
+                String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(clazz);
+                if (collectionName == null) {
+                    throw new FlowableIllegalArgumentException("Class " + clazz + " is not mapped to a collection");
+                }
+
+                EntityToDocumentMapper<Entity> entityMapper = getEntityMapper(clazz);
+                MongoDbBulkWrite bulkWrite = getBulkWrite(bulkWrites, collectionName);
+                for (Entity entity : entities.values()) {
+                    bulkWrite.addInsert(createInsertDocument(entityMapper, entity));
+                }
+            }
+        }
+    }
+
+    protected void collectBulkUpdates(Map<String, MongoDbBulkWrite> bulkWrites) {
+        for (Entity updatedEntity : updatedObjects) {
+            String collectionName = mongoDbSessionFactory.getClassToCollectionsMap().get(updatedEntity.getClass());
             BasicDBObject updateBasicDBObject = mongoDbSessionFactory.getDataManagerForCollection(collectionName).createUpdateObject(updatedEntity);
             if (updateBasicDBObject != null) {
+                getBulkWrite(bulkWrites, collectionName).addUpdate(updatedEntity,
+                        createRevisionFilter(updatedEntity), createUpdateDocument(updatedEntity, updateBasicDBObject));
+            }
+        }
+    }
 
-                if (updatedEntity instanceof HasRevision) {
-                    updateBasicDBObject.append("revision", ((HasRevision) updatedEntity).getRevisionNext());
-                }
-
-                MongoCollection<Document> collection = getMongoDatabase().getCollection(collectionName);
-                UpdateResult updateResult = collection
-                    .updateOne(clientSession, Filters.eq("_id", updatedEntity.getId()), new Document().append("$set", updateBasicDBObject));
-                if (updateResult.getModifiedCount() == 0) {
-                    throw new FlowableOptimisticLockingException(updatedEntity + " was updated by another transaction concurrently");
+    protected void collectBulkDeletes(Map<String, MongoDbBulkWrite> bulkWrites) {
+        for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
+            Map<String, ? extends Entity> entities = deletedObjects.get(clazz);
+            if (!entities.isEmpty()) {
+                MongoDbBulkWrite bulkWrite = getBulkWrite(bulkWrites, mongoDbSessionFactory.getClassToCollectionsMap().get(clazz));
+                for (Entity entity : entities.values()) {
+                    bulkWrite.addDelete(entity, createRevisionFilter(entity), entity instanceof HasRevision);
                 }
             }
-            
-            if (updatedEntity instanceof HasRevision) {
-                ((HasRevision) updatedEntity).setRevision(((HasRevision) updatedEntity).getRevisionNext());
-            }
+        }
 
+        // Bulk deletes (no revision check)
+        for (String collectionName : bulkDeletes.keySet()) {
+            MongoDbBulkWrite bulkWrite = getBulkWrite(bulkWrites, collectionName);
+            for (Bson deleteFilter : bulkDeletes.get(collectionName)) {
+                bulkWrite.addBulkDelete(deleteFilter);
+            }
         }
-        updatedObjects.clear();
     }
 
-    public UpdateResult updateImmediately(String collection, Bson filter, BasicDBObject updateDBObject) {
-        MongoCollection<Document> mongoDbCollection = getCollection(collection);
-        return mongoDbCollection.updateOne(clientSession, filter, new Document().append("$set", updateDBObject));
+    protected MongoDbBulkWrite getBulkWrite(Map<String, MongoDbBulkWrite> bulkWrites, String collectionName) {
+        MongoDbBulkWrite bulkWrite = bulkWrites.get(collectionName);
+        if (bulkWrite == null) {
+            bulkWrite = new MongoDbBulkWrite(collectionName);
+            bulkWrites.put(collectionName, bulkWrite);
+        }
+        return bulkWrite;
     }
-    
-    protected void flushDeletes() {
 
-        // Regular deletes
-        if (!deletedObjects.isEmpty()) {
-            for (Class<? extends Entity> clazz : deletedObjects.keySet()) {
-
-                Map<String, ? extends Entity> entities = deletedObjects.get(clazz);
-                if (!entities.isEmpty()) {
+    protected void executeBulkWrite(MongoDbBulkWrite bulkWrite) {
+        MongoCollection<Document> collection = getCollection(bulkWrite.getCollectionName());
 
-                    MongoCollection<Document> mongoDbCollection = getMongoDatabase().getCollection(mongoDbSessionFactory.getClassToCollectionsMap().get(clazz));
-                    for (Entity entity : entities.values()) {
-                        DeleteResult deleteResult = mongoDbCollection.deleteOne(clientSession, Filters.eq("_id", entity.getId()));
+        List<WriteModel<Document>> writeModels = convertIdFieldsOfWriteModels(bulkWrite.getWriteModels());
+        if (!writeModels.isEmpty()) {
+            LOGGER.debug("bulk writing {} operations to collection {}", writeModels.size(), bulkWrite.getCollectionName());
+            BulkWriteResult bulkWriteResult = collection.bulkWrite(clientSession, writeModels, new BulkWriteOptions().ordered(true));
+            verifyBulkWriteResult(bulkWrite, bulkWriteResult);
+        }
 
-                        if (entity instanceof HasRevision && deleteResult.getDeletedCount() == 0) {
-                            throw new FlowableOptimisticLockingException(entity + " was deleted by another transaction concurrently");
-                        }
-                    }
-                }
+        List<WriteModel<Document>> bulkDeleteModels = convertIdFieldsOfWriteModels(bulkWrite.getSeparateBulkDeleteModels());
+        if (!bulkDeleteModels.isEmpty()) {
+            collection.bulkWrite(clientSession, bulkDeleteModels, new BulkWriteOptions().ordered(true));
+        }
+    }
 
-            }
+    /**
+     * The {@link BulkWriteResult} only contains aggregated counts. When those don't match the expected counts,
+     * the affected documents are fetched once more (only _id and revision) to determine which entities were changed concurrently.
+     */
+    protected void verifyBulkWriteResult(MongoDbBulkWrite bulkWrite, BulkWriteResult bulkWriteResult) {
+        List<Entity> updatedEntities = bulkWrite.getUpdatedEntities();
+        if (bulkWriteResult.getMatchedCount() < updatedEntities.size()) {
+            List<Entity> conflictingEntities = findConflictingUpdatedEntities(bulkWrite.getCollectionName(), updatedEntities);
+            throw createOptimisticLockingException(conflictingEntities.isEmpty() ? updatedEntities : conflictingEntities, "updated");
         }
 
-        // Bulk deletes (no revision check)
-        if (!bulkDeletes.isEmpty()) {
-            for (String collectionName : bulkDeletes.keySet()) {
-                MongoCollection<Document> collection = getCollection(collectionName);
+        List<Entity> checkedDeletedEntities = bulkWrite.getCheckedDeletedEntities();
+        if (!checkedDeletedEntities.isEmpty() && bulkWriteResult.getDeletedCount() < bulkWrite.getDeletedEntities().size()) {
+            List<Entity> conflictingEntities = findConflictingDeletedEntities(bulkWrite.getCollectionName(), checkedDeletedEntities);
+            throw createOptimisticLockingException(conflictingEntities.isEmpty() ? checkedDeletedEntities : conflictingEntities, "deleted");
+        }
+    }
 
-                List<Bson> deleteFilters = bulkDeletes.get(collectionName);
-                for (Bson deleteFilter : deleteFilters) {
-                    collection.deleteMany(clientSession, deleteFilter);
+    /**
+     * An update was applied when the document now has the next revision of the entity.
+     * Entities without revision only conflict when their document is gone.
+     */
+    protected List<Entity> findConflictingUpdatedEntities(String collectionName, List<Entity> updatedEntities) {
+        Map<String, Integer> storedRevisions = findStoredRevisions(collectionName, updatedEntities);
+
+        List<Entity> conflictingEntities = new ArrayList<>();
+        for (Entity updatedEntity : updatedEntities) {
+            if (!storedRevisions.containsKey(updatedEntity.getId())) {
+                conflictingEntities.add(updatedEntity);
+
+            } else if (updatedEntity instanceof HasRevision) {
+                Integer storedRevision = storedRevisions.get(updatedEntity.getId());
+                if (storedRevision == null || storedRevision != ((HasRevision) updatedEntity).getRevisionNext()) {
+                    conflictingEntities.add(updatedEntity);
                 }
             }
         }
+        return conflictingEntities;
+    }
+
+    /**
+     * A delete that was guarded by a revision didn't happen when the document is still there.
+     */
+    protected List<Entity> findConflictingDeletedEntities(String collectionName, List<Entity> deletedEntities) {
+        Map<String, Integer> storedRevisions = findStoredRevisions(collectionName, deletedEntities);
+        return deletedEntities.stream()
+            .filter(deletedEntity -> storedRevisions.containsKey(deletedEntity.getId()))
+            .collect(Collectors.toList());
+    }
+
+    protected Map<String, Integer> findStoredRevisions(String collectionName, List<Entity> entities) {
+        List<String> ids = entities.stream().map(Entity::getId).collect(Collectors.toList());
+        Map<String, Integer> storedRevisions = new HashMap<>();
+        for (Document document : getCollection(collectionName).find(clientSession, convertIdFields(Filters.in("_id", ids))).projection(Projections.include("_id", "revision"))) {
+            storedRevisions.put(document.getString("_id"), document.getInteger("revision"));
+        }
+        return storedRevisions;
+    }
+
+    protected FlowableOptimisticLockingException createOptimisticLockingException(List<Entity> entities, String operation) {
+        if (entities.size() == 1) {
+            return new FlowableOptimisticLockingException(entities.get(0) + " was " + operation + " by another transaction concurrently");
+        }
+        return new FlowableOptimisticLockingException("One or more of " + entities + " were " + operation + " by another transaction concurrently");
     }
     
     public <T> List<T> find(String collection, Bson bsonFilter) {
-        FindIterable<Document> documents = findDocuments(collection, bsonFilter);
-        return mapToEntities(collection, documents);
+        return find(collection, bsonFilter, null, 0, 0);
     }
     
     public <T> List<T> find(String collection, Bson bsonFilter, Bson bsonSort) {
-        FindIterable<Document> documents = findDocuments(collection, bsonFilter, bsonSort);
-        return mapToEntities(collection, documents);
+        return find(collection, bsonFilter, bsonSort, 0, 0);
     }
     
     public <T> List<T> find(String collection, Bson bsonFilter, Bson bsonSort, int limit) {
-        FindIterable<Document> documents = findDocuments(collection, bsonFilter, bsonSort, limit);
+        return find(collection, bsonFilter, bsonSort, 0, limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(String collection, Bson bsonFilter, Bson bsonSort, int skip, int limit) {
+        Class<? extends Entity> codecEntityClass = getCodecEntityClass(collection);
+        if (codecEntityClass != null) {
+            List<Object> entities = find(getCollection(collection, codecEntityClass), bsonFilter, bsonSort, skip, limit).into(new ArrayList<>());
+            return cacheLoadOrStore(entities);
+        }
+
+        MongoIterable<Document> documents = findEntityDocuments(collection, bsonFilter, bsonSort, skip, limit);
         return mapToEntities(collection, documents);
     }
     
@@ -251,12 +1164,11 @@ public class MongoDbSession implements Session {
     
     @SuppressWarnings("unchecked")
     public <T extends Entity> List<T> find(String collection, Bson bsonFilter, Object parameter, Class<? extends Entity> entityClass, CachedEntityMatcher<T> cachedEntityMatcher, boolean checkCache) {
-        FindIterable<Document> documents = findDocuments(collection, bsonFilter);
-        Collection<? extends Entity> dbEntities = mapToEntitiesType(collection, documents);
+        Collection<? extends Entity> dbEntities = this.<Entity>find(collection, bsonFilter);
 
         if (checkCache) {
 
-            Collection<CachedEntity> cachedObjects = getEntityCache().findInCacheAsCachedObjects(entityClass);
+            Collection<CachedEntity> cachedObjects = findCachedObjects(entityClass, cachedEntityMatcher, parameter);
 
             if ((cachedObjects != null && cachedObjects.size() > 0)) {
 
@@ -290,7 +1202,7 @@ public class MongoDbSession implements Session {
     }
     
     public <T extends Entity> List<T> findFromCache(CachedEntityMatcher<T> entityMatcher, Object parameter, Class<? extends Entity> entityClass) {
-        Collection<CachedEntity> cachedObjects = getEntityCache().findInCacheAsCachedObjects(entityClass);
+        Collection<CachedEntity> cachedObjects = findCachedObjects(entityClass, entityMatcher, parameter);
 
         List<Entity> result = new ArrayList<>(cachedObjects != null ? cachedObjects.size() : 1);
         if (cachedObjects != null && entityMatcher != null) {
@@ -305,43 +1217,69 @@ public class MongoDbSession implements Session {
         return (List<T>) result;
     }
 
+    /**
+     * The cached entities to check with the matcher: when the {@link MongoDbEntityCache} has an index that answers the matcher,
+     * only the entities with the matching value, otherwise all cached entities of the type.
+     * Entities cached as a subclass of the given type (e.g. a {@link org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl}
+     * for the ExecutionEntityImpl) are included, as the entity cache itself only returns the entities of the exact class.
+     */
+    protected Collection<CachedEntity> findCachedObjects(Class<? extends Entity> entityClass, CachedEntityMatcher<?> cachedEntityMatcher, Object parameter) {
+        if (entityCache instanceof MongoDbEntityCache) {
+            Collection<CachedEntity> indexedCachedObjects = ((MongoDbEntityCache) entityCache).findIndexedCachedObjects(entityClass, cachedEntityMatcher, parameter);
+            if (indexedCachedObjects != null) {
+                return indexedCachedObjects;
+            }
+        }
+
+        Collection<CachedEntity> cachedObjects = entityCache.findInCacheAsCachedObjects(entityClass);
+        for (Map.Entry<Class<?>, Map<String, CachedEntity>> entry : entityCache.getAllCachedEntities().entrySet()) {
+            if (entry.getKey() != entityClass && entityClass.isAssignableFrom(entry.getKey()) && !entry.getValue().isEmpty()) {
+                if (cachedObjects == null) {
+                    cachedObjects = new ArrayList<>(entry.getValue().values());
+                } else {
+                    List<CachedEntity> allCachedObjects = new ArrayList<>(cachedObjects);
+                    allCachedObjects.addAll(entry.getValue().values());
+                    cachedObjects = allCachedObjects;
+                }
+            }
+        }
+        return cachedObjects;
+    }
+
     public <T> T findOne(String collection, Bson bsonFilter) {
         return findOne(collection, bsonFilter, null, -1);
     }
 
+    @SuppressWarnings("unchecked")
     public <T> T findOne(String collection, Bson bsonFilter, Bson sort, int limit) {
-        FindIterable<Document> documents = findDocuments(collection, bsonFilter, sort, limit);
-        if (documents != null) {
-            T entity = mapToEntity(collection, documents);
-            if (entity instanceof Entity) {
-                String id = ((Entity) entity).getId();
-                T cachedEntity = (T) entityCache.findInCache(mongoDbSessionFactory.getClassForCollection(collection), id);
-                if (cachedEntity != null) {
-                    return cachedEntity;
-                }
-
-                entityCache.put((Entity) entity, true); // true -> store state so we can see later if it is updated later on
+        Class<? extends Entity> codecEntityClass = getCodecEntityClass(collection);
+        T entity = codecEntityClass != null
+                ? (T) find(getCollection(collection, codecEntityClass), bsonFilter, sort, 0, limit).first()
+                : mapToEntity(collection, findEntityDocuments(collection, bsonFilter, sort, 0, limit));
+        if (entity instanceof Entity) {
+            String id = ((Entity) entity).getId();
+            T cachedEntity = (T) entityCache.findInCache(mongoDbSessionFactory.getClassForCollection(collection), id);
+            if (cachedEntity != null) {
+                return cachedEntity;
             }
 
-            return entity;
+            entityCache.put((Entity) entity, true); // true -> store state so we can see later if it is updated later on
         }
-        return null;
+
+        return entity;
     }
     
-    public <T> T mapToEntity(String collection, FindIterable<Document> documents) {
-        Iterator<Document> iterator = documents.iterator();
-        if (iterator.hasNext()) {
-            Document document = iterator.next();
-            if (document != null) {
-                EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
-                return (T) entityMapper.fromDocument(document);
-            }
+    public <T> T mapToEntity(String collection, MongoIterable<Document> documents) {
+        Document document = documents.first();
+        if (document != null) {
+            EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
+            return (T) entityMapper.fromDocument(document);
         }
         return null;
     }
     
     @SuppressWarnings("unchecked")
-    public <T> List<T> mapToEntities(String collection, FindIterable<Document> documents) {
+    public <T> List<T> mapToEntities(String collection, MongoIterable<Document> documents) {
         EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
         List<Object> entities = new ArrayList<>();
         for (Document document : documents) {
@@ -351,7 +1289,7 @@ public class MongoDbSession implements Session {
         return cacheLoadOrStore(entities);
     }
     
-    public List<Entity> mapToEntitiesType(String collection, FindIterable<Document> documents) {
+    public List<Entity> mapToEntitiesType(String collection, MongoIterable<Document> documents) {
         EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
         List<Object> entities = new ArrayList<>();
         for (Document document : documents) {
@@ -361,6 +1299,110 @@ public class MongoDbSession implements Session {
         return cacheLoadOrStore(entities);
     }
     
+    /**
+     * Returns a cursor over the entities matching the filter, fetching the configured cursor batch size of documents per round trip.
+     * See {@link #findCursor(String, Bson, Bson, int, boolean)}.
+     */
+    public <T> MongoDbCursor<T> findCursor(String collection, Bson bsonFilter, boolean cacheEntities) {
+        return findCursor(collection, bsonFilter, null, mongoDbSessionFactory.getCursorBatchSize(), cacheEntities);
+    }
+
+    /**
+     * Returns a cursor that maps the entities matching the filter while iterating, fetching batchSize documents per round trip,
+     * for results that are too large to be loaded as a whole with one of the find methods.
+     *
+     * When cacheEntities is true, the entities are stored in the entity cache like with the find methods, so changes to them are flushed.
+     * Read-only callers should pass false, as the cache would otherwise end up holding the full result anyway.
+     * An entity that is already in the cache is returned instead of the loaded one in both cases, as it's the more recent version.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MongoDbCursor<T> findCursor(String collection, Bson bsonFilter, Bson bsonSort, int batchSize, boolean cacheEntities) {
+        Class<? extends Entity> codecEntityClass = getCodecEntityClass(collection);
+        if (codecEntityClass != null) {
+            MongoCursor<? extends Entity> cursor = find(getCollection(collection, codecEntityClass), bsonFilter, bsonSort, 0, 0).batchSize(batchSize).iterator();
+            return new MongoDbCursor<>(cursor, entity -> toCursorEntity(entity, cacheEntities));
+        }
+
+        EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
+        MongoCursor<Document> cursor = findEntityDocuments(collection, bsonFilter, bsonSort, 0, 0).batchSize(batchSize).iterator();
+        return new MongoDbCursor<>(cursor, document -> toCursorEntity(entityMapper.fromDocument(document), cacheEntities));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T> T toCursorEntity(Entity entity, boolean cacheEntities) {
+        if (cacheEntities) {
+            return (T) cacheLoadOrStore(entity);
+        }
+        Entity cachedEntity = entityCache.findInCache(entity.getClass(), entity.getId());
+        return (T) (cachedEntity != null ? cachedEntity : entity);
+    }
+
+    /**
+     * Returns the ids of the documents matching the filter. See {@link #findValues(String, Bson, String)}.
+     */
+    public List<String> findIds(String collection, Bson bsonFilter) {
+        return findValues(collection, bsonFilter, "_id");
+    }
+
+    /**
+     * Returns the value of the given field for every document matching the filter.
+     * The documents are projected on that single field and are not mapped to entities, nor cached.
+     *
+     * When an index contains both the filtered fields and the returned field, the query is covered by that index
+     * and no document needs to be fetched at all.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findValues(String collection, Bson bsonFilter, String field) {
+        Bson projection = "_id".equals(field) ? Projections.include(field) : Projections.fields(Projections.include(field), Projections.excludeId());
+
+        // The unwound documents of embedded aggregates can only be projected after the filter is applied, so they're fetched as a whole
+        MongoIterable<Document> documents = mongoDbSessionFactory.getEmbeddedAggregate(collection) != null
+                ? findEntityDocuments(collection, bsonFilter, null, 0, 0)
+                : find(getCollection(collection), bsonFilter, null, 0, 0).projection(projection);
+
+        List<T> values = new ArrayList<>();
+        try (MongoCursor<Document> cursor = documents
+                .batchSize(mongoDbSessionFactory.getCursorBatchSize())
+                .iterator()) {
+
+            while (cursor.hasNext()) {
+                values.add((T) cursor.next().get(field));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Atomically updates the first document matching the filter and returns the entity of the document after the update.
+     *
+     * Unlike the other writes, this doesn't start the transaction: when none is active yet,
+     * the update is applied (and visible for others) immediately. This is used for claiming documents,
+     * where holding the claim in a transaction would make concurrent claimers conflict.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T findOneAndUpdate(String collection, Bson filter, Bson update) {
+        definitionCacheCollectionChanged(collection);
+        Document document = getCollection(collection).findOneAndUpdate(clientSession, convertIdFields(filter), convertIdFields(update),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+        if (document == null) {
+            return null;
+        }
+
+        EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
+        List<Object> entities = new ArrayList<>(1);
+        entities.add(entityMapper.fromDocument(document));
+        return (T) cacheLoadOrStore(entities).get(0);
+    }
+    
+    /**
+     * Updates all documents matching the filter with the given update document (not wrapped in a $set).
+     * Like {@link #findOneAndUpdate(String, Bson, Bson)}, this doesn't start the transaction.
+     */
+    public UpdateResult updateMany(String collection, Bson filter, Bson update) {
+        definitionCacheCollectionChanged(collection);
+        return getCollection(collection).updateMany(clientSession, convertIdFields(filter), convertIdFields(update));
+    }
+    
     public FindIterable<Document> findDocuments(String collection, Bson bsonFilter) {
         return findDocuments(collection, bsonFilter, null);
     }
@@ -370,10 +1412,117 @@ public class MongoDbSession implements Session {
     }
     
     public FindIterable<Document> findDocuments(String collection, Bson bsonFilter, Bson bsonSort, int limit) {
-        MongoCollection<Document> mongoDbCollection = getCollection(collection);
-        FindIterable<Document> documentResult = null;
+        return findDocuments(collection, bsonFilter, bsonSort, 0, limit);
+    }
+
+    public FindIterable<Document> findDocuments(String collection, Bson bsonFilter, Bson bsonSort, int skip, int limit) {
+        return find(getCollection(collection), bsonFilter, bsonSort, skip, limit);
+    }
+
+    /**
+     * The documents to map to entities. These are the documents of the collection,
+     * except for a collection with embedded aggregates, where these are the unwound aggregate documents (see {@link MongoDbEmbeddedAggregate}).
+     */
+    protected MongoIterable<Document> findEntityDocuments(String collection, Bson bsonFilter, Bson bsonSort, int skip, int limit) {
+        MongoDbEmbeddedAggregate embeddedAggregate = mongoDbSessionFactory.getEmbeddedAggregate(collection);
+        if (embeddedAggregate != null) {
+            return getCollection(collection)
+                    .aggregate(clientSession, convertIdFieldsOfPipeline(embeddedAggregate.createPipeline(bsonFilter, bsonSort, skip, limit)))
+                    .map(this::trackEmbeddedAggregateDocument);
+        }
+        if (!mongoDbSessionFactory.getColocatedEntitiesOfOwner(collection).isEmpty()) {
+            return find(getCollection(collection), bsonFilter, bsonSort, skip, limit).map(document -> loadColocatedEntities(collection, document));
+        }
+        return find(getCollection(collection), bsonFilter, bsonSort, skip, limit);
+    }
+
+    /**
+     * Puts the entities stored in an owner document in the entity cache, so looking them up for the owner doesn't need another query.
+     * See {@link MongoDbColocatedEntities}.
+     */
+    @SuppressWarnings("unchecked")
+    protected Document loadColocatedEntities(String ownerCollection, Document document) {
+        String ownerId = document.getString("_id");
+        for (MongoDbColocatedEntities colocatedEntities : mongoDbSessionFactory.getColocatedEntitiesOfOwner(ownerCollection)) {
+            Object colocatedDocuments = document.get(colocatedEntities.getField());
+            colocatedOwners.put(ownerId, colocatedDocuments instanceof Document);
+            if (colocatedDocuments instanceof Document) {
+                EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getMapperForCollection(colocatedEntities.getCollection());
+                for (Object colocatedDocument : ((Document) colocatedDocuments).values()) {
+                    Entity entity = cacheLoadOrStore(entityMapper.fromDocument((Document) colocatedDocument));
+                    colocatedEntityIds.add(entity.getId());
+                }
+                loadedColocatedOwnerIds.add(ownerId);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Returns the entities of the collection that are stored in the owner documents of the owner collection matching the filter.
+     * The entities that are documents of their own are not part of the result.
+     */
+    public <T> List<T> findColocated(String collection, String ownerCollection, Bson ownerFilter) {
+        return findColocated(collection, ownerCollection, ownerFilter, null, null, 0);
+    }
+
+    /**
+     * Returns the first (limit) entities matching the entity filter, in the given sort order, of the entities of the collection
+     * that are stored in the owner documents of the owner collection matching the owner filter.
+     * The entity filter, sort and limit are optional, see {@link MongoDbColocatedEntities#createPipeline(Bson, Bson, Bson, int)}.
+     */
+    public <T> List<T> findColocated(String collection, String ownerCollection, Bson ownerFilter, Bson entityFilter, Bson sort, int limit) {
+        MongoDbColocatedEntities colocatedEntities = mongoDbSessionFactory.getColocatedEntities(collection);
+        if (colocatedEntities == null) {
+            return new ArrayList<>();
+        }
+        List<Bson> pipeline = colocatedEntities.createPipeline(ownerFilter, entityFilter, sort, limit);
+        MongoIterable<Document> documents = getCollection(ownerCollection).aggregate(clientSession, convertIdFieldsOfPipeline(pipeline)).map(document -> {
+            colocatedEntityIds.add(document.getString("_id"));
+            return document;
+        });
+        return mapToEntities(collection, documents);
+    }
+
+    /**
+     * Counts the entities of the collection that are stored in the owner documents of the owner collection matching the owner filter
+     * and, when not null, the entity filter. Like {@link #findColocated(String, String, Bson)}, the entities that are documents of their own are not counted.
+     */
+    public long countColocated(String collection, String ownerCollection, Bson ownerFilter, Bson entityFilter) {
+        MongoDbColocatedEntities colocatedEntities = mongoDbSessionFactory.getColocatedEntities(collection);
+        if (colocatedEntities == null) {
+            return 0L;
+        }
+        Document countDocument = getCollection(ownerCollection).aggregate(clientSession, convertIdFieldsOfPipeline(colocatedEntities.createCountPipeline(ownerFilter, entityFilter))).first();
+        return countDocument != null ? ((Number) countDocument.get("count")).longValue() : 0L;
+    }
+
+    /**
+     * Whether all entities stored in the given owner document are in the entity cache, see {@link MongoDbColocatedEntities}.
+     * When true, looking up the entities of the owner can be answered from the cache.
+     */
+    public boolean isColocatedOwnerLoaded(String ownerId) {
+        return loadedColocatedOwnerIds.contains(ownerId);
+    }
+
+    /**
+     * Remembers the aggregate an unwound document is embedded in, or the embedded size of an aggregate root,
+     * for writing the changes of its entity later on.
+     */
+    protected Document trackEmbeddedAggregateDocument(Document document) {
+        String aggregateId = document.getString(MongoDbEmbeddedAggregate.AGGREGATE_ID_FIELD);
+        if (aggregateId != null) {
+            embeddedEntityAggregateIds.put(document.getString("_id"), aggregateId);
+        } else if (document.get(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD) instanceof Number) {
+            aggregateEmbeddedSizes.put(document.getString("_id"), ((Number) document.get(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD)).longValue());
+        }
+        return document;
+    }
+
+    protected <D> FindIterable<D> find(MongoCollection<D> mongoDbCollection, Bson bsonFilter, Bson bsonSort, int skip, int limit) {
+        FindIterable<D> documentResult = null;
         if (bsonFilter != null) {
-            documentResult = mongoDbCollection.find(clientSession, bsonFilter);
+            documentResult = mongoDbCollection.find(clientSession, convertIdFields(bsonFilter));
         } else {
             documentResult = mongoDbCollection.find(clientSession);
         }
@@ -382,6 +1531,10 @@ public class MongoDbSession implements Session {
             documentResult = documentResult.sort(bsonSort);
         }
         
+        if (skip > 0) {
+            documentResult = documentResult.skip(skip);
+        }
+
         if (limit > 0) {
             documentResult = documentResult.limit(limit);
         }
@@ -396,44 +1549,137 @@ public class MongoDbSession implements Session {
         if (entity != null) {
             return entity;
         }
-        
-        Document document = findOneDocument(collection, id);
-        if (document == null) {
-            return null;
+
+        Set<String> pendingIds = pendingIdLookups.remove(collection);
+        if (pendingIds != null) {
+            pendingIds.add(id);
+            find(collection, Filters.in("_id", pendingIds));
+            return (T) entityCache.findInCache(mongoDbSessionFactory.getClassForCollection(collection), id);
         }
         
-        EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
-        entity = (T) entityMapper.fromDocument(document);
+        Class<? extends Entity> codecEntityClass = getCodecEntityClass(collection);
+        if (codecEntityClass != null) {
+            entity = (T) getCollection(collection, codecEntityClass).find(clientSession, convertIdFields(Filters.eq("_id", id))).first();
+            if (entity == null) {
+                return null;
+            }
+
+        } else {
+            Document document = findOneDocument(collection, id);
+            if (document == null) {
+                return null;
+            }
+
+            EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
+            entity = (T) entityMapper.fromDocument(document);
+        }
         
         entityCache.put((Entity) entity, true); // true -> store state so we can see later if it is updated later on
         return entity;
     }
     
+    /**
+     * Announces ids of the collection that are likely to be looked up with {@link #findOne(String, String)} later in the command.
+     * The first of those lookups that misses the entity cache then loads all announced ids with one $in query and puts them in the entity cache,
+     * so the lookups that follow don't need a round trip of their own.
+     *
+     * Only does something when find by id batching is enabled. Ids that are null or already cached are ignored,
+     * and so are the collections of the {@link MongoDbDefinitionCache}, which are already cached across commands.
+     */
+    public void prefetch(String collection, Collection<String> ids) {
+        if (!mongoDbSessionFactory.isFindByIdBatchingEnabled() || getDefinitionCache(collection) != null) {
+            return;
+        }
+
+        Class<? extends Entity> entityClass = mongoDbSessionFactory.getClassForCollection(collection);
+        for (String id : ids) {
+            if (id != null && entityCache.findInCache(entityClass, id) == null) {
+                pendingIdLookups.computeIfAbsent(collection, key -> new LinkedHashSet<>()).add(id);
+            }
+        }
+    }
+    
     public Document findOneDocument(String collection, String id) {
+        MongoDbDefinitionCache definitionCache = getDefinitionCache(collection);
+        if (definitionCache != null) {
+            Document document = definitionCache.get(collection, id);
+            if (document != null) {
+                return document;
+            }
+
+            long generation = definitionCache.getGeneration(collection);
+            document = findDocuments(collection, Filters.eq("_id", id)).first();
+            if (document != null && canPopulateDefinitionCache()) {
+                definitionCache.put(collection, document, generation);
+            }
+            return document;
+        }
+
         Bson filter = Filters.eq("_id", id);
-        FindIterable<Document> documents = findDocuments(collection, filter);
+        MongoIterable<Document> documents = findEntityDocuments(collection, filter, null, 0, 0);
         if (documents != null) {
-            // TODO: caching
             return documents.first();
         }
         return null;
     }
+
+    /**
+     * Finds one entity of a collection of the {@link MongoDbDefinitionCache}, where the lookup key uniquely stands for the filter.
+     * When the collection isn't cached, this is the same as {@link #findOne(String, Bson)}.
+     * An empty result is never cached, as it typically means the entity is about to be created.
+     */
+    public <T> T findOneCached(String collection, Bson bsonFilter, String lookupKey) {
+        MongoDbDefinitionCache definitionCache = getDefinitionCache(collection);
+        if (definitionCache == null) {
+            return findOne(collection, bsonFilter);
+        }
+
+        Document document = definitionCache.getByLookupKey(collection, lookupKey);
+        if (document == null) {
+            long generation = definitionCache.getGeneration(collection);
+            document = findDocuments(collection, bsonFilter).first();
+            if (document == null) {
+                return null;
+            }
+            if (canPopulateDefinitionCache()) {
+                definitionCache.put(collection, lookupKey, document, generation);
+            }
+        }
+
+        T cachedEntity = (T) entityCache.findInCache(mongoDbSessionFactory.getClassForCollection(collection), document.getString("_id"));
+        if (cachedEntity != null) {
+            return cachedEntity;
+        }
+
+        EntityToDocumentMapper<? extends Entity> entityMapper = mongoDbSessionFactory.getCollectionToMapper().get(collection);
+        T entity = (T) entityMapper.fromDocument(document);
+        entityCache.put((Entity) entity, true); // true -> store state so we can see later if it is updated later on
+        return entity;
+    }
     
     public long count(String collection, Bson bsonFilter) {
         MongoCollection<Document> mongoDbCollection = getCollection(collection);
+        MongoDbEmbeddedAggregate embeddedAggregate = mongoDbSessionFactory.getEmbeddedAggregate(collection);
+        if (embeddedAggregate != null) {
+            Document countDocument = mongoDbCollection.aggregate(clientSession, convertIdFieldsOfPipeline(embeddedAggregate.createCountPipeline(bsonFilter))).first();
+            return countDocument != null ? ((Number) countDocument.get("count")).longValue() : 0L;
+        }
+
         if (bsonFilter != null) {
-            return mongoDbCollection.countDocuments(clientSession, bsonFilter);
+            return mongoDbCollection.countDocuments(clientSession, convertIdFields(bsonFilter));
         } else {
             return mongoDbCollection.countDocuments(clientSession);
         }
     }
     
     public void update(Entity entity) {
+        ensureTransactionStarted();
         entityCache.put(entity, false); // false -> we don't store state, meaning it will always be seen as changed
         entity.setUpdated(true);
     }
     
     public void delete(String collection, Entity entity) {
+        ensureTransactionStarted();
         Class<? extends Entity> clazz = entity.getClass();
         if (!deletedObjects.containsKey(clazz)) {
             deletedObjects.put(clazz, new LinkedHashMap<>()); // order of insert is important, hence LinkedHashMap
@@ -443,6 +1689,7 @@ public class MongoDbSession implements Session {
     }
 
     public void bulkDelete(String collection, Bson filter) {
+        ensureTransactionStarted();
         List<Bson> deleteFilters = bulkDeletes.get(collection);
         if (deleteFilters == null) {
             deleteFilters = new ArrayList<>();
@@ -574,10 +1821,71 @@ public class MongoDbSession implements Session {
         return entity;
     }
     
+    /**
+     * The mapper of the entity class, typed to map any entity: the entities passed to it are always of the entity class.
+     */
+    @SuppressWarnings("unchecked")
+    protected EntityToDocumentMapper<Entity> getEntityMapper(Class<? extends Entity> entityClass) {
+        return (EntityToDocumentMapper<Entity>) mongoDbSessionFactory.getMapperForEntityClass(entityClass);
+    }
+
     protected MongoCollection<Document> getCollection(String collection) {
         return getMongoDatabase().getCollection(collection);
     }
 
+    protected <E extends Entity> MongoCollection<E> getCollection(String collection, Class<E> entityClass) {
+        return getMongoDatabase().getCollection(collection, entityClass);
+    }
+
+    /**
+     * Converts the id fields of a filter or update to ObjectIds when binary id storage is enabled, see {@link ObjectIdFieldConverter}.
+     */
+    protected Bson convertIdFields(Bson bson) {
+        ObjectIdFieldConverter objectIdFieldConverter = mongoDbSessionFactory.getObjectIdFieldConverter();
+        return objectIdFieldConverter != null ? objectIdFieldConverter.convert(bson, getMongoDatabase().getCodecRegistry()) : bson;
+    }
+
+    protected List<? extends Bson> convertIdFieldsOfPipeline(List<? extends Bson> pipeline) {
+        ObjectIdFieldConverter objectIdFieldConverter = mongoDbSessionFactory.getObjectIdFieldConverter();
+        return objectIdFieldConverter != null ? objectIdFieldConverter.convert(pipeline, getMongoDatabase().getCodecRegistry()) : pipeline;
+    }
+
+    protected Document convertIdFieldsOfDocument(Document document) {
+        ObjectIdFieldConverter objectIdFieldConverter = mongoDbSessionFactory.getObjectIdFieldConverter();
+        return objectIdFieldConverter != null ? objectIdFieldConverter.convert(document) : document;
+    }
+
+    protected List<WriteModel<Document>> convertIdFieldsOfWriteModels(List<WriteModel<Document>> writeModels) {
+        ObjectIdFieldConverter objectIdFieldConverter = mongoDbSessionFactory.getObjectIdFieldConverter();
+        if (objectIdFieldConverter == null) {
+            return writeModels;
+        }
+        List<WriteModel<Document>> convertedWriteModels = new ArrayList<>(writeModels.size());
+        for (WriteModel<Document> writeModel : writeModels) {
+            convertedWriteModels.add(objectIdFieldConverter.convert(writeModel, getMongoDatabase().getCodecRegistry()));
+        }
+        return convertedWriteModels;
+    }
+
+    /**
+     * The class of the entities the collection is read into with its entity codec, or null when the documents of the collection are mapped
+     * (no codec is registered, or the collection is in the definition cache, which caches documents).
+     */
+    protected Class<? extends Entity> getCodecEntityClass(String collection) {
+        AbstractEntityCodec<? extends Entity> codec = mongoDbSessionFactory.getCodecForCollection(collection);
+        if (codec == null) {
+            return null;
+        }
+        MongoDbDefinitionCache definitionCache = mongoDbSessionFactory.getDefinitionCache();
+        if (definitionCache != null && definitionCache.isCached(collection)) {
+            return null;
+        }
+        if (mongoDbSessionFactory.getEmbeddedAggregate(collection) != null || !mongoDbSessionFactory.getColocatedEntitiesOfOwner(collection).isEmpty()) {
+            return null;
+        }
+        return codec.getEncoderClass();
+    }
+
     public MongoDbSessionFactory getMongoDbSessionFactory() {
         return mongoDbSessionFactory;
     }
@@ -619,12 +1927,16 @@ public class MongoDbSession implements Session {
     }
 
     public UpdateResult updateOne(String collection, Bson filter, Bson update) {
+        ensureTransactionStarted();
+        definitionCacheCollectionChanged(collection);
         MongoCollection<Document> mongoDbCollection = getCollection(collection);
-        return mongoDbCollection.updateOne(clientSession, filter, new Document().append("$set", update));
+        return mongoDbCollection.updateOne(clientSession, convertIdFields(filter), convertIdFields(new Document().append("$set", update)));
     }
 
     public UpdateResult bulkUpdate(String collection, Bson filter, Bson update) {
+        ensureTransactionStarted();
+        definitionCacheCollectionChanged(collection);
         MongoCollection<Document> mongoDbCollection = getCollection(collection);
-        return mongoDbCollection.updateMany(clientSession, filter, new Document().append("$set", update));
+        return mongoDbCollection.updateMany(clientSession, convertIdFields(filter), convertIdFields(new Document().append("$set", update)));
     }
 }
@@ -12,40 +12,62 @@
  */
 package org.flowable.mongodb.persistence;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
+
 import org.flowable.common.engine.impl.context.Context;
 import org.flowable.common.engine.impl.interceptor.CommandContext;
 import org.flowable.common.engine.impl.interceptor.Session;
 import org.flowable.common.engine.impl.interceptor.SessionFactory;
 import org.flowable.common.engine.impl.persistence.cache.EntityCache;
-import org.flowable.common.engine.impl.persistence.entity.ByteArrayEntityImpl;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.impl.persistence.entity.ActivityInstanceEntityImpl;
 import org.flowable.engine.impl.persistence.entity.CommentEntityImpl;
 import org.flowable.engine.impl.persistence.entity.DeploymentEntityImpl;
-import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
 import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntityImpl;
 import org.flowable.engine.impl.persistence.entity.HistoricDetailEntityImpl;
 import org.flowable.engine.impl.persistence.entity.HistoricProcessInstanceEntityImpl;
-import org.flowable.engine.impl.persistence.entity.ResourceEntityImpl;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
 import org.flowable.eventsubscription.service.impl.persistence.entity.CompensateEventSubscriptionEntityImpl;
 import org.flowable.eventsubscription.service.impl.persistence.entity.MessageEventSubscriptionEntityImpl;
 import org.flowable.eventsubscription.service.impl.persistence.entity.SignalEventSubscriptionEntityImpl;
 import org.flowable.identitylink.service.impl.persistence.entity.HistoricIdentityLinkEntityImpl;
 import org.flowable.identitylink.service.impl.persistence.entity.IdentityLinkEntityImpl;
 import org.flowable.job.service.impl.persistence.entity.JobEntityImpl;
+import org.flowable.job.service.impl.persistence.entity.ExternalWorkerJobEntityImpl;
 import org.flowable.job.service.impl.persistence.entity.TimerJobEntityImpl;
+import org.flowable.mongodb.persistence.aggregate.MongoDbColocatedEntities;
+import org.flowable.mongodb.persistence.aggregate.MongoDbEmbeddedAggregate;
+import org.flowable.mongodb.persistence.codec.AbstractEntityCodec;
+import org.flowable.mongodb.persistence.codec.ExecutionEntityCodec;
+import org.flowable.mongodb.persistence.codec.HistoricActivityInstanceEntityCodec;
+import org.flowable.mongodb.persistence.codec.JobEntityCodec;
+import org.flowable.mongodb.persistence.codec.TaskEntityCodec;
+import org.flowable.mongodb.persistence.codec.VariableInstanceEntityCodec;
+import org.flowable.mongodb.persistence.entity.MongoDbByteArrayEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
 import org.flowable.mongodb.persistence.entity.MongoDbModelEntityImpl;
 import org.flowable.mongodb.persistence.entity.MongoDbProcessDefinitionEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbResourceEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompression;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
+import org.flowable.mongodb.persistence.id.ObjectIdFieldConverter;
 import org.flowable.mongodb.persistence.manager.AbstractMongoDbDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbActivityInstanceDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbCommentDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbDeploymentDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbEventSubscriptionDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbExternalWorkerJobDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricActivityInstanceDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricDetailDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricIdentityLinkDataManager;
@@ -61,11 +83,13 @@ import org.flowable.mongodb.persistence.manager.MongoDbResourceDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbTimerJobDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbVariableInstanceDataManager;
+import org.flowable.mongodb.persistence.mapper.AbstractEntityToDocumentMapper;
 import org.flowable.mongodb.persistence.mapper.ActivityInstanceEntityMapper;
 import org.flowable.mongodb.persistence.mapper.CommentEntityMapper;
 import org.flowable.mongodb.persistence.mapper.DeploymentEntityMapper;
 import org.flowable.mongodb.persistence.mapper.EventSubscriptionEntityMapper;
 import org.flowable.mongodb.persistence.mapper.ExecutionEntityMapper;
+import org.flowable.mongodb.persistence.mapper.ExternalWorkerJobEntityMapper;
 import org.flowable.mongodb.persistence.mapper.HistoricActivityInstanceEntityMapper;
 import org.flowable.mongodb.persistence.mapper.HistoricDetailEntityMapper;
 import org.flowable.mongodb.persistence.mapper.HistoricIdentityLinkEntityMapper;
@@ -84,7 +108,6 @@ import org.flowable.mongodb.persistence.mapper.VariableInstanceEntityMapper;
 import org.flowable.task.service.impl.persistence.entity.HistoricTaskInstanceEntityImpl;
 import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
 import org.flowable.variable.service.impl.persistence.entity.HistoricVariableInstanceEntityImpl;
-import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntityImpl;
 
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoDatabase;
@@ -97,12 +120,24 @@ public class MongoDbSessionFactory implements SessionFactory {
     protected MongoClient mongoClient;
     protected MongoDatabase mongoDatabase;
     protected ClientSessionProvider clientSessionProvider;
+    protected boolean bulkWriteFlushEnabled;
+    protected int cursorBatchSize = 1000;
+    protected boolean findByIdBatchingEnabled;
+    protected boolean binaryIdStorageEnabled;
+    protected ObjectIdFieldConverter objectIdFieldConverter = new ObjectIdFieldConverter();
+    protected MongoDbDefinitionCache definitionCache;
+    protected MongoDbGridFsStorage gridFsStorage;
+    protected MongoDbPayloadCompression payloadCompression = new MongoDbPayloadCompression();
 
     protected Map<Class<? extends Entity>, EntityToDocumentMapper<? extends Entity>> entityMappers = new HashMap<>();
     protected Map<Class<? extends Entity>, String> classToCollectionMap = new HashMap<>();
     protected Map<String, EntityToDocumentMapper<? extends Entity>> collectionToMapperMap = new HashMap<>();
     protected Map<String, Class<? extends Entity>> collectionToClassMap = new HashMap<>();
     protected Map<String, AbstractMongoDbDataManager> collectionToDataManager = new HashMap<>();
+    protected Map<String, AbstractEntityCodec<? extends Entity>> collectionToCodecMap = new HashMap<>();
+    protected Map<String, MongoDbEmbeddedAggregate> collectionToEmbeddedAggregateMap = new HashMap<>();
+    protected Map<String, MongoDbColocatedEntities> collectionToColocatedEntitiesMap = new HashMap<>();
+    protected Map<String, List<MongoDbColocatedEntities>> ownerCollectionToColocatedEntitiesMap = new HashMap<>();
 
     public MongoDbSessionFactory(MongoClient mongoClient, MongoDatabase mongoDatabase) {
         this(mongoClient, mongoDatabase, null);
@@ -117,11 +152,11 @@ public class MongoDbSessionFactory implements SessionFactory {
     }
 
     protected void initDefaultMappers() {
-        registerEntityMapper(ByteArrayEntityImpl.class,new JobByteArrayEntityMapper(), MongoDbJobByteArrayDataManager.COLLECTION_JOB_BYTE_ARRAY);
+        registerEntityMapper(MongoDbByteArrayEntityImpl.class,new JobByteArrayEntityMapper(), MongoDbJobByteArrayDataManager.COLLECTION_JOB_BYTE_ARRAY);
         registerEntityMapper(DeploymentEntityImpl.class, new DeploymentEntityMapper(), MongoDbDeploymentDataManager.COLLECTION_DEPLOYMENT);
-        registerEntityMapper(ResourceEntityImpl.class, new ResourceEntityMapper(), MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY);
+        registerEntityMapper(MongoDbResourceEntityImpl.class, new ResourceEntityMapper(), MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY);
         registerEntityMapper(MongoDbProcessDefinitionEntityImpl.class, new ProcessDefinitionEntityMapper(), MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS);
-        registerEntityMapper(ExecutionEntityImpl.class, new ExecutionEntityMapper(), MongoDbExecutionDataManager.COLLECTION_EXECUTIONS);
+        registerEntityMapper(MongoDbExecutionEntityImpl.class, new ExecutionEntityMapper(), MongoDbExecutionDataManager.COLLECTION_EXECUTIONS);
         registerEntityMapper(SignalEventSubscriptionEntityImpl.class, new EventSubscriptionEntityMapper(), MongoDbEventSubscriptionDataManager.COLLECTION_EVENT_SUBSCRIPTION);
         registerEntityMapper(MessageEventSubscriptionEntityImpl.class, new EventSubscriptionEntityMapper(), MongoDbEventSubscriptionDataManager.COLLECTION_EVENT_SUBSCRIPTION);
         registerEntityMapper(CompensateEventSubscriptionEntityImpl.class, new EventSubscriptionEntityMapper(), MongoDbEventSubscriptionDataManager.COLLECTION_EVENT_SUBSCRIPTION);
@@ -130,11 +165,12 @@ public class MongoDbSessionFactory implements SessionFactory {
 
         registerEntityMapper(TaskEntityImpl.class, new TaskEntityMapper(), MongoDbTaskDataManager.COLLECTION_TASKS);
         registerEntityMapper(HistoricTaskInstanceEntityImpl.class, new HistoricTaskInstanceEntityMapper(), MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES);
-        registerEntityMapper(VariableInstanceEntityImpl.class, new VariableInstanceEntityMapper(), MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES);
+        registerEntityMapper(MongoDbVariableInstanceEntityImpl.class, new VariableInstanceEntityMapper(), MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES);
         registerEntityMapper(MongoDbModelEntityImpl.class, new ModelEntityMapper(), MongoDbModelDataManager.COLLECTION_MODELS);
 
         registerEntityMapper(JobEntityImpl.class, new JobEntityMapper(), MongoDbJobDataManager.COLLECTION_JOBS);
         registerEntityMapper(TimerJobEntityImpl.class, new TimerJobEntityMapper(), MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS);
+        registerEntityMapper(ExternalWorkerJobEntityImpl.class, new ExternalWorkerJobEntityMapper(), MongoDbExternalWorkerJobDataManager.COLLECTION_EXTERNAL_WORKER_JOBS);
 
         registerEntityMapper(HistoricProcessInstanceEntityImpl.class, new HistoricProcessInstanceEntityMapper(), MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES);
         registerEntityMapper(HistoricActivityInstanceEntityImpl.class, new HistoricActivityInstanceEntityMapper(), MongoDbHistoricActivityInstanceDataManager.COLLECTION_HISTORIC_ACTIVITY_INSTANCES);
@@ -163,12 +199,99 @@ public class MongoDbSessionFactory implements SessionFactory {
         classToCollectionMap.put(clazz, collection);
         collectionToClassMap.put(collection, clazz);
         collectionToMapperMap.put(collection, mapper);
+
+        if (mapper instanceof AbstractEntityToDocumentMapper) {
+            ((AbstractEntityToDocumentMapper<?>) mapper).setPayloadCompression(payloadCompression);
+        }
     }
 
     public void registerDataManager(String collection, AbstractMongoDbDataManager dataManager) {
         collectionToDataManager.put(collection, dataManager);
     }
 
+    /**
+     * Registers the codecs of the entities that are read and written the most (executions, tasks, variables, jobs and historic activities).
+     * The mongo database needs a codec registry containing them, see {@link #createCodecRegistry(CodecRegistry)}.
+     */
+    public void registerDefaultEntityCodecs() {
+        registerEntityCodec(new ExecutionEntityCodec());
+        registerEntityCodec(new TaskEntityCodec());
+        registerEntityCodec(new VariableInstanceEntityCodec());
+        registerEntityCodec(new JobEntityCodec());
+        registerEntityCodec(new HistoricActivityInstanceEntityCodec());
+    }
+
+    /**
+     * Registers a codec for an entity class that already has a mapper. The documents of its collection are then decoded
+     * (and the inserted entities encoded) by the codec, while the mapper is still used where a Document is needed.
+     */
+    public void registerEntityCodec(AbstractEntityCodec<? extends Entity> codec) {
+        String collection = classToCollectionMap.get(codec.getEncoderClass());
+        if (collection == null) {
+            throw new FlowableIllegalArgumentException("No mapper registered for " + codec.getEncoderClass());
+        }
+        codec.setPayloadCompression(payloadCompression);
+        codec.setObjectIdFieldConverter(binaryIdStorageEnabled ? objectIdFieldConverter : null);
+        collectionToCodecMap.put(collection, codec);
+    }
+
+    /**
+     * Creates a codec registry with the registered entity codecs, falling back to the given registry for all other classes.
+     */
+    public CodecRegistry createCodecRegistry(CodecRegistry codecRegistry) {
+        return CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(new ArrayList<>(collectionToCodecMap.values())), codecRegistry);
+    }
+
+    public AbstractEntityCodec<? extends Entity> getCodecForCollection(String collection) {
+        return collectionToCodecMap.get(collection);
+    }
+
+    /**
+     * Stores the entities of the collection embedded in the document of their aggregate root.
+     * Entity codecs are not used for such a collection, as they don't know about the embedded documents.
+     */
+    public void registerEmbeddedAggregate(MongoDbEmbeddedAggregate embeddedAggregate) {
+        if (!collectionToMapperMap.containsKey(embeddedAggregate.getCollection())) {
+            throw new FlowableIllegalArgumentException("No mapper registered for collection " + embeddedAggregate.getCollection());
+        }
+        collectionToEmbeddedAggregateMap.put(embeddedAggregate.getCollection(), embeddedAggregate);
+    }
+
+    public MongoDbEmbeddedAggregate getEmbeddedAggregate(String collection) {
+        return collectionToEmbeddedAggregateMap.get(collection);
+    }
+
+    /**
+     * Stores the entities of the collection in the document of their owner, when they have one.
+     * Entity codecs are not used for the owner collections, as they don't know about the stored entities.
+     */
+    public void registerColocatedEntities(MongoDbColocatedEntities colocatedEntities) {
+        if (!collectionToMapperMap.containsKey(colocatedEntities.getCollection())) {
+            throw new FlowableIllegalArgumentException("No mapper registered for collection " + colocatedEntities.getCollection());
+        }
+        for (String ownerCollection : colocatedEntities.getOwnerCollections()) {
+            if (!collectionToMapperMap.containsKey(ownerCollection)) {
+                throw new FlowableIllegalArgumentException("No mapper registered for collection " + ownerCollection);
+            }
+            if (collectionToEmbeddedAggregateMap.containsKey(ownerCollection)) {
+                throw new FlowableIllegalArgumentException("Entities can't be stored in the documents of " + ownerCollection + ", as it has embedded aggregates");
+            }
+            ownerCollectionToColocatedEntitiesMap.computeIfAbsent(ownerCollection, key -> new ArrayList<>()).add(colocatedEntities);
+        }
+        collectionToColocatedEntitiesMap.put(colocatedEntities.getCollection(), colocatedEntities);
+    }
+
+    public MongoDbColocatedEntities getColocatedEntities(String collection) {
+        return collectionToColocatedEntitiesMap.get(collection);
+    }
+
+    /**
+     * The entities that are stored in the documents of the given collection, or an empty list.
+     */
+    public List<MongoDbColocatedEntities> getColocatedEntitiesOfOwner(String ownerCollection) {
+        return ownerCollectionToColocatedEntitiesMap.getOrDefault(ownerCollection, Collections.emptyList());
+    }
+
     public MongoClient getMongoClient() {
         return mongoClient;
     }
@@ -185,6 +308,86 @@ public class MongoDbSessionFactory implements SessionFactory {
         this.mongoDatabase = mongoDatabase;
     }
 
+    public boolean isBulkWriteFlushEnabled() {
+        return bulkWriteFlushEnabled;
+    }
+
+    public void setBulkWriteFlushEnabled(boolean bulkWriteFlushEnabled) {
+        this.bulkWriteFlushEnabled = bulkWriteFlushEnabled;
+    }
+
+    /**
+     * Whether ids announced with {@link MongoDbSession#prefetch(String, java.util.Collection)} are loaded with one query on the first lookup.
+     */
+    public boolean isFindByIdBatchingEnabled() {
+        return findByIdBatchingEnabled;
+    }
+
+    public void setFindByIdBatchingEnabled(boolean findByIdBatchingEnabled) {
+        this.findByIdBatchingEnabled = findByIdBatchingEnabled;
+    }
+
+    public boolean isBinaryIdStorageEnabled() {
+        return binaryIdStorageEnabled;
+    }
+
+    /**
+     * Must be set before the entity codecs are registered. The mongo database needs the codec registry of the
+     * {@link org.flowable.mongodb.persistence.id.ObjectIdStringCodec} as well.
+     */
+    public void setBinaryIdStorageEnabled(boolean binaryIdStorageEnabled) {
+        this.binaryIdStorageEnabled = binaryIdStorageEnabled;
+    }
+
+    /**
+     * The converter of the id fields stored as ObjectId, null when binary id storage isn't enabled.
+     */
+    public ObjectIdFieldConverter getObjectIdFieldConverter() {
+        return binaryIdStorageEnabled ? objectIdFieldConverter : null;
+    }
+
+    /**
+     * Must be set before the entity codecs are registered.
+     */
+    public void setObjectIdFieldConverter(ObjectIdFieldConverter objectIdFieldConverter) {
+        this.objectIdFieldConverter = objectIdFieldConverter;
+    }
+
+    public int getCursorBatchSize() {
+        return cursorBatchSize;
+    }
+
+    public void setCursorBatchSize(int cursorBatchSize) {
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    /**
+     * The engine wide cache for definition data, or null when it is disabled.
+     */
+    public MongoDbDefinitionCache getDefinitionCache() {
+        return definitionCache;
+    }
+
+    public void setDefinitionCache(MongoDbDefinitionCache definitionCache) {
+        this.definitionCache = definitionCache;
+    }
+
+    public MongoDbGridFsStorage getGridFsStorage() {
+        return gridFsStorage;
+    }
+
+    public void setGridFsStorage(MongoDbGridFsStorage gridFsStorage) {
+        this.gridFsStorage = gridFsStorage;
+    }
+
+    /**
+     * The compression of the large payloads, given to all mappers and codecs. Always present, so compressed payloads can be read
+     * even when compression is disabled.
+     */
+    public MongoDbPayloadCompression getPayloadCompression() {
+        return payloadCompression;
+    }
+
     public Collection<String> getCollectionNames() {
         return classToCollectionMap.values();
     }
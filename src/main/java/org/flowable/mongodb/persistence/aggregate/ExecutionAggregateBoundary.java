@@ -0,0 +1,48 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
+
+/**
+ * Determines which executions are stored together in one aggregate document when the executions are embedded,
+ * see {@link MongoDbEmbeddedAggregate}.
+ */
+public enum ExecutionAggregateBoundary {
+
+    /**
+     * Every process instance document embeds its child executions.
+     * Process instances started by a call activity have their own document.
+     */
+    PROCESS_INSTANCE {
+        @Override
+        public String getAggregateId(Entity entity) {
+            return ((ExecutionEntity) entity).getProcessInstanceId();
+        }
+    },
+
+    /**
+     * The root process instance document embeds all executions of the tree,
+     * including the process instances started by call activities and their child executions.
+     */
+    ROOT_PROCESS_INSTANCE {
+        @Override
+        public String getAggregateId(Entity entity) {
+            return ((ExecutionEntity) entity).getRootProcessInstanceId();
+        }
+    };
+
+    public abstract String getAggregateId(Entity entity);
+
+}
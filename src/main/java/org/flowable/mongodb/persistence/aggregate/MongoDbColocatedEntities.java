@@ -0,0 +1,148 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Describes a collection of which the entities can be stored inside the document of the entity they belong to (their owner),
+ * in a sub document that maps the entity ids to the entity documents. E.g. the variables of an execution
+ * are stored in the execution document, so they're read together with the execution and written with one update per execution.
+ *
+ * An owner document that has the sub document (even an empty one) holds all of its entities: it was created with this storage enabled.
+ * The entities of owner documents without it, as well as the entities without an owner, are documents of the collection itself.
+ *
+ * The owners are checked in the order they're added: the first owner id that is not null determines where the entity is stored.
+ */
+public class MongoDbColocatedEntities {
+
+    protected static final String UNWIND_FIELD = "_colocated";
+
+    protected String collection;
+    protected String field;
+    protected Map<String, Function<Entity, String>> ownerIdProviders = new LinkedHashMap<>();
+
+    public MongoDbColocatedEntities(String collection, String field) {
+        this.collection = collection;
+        this.field = field;
+    }
+
+    public MongoDbColocatedEntities addOwner(String ownerCollection, Function<Entity, String> ownerIdProvider) {
+        ownerIdProviders.put(ownerCollection, ownerIdProvider);
+        return this;
+    }
+
+    /**
+     * Returns the collection of the owner of the entity, or null when the entity has no owner.
+     */
+    public String getOwnerCollection(Entity entity) {
+        for (Map.Entry<String, Function<Entity, String>> ownerIdProvider : ownerIdProviders.entrySet()) {
+            if (ownerIdProvider.getValue().apply(entity) != null) {
+                return ownerIdProvider.getKey();
+            }
+        }
+        return null;
+    }
+
+    public String getOwnerId(Entity entity) {
+        String ownerCollection = getOwnerCollection(entity);
+        return ownerCollection != null ? ownerIdProviders.get(ownerCollection).apply(entity) : null;
+    }
+
+    /**
+     * The pipeline on an owner collection that returns the documents of the entities stored in the owner documents matching the filter.
+     */
+    public List<Bson> createPipeline(Bson ownerFilter) {
+        List<Bson> pipeline = new ArrayList<>(4);
+        pipeline.add(Aggregates.match(ownerFilter != null ? Filters.and(ownerFilter, Filters.exists(field)) : Filters.exists(field)));
+        pipeline.add(Aggregates.project(new Document("_id", 0).append(UNWIND_FIELD, new Document("$objectToArray", "$" + field))));
+        pipeline.add(Aggregates.unwind("$" + UNWIND_FIELD));
+        pipeline.add(Aggregates.replaceRoot("$" + UNWIND_FIELD + ".v"));
+        return pipeline;
+    }
+
+    /**
+     * Variant of {@link #createPipeline(Bson)} that only returns the entities matching the entity filter (when given),
+     * in the given sort order and limited to the given number of entities (when positive), so a page of entities is selected on the server.
+     */
+    public List<Bson> createPipeline(Bson ownerFilter, Bson entityFilter, Bson sort, int limit) {
+        List<Bson> pipeline = createPipeline(ownerFilter);
+        if (entityFilter != null) {
+            pipeline.add(Aggregates.match(entityFilter));
+        }
+        if (sort != null) {
+            pipeline.add(Aggregates.sort(sort));
+        }
+        if (limit > 0) {
+            pipeline.add(Aggregates.limit(limit));
+        }
+        return pipeline;
+    }
+
+    /**
+     * The pipeline on an owner collection that counts the entities stored in the owner documents matching the owner filter
+     * and, when given, the entity filter. Without an entity filter the entities of each owner are counted with $size,
+     * so the entity documents are not unwound.
+     */
+    public List<Bson> createCountPipeline(Bson ownerFilter, Bson entityFilter) {
+        if (entityFilter != null) {
+            List<Bson> pipeline = createPipeline(ownerFilter);
+            pipeline.add(Aggregates.match(entityFilter));
+            pipeline.add(Aggregates.count());
+            return pipeline;
+        }
+
+        List<Bson> pipeline = new ArrayList<>(3);
+        pipeline.add(Aggregates.match(ownerFilter != null ? Filters.and(ownerFilter, Filters.exists(field)) : Filters.exists(field)));
+        pipeline.add(Aggregates.project(new Document("_id", 0).append(UNWIND_FIELD, new Document("$size", new Document("$objectToArray", "$" + field)))));
+        pipeline.add(Aggregates.group(null, Accumulators.sum("count", "$" + UNWIND_FIELD)));
+        return pipeline;
+    }
+
+    /**
+     * The path of the document of the entity with the given id in its owner document.
+     */
+    public String getPath(String id) {
+        return field + "." + id;
+    }
+
+    public String getPath(String id, String entityField) {
+        return field + "." + id + "." + entityField;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Set<String> getOwnerCollections() {
+        return ownerIdProviders.keySet();
+    }
+
+}
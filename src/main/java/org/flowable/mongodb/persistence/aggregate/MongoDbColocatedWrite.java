@@ -0,0 +1,160 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.impl.db.HasRevision;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * Collects the changes of one flush to the entities stored in one owner document (see {@link MongoDbColocatedEntities}),
+ * which are sent as one update of the owner document: $set of the inserted entity documents and of the changed fields,
+ * and $unset of the deleted entity documents.
+ * The update only matches when the changed and deleted entities still have the revision that was read.
+ */
+public class MongoDbColocatedWrite {
+
+    protected MongoDbColocatedEntities colocatedEntities;
+    protected String ownerCollection;
+    protected String ownerId;
+
+    protected List<Entity> insertedEntities = new ArrayList<>();
+    protected List<Document> insertedDocuments = new ArrayList<>();
+    protected List<Entity> updatedEntities = new ArrayList<>();
+    protected List<Document> updateDocuments = new ArrayList<>();
+    protected List<Entity> deletedEntities = new ArrayList<>();
+
+    public MongoDbColocatedWrite(MongoDbColocatedEntities colocatedEntities, String ownerCollection, String ownerId) {
+        this.colocatedEntities = colocatedEntities;
+        this.ownerCollection = ownerCollection;
+        this.ownerId = ownerId;
+    }
+
+    public void addInsert(Entity entity, Document document) {
+        insertedEntities.add(entity);
+        insertedDocuments.add(document);
+    }
+
+    /**
+     * @param updateDocument the update of the entity document, with the field names relative to the entity document
+     */
+    public void addUpdate(Entity entity, Document updateDocument) {
+        updatedEntities.add(entity);
+        updateDocuments.add(updateDocument);
+    }
+
+    public void addDelete(Entity entity) {
+        deletedEntities.add(entity);
+    }
+
+    /**
+     * Used when the inserted entities are part of the insert of the owner document itself.
+     */
+    public void clearInserts() {
+        insertedEntities.clear();
+        insertedDocuments.clear();
+    }
+
+    public Bson createFilter() {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("_id", ownerId));
+        addRevisionFilters(filters, updatedEntities);
+        addRevisionFilters(filters, deletedEntities);
+        return filters.size() == 1 ? filters.get(0) : Filters.and(filters);
+    }
+
+    protected void addRevisionFilters(List<Bson> filters, List<Entity> entities) {
+        for (Entity entity : entities) {
+            if (entity instanceof HasRevision) {
+                filters.add(Filters.eq(colocatedEntities.getPath(entity.getId(), "revision"), ((HasRevision) entity).getRevision()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Document createUpdate() {
+        Document update = new Document();
+        for (int i = 0; i < insertedEntities.size(); i++) {
+            getOperator(update, "$set").append(colocatedEntities.getPath(insertedEntities.get(i).getId()), insertedDocuments.get(i));
+        }
+
+        for (int i = 0; i < updatedEntities.size(); i++) {
+            String id = updatedEntities.get(i).getId();
+            for (Map.Entry<String, Object> operator : updateDocuments.get(i).entrySet()) {
+                Document colocatedOperator = getOperator(update, operator.getKey());
+                for (Map.Entry<String, Object> field : ((Map<String, Object>) operator.getValue()).entrySet()) {
+                    colocatedOperator.append(colocatedEntities.getPath(id, field.getKey()), field.getValue());
+                }
+            }
+        }
+
+        for (Entity deletedEntity : deletedEntities) {
+            getOperator(update, "$unset").append(colocatedEntities.getPath(deletedEntity.getId()), "");
+        }
+        return update;
+    }
+
+    protected Document getOperator(Document update, String operator) {
+        return (Document) update.computeIfAbsent(operator, key -> new Document());
+    }
+
+    /**
+     * All entities of this write, used for the optimistic locking exception when the update didn't match.
+     */
+    public List<Entity> getEntities() {
+        List<Entity> entities = new ArrayList<>(deletedEntities);
+        entities.addAll(updatedEntities);
+        entities.addAll(insertedEntities);
+        return entities;
+    }
+
+    public MongoDbColocatedEntities getColocatedEntities() {
+        return colocatedEntities;
+    }
+
+    public String getOwnerCollection() {
+        return ownerCollection;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public List<Entity> getInsertedEntities() {
+        return insertedEntities;
+    }
+
+    public List<Document> getInsertedDocuments() {
+        return insertedDocuments;
+    }
+
+    public List<Entity> getUpdatedEntities() {
+        return updatedEntities;
+    }
+
+    public List<Entity> getDeletedEntities() {
+        return deletedEntities;
+    }
+
+    public boolean isEmpty() {
+        return insertedEntities.isEmpty() && updatedEntities.isEmpty() && deletedEntities.isEmpty();
+    }
+
+}
@@ -0,0 +1,145 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+
+/**
+ * Describes a collection where related entities are embedded in the document of their aggregate root,
+ * instead of each being a document of its own. E.g. the child executions of a process instance are stored
+ * in an array of the process instance document, so the whole execution tree is read and written as one document.
+ *
+ * Queries still address single entities: the aggregate documents matching the filter (at the top level or in the array)
+ * are unwound into one document per entity, after which the filter is applied once more.
+ * Every unwound embedded document gets the {@link #AGGREGATE_ID_FIELD}, so the session knows where to write its changes.
+ *
+ * The aggregate root keeps the approximate size of its embedded documents in {@link #EMBEDDED_SIZE_FIELD}.
+ * Entities that would make it grow beyond the max embedded size are stored as a document of their own instead,
+ * which keeps large trees away from the 16 MB document limit. Such documents are found by the same queries.
+ */
+public class MongoDbEmbeddedAggregate {
+
+    public static final String AGGREGATE_ID_FIELD = "_aggregateId";
+    public static final String EMBEDDED_SIZE_FIELD = "embeddedSize";
+
+    protected static final String UNWIND_FIELD = "_unwound";
+
+    protected String collection;
+    protected String embeddedField;
+    protected Function<Entity, String> aggregateIdProvider;
+    protected long maxEmbeddedSize;
+
+    public MongoDbEmbeddedAggregate(String collection, String embeddedField, Function<Entity, String> aggregateIdProvider, long maxEmbeddedSize) {
+        this.collection = collection;
+        this.embeddedField = embeddedField;
+        this.aggregateIdProvider = aggregateIdProvider;
+        this.maxEmbeddedSize = maxEmbeddedSize;
+    }
+
+    /**
+     * Returns the id of the aggregate root the entity belongs to,
+     * or null when the entity is an aggregate root itself (or doesn't belong to any aggregate).
+     */
+    public String getAggregateId(Entity entity) {
+        String aggregateId = aggregateIdProvider.apply(entity);
+        if (aggregateId == null || aggregateId.equals(entity.getId())) {
+            return null;
+        }
+        return aggregateId;
+    }
+
+    public boolean canEmbed(long embeddedSize, long addedSize) {
+        return embeddedSize + addedSize <= maxEmbeddedSize;
+    }
+
+    public List<Bson> createPipeline(Bson filter, Bson sort, int skip, int limit) {
+        List<Bson> pipeline = createUnwindPipeline(filter);
+        pipeline.add(Aggregates.project(Projections.exclude(embeddedField)));
+        if (sort != null) {
+            pipeline.add(Aggregates.sort(sort));
+        }
+        if (skip > 0) {
+            pipeline.add(Aggregates.skip(skip));
+        }
+        if (limit > 0) {
+            pipeline.add(Aggregates.limit(limit));
+        }
+        return pipeline;
+    }
+
+    public List<Bson> createCountPipeline(Bson filter) {
+        List<Bson> pipeline = createUnwindPipeline(filter);
+        pipeline.add(Aggregates.count());
+        return pipeline;
+    }
+
+    protected List<Bson> createUnwindPipeline(Bson filter) {
+        List<Bson> pipeline = new ArrayList<>();
+        if (filter != null) {
+            pipeline.add(Aggregates.match(Filters.or(filter, Filters.elemMatch(embeddedField, filter))));
+        }
+
+        Document embeddedDocuments = new Document("$map", new Document()
+                .append("input", new Document("$ifNull", Arrays.asList("$" + embeddedField, Collections.emptyList())))
+                .append("as", "embedded")
+                .append("in", new Document("$mergeObjects", Arrays.asList("$$embedded", new Document(AGGREGATE_ID_FIELD, "$_id")))));
+        pipeline.add(Aggregates.project(new Document("_id", 0)
+                .append(UNWIND_FIELD, new Document("$concatArrays", Arrays.asList(Collections.singletonList("$$ROOT"), embeddedDocuments)))));
+        pipeline.add(Aggregates.unwind("$" + UNWIND_FIELD));
+        pipeline.add(Aggregates.replaceRoot("$" + UNWIND_FIELD));
+
+        if (filter != null) {
+            pipeline.add(Aggregates.match(filter));
+        }
+        return pipeline;
+    }
+
+    /**
+     * The path of a field of the embedded document that is matched by the given array filter identifier.
+     */
+    public String getEmbeddedPath(String identifier, String field) {
+        return embeddedField + ".$[" + identifier + "]." + field;
+    }
+
+    /**
+     * The path of a field of the embedded document matched by the query, for updates with the positional operator.
+     */
+    public String getPositionalPath(String field) {
+        return embeddedField + ".$." + field;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getEmbeddedField() {
+        return embeddedField;
+    }
+
+    public long getMaxEmbeddedSize() {
+        return maxEmbeddedSize;
+    }
+
+}
@@ -0,0 +1,186 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Collects the changes of one flush to the entities embedded in one aggregate document.
+ *
+ * The changes are sent as (at most) three updates of the aggregate document: one $pull for the deleted entities,
+ * one update for all changed entities, addressing every entity with its own array filter, and one $push for the inserted entities.
+ * Every update only matches when the embedded entities still have the revision that was read,
+ * so a concurrent change results in a matched count that is lower than the number of updates.
+ */
+public class MongoDbEmbeddedAggregateWrite {
+
+    protected MongoDbEmbeddedAggregate embeddedAggregate;
+    protected String aggregateId;
+
+    protected List<Entity> insertedEntities = new ArrayList<>();
+    protected List<Document> insertedDocuments = new ArrayList<>();
+    protected long insertedSize;
+
+    protected List<Entity> updatedEntities = new ArrayList<>();
+    protected List<Bson> updatedEntityFilters = new ArrayList<>();
+    protected List<Document> updateDocuments = new ArrayList<>();
+
+    protected List<Entity> deletedEntities = new ArrayList<>();
+    protected List<Bson> deletedEntityFilters = new ArrayList<>();
+    protected long deletedSize;
+
+    public MongoDbEmbeddedAggregateWrite(MongoDbEmbeddedAggregate embeddedAggregate, String aggregateId) {
+        this.embeddedAggregate = embeddedAggregate;
+        this.aggregateId = aggregateId;
+    }
+
+    public void addInsert(Entity entity, Document document, long size) {
+        insertedEntities.add(entity);
+        insertedDocuments.add(document);
+        insertedSize += size;
+    }
+
+    /**
+     * @param entityFilter the filter on the embedded document, typically on its id and revision
+     * @param updateDocument the update of the embedded document, with the field names relative to the embedded document
+     */
+    public void addUpdate(Entity entity, Bson entityFilter, Document updateDocument) {
+        updatedEntities.add(entity);
+        updatedEntityFilters.add(entityFilter);
+        updateDocuments.add(updateDocument);
+    }
+
+    public void addDelete(Entity entity, Bson entityFilter, long size) {
+        deletedEntities.add(entity);
+        deletedEntityFilters.add(entityFilter);
+        deletedSize += size;
+    }
+
+    /**
+     * Used when the inserted entities are embedded in the insert of the aggregate document itself,
+     * or when they are stored as documents of their own after all.
+     */
+    public void clearInserts() {
+        insertedEntities.clear();
+        insertedDocuments.clear();
+        insertedSize = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<WriteModel<Document>> createWriteModels() {
+        String embeddedField = embeddedAggregate.getEmbeddedField();
+        List<WriteModel<Document>> writeModels = new ArrayList<>(3);
+
+        if (!deletedEntities.isEmpty()) {
+            List<String> deletedIds = new ArrayList<>(deletedEntities.size());
+            for (Entity deletedEntity : deletedEntities) {
+                deletedIds.add(deletedEntity.getId());
+            }
+            Document update = new Document("$pull", new Document(embeddedField, new Document("_id", new Document("$in", deletedIds))))
+                    .append("$inc", new Document(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD, -deletedSize));
+            writeModels.add(new UpdateOneModel<>(createAggregateFilter(deletedEntityFilters), update));
+        }
+
+        if (!updatedEntities.isEmpty()) {
+            Document update = new Document();
+            List<Bson> arrayFilters = new ArrayList<>(updatedEntities.size());
+            for (int i = 0; i < updatedEntities.size(); i++) {
+                String identifier = "e" + i;
+                arrayFilters.add(Filters.eq(identifier + "._id", updatedEntities.get(i).getId()));
+
+                for (Map.Entry<String, Object> operator : updateDocuments.get(i).entrySet()) {
+                    Document embeddedOperator = (Document) update.computeIfAbsent(operator.getKey(), key -> new Document());
+                    for (Map.Entry<String, Object> field : ((Map<String, Object>) operator.getValue()).entrySet()) {
+                        embeddedOperator.append(embeddedAggregate.getEmbeddedPath(identifier, field.getKey()), field.getValue());
+                    }
+                }
+            }
+            writeModels.add(new UpdateOneModel<>(createAggregateFilter(updatedEntityFilters), update, new UpdateOptions().arrayFilters(arrayFilters)));
+        }
+
+        if (!insertedEntities.isEmpty()) {
+            Document update = new Document("$push", new Document(embeddedField, new Document("$each", insertedDocuments)))
+                    .append("$inc", new Document(MongoDbEmbeddedAggregate.EMBEDDED_SIZE_FIELD, insertedSize));
+            writeModels.add(new UpdateOneModel<>(Filters.eq("_id", aggregateId), update));
+        }
+
+        return writeModels;
+    }
+
+    protected Bson createAggregateFilter(List<Bson> entityFilters) {
+        List<Bson> filters = new ArrayList<>(entityFilters.size() + 1);
+        filters.add(Filters.eq("_id", aggregateId));
+        for (Bson entityFilter : entityFilters) {
+            filters.add(Filters.elemMatch(embeddedAggregate.getEmbeddedField(), entityFilter));
+        }
+        return Filters.and(filters);
+    }
+
+    /**
+     * All entities of this write, used for the optimistic locking exception when one of the updates didn't match.
+     */
+    public List<Entity> getEntities() {
+        List<Entity> entities = new ArrayList<>(deletedEntities);
+        entities.addAll(updatedEntities);
+        entities.addAll(insertedEntities);
+        return entities;
+    }
+
+    public MongoDbEmbeddedAggregate getEmbeddedAggregate() {
+        return embeddedAggregate;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public List<Entity> getInsertedEntities() {
+        return insertedEntities;
+    }
+
+    public List<Document> getInsertedDocuments() {
+        return insertedDocuments;
+    }
+
+    public long getInsertedSize() {
+        return insertedSize;
+    }
+
+    public List<Entity> getUpdatedEntities() {
+        return updatedEntities;
+    }
+
+    public List<Entity> getDeletedEntities() {
+        return deletedEntities;
+    }
+
+    public long getDeletedSize() {
+        return deletedSize;
+    }
+
+    public boolean isEmpty() {
+        return insertedEntities.isEmpty() && updatedEntities.isEmpty() && deletedEntities.isEmpty();
+    }
+
+}
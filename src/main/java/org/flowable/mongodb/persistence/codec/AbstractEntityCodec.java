@@ -0,0 +1,223 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import java.util.Date;
+
+import org.bson.BsonBinary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompression;
+import org.flowable.mongodb.persistence.id.ObjectIdFieldConverter;
+
+/**
+ * Base class for the {@link Codec}s that read and write an entity straight from and to the BSON stream,
+ * without the intermediate {@link org.bson.Document} (and its boxed values) of an {@link org.flowable.mongodb.persistence.EntityToDocumentMapper}.
+ *
+ * A codec must read and write the same fields as the mapper of its entity class, which is still used where a
+ * {@link org.bson.Document} is needed (e.g. projections, keyset pagination and bulk writes).
+ * Unknown fields are skipped when decoding, and null values aren't written, like the mappers do.
+ */
+public abstract class AbstractEntityCodec<T extends Entity> implements Codec<T> {
+
+    protected Class<T> entityClass;
+    protected MongoDbPayloadCompression payloadCompression;
+    protected ObjectIdFieldConverter objectIdFieldConverter;
+
+    public AbstractEntityCodec(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    protected abstract T createEntity();
+
+    /**
+     * Reads the value of the given field into the entity. Returns false when the field isn't known, in which case the value is skipped.
+     */
+    protected abstract boolean decodeField(String field, BsonReader reader, T entity);
+
+    protected abstract void encodeFields(BsonWriter writer, T entity);
+
+    @Override
+    public T decode(BsonReader reader, DecoderContext decoderContext) {
+        T entity = createEntity();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull(); // null is the default of every field
+            } else if (!decodeField(field, reader, entity)) {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return entity;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, T entity, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        encodeFields(writer, entity);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<T> getEncoderClass() {
+        return entityClass;
+    }
+
+    protected String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId().toHexString();
+        }
+        return reader.readString();
+    }
+
+    /**
+     * Reads a text field that is possibly compressed, see {@link MongoDbPayloadCompression}.
+     */
+    protected String readCompressedString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BINARY && payloadCompression != null) {
+            BsonBinary binary = reader.readBinaryData();
+            return payloadCompression.getString(new Binary(binary.getType(), binary.getData()));
+        }
+        return readString(reader);
+    }
+
+    protected Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                return reader.readInt32();
+        }
+    }
+
+    protected Long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return (long) reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                return reader.readInt64();
+        }
+    }
+
+    protected Double readDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return (double) reader.readInt32();
+            case INT64:
+                return (double) reader.readInt64();
+            default:
+                return reader.readDouble();
+        }
+    }
+
+    protected Boolean readBoolean(BsonReader reader) {
+        return reader.readBoolean();
+    }
+
+    protected Date readDate(BsonReader reader) {
+        return new Date(reader.readDateTime());
+    }
+
+    protected byte[] readBytes(BsonReader reader) {
+        return reader.readBinaryData().getData();
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, String value) {
+        if (value != null) {
+            if (objectIdFieldConverter != null && objectIdFieldConverter.isObjectId(field, value)) {
+                writer.writeObjectId(field, new ObjectId(value));
+            } else {
+                writer.writeString(field, value);
+            }
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, Integer value) {
+        if (value != null) {
+            writer.writeInt32(field, value);
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, Long value) {
+        if (value != null) {
+            writer.writeInt64(field, value);
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, Double value) {
+        if (value != null) {
+            writer.writeDouble(field, value);
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, Boolean value) {
+        if (value != null) {
+            writer.writeBoolean(field, value);
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, Date value) {
+        if (value != null) {
+            writer.writeDateTime(field, value.getTime());
+        }
+    }
+
+    protected void writeIfNotNull(BsonWriter writer, String field, byte[] value) {
+        if (value != null) {
+            writer.writeBinaryData(field, new BsonBinary(value));
+        }
+    }
+
+    protected void writeCompressedIfNotNull(BsonWriter writer, String field, String value) {
+        Object compressedValue = payloadCompression != null ? payloadCompression.compress(value) : value;
+        if (compressedValue instanceof Binary) {
+            Binary binary = (Binary) compressedValue;
+            writer.writeBinaryData(field, new BsonBinary(binary.getType(), binary.getData()));
+        } else {
+            writeIfNotNull(writer, field, (String) compressedValue);
+        }
+    }
+
+    public MongoDbPayloadCompression getPayloadCompression() {
+        return payloadCompression;
+    }
+
+    public void setPayloadCompression(MongoDbPayloadCompression payloadCompression) {
+        this.payloadCompression = payloadCompression;
+    }
+
+    public ObjectIdFieldConverter getObjectIdFieldConverter() {
+        return objectIdFieldConverter;
+    }
+
+    /**
+     * When set, the id and foreign key fields holding ObjectId hex strings are written as ObjectId, like the converter does for documents.
+     */
+    public void setObjectIdFieldConverter(ObjectIdFieldConverter objectIdFieldConverter) {
+        this.objectIdFieldConverter = objectIdFieldConverter;
+    }
+
+}
@@ -0,0 +1,179 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.flowable.mongodb.persistence.mapper.ExecutionEntityMapper;
+
+/**
+ * Codec counterpart of the {@link ExecutionEntityMapper}.
+ */
+public class ExecutionEntityCodec extends AbstractEntityCodec<MongoDbExecutionEntityImpl> {
+
+    public ExecutionEntityCodec() {
+        super(MongoDbExecutionEntityImpl.class);
+    }
+
+    @Override
+    protected MongoDbExecutionEntityImpl createEntity() {
+        MongoDbExecutionEntityImpl executionEntity = new MongoDbExecutionEntityImpl();
+        // Missing flags are false, as with the mapper (the entity defaults some of them to true)
+        executionEntity.setActive(false);
+        executionEntity.setConcurrent(false);
+        executionEntity.setScope(false);
+        executionEntity.setEventScope(false);
+        executionEntity.setMultiInstanceRoot(false);
+        return executionEntity;
+    }
+
+    @Override
+    protected boolean decodeField(String field, BsonReader reader, MongoDbExecutionEntityImpl executionEntity) {
+        switch (field) {
+            case "_id":
+                executionEntity.setId(readString(reader));
+                return true;
+            case "revision":
+                executionEntity.setRevision(readInteger(reader));
+                return true;
+            case "processInstanceId":
+                executionEntity.setProcessInstanceId(readString(reader));
+                return true;
+            case "businessKey":
+                executionEntity.setBusinessKey(readString(reader));
+                return true;
+            case "processDefinitionId":
+                executionEntity.setProcessDefinitionId(readString(reader));
+                return true;
+            case "activityId":
+                executionEntity.setActivityId(readString(reader));
+                return true;
+            case "isActive":
+                executionEntity.setActive(readBoolean(reader));
+                return true;
+            case "isConcurrent":
+                executionEntity.setConcurrent(readBoolean(reader));
+                return true;
+            case "isScope":
+                executionEntity.setScope(readBoolean(reader));
+                return true;
+            case "isEventScope":
+                executionEntity.setEventScope(readBoolean(reader));
+                return true;
+            case "isMultiInstanceRoot":
+                executionEntity.setMultiInstanceRoot(readBoolean(reader));
+                return true;
+            case "parentId":
+                executionEntity.setParentId(readString(reader));
+                return true;
+            case "superExecutionId":
+                executionEntity.setSuperExecutionId(readString(reader));
+                return true;
+            case "rootProcessInstanceId":
+                executionEntity.setRootProcessInstanceId(readString(reader));
+                return true;
+            case "suspensionState":
+                executionEntity.setSuspensionState(readInteger(reader));
+                return true;
+            case "tenantId":
+                executionEntity.setTenantId(readString(reader));
+                return true;
+            case "name":
+                executionEntity.setName(readString(reader));
+                return true;
+            case "startActivityId":
+                executionEntity.setStartActivityId(readString(reader));
+                return true;
+            case "startTime":
+                executionEntity.setStartTime(readDate(reader));
+                return true;
+            case "startUserId":
+                executionEntity.setStartUserId(readString(reader));
+                return true;
+            case "callbackId":
+                executionEntity.setCallbackId(readString(reader));
+                return true;
+            case "callbackType":
+                executionEntity.setCallbackType(readString(reader));
+                return true;
+            case "countEnabled":
+                executionEntity.setCountEnabled(readBoolean(reader));
+                return true;
+            case "eventSubscriptionCount":
+                executionEntity.setEventSubscriptionCount(readInteger(reader));
+                return true;
+            case "taskCount":
+                executionEntity.setTaskCount(readInteger(reader));
+                return true;
+            case "jobCount":
+                executionEntity.setJobCount(readInteger(reader));
+                return true;
+            case "timerJobCount":
+                executionEntity.setTimerJobCount(readInteger(reader));
+                return true;
+            case "suspendedJobCount":
+                executionEntity.setSuspendedJobCount(readInteger(reader));
+                return true;
+            case "deadLetterJobCount":
+                executionEntity.setDeadLetterJobCount(readInteger(reader));
+                return true;
+            case "variableCount":
+                executionEntity.setVariableCount(readInteger(reader));
+                return true;
+            case "identityLinkCount":
+                executionEntity.setIdentityLinkCount(readInteger(reader));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void encodeFields(BsonWriter writer, MongoDbExecutionEntityImpl executionEntity) {
+        writeIfNotNull(writer, "_id", executionEntity.getId());
+        writer.writeInt32("revision", executionEntity.getRevision());
+        writeIfNotNull(writer, "processInstanceId", executionEntity.getProcessInstanceId());
+        writeIfNotNull(writer, "businessKey", executionEntity.getBusinessKey());
+        writeIfNotNull(writer, "processDefinitionId", executionEntity.getProcessDefinitionId());
+        writeIfNotNull(writer, "activityId", executionEntity.getActivityId());
+        writer.writeBoolean("isActive", executionEntity.isActive());
+        writer.writeBoolean("isConcurrent", executionEntity.isConcurrent());
+        writer.writeBoolean("isScope", executionEntity.isScope());
+        writer.writeBoolean("isEventScope", executionEntity.isEventScope());
+        writer.writeBoolean("isMultiInstanceRoot", executionEntity.isMultiInstanceRoot());
+        writeIfNotNull(writer, "parentId", executionEntity.getParentId());
+        writeIfNotNull(writer, "superExecutionId", executionEntity.getSuperExecutionId());
+        writeIfNotNull(writer, "rootProcessInstanceId", executionEntity.getRootProcessInstanceId());
+        writer.writeInt32("suspensionState", executionEntity.getSuspensionState());
+        writeIfNotNull(writer, "tenantId", executionEntity.getTenantId());
+        writeIfNotNull(writer, "name", executionEntity.getName());
+        writeIfNotNull(writer, "startActivityId", executionEntity.getStartActivityId());
+        writeIfNotNull(writer, "startTime", executionEntity.getStartTime());
+        writeIfNotNull(writer, "startUserId", executionEntity.getStartUserId());
+        writeIfNotNull(writer, "callbackId", executionEntity.getCallbackId());
+        writeIfNotNull(writer, "callbackType", executionEntity.getCallbackType());
+
+        // Entity counts settings
+        writer.writeBoolean("countEnabled", executionEntity.isCountEnabled());
+        writer.writeInt32("eventSubscriptionCount", executionEntity.getEventSubscriptionCount());
+        writer.writeInt32("taskCount", executionEntity.getTaskCount());
+        writer.writeInt32("jobCount", executionEntity.getJobCount());
+        writer.writeInt32("timerJobCount", executionEntity.getTimerJobCount());
+        writer.writeInt32("suspendedJobCount", executionEntity.getSuspendedJobCount());
+        writer.writeInt32("deadLetterJobCount", executionEntity.getDeadLetterJobCount());
+        writer.writeInt32("variableCount", executionEntity.getVariableCount());
+        writer.writeInt32("identityLinkCount", executionEntity.getIdentityLinkCount());
+    }
+
+}
@@ -0,0 +1,110 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntityImpl;
+import org.flowable.mongodb.persistence.mapper.HistoricActivityInstanceEntityMapper;
+
+/**
+ * Codec counterpart of the {@link HistoricActivityInstanceEntityMapper}.
+ */
+public class HistoricActivityInstanceEntityCodec extends AbstractEntityCodec<HistoricActivityInstanceEntityImpl> {
+
+    public HistoricActivityInstanceEntityCodec() {
+        super(HistoricActivityInstanceEntityImpl.class);
+    }
+
+    @Override
+    protected HistoricActivityInstanceEntityImpl createEntity() {
+        return new HistoricActivityInstanceEntityImpl();
+    }
+
+    @Override
+    protected boolean decodeField(String field, BsonReader reader, HistoricActivityInstanceEntityImpl activityEntity) {
+        switch (field) {
+            case "_id":
+                activityEntity.setId(readString(reader));
+                return true;
+            case "revision":
+                activityEntity.setRevision(readInteger(reader));
+                return true;
+            case "activityId":
+                activityEntity.setActivityId(readString(reader));
+                return true;
+            case "activityName":
+                activityEntity.setActivityName(readString(reader));
+                return true;
+            case "activityType":
+                activityEntity.setActivityType(readString(reader));
+                return true;
+            case "processInstanceId":
+                activityEntity.setProcessInstanceId(readString(reader));
+                return true;
+            case "processDefinitionId":
+                activityEntity.setProcessDefinitionId(readString(reader));
+                return true;
+            case "assignee":
+                activityEntity.setAssignee(readString(reader));
+                return true;
+            case "calledProcessInstanceId":
+                activityEntity.setCalledProcessInstanceId(readString(reader));
+                return true;
+            case "deleteReason":
+                activityEntity.setDeleteReason(readString(reader));
+                return true;
+            case "durationInMillis":
+                activityEntity.setDurationInMillis(readLong(reader));
+                return true;
+            case "endTime":
+                activityEntity.setEndTime(readDate(reader));
+                return true;
+            case "executionId":
+                activityEntity.setExecutionId(readString(reader));
+                return true;
+            case "startTime":
+                activityEntity.setStartTime(readDate(reader));
+                return true;
+            case "taskId":
+                activityEntity.setTaskId(readString(reader));
+                return true;
+            case "tenantId":
+                activityEntity.setTenantId(readString(reader));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void encodeFields(BsonWriter writer, HistoricActivityInstanceEntityImpl activityEntity) {
+        writeIfNotNull(writer, "_id", activityEntity.getId());
+        writer.writeInt32("revision", activityEntity.getRevision());
+        writeIfNotNull(writer, "activityId", activityEntity.getActivityId());
+        writeIfNotNull(writer, "activityName", activityEntity.getActivityName());
+        writeIfNotNull(writer, "activityType", activityEntity.getActivityType());
+        writeIfNotNull(writer, "processInstanceId", activityEntity.getProcessInstanceId());
+        writeIfNotNull(writer, "processDefinitionId", activityEntity.getProcessDefinitionId());
+        writeIfNotNull(writer, "assignee", activityEntity.getAssignee());
+        writeIfNotNull(writer, "calledProcessInstanceId", activityEntity.getCalledProcessInstanceId());
+        writeIfNotNull(writer, "deleteReason", activityEntity.getDeleteReason());
+        writeIfNotNull(writer, "durationInMillis", activityEntity.getDurationInMillis());
+        writeIfNotNull(writer, "endTime", activityEntity.getEndTime());
+        writeIfNotNull(writer, "executionId", activityEntity.getExecutionId());
+        writeIfNotNull(writer, "startTime", activityEntity.getStartTime());
+        writeIfNotNull(writer, "taskId", activityEntity.getTaskId());
+        writeIfNotNull(writer, "tenantId", activityEntity.getTenantId());
+    }
+
+}
@@ -0,0 +1,134 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.flowable.job.service.impl.persistence.entity.JobEntityImpl;
+import org.flowable.mongodb.persistence.mapper.JobEntityMapper;
+
+/**
+ * Codec counterpart of the {@link JobEntityMapper}.
+ */
+public class JobEntityCodec extends AbstractEntityCodec<JobEntityImpl> {
+
+    public JobEntityCodec() {
+        super(JobEntityImpl.class);
+    }
+
+    @Override
+    protected JobEntityImpl createEntity() {
+        return new JobEntityImpl();
+    }
+
+    @Override
+    protected boolean decodeField(String field, BsonReader reader, JobEntityImpl jobEntity) {
+        switch (field) {
+            case "_id":
+                jobEntity.setId(readString(reader));
+                return true;
+            case "revision":
+                jobEntity.setRevision(readInteger(reader));
+                return true;
+            case "createTime":
+                jobEntity.setCreateTime(readDate(reader));
+                return true;
+            case "duedate":
+                jobEntity.setDuedate(readDate(reader));
+                return true;
+            case "exceptionMessage":
+                jobEntity.setExceptionMessage(readString(reader));
+                return true;
+            case "isExclusive":
+                jobEntity.setExclusive(readBoolean(reader));
+                return true;
+            case "executionId":
+                jobEntity.setExecutionId(readString(reader));
+                return true;
+            case "jobHandlerConfiguration":
+                jobEntity.setJobHandlerConfiguration(readString(reader));
+                return true;
+            case "jobHandlerType":
+                jobEntity.setJobHandlerType(readString(reader));
+                return true;
+            case "jobType":
+                jobEntity.setJobType(readString(reader));
+                return true;
+            case "processDefinitionId":
+                jobEntity.setProcessDefinitionId(readString(reader));
+                return true;
+            case "processInstanceId":
+                jobEntity.setProcessInstanceId(readString(reader));
+                return true;
+            case "repeat":
+                jobEntity.setRepeat(readString(reader));
+                return true;
+            case "retries":
+                jobEntity.setRetries(readInteger(reader));
+                return true;
+            case "scopeDefinitionId":
+                jobEntity.setScopeDefinitionId(readString(reader));
+                return true;
+            case "scopeId":
+                jobEntity.setScopeId(readString(reader));
+                return true;
+            case "scopeType":
+                jobEntity.setScopeType(readString(reader));
+                return true;
+            case "subScopeId":
+                jobEntity.setSubScopeId(readString(reader));
+                return true;
+            case "tenantId":
+                jobEntity.setTenantId(readString(reader));
+                return true;
+            case "category":
+                jobEntity.setCategory(readString(reader));
+                return true;
+            case "lockExpirationTime":
+                jobEntity.setLockExpirationTime(readDate(reader));
+                return true;
+            case "lockOwner":
+                jobEntity.setLockOwner(readString(reader));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void encodeFields(BsonWriter writer, JobEntityImpl jobEntity) {
+        writeIfNotNull(writer, "_id", jobEntity.getId());
+        writer.writeInt32("revision", jobEntity.getRevision());
+        writeIfNotNull(writer, "createTime", jobEntity.getCreateTime());
+        writeIfNotNull(writer, "duedate", jobEntity.getDuedate());
+        writeIfNotNull(writer, "exceptionMessage", jobEntity.getExceptionMessage());
+        writer.writeBoolean("isExclusive", jobEntity.isExclusive());
+        writeIfNotNull(writer, "executionId", jobEntity.getExecutionId());
+        writeIfNotNull(writer, "jobHandlerConfiguration", jobEntity.getJobHandlerConfiguration());
+        writeIfNotNull(writer, "jobHandlerType", jobEntity.getJobHandlerType());
+        writeIfNotNull(writer, "jobType", jobEntity.getJobType());
+        writeIfNotNull(writer, "processDefinitionId", jobEntity.getProcessDefinitionId());
+        writeIfNotNull(writer, "processInstanceId", jobEntity.getProcessInstanceId());
+        writeIfNotNull(writer, "repeat", jobEntity.getRepeat());
+        writer.writeInt32("retries", jobEntity.getRetries());
+        writeIfNotNull(writer, "scopeDefinitionId", jobEntity.getScopeDefinitionId());
+        writeIfNotNull(writer, "scopeId", jobEntity.getScopeId());
+        writeIfNotNull(writer, "scopeType", jobEntity.getScopeType());
+        writeIfNotNull(writer, "subScopeId", jobEntity.getSubScopeId());
+        writeIfNotNull(writer, "tenantId", jobEntity.getTenantId());
+        writeIfNotNull(writer, "category", jobEntity.getCategory());
+        writeIfNotNull(writer, "lockExpirationTime", jobEntity.getLockExpirationTime());
+        writeIfNotNull(writer, "lockOwner", jobEntity.getLockOwner());
+    }
+
+}
@@ -0,0 +1,162 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.flowable.mongodb.persistence.mapper.TaskEntityMapper;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+
+/**
+ * Codec counterpart of the {@link TaskEntityMapper}.
+ */
+public class TaskEntityCodec extends AbstractEntityCodec<TaskEntityImpl> {
+
+    public TaskEntityCodec() {
+        super(TaskEntityImpl.class);
+    }
+
+    @Override
+    protected TaskEntityImpl createEntity() {
+        return new TaskEntityImpl();
+    }
+
+    @Override
+    protected boolean decodeField(String field, BsonReader reader, TaskEntityImpl taskEntity) {
+        switch (field) {
+            case "_id":
+                taskEntity.setId(readString(reader));
+                return true;
+            case "revision":
+                taskEntity.setRevision(readInteger(reader));
+                return true;
+            case "name":
+                taskEntity.setName(readString(reader));
+                return true;
+            case "parentTaskId":
+                taskEntity.setParentTaskId(readString(reader));
+                return true;
+            case "description":
+                taskEntity.setDescription(readString(reader));
+                return true;
+            case "priority":
+                taskEntity.setPriority(readInteger(reader));
+                return true;
+            case "createTime":
+                taskEntity.setCreateTime(readDate(reader));
+                return true;
+            case "owner":
+                taskEntity.setOwner(readString(reader));
+                return true;
+            case "assignee":
+                taskEntity.setAssignee(readString(reader));
+                return true;
+            case "delegationState":
+                taskEntity.setDelegationStateString(readString(reader));
+                return true;
+            case "executionId":
+                taskEntity.setExecutionId(readString(reader));
+                return true;
+            case "processInstanceId":
+                taskEntity.setProcessInstanceId(readString(reader));
+                return true;
+            case "processDefinitionId":
+                taskEntity.setProcessDefinitionId(readString(reader));
+                return true;
+            case "taskDefinitionId":
+                taskEntity.setTaskDefinitionId(readString(reader));
+                return true;
+            case "scopeId":
+                taskEntity.setScopeId(readString(reader));
+                return true;
+            case "subScopeId":
+                taskEntity.setSubScopeId(readString(reader));
+                return true;
+            case "scopeType":
+                taskEntity.setScopeType(readString(reader));
+                return true;
+            case "scopeDefinitionId":
+                taskEntity.setScopeDefinitionId(readString(reader));
+                return true;
+            case "taskDefinitionKey":
+                taskEntity.setTaskDefinitionKey(readString(reader));
+                return true;
+            case "dueDate":
+                taskEntity.setDueDate(readDate(reader));
+                return true;
+            case "category":
+                taskEntity.setCategory(readString(reader));
+                return true;
+            case "suspensionState":
+                taskEntity.setSuspensionState(readInteger(reader));
+                return true;
+            case "formKey":
+                taskEntity.setFormKey(readString(reader));
+                return true;
+            case "claimTime":
+                taskEntity.setClaimTime(readDate(reader));
+                return true;
+            case "tenantId":
+                taskEntity.setTenantId(readString(reader));
+                return true;
+            case "countEnabled":
+                taskEntity.setCountEnabled(readBoolean(reader));
+                return true;
+            case "variableCount":
+                taskEntity.setVariableCount(readInteger(reader));
+                return true;
+            case "identityLinkCount":
+                taskEntity.setIdentityLinkCount(readInteger(reader));
+                return true;
+            case "subTaskCount":
+                taskEntity.setSubTaskCount(readInteger(reader));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void encodeFields(BsonWriter writer, TaskEntityImpl taskEntity) {
+        writeIfNotNull(writer, "_id", taskEntity.getId());
+        writer.writeInt32("revision", taskEntity.getRevision());
+        writeIfNotNull(writer, "name", taskEntity.getName());
+        writeIfNotNull(writer, "parentTaskId", taskEntity.getParentTaskId());
+        writeIfNotNull(writer, "description", taskEntity.getDescription());
+        writer.writeInt32("priority", taskEntity.getPriority());
+        writeIfNotNull(writer, "createTime", taskEntity.getCreateTime());
+        writeIfNotNull(writer, "owner", taskEntity.getOwner());
+        writeIfNotNull(writer, "assignee", taskEntity.getAssignee());
+        writeIfNotNull(writer, "delegationState", taskEntity.getDelegationStateString());
+        writeIfNotNull(writer, "executionId", taskEntity.getExecutionId());
+        writeIfNotNull(writer, "processInstanceId", taskEntity.getProcessInstanceId());
+        writeIfNotNull(writer, "processDefinitionId", taskEntity.getProcessDefinitionId());
+        writeIfNotNull(writer, "taskDefinitionId", taskEntity.getTaskDefinitionId());
+        writeIfNotNull(writer, "scopeId", taskEntity.getScopeId());
+        writeIfNotNull(writer, "subScopeId", taskEntity.getSubScopeId());
+        writeIfNotNull(writer, "scopeType", taskEntity.getScopeType());
+        writeIfNotNull(writer, "scopeDefinitionId", taskEntity.getScopeDefinitionId());
+        writeIfNotNull(writer, "taskDefinitionKey", taskEntity.getTaskDefinitionKey());
+        writeIfNotNull(writer, "dueDate", taskEntity.getDueDate());
+        writeIfNotNull(writer, "category", taskEntity.getCategory());
+        writer.writeInt32("suspensionState", taskEntity.getSuspensionState());
+        writeIfNotNull(writer, "formKey", taskEntity.getFormKey());
+        writeIfNotNull(writer, "claimTime", taskEntity.getClaimTime());
+        writeIfNotNull(writer, "tenantId", taskEntity.getTenantId());
+        writer.writeBoolean("countEnabled", taskEntity.isCountEnabled());
+        writer.writeInt32("variableCount", taskEntity.getVariableCount());
+        writer.writeInt32("identityLinkCount", taskEntity.getIdentityLinkCount());
+        writer.writeInt32("subTaskCount", taskEntity.getSubTaskCount());
+    }
+
+}
@@ -0,0 +1,109 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.flowable.engine.impl.util.CommandContextUtil;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
+import org.flowable.mongodb.persistence.mapper.VariableInstanceEntityMapper;
+
+/**
+ * Codec counterpart of the {@link VariableInstanceEntityMapper}.
+ */
+public class VariableInstanceEntityCodec extends AbstractEntityCodec<MongoDbVariableInstanceEntityImpl> {
+
+    public VariableInstanceEntityCodec() {
+        super(MongoDbVariableInstanceEntityImpl.class);
+    }
+
+    @Override
+    protected MongoDbVariableInstanceEntityImpl createEntity() {
+        return new MongoDbVariableInstanceEntityImpl();
+    }
+
+    @Override
+    protected boolean decodeField(String field, BsonReader reader, MongoDbVariableInstanceEntityImpl variableEntity) {
+        switch (field) {
+            case "_id":
+                variableEntity.setId(readString(reader));
+                return true;
+            case "revision":
+                variableEntity.setRevision(readInteger(reader));
+                return true;
+            case "name":
+                variableEntity.setName(readString(reader));
+                return true;
+            case "executionId":
+                variableEntity.setExecutionId(readString(reader));
+                return true;
+            case "processDefinitionId":
+                variableEntity.setProcessDefinitionId(readString(reader));
+                return true;
+            case "processInstanceId":
+                variableEntity.setProcessInstanceId(readString(reader));
+                return true;
+            case "taskId":
+                variableEntity.setTaskId(readString(reader));
+                return true;
+            case "scopeId":
+                variableEntity.setScopeId(readString(reader));
+                return true;
+            case "subScopeId":
+                variableEntity.setSubScopeId(readString(reader));
+                return true;
+            case "scopeType":
+                variableEntity.setScopeType(readString(reader));
+                return true;
+            case "doubleValue":
+                variableEntity.setDoubleValue(readDouble(reader));
+                return true;
+            case "longValue":
+                variableEntity.setLongValue(readLong(reader));
+                return true;
+            case "textValue":
+                variableEntity.setTextValue(readCompressedString(reader));
+                return true;
+            case "textValue2":
+                variableEntity.setTextValue2(readCompressedString(reader));
+                return true;
+            case "typeName":
+                String typeName = readString(reader);
+                variableEntity.setType(CommandContextUtil.getProcessEngineConfiguration().getVariableTypes().getVariableType(typeName));
+                variableEntity.setTypeName(typeName);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void encodeFields(BsonWriter writer, MongoDbVariableInstanceEntityImpl variableEntity) {
+        writeIfNotNull(writer, "_id", variableEntity.getId());
+        writer.writeInt32("revision", variableEntity.getRevision());
+        writeIfNotNull(writer, "name", variableEntity.getName());
+        writeIfNotNull(writer, "executionId", variableEntity.getExecutionId());
+        writeIfNotNull(writer, "processDefinitionId", variableEntity.getProcessDefinitionId());
+        writeIfNotNull(writer, "processInstanceId", variableEntity.getProcessInstanceId());
+        writeIfNotNull(writer, "taskId", variableEntity.getTaskId());
+        writeIfNotNull(writer, "scopeId", variableEntity.getScopeId());
+        writeIfNotNull(writer, "subScopeId", variableEntity.getSubScopeId());
+        writeIfNotNull(writer, "scopeType", variableEntity.getScopeType());
+        writeIfNotNull(writer, "doubleValue", variableEntity.getDoubleValue());
+        writeIfNotNull(writer, "longValue", variableEntity.getLongValue());
+        writeCompressedIfNotNull(writer, "textValue", variableEntity.getTextValue());
+        writeCompressedIfNotNull(writer, "textValue2", variableEntity.getTextValue2());
+        writeIfNotNull(writer, "typeName", variableEntity.getTypeName());
+    }
+
+}
@@ -0,0 +1,96 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.flowable.common.engine.api.FlowableException;
+
+/**
+ * The built-in compressor, using the deflate algorithm of the JDK.
+ */
+public class DeflatePayloadCompressor implements MongoDbPayloadCompressor {
+
+    public static final byte ID = 1;
+    public static final String NAME = "deflate";
+
+    protected int level;
+
+    public DeflatePayloadCompressor() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public DeflatePayloadCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            byte[] result = new byte[uncompressedLength];
+            int inflatedLength = 0;
+            while (inflatedLength < uncompressedLength && !inflater.finished()) {
+                int count = inflater.inflate(result, inflatedLength, uncompressedLength - inflatedLength);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflatedLength += count;
+            }
+            if (inflatedLength != uncompressedLength) {
+                throw new FlowableException("Deflated payload is truncated: expected " + uncompressedLength + " bytes, got " + inflatedLength);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new FlowableException("Could not inflate payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+}
@@ -0,0 +1,222 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import org.bson.types.Binary;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
+
+/**
+ * Compresses the large payloads of the documents (byte array bytes, serialized and json variable values, ...) in the mappers,
+ * and decompresses them again when they're read.
+ *
+ * A payload is only compressed when it is at least {@link #thresholdInBytes} long and compressing makes it smaller.
+ * A compressed payload is stored as binary of the user defined subtype {@link #BINARY_SUBTYPE}, starting with a header:
+ * the {@link #MAGIC} bytes, the id of the {@link MongoDbPayloadCompressor} and the uncompressed length.
+ * Every other value (a string, or binary of another subtype) is read as is, so documents written before compression was
+ * enabled (or with it disabled again) stay readable, and so do documents written with another registered compressor.
+ *
+ * Compressed text fields are binary instead of a string in the document, so they can no longer be matched by a query.
+ */
+public class MongoDbPayloadCompression {
+
+    public static final byte BINARY_SUBTYPE = (byte) 0x80;
+
+    protected static final byte[] MAGIC = { (byte) 0xF1, 'F', 'Z' };
+    protected static final int HEADER_LENGTH = MAGIC.length + 1 + 4;
+
+    protected Map<Byte, MongoDbPayloadCompressor> compressors = new HashMap<>();
+    protected MongoDbPayloadCompressor compressor;
+    protected int thresholdInBytes = 1024;
+    protected MongoDbPayloadCompressionStatistics statistics = new MongoDbPayloadCompressionStatistics();
+
+    public MongoDbPayloadCompression() {
+        registerCompressor(new DeflatePayloadCompressor());
+    }
+
+    public void registerCompressor(MongoDbPayloadCompressor payloadCompressor) {
+        MongoDbPayloadCompressor existingCompressor = compressors.get(payloadCompressor.getId());
+        if (existingCompressor != null && !existingCompressor.getName().equals(payloadCompressor.getName())) {
+            throw new FlowableIllegalArgumentException("Payload compressor " + payloadCompressor.getName() + " has the same id "
+                    + payloadCompressor.getId() + " as " + existingCompressor.getName());
+        }
+        compressors.put(payloadCompressor.getId(), payloadCompressor);
+    }
+
+    /**
+     * Registers the compressors provided by the jars on the classpath of the given class loader.
+     */
+    public void registerServiceLoaderCompressors(ClassLoader classLoader) {
+        for (MongoDbPayloadCompressor payloadCompressor : ServiceLoader.load(MongoDbPayloadCompressor.class, classLoader)) {
+            registerCompressor(payloadCompressor);
+        }
+    }
+
+    public MongoDbPayloadCompressor getCompressor(String name) {
+        for (MongoDbPayloadCompressor payloadCompressor : compressors.values()) {
+            if (payloadCompressor.getName().equals(name)) {
+                return payloadCompressor;
+            }
+        }
+        throw new FlowableIllegalArgumentException("No payload compressor registered with name " + name);
+    }
+
+    /**
+     * Returns the value to store for the given bytes: compressed binary, or the bytes themselves.
+     */
+    public Object compress(byte[] bytes) {
+        if (bytes == null || compressor == null || bytes.length < thresholdInBytes) {
+            return bytes;
+        }
+        byte[] payload = createPayload(bytes);
+        return payload != null ? new Binary(BINARY_SUBTYPE, payload) : bytes;
+    }
+
+    /**
+     * Returns the value to store for the given text: compressed binary, or the text itself.
+     */
+    public Object compress(String text) {
+        // a char is at most 3 bytes in UTF-8
+        if (text == null || compressor == null || text.length() * 3L < thresholdInBytes) {
+            return text;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < thresholdInBytes) {
+            return text;
+        }
+        byte[] payload = createPayload(bytes);
+        return payload != null ? new Binary(BINARY_SUBTYPE, payload) : text;
+    }
+
+    protected byte[] createPayload(byte[] bytes) {
+        byte[] compressedBytes = compressor.compress(bytes);
+        if (compressedBytes.length + HEADER_LENGTH >= bytes.length) {
+            statistics.recordUncompressed();
+            return null;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_LENGTH + compressedBytes.length);
+        payload.put(MAGIC);
+        payload.put(compressor.getId());
+        payload.putInt(bytes.length);
+        payload.put(compressedBytes);
+        statistics.recordCompressed(bytes.length, payload.capacity());
+        return payload.array();
+    }
+
+    /**
+     * Returns the bytes of a value read from a document, decompressing it when needed.
+     */
+    public byte[] getBytes(Object value) {
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (value instanceof Binary) {
+            Binary binary = (Binary) value;
+            return binary.getType() == BINARY_SUBTYPE ? decompress(binary.getData()) : binary.getData();
+        }
+        throw new FlowableException("Expected binary data, but got " + value.getClass().getName());
+    }
+
+    /**
+     * Returns the text of a value read from a document, decompressing it when needed.
+     */
+    public String getString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Binary && ((Binary) value).getType() == BINARY_SUBTYPE) {
+            return new String(decompress(((Binary) value).getData()), StandardCharsets.UTF_8);
+        }
+        throw new FlowableException("Expected a string or compressed text, but got " + value.getClass().getName());
+    }
+
+    /**
+     * Decompresses bytes that were stored without their binary subtype (e.g. in GridFS) when they start with a payload header.
+     */
+    public byte[] decompressIfCompressed(byte[] bytes) {
+        return isCompressed(bytes) ? decompress(bytes) : bytes;
+    }
+
+    public boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && hasMagic(bytes) && compressors.containsKey(bytes[MAGIC.length]);
+    }
+
+    protected boolean hasMagic(byte[] bytes) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected byte[] decompress(byte[] payload) {
+        if (payload.length < HEADER_LENGTH || !hasMagic(payload)) {
+            throw new FlowableException("Compressed payload doesn't start with a payload header");
+        }
+
+        byte compressorId = payload[MAGIC.length];
+        MongoDbPayloadCompressor payloadCompressor = compressors.get(compressorId);
+        if (payloadCompressor == null) {
+            throw new FlowableException("No payload compressor registered with id " + compressorId);
+        }
+
+        int uncompressedLength = ByteBuffer.wrap(payload, MAGIC.length + 1, 4).getInt();
+        byte[] bytes = payloadCompressor.decompress(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH, uncompressedLength);
+        statistics.recordDecompressed();
+        return bytes;
+    }
+
+    public boolean isEnabled() {
+        return compressor != null;
+    }
+
+    public MongoDbPayloadCompressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * Sets the compressor used for writing, which is registered as well. Null disables compression, while compressed payloads can still be read.
+     */
+    public void setCompressor(MongoDbPayloadCompressor compressor) {
+        if (compressor != null) {
+            registerCompressor(compressor);
+        }
+        this.compressor = compressor;
+    }
+
+    public Collection<MongoDbPayloadCompressor> getCompressors() {
+        return compressors.values();
+    }
+
+    public int getThresholdInBytes() {
+        return thresholdInBytes;
+    }
+
+    public void setThresholdInBytes(int thresholdInBytes) {
+        this.thresholdInBytes = thresholdInBytes;
+    }
+
+    public MongoDbPayloadCompressionStatistics getStatistics() {
+        return statistics;
+    }
+
+}
@@ -0,0 +1,93 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the payloads handled by the {@link MongoDbPayloadCompression}.
+ */
+public class MongoDbPayloadCompressionStatistics {
+
+    protected AtomicLong compressedCount = new AtomicLong();
+    protected AtomicLong uncompressedCount = new AtomicLong();
+    protected AtomicLong decompressedCount = new AtomicLong();
+    protected AtomicLong bytesBeforeCompression = new AtomicLong();
+    protected AtomicLong bytesAfterCompression = new AtomicLong();
+
+    public void recordCompressed(long bytesBefore, long bytesAfter) {
+        compressedCount.incrementAndGet();
+        bytesBeforeCompression.addAndGet(bytesBefore);
+        bytesAfterCompression.addAndGet(bytesAfter);
+    }
+
+    public void recordUncompressed() {
+        uncompressedCount.incrementAndGet();
+    }
+
+    public void recordDecompressed() {
+        decompressedCount.incrementAndGet();
+    }
+
+    /**
+     * Number of payloads that were written compressed.
+     */
+    public long getCompressedCount() {
+        return compressedCount.get();
+    }
+
+    /**
+     * Number of payloads above the threshold that were written uncompressed, because compressing didn't make them smaller.
+     */
+    public long getUncompressedCount() {
+        return uncompressedCount.get();
+    }
+
+    /**
+     * Number of compressed payloads that were read.
+     */
+    public long getDecompressedCount() {
+        return decompressedCount.get();
+    }
+
+    /**
+     * Total size of the written compressed payloads before compression.
+     */
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.get();
+    }
+
+    /**
+     * Total size of the written compressed payloads, including their header.
+     */
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.get();
+    }
+
+    /**
+     * The size of the written compressed payloads before compression divided by their size after compression, or 1 when nothing was compressed yet.
+     */
+    public double getCompressionRatio() {
+        long after = bytesAfterCompression.get();
+        return after > 0 ? (double) bytesBeforeCompression.get() / after : 1.0;
+    }
+
+    public void reset() {
+        compressedCount.set(0);
+        uncompressedCount.set(0);
+        decompressedCount.set(0);
+        bytesBeforeCompression.set(0);
+        bytesAfterCompression.set(0);
+    }
+
+}
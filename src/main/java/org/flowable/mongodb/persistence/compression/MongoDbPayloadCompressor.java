@@ -0,0 +1,41 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+/**
+ * Compression algorithm for the payloads compressed by the {@link MongoDbPayloadCompression}.
+ *
+ * Every compressor has an id that is unique among the registered compressors and is written in the header of each payload it compressed,
+ * so the payload can still be decompressed after another compressor is configured. The id of a compressor must therefore never change.
+ * Ids 0 to 15 are reserved for the built-in compressors.
+ *
+ * Compressors other than the built-in ones are found with the {@link java.util.ServiceLoader},
+ * by listing them in META-INF/services/org.flowable.mongodb.persistence.compression.MongoDbPayloadCompressor.
+ */
+public interface MongoDbPayloadCompressor {
+
+    byte getId();
+
+    /**
+     * The name used to select the compressor in the configuration.
+     */
+    String getName();
+
+    byte[] compress(byte[] bytes);
+
+    /**
+     * Decompresses the given range of the payload, which was compressed from the given number of bytes.
+     */
+    byte[] decompress(byte[] bytes, int offset, int length, int uncompressedLength);
+
+}
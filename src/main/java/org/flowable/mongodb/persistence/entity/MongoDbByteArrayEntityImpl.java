@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.entity;
+
+import java.util.Arrays;
+
+import org.bson.types.ObjectId;
+import org.flowable.common.engine.impl.persistence.entity.ByteArrayEntityImpl;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsEntity;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
+
+/**
+ * Byte array of which the bytes are downloaded from GridFS on first use, when they're stored there.
+ *
+ * As long as the bytes aren't set, the persistent state holds the GridFS file id instead of the bytes,
+ * so downloading them isn't seen as a change, and the bytes don't need to be downloaded to check for changes.
+ */
+public class MongoDbByteArrayEntityImpl extends ByteArrayEntityImpl implements MongoDbGridFsEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    protected ObjectId gridFsId;
+    protected boolean bytesChanged;
+
+    @Override
+    public byte[] getBytes() {
+        if (bytes == null && gridFsId != null && !bytesChanged) {
+            bytes = MongoDbGridFsStorage.downloadInCommand(gridFsId);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void setBytes(byte[] bytes) {
+        super.setBytes(bytes);
+        this.bytesChanged = true;
+    }
+
+    @Override
+    public Object getPersistentState() {
+        if (gridFsId != null && !bytesChanged) {
+            return Arrays.asList(name, gridFsId);
+        }
+        return super.getPersistentState();
+    }
+
+    @Override
+    public ObjectId getGridFsId() {
+        return gridFsId;
+    }
+
+    @Override
+    public void setGridFsId(ObjectId gridFsId) {
+        this.gridFsId = gridFsId;
+    }
+
+}
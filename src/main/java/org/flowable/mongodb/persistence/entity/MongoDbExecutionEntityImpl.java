@@ -0,0 +1,381 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.entity;
+
+import java.util.Date;
+
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
+import org.flowable.mongodb.cache.MongoDbChangeTrackedEntity;
+import org.flowable.mongodb.cache.MongoDbEntityCache;
+import org.flowable.mongodb.cache.MongoDbIndexedEntity;
+
+/**
+ * Execution that keeps the {@link MongoDbEntityCache} indexes on its parent, process instance and root process instance up to date,
+ * as executions get moved to another parent while being cached (e.g. by boundary events or multi instance).
+ *
+ * It also records its changes through all the setters of its persistent state, see {@link MongoDbChangeTrackedEntity}.
+ * A new field in the persistent state of {@link ExecutionEntityImpl} needs its setter to be overridden here as well.
+ */
+public class MongoDbExecutionEntityImpl extends ExecutionEntityImpl implements MongoDbIndexedEntity, MongoDbChangeTrackedEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    protected transient MongoDbEntityCache indexingEntityCache;
+
+    protected transient boolean changeTracked;
+    protected transient boolean changed;
+
+    @Override
+    public void setIndexingEntityCache(MongoDbEntityCache entityCache) {
+        this.indexingEntityCache = entityCache;
+    }
+
+    protected void reindex() {
+        if (indexingEntityCache != null) {
+            indexingEntityCache.reindex(this);
+        }
+    }
+
+    @Override
+    public void startChangeTracking() {
+        if (!changeTracked) {
+            changeTracked = true;
+            changed = false;
+        }
+        if (!changed) {
+            originalPersistentState = null;
+        }
+    }
+
+    @Override
+    public void markChanged() {
+        if (changeTracked && !changed) {
+            originalPersistentState = getPersistentState();
+            changed = true;
+        }
+    }
+
+    @Override
+    public boolean isChanged() {
+        return changed;
+    }
+
+    @Override
+    public void setParent(ExecutionEntity parent) {
+        markChanged();
+        super.setParent(parent);
+        reindex();
+    }
+
+    @Override
+    public void setParentId(String parentId) {
+        markChanged();
+        super.setParentId(parentId);
+        reindex();
+    }
+
+    @Override
+    public void setProcessInstance(ExecutionEntity processInstance) {
+        markChanged();
+        super.setProcessInstance(processInstance);
+        reindex();
+    }
+
+    @Override
+    public void setProcessInstanceId(String processInstanceId) {
+        markChanged();
+        super.setProcessInstanceId(processInstanceId);
+        reindex();
+    }
+
+    @Override
+    public void setRootProcessInstance(ExecutionEntity rootProcessInstance) {
+        markChanged();
+        super.setRootProcessInstance(rootProcessInstance);
+        reindex();
+    }
+
+    @Override
+    public void setRootProcessInstanceId(String rootProcessInstanceId) {
+        markChanged();
+        super.setRootProcessInstanceId(rootProcessInstanceId);
+        reindex();
+    }
+
+    @Override
+    public void setSuperExecution(ExecutionEntity superExecution) {
+        markChanged();
+        super.setSuperExecution(superExecution);
+    }
+
+    @Override
+    public void setSuperExecutionId(String superExecutionId) {
+        markChanged();
+        super.setSuperExecutionId(superExecutionId);
+    }
+
+    @Override
+    public void setCurrentFlowElement(FlowElement currentFlowElement) {
+        markChanged();
+        super.setCurrentFlowElement(currentFlowElement);
+    }
+
+    @Override
+    public void setActivityId(String activityId) {
+        markChanged();
+        super.setActivityId(activityId);
+    }
+
+    @Override
+    public void setBusinessKey(String businessKey) {
+        markChanged();
+        super.setBusinessKey(businessKey);
+    }
+
+    @Override
+    public void setBusinessStatus(String businessStatus) {
+        markChanged();
+        super.setBusinessStatus(businessStatus);
+    }
+
+    @Override
+    public void setProcessDefinitionId(String processDefinitionId) {
+        markChanged();
+        super.setProcessDefinitionId(processDefinitionId);
+    }
+
+    @Override
+    public void setName(String name) {
+        markChanged();
+        super.setName(name);
+    }
+
+    @Override
+    public void setActive(boolean isActive) {
+        markChanged();
+        super.setActive(isActive);
+    }
+
+    @Override
+    public void setIsActive(boolean isActive) {
+        markChanged();
+        super.setIsActive(isActive);
+    }
+
+    @Override
+    public void inactivate() {
+        markChanged();
+        super.inactivate();
+    }
+
+    @Override
+    public void setEnded(boolean isEnded) {
+        markChanged();
+        super.setEnded(isEnded);
+    }
+
+    @Override
+    public void setIsEnded(boolean isEnded) {
+        markChanged();
+        super.setIsEnded(isEnded);
+    }
+
+    @Override
+    public void setScope(boolean isScope) {
+        markChanged();
+        super.setScope(isScope);
+    }
+
+    @Override
+    public void setIsScope(boolean isScope) {
+        markChanged();
+        super.setIsScope(isScope);
+    }
+
+    @Override
+    public void setConcurrent(boolean isConcurrent) {
+        markChanged();
+        super.setConcurrent(isConcurrent);
+    }
+
+    @Override
+    public void setIsConcurrent(boolean isConcurrent) {
+        markChanged();
+        super.setIsConcurrent(isConcurrent);
+    }
+
+    @Override
+    public void setEventScope(boolean isEventScope) {
+        markChanged();
+        super.setEventScope(isEventScope);
+    }
+
+    @Override
+    public void setIsEventScope(boolean isEventScope) {
+        markChanged();
+        super.setIsEventScope(isEventScope);
+    }
+
+    @Override
+    public void setMultiInstanceRoot(boolean isMultiInstanceRoot) {
+        markChanged();
+        super.setMultiInstanceRoot(isMultiInstanceRoot);
+    }
+
+    @Override
+    public void setIsMultiInstanceRoot(boolean isMultiInstanceRoot) {
+        markChanged();
+        super.setIsMultiInstanceRoot(isMultiInstanceRoot);
+    }
+
+    @Override
+    public void setCountEnabled(boolean isCountEnabled) {
+        markChanged();
+        super.setCountEnabled(isCountEnabled);
+    }
+
+    @Override
+    public void setIsCountEnabled(boolean isCountEnabled) {
+        markChanged();
+        super.setIsCountEnabled(isCountEnabled);
+    }
+
+    @Override
+    public void setSuspensionState(int suspensionState) {
+        markChanged();
+        super.setSuspensionState(suspensionState);
+    }
+
+    @Override
+    public void setLockTime(Date lockTime) {
+        markChanged();
+        super.setLockTime(lockTime);
+    }
+
+    @Override
+    public void setLockOwner(String lockOwner) {
+        markChanged();
+        super.setLockOwner(lockOwner);
+    }
+
+    @Override
+    public void setStartActivityId(String startActivityId) {
+        markChanged();
+        super.setStartActivityId(startActivityId);
+    }
+
+    @Override
+    public void setStartUserId(String startUserId) {
+        markChanged();
+        super.setStartUserId(startUserId);
+    }
+
+    @Override
+    public void setStartTime(Date startTime) {
+        markChanged();
+        super.setStartTime(startTime);
+    }
+
+    @Override
+    public void setEventSubscriptionCount(int eventSubscriptionCount) {
+        markChanged();
+        super.setEventSubscriptionCount(eventSubscriptionCount);
+    }
+
+    @Override
+    public void setTaskCount(int taskCount) {
+        markChanged();
+        super.setTaskCount(taskCount);
+    }
+
+    @Override
+    public void setJobCount(int jobCount) {
+        markChanged();
+        super.setJobCount(jobCount);
+    }
+
+    @Override
+    public void setTimerJobCount(int timerJobCount) {
+        markChanged();
+        super.setTimerJobCount(timerJobCount);
+    }
+
+    @Override
+    public void setSuspendedJobCount(int suspendedJobCount) {
+        markChanged();
+        super.setSuspendedJobCount(suspendedJobCount);
+    }
+
+    @Override
+    public void setDeadLetterJobCount(int deadLetterJobCount) {
+        markChanged();
+        super.setDeadLetterJobCount(deadLetterJobCount);
+    }
+
+    @Override
+    public void setExternalWorkerJobCount(int externalWorkerJobCount) {
+        markChanged();
+        super.setExternalWorkerJobCount(externalWorkerJobCount);
+    }
+
+    @Override
+    public void setVariableCount(int variableCount) {
+        markChanged();
+        super.setVariableCount(variableCount);
+    }
+
+    @Override
+    public void setIdentityLinkCount(int identityLinkCount) {
+        markChanged();
+        super.setIdentityLinkCount(identityLinkCount);
+    }
+
+    @Override
+    public void setCallbackId(String callbackId) {
+        markChanged();
+        super.setCallbackId(callbackId);
+    }
+
+    @Override
+    public void setCallbackType(String callbackType) {
+        markChanged();
+        super.setCallbackType(callbackType);
+    }
+
+    @Override
+    public void setReferenceId(String referenceId) {
+        markChanged();
+        super.setReferenceId(referenceId);
+    }
+
+    @Override
+    public void setReferenceType(String referenceType) {
+        markChanged();
+        super.setReferenceType(referenceType);
+    }
+
+    @Override
+    public void setPropagatedStageInstanceId(String propagatedStageInstanceId) {
+        markChanged();
+        super.setPropagatedStageInstanceId(propagatedStageInstanceId);
+    }
+
+    @Override
+    public void forceUpdate() {
+        markChanged();
+        super.forceUpdate();
+    }
+
+}
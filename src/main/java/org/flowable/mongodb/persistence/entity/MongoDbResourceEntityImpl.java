@@ -0,0 +1,48 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.entity;
+
+import org.bson.types.ObjectId;
+import org.flowable.engine.impl.persistence.entity.ResourceEntityImpl;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsEntity;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
+
+/**
+ * Resource of which the bytes are downloaded from GridFS on first use, when they're stored there.
+ * Resources are never updated, so loading the bytes doesn't need to be hidden from the persistent state.
+ */
+public class MongoDbResourceEntityImpl extends ResourceEntityImpl implements MongoDbGridFsEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    protected ObjectId gridFsId;
+
+    @Override
+    public byte[] getBytes() {
+        if (bytes == null && gridFsId != null) {
+            bytes = MongoDbGridFsStorage.downloadInCommand(gridFsId);
+        }
+        return bytes;
+    }
+
+    @Override
+    public ObjectId getGridFsId() {
+        return gridFsId;
+    }
+
+    @Override
+    public void setGridFsId(ObjectId gridFsId) {
+        this.gridFsId = gridFsId;
+    }
+
+}
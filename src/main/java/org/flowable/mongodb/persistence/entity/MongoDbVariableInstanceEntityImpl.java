@@ -0,0 +1,181 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.entity;
+
+import org.flowable.mongodb.cache.MongoDbChangeTrackedEntity;
+import org.flowable.mongodb.cache.MongoDbEntityCache;
+import org.flowable.mongodb.cache.MongoDbIndexedEntity;
+import org.flowable.variable.api.types.VariableType;
+import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntityImpl;
+
+/**
+ * Variable instance that keeps the {@link MongoDbEntityCache} index on its execution up to date,
+ * and records its changes through all the setters of its persistent state (see {@link MongoDbChangeTrackedEntity}).
+ * The byte array reference only changes through {@link #setBytes(byte[])}, which is intercepted as well.
+ */
+public class MongoDbVariableInstanceEntityImpl extends VariableInstanceEntityImpl implements MongoDbIndexedEntity, MongoDbChangeTrackedEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    protected transient MongoDbEntityCache indexingEntityCache;
+
+    protected transient boolean changeTracked;
+    protected transient boolean changed;
+
+    @Override
+    public void setIndexingEntityCache(MongoDbEntityCache entityCache) {
+        this.indexingEntityCache = entityCache;
+    }
+
+    @Override
+    public void startChangeTracking() {
+        if (!changeTracked) {
+            changeTracked = true;
+            changed = false;
+        }
+        if (!changed) {
+            originalPersistentState = null;
+        }
+    }
+
+    @Override
+    public void markChanged() {
+        if (changeTracked && !changed) {
+            originalPersistentState = getPersistentState();
+            changed = true;
+        }
+    }
+
+    @Override
+    public boolean isChanged() {
+        return changed;
+    }
+
+    @Override
+    public void setExecutionId(String executionId) {
+        markChanged();
+        super.setExecutionId(executionId);
+        if (indexingEntityCache != null) {
+            indexingEntityCache.reindex(this);
+        }
+    }
+
+    @Override
+    public void setProcessInstanceId(String processInstanceId) {
+        markChanged();
+        super.setProcessInstanceId(processInstanceId);
+    }
+
+    @Override
+    public void setProcessDefinitionId(String processDefinitionId) {
+        markChanged();
+        super.setProcessDefinitionId(processDefinitionId);
+    }
+
+    @Override
+    public void setTaskId(String taskId) {
+        markChanged();
+        super.setTaskId(taskId);
+    }
+
+    @Override
+    public void setScopeId(String scopeId) {
+        markChanged();
+        super.setScopeId(scopeId);
+    }
+
+    @Override
+    public void setSubScopeId(String subScopeId) {
+        markChanged();
+        super.setSubScopeId(subScopeId);
+    }
+
+    @Override
+    public void setScopeType(String scopeType) {
+        markChanged();
+        super.setScopeType(scopeType);
+    }
+
+    @Override
+    public void setScopeDefinitionId(String scopeDefinitionId) {
+        markChanged();
+        super.setScopeDefinitionId(scopeDefinitionId);
+    }
+
+    @Override
+    public void setName(String name) {
+        markChanged();
+        super.setName(name);
+    }
+
+    @Override
+    public void setType(VariableType type) {
+        markChanged();
+        super.setType(type);
+    }
+
+    @Override
+    public void setTypeName(String typeName) {
+        markChanged();
+        super.setTypeName(typeName);
+    }
+
+    @Override
+    public void setValue(Object value) {
+        markChanged();
+        super.setValue(value);
+    }
+
+    @Override
+    public void setBytes(byte[] bytes) {
+        markChanged();
+        super.setBytes(bytes);
+    }
+
+    @Override
+    public void setLongValue(Long longValue) {
+        markChanged();
+        super.setLongValue(longValue);
+    }
+
+    @Override
+    public void setDoubleValue(Double doubleValue) {
+        markChanged();
+        super.setDoubleValue(doubleValue);
+    }
+
+    @Override
+    public void setTextValue(String textValue) {
+        markChanged();
+        super.setTextValue(textValue);
+    }
+
+    @Override
+    public void setTextValue2(String textValue2) {
+        markChanged();
+        super.setTextValue2(textValue2);
+    }
+
+    @Override
+    public void setMetaInfo(String metaInfo) {
+        markChanged();
+        super.setMetaInfo(metaInfo);
+    }
+
+    @Override
+    public void forceUpdate() {
+        markChanged();
+        super.forceUpdate();
+    }
+
+}
@@ -0,0 +1,30 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.gridfs;
+
+import org.bson.types.ObjectId;
+
+/**
+ * An entity of which the bytes can be stored in GridFS (see {@link MongoDbGridFsStorage}).
+ * When read from a document that references a GridFS file, the bytes are downloaded on the first call to getBytes().
+ */
+public interface MongoDbGridFsEntity {
+
+    /**
+     * The id of the GridFS file holding the bytes, or null when the bytes are stored in the document.
+     */
+    ObjectId getGridFsId();
+
+    void setGridFsId(ObjectId gridFsId);
+
+}
@@ -0,0 +1,143 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.gridfs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.mongodb.persistence.MongoDbSession;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+
+/**
+ * Stores the binary field of the documents of some collections (e.g. the bytes of deployment resources) in a GridFS bucket
+ * when it is larger than the threshold. The document then keeps a reference to the GridFS file in the field
+ * with the {@link #REFERENCE_FIELD_SUFFIX} instead, so reading the document doesn't read the bytes,
+ * and documents aren't limited by the 16 MB document size.
+ *
+ * The bytes are only downloaded when the entity asks for them, see {@link MongoDbGridFsEntity}.
+ * Uploads and deletes of GridFS files are part of the transaction of the {@link MongoDbSession}.
+ */
+public class MongoDbGridFsStorage {
+
+    public static final String DEFAULT_BUCKET_NAME = "flowableBytes";
+    public static final String REFERENCE_FIELD_SUFFIX = "GridFsId";
+
+    protected GridFSBucket bucket;
+    protected int thresholdInBytes;
+    protected Map<String, String> collectionToField = new HashMap<>();
+
+    protected volatile boolean indexesChecked;
+
+    public MongoDbGridFsStorage(MongoDatabase mongoDatabase, String bucketName, int thresholdInBytes) {
+        this.bucket = GridFSBuckets.create(mongoDatabase, bucketName);
+        this.thresholdInBytes = thresholdInBytes;
+    }
+
+    /**
+     * Stores the given binary field of the documents of the collection in GridFS when it's larger than the threshold.
+     */
+    public void registerCollection(String collection, String field) {
+        collectionToField.put(collection, field);
+    }
+
+    /**
+     * The binary field of the collection that can be stored in GridFS, or null.
+     */
+    public String getField(String collection) {
+        return collectionToField.get(collection);
+    }
+
+    public static String getReferenceField(String field) {
+        return field + REFERENCE_FIELD_SUFFIX;
+    }
+
+    /**
+     * Returns the id of the GridFS file referenced by the document for the given field, or null when the bytes are in the document.
+     * The id is a string when ObjectIds are read as strings, see {@link org.flowable.mongodb.persistence.id.ObjectIdStringCodec}.
+     */
+    public static ObjectId getReference(Document document, String field) {
+        Object reference = document.get(getReferenceField(field));
+        return reference instanceof String ? new ObjectId((String) reference) : (ObjectId) reference;
+    }
+
+    /**
+     * Returns the bytes to store in GridFS, or null when the value is small enough to be stored in the document itself.
+     */
+    public byte[] getBytesToStore(Object value) {
+        byte[] bytes = value instanceof Binary ? ((Binary) value).getData() : value instanceof byte[] ? (byte[]) value : null;
+        return bytes != null && bytes.length > thresholdInBytes ? bytes : null;
+    }
+
+    public ObjectId upload(ClientSession clientSession, String filename, byte[] bytes) {
+        ensureIndexes();
+        return bucket.uploadFromStream(clientSession, filename, new ByteArrayInputStream(bytes));
+    }
+
+    public byte[] download(ClientSession clientSession, ObjectId gridFsId) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bucket.downloadToStream(clientSession, gridFsId, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public void delete(ClientSession clientSession, ObjectId gridFsId) {
+        bucket.delete(clientSession, gridFsId);
+    }
+
+    /**
+     * The bucket creates its indexes on the first upload, but indexes can't be created within a transaction.
+     * Opening (and aborting) an upload stream outside of the transaction creates them up front.
+     */
+    protected void ensureIndexes() {
+        if (!indexesChecked) {
+            synchronized (this) {
+                if (!indexesChecked) {
+                    bucket.openUploadStream("_indexes").abort();
+                    indexesChecked = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Downloads the bytes of a GridFS file within the transaction of the current command,
+     * for entities that load their bytes when they're asked for.
+     */
+    public static byte[] downloadInCommand(ObjectId gridFsId) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            throw new FlowableException("The bytes of GridFS file " + gridFsId + " can only be loaded within a command");
+        }
+        return commandContext.getSession(MongoDbSession.class).downloadGridFsFile(gridFsId);
+    }
+
+    public GridFSBucket getBucket() {
+        return bucket;
+    }
+
+    public int getThresholdInBytes() {
+        return thresholdInBytes;
+    }
+
+}
@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import org.flowable.common.engine.impl.cfg.IdGenerator;
+import org.flowable.common.engine.impl.persistence.StrongUuidGenerator;
+
+/**
+ * The format of the ids generated for new entities.
+ */
+public enum MongoDbIdStrategy {
+
+    /**
+     * The UUIDs of the Flowable {@link StrongUuidGenerator} (36 characters). These start with the fastest changing bits of the time,
+     * so they're spread evenly over the indexes.
+     */
+    RANDOM_UUID {
+        @Override
+        public IdGenerator createIdGenerator() {
+            return new StrongUuidGenerator();
+        }
+    },
+
+    /**
+     * Time ordered ObjectId hex strings (24 characters). Can be stored as a 12 byte ObjectId, see {@link ObjectIdFieldConverter}.
+     */
+    OBJECT_ID {
+        @Override
+        public IdGenerator createIdGenerator() {
+            return new ObjectIdStringGenerator();
+        }
+    },
+
+    /**
+     * Time ordered version 7 UUIDs (36 characters).
+     */
+    UUID_V7 {
+        @Override
+        public IdGenerator createIdGenerator() {
+            return new TimeOrderedUuidGenerator();
+        }
+    };
+
+    public abstract IdGenerator createIdGenerator();
+
+}
@@ -0,0 +1,205 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Converts the ObjectId hex strings (see {@link ObjectIdStringGenerator}) in the id and foreign key fields of documents, filters,
+ * updates and pipelines to ObjectIds, so these fields are stored as 12 byte ObjectIds. The ObjectIds are read back as their hex string
+ * by the codec registry of the {@link ObjectIdStringCodec}, so the engine keeps working with string ids.
+ *
+ * Only the fields in {@link #getIdFields()} are converted, matched on the last segment of a (dotted) field name. Operators ($in, $set, ...)
+ * keep the field they apply to. Free text fields (names, business keys, tenant ids, variable values, ...) thus stay strings,
+ * so like filters and the string sort order keep working on them. A string compared with an id field in an aggregation expression
+ * (e.g. in $expr) is not converted.
+ */
+public class ObjectIdFieldConverter {
+
+    public static final Set<String> DEFAULT_ID_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "_id", "_aggregateId", "activityInstanceId", "byteArrayRef", "callbackId", "calledProcessInstanceId", "correlationId",
+            "deploymentId", "editorSourceExtraValueId", "editorSourceValueId", "executionId", "infoJsonId", "parentDeploymentId",
+            "parentId", "parentTaskId", "processInstanceId", "rootProcessInstanceId", "scopeId", "subProcessInstanceId", "subScopeId",
+            "superExecutionId", "superProccessInstanceId", "superProcessInstanceId", "taskId")));
+
+    protected Set<String> idFields;
+
+    public ObjectIdFieldConverter() {
+        this(DEFAULT_ID_FIELDS);
+    }
+
+    public ObjectIdFieldConverter(Set<String> idFields) {
+        this.idFields = idFields;
+    }
+
+    public boolean isIdField(String field) {
+        int lastDot = field.lastIndexOf('.');
+        return idFields.contains(lastDot >= 0 ? field.substring(lastDot + 1) : field);
+    }
+
+    /**
+     * Whether the string value of the field is stored as an ObjectId.
+     */
+    public boolean isObjectId(String field, String value) {
+        return field != null && isIdField(field) && ObjectIdStringCodec.isObjectIdHexString(value);
+    }
+
+    public Bson convert(Bson bson, CodecRegistry codecRegistry) {
+        if (bson == null) {
+            return null;
+        }
+        return convertDocument(bson.toBsonDocument(BsonDocument.class, codecRegistry), null);
+    }
+
+    public List<Bson> convert(List<? extends Bson> pipeline, CodecRegistry codecRegistry) {
+        List<Bson> convertedPipeline = new ArrayList<>(pipeline.size());
+        for (Bson stage : pipeline) {
+            convertedPipeline.add(convert(stage, codecRegistry));
+        }
+        return convertedPipeline;
+    }
+
+    public Document convert(Document document) {
+        return convertMap(document, null);
+    }
+
+    public WriteModel<Document> convert(WriteModel<Document> writeModel, CodecRegistry codecRegistry) {
+        if (writeModel instanceof InsertOneModel) {
+            return new InsertOneModel<>(convert(((InsertOneModel<Document>) writeModel).getDocument()));
+
+        } else if (writeModel instanceof UpdateOneModel) {
+            UpdateOneModel<Document> updateOneModel = (UpdateOneModel<Document>) writeModel;
+            UpdateOptions options = convert(updateOneModel.getOptions(), codecRegistry);
+            return updateOneModel.getUpdate() != null
+                    ? new UpdateOneModel<>(convert(updateOneModel.getFilter(), codecRegistry), convert(updateOneModel.getUpdate(), codecRegistry), options)
+                    : new UpdateOneModel<>(convert(updateOneModel.getFilter(), codecRegistry), convert(updateOneModel.getUpdatePipeline(), codecRegistry), options);
+
+        } else if (writeModel instanceof UpdateManyModel) {
+            UpdateManyModel<Document> updateManyModel = (UpdateManyModel<Document>) writeModel;
+            UpdateOptions options = convert(updateManyModel.getOptions(), codecRegistry);
+            return updateManyModel.getUpdate() != null
+                    ? new UpdateManyModel<>(convert(updateManyModel.getFilter(), codecRegistry), convert(updateManyModel.getUpdate(), codecRegistry), options)
+                    : new UpdateManyModel<>(convert(updateManyModel.getFilter(), codecRegistry), convert(updateManyModel.getUpdatePipeline(), codecRegistry), options);
+
+        } else if (writeModel instanceof ReplaceOneModel) {
+            ReplaceOneModel<Document> replaceOneModel = (ReplaceOneModel<Document>) writeModel;
+            return new ReplaceOneModel<>(convert(replaceOneModel.getFilter(), codecRegistry), convert(replaceOneModel.getReplacement()),
+                    replaceOneModel.getReplaceOptions());
+
+        } else if (writeModel instanceof DeleteOneModel) {
+            DeleteOneModel<Document> deleteOneModel = (DeleteOneModel<Document>) writeModel;
+            return new DeleteOneModel<>(convert(deleteOneModel.getFilter(), codecRegistry), deleteOneModel.getOptions());
+
+        } else if (writeModel instanceof DeleteManyModel) {
+            DeleteManyModel<Document> deleteManyModel = (DeleteManyModel<Document>) writeModel;
+            return new DeleteManyModel<>(convert(deleteManyModel.getFilter(), codecRegistry), deleteManyModel.getOptions());
+        }
+        return writeModel;
+    }
+
+    protected UpdateOptions convert(UpdateOptions options, CodecRegistry codecRegistry) {
+        if (options.getArrayFilters() != null) {
+            options.arrayFilters(convert(options.getArrayFilters(), codecRegistry));
+        }
+        return options;
+    }
+
+    protected BsonDocument convertDocument(BsonDocument document, String field) {
+        BsonDocument convertedDocument = new BsonDocument();
+        for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+            convertedDocument.append(entry.getKey(), convertValue(entry.getValue(), getValueField(entry.getKey(), field)));
+        }
+        return convertedDocument;
+    }
+
+    protected BsonValue convertValue(BsonValue value, String field) {
+        if (value.isString()) {
+            String stringValue = value.asString().getValue();
+            return isObjectId(field, stringValue) ? new BsonObjectId(new ObjectId(stringValue)) : value;
+
+        } else if (value.isDocument()) {
+            return convertDocument(value.asDocument(), field);
+
+        } else if (value.isArray()) {
+            BsonArray convertedArray = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                convertedArray.add(convertValue(element, field));
+            }
+            return convertedArray;
+        }
+        return value;
+    }
+
+    protected Document convertMap(Map<String, Object> map, String field) {
+        Document convertedDocument = new Document();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            convertedDocument.append(entry.getKey(), convertObject(entry.getValue(), getValueField(entry.getKey(), field)));
+        }
+        return convertedDocument;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Object convertObject(Object value, String field) {
+        if (value instanceof String) {
+            return isObjectId(field, (String) value) ? new ObjectId((String) value) : value;
+
+        } else if (value instanceof Map) {
+            return convertMap((Map<String, Object>) value, field);
+
+        } else if (value instanceof Collection) {
+            List<Object> convertedList = new ArrayList<>(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                convertedList.add(convertObject(element, field));
+            }
+            return convertedList;
+        }
+        return value;
+    }
+
+    /**
+     * The values of an operator apply to the field the operator is used on, the values of other keys to the key itself.
+     */
+    protected String getValueField(String key, String field) {
+        return key.startsWith("$") ? field : key;
+    }
+
+    public Set<String> getIdFields() {
+        return idFields;
+    }
+
+}
@@ -0,0 +1,87 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import java.util.Collections;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodecProvider;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Reads every ObjectId as its hex string, so the id and foreign key fields that are stored as ObjectId
+ * (see {@link ObjectIdFieldConverter}) are strings again for the mappers, codecs and the engine. Strings are written as strings:
+ * which strings are stored as ObjectId depends on their field, which a codec doesn't know.
+ *
+ * Strings that were stored as a string before enabling binary id storage are no longer matched by queries on the same value,
+ * so it should be enabled on a new database, together with the {@link MongoDbIdStrategy#OBJECT_ID} strategy.
+ */
+public class ObjectIdStringCodec implements Codec<String> {
+
+    protected static final int OBJECT_ID_HEX_LENGTH = 24;
+
+    /**
+     * Creates a codec registry that uses this codec for strings, and decodes ObjectIds in documents as strings,
+     * falling back to the given registry for all other classes.
+     */
+    public static CodecRegistry createCodecRegistry(CodecRegistry codecRegistry) {
+        BsonTypeClassMap bsonTypeClassMap = new BsonTypeClassMap(Collections.<BsonType, Class<?>>singletonMap(BsonType.OBJECT_ID, String.class));
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new ObjectIdStringCodec()),
+                CodecRegistries.fromProviders(new DocumentCodecProvider(bsonTypeClassMap)),
+                codecRegistry);
+    }
+
+    public static boolean isObjectIdHexString(String value) {
+        if (value.length() != OBJECT_ID_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < OBJECT_ID_HEX_LENGTH; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, String value, EncoderContext encoderContext) {
+        writer.writeString(value);
+    }
+
+    @Override
+    public String decode(BsonReader reader, DecoderContext decoderContext) {
+        switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID:
+                return reader.readObjectId().toHexString();
+            case SYMBOL:
+                return reader.readSymbol();
+            default:
+                return reader.readString();
+        }
+    }
+
+    @Override
+    public Class<String> getEncoderClass() {
+        return String.class;
+    }
+
+}
@@ -0,0 +1,30 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import org.bson.types.ObjectId;
+import org.flowable.common.engine.impl.cfg.IdGenerator;
+
+/**
+ * Generates the hex string of a new {@link ObjectId}: 24 characters, starting with the creation time in seconds,
+ * so ids created after each other are close together in the indexes.
+ * These are the ids that are stored as an ObjectId when binary id storage is enabled, see {@link ObjectIdFieldConverter}.
+ */
+public class ObjectIdStringGenerator implements IdGenerator {
+
+    @Override
+    public String getNextId() {
+        return new ObjectId().toHexString();
+    }
+
+}
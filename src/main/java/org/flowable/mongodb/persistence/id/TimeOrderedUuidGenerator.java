@@ -0,0 +1,58 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+import org.flowable.common.engine.impl.cfg.IdGenerator;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): the first 48 bits are the creation time in milliseconds, followed by random bits,
+ * so ids created after each other are close together in the indexes while keeping the usual UUID string format.
+ *
+ * The 12 bits after the version are a counter within the same millisecond, so the ids of one generator are strictly increasing.
+ */
+public class TimeOrderedUuidGenerator implements IdGenerator {
+
+    protected final SecureRandom random = new SecureRandom();
+
+    protected long lastTimestamp;
+    protected int sequence;
+
+    @Override
+    public String getNextId() {
+        long timestamp;
+        int currentSequence;
+        synchronized (this) {
+            timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            if (timestamp == lastTimestamp) {
+                sequence++;
+                if (sequence > 0xFFF) {
+                    // counter overflow: borrow the next millisecond
+                    timestamp++;
+                    sequence = 0;
+                }
+            } else {
+                sequence = random.nextInt(0x800); // leaves room for incrementing
+            }
+            lastTimestamp = timestamp;
+            currentSequence = sequence;
+        }
+
+        long mostSignificantBits = (timestamp << 16) | 0x7000L | currentSequence;
+        long leastSignificantBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+}
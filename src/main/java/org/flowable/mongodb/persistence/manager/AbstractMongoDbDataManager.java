@@ -12,25 +12,47 @@
  */
 package org.flowable.mongodb.persistence.manager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
 import org.flowable.common.engine.impl.AbstractEngineConfiguration;
 import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.db.ListQueryParameterObject;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.common.engine.impl.persistence.entity.data.DataManager;
+import org.flowable.mongodb.persistence.EntityToDocumentMapper;
+import org.flowable.mongodb.persistence.MongoDbCursor;
 import org.flowable.mongodb.persistence.MongoDbSession;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompression;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 
 /**
  * @author Joram Barrez
  */
 public abstract class AbstractMongoDbDataManager<EntityImpl extends Entity> implements DataManager<EntityImpl> {
 
+    /**
+     * Key in the object returned by {@link #createUpdateObject(Entity)} holding the fields to remove from the document,
+     * which are sent as $unset instead of being part of the $set.
+     */
+    public static final String UNSET_FIELDS = "$unset";
+
     protected AbstractEngineConfiguration engineConfiguration;
 
     public AbstractMongoDbDataManager() {
@@ -47,6 +69,24 @@ public abstract class AbstractMongoDbDataManager<EntityImpl extends Entity> impl
         return Context.getCommandContext().getSession(MongoDbSession.class);
     }
 
+    protected MongoDbPayloadCompression getPayloadCompression() {
+        return getMongoDbSession().getMongoDbSessionFactory().getPayloadCompression();
+    }
+
+    /**
+     * Announces the ids the entities refer to in the given collection, so that they're loaded with one query
+     * on the first lookup by id instead of one query each. See {@link MongoDbSession#prefetch(String, Collection)}.
+     */
+    protected <T> void prefetchReferencedIds(String collection, Collection<T> entities, Function<T, String> idGetter) {
+        if (entities.size() > 1) {
+            List<String> ids = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                ids.add(idGetter.apply(entity));
+            }
+            getMongoDbSession().prefetch(collection, ids);
+        }
+    }
+
     @Override
     public EntityImpl findById(String id) {
         return getMongoDbSession().findOne(getCollection(), id);
@@ -101,6 +141,240 @@ public abstract class AbstractMongoDbDataManager<EntityImpl extends Entity> impl
         return updateObject;
     }
 
+    /**
+     * Like {@link #setUpdateProperty(Entity, String, Object, BasicDBObject)}, for a text field that the mapper stores compressed when it is large enough.
+     */
+    protected BasicDBObject setCompressedUpdateProperty(Entity entity, String propertyName, String value, BasicDBObject updateObject) {
+        updateObject = setUpdateProperty(entity, propertyName, value, updateObject);
+        if (updateObject != null && updateObject.containsField(propertyName)) {
+            updateObject.put(propertyName, getPayloadCompression().compress(value));
+        }
+        return updateObject;
+    }
+
+    /**
+     * Generic implementation of {@link #createUpdateObject(Entity)}, for the data managers that opt in:
+     * compares the original persistent state of the entity with its current persistent state,
+     * and only returns the changed fields. Fields that became null are put under {@link #UNSET_FIELDS}.
+     * Returns null when nothing changed.
+     *
+     * Only the keys of the persistent state in the given map are taken into account, with the document field they are stored in.
+     * The values of those keys must be stored as is (e.g. no enums), as they are sent without conversion.
+     * When the entity has no original persistent state (e.g. it was updated without being read in the same command),
+     * every non-null value is set and nothing is unset.
+     */
+    @SuppressWarnings("unchecked")
+    protected BasicDBObject createUpdateObjectFromPersistentState(Entity entity, Map<String, String> updateFields) {
+        Map<String, Object> originalPersistentState = entity.getOriginalPersistentState() instanceof Map
+                ? (Map<String, Object>) entity.getOriginalPersistentState() : Collections.emptyMap();
+        Map<String, Object> persistentState = (Map<String, Object>) entity.getPersistentState();
+
+        Set<String> keys = new LinkedHashSet<>(persistentState.keySet());
+        keys.addAll(originalPersistentState.keySet());
+
+        BasicDBObject updateObject = null;
+        Document unsetFields = null;
+        for (String key : keys) {
+            String field = updateFields.get(key);
+            Object value = persistentState.get(key);
+            if (field == null || Objects.equals(originalPersistentState.get(key), value)) {
+                continue;
+            }
+
+            if (updateObject == null) {
+                updateObject = new BasicDBObject();
+            }
+            if (value != null) {
+                updateObject.append(field, value);
+            } else {
+                if (unsetFields == null) {
+                    unsetFields = new Document();
+                    updateObject.append(UNSET_FIELDS, unsetFields);
+                }
+                unsetFields.append(field, "");
+            }
+        }
+
+        return updateObject;
+    }
+
+    /**
+     * Executes a Flowable query on the collection of this data manager: the order by of the query is translated to a sort
+     * (see {@link #createSortKeys(ListQueryParameterObject, Map)}) and the first/max results are applied as skip and limit,
+     * so only the requested page is read from the database.
+     */
+    protected <T> List<T> findByQuery(Bson filter, ListQueryParameterObject query, Map<String, String> orderByFields) {
+        Bson sort = createSort(createSortKeys(query, orderByFields));
+        return getMongoDbSession().find(getCollection(), filter, sort, query.getFirstResult(), query.getMaxResults());
+    }
+
+    /**
+     * Returns a cursor over the entities of this collection matching the query, in the order of the query, ignoring its first and max results.
+     * Meant for the internal paths that process a result that can be too large to load at once. The entities aren't stored in the entity cache.
+     */
+    protected <T> MongoDbCursor<T> findCursorByQuery(Bson filter, ListQueryParameterObject query, Map<String, String> orderByFields) {
+        MongoDbSession mongoDbSession = getMongoDbSession();
+        return mongoDbSession.findCursor(getCollection(), filter, createSort(query, orderByFields),
+                mongoDbSession.getMongoDbSessionFactory().getCursorBatchSize(), false);
+    }
+
+    /**
+     * Keyset (seek) variant of {@link #findByQuery(Bson, ListQueryParameterObject, Map)}: returns the next page (of max results size)
+     * after the given entity, which is the last entity of the previous page. Contrary to a skip, the cost doesn't grow with the page depth,
+     * as the sort index is used to seek directly to the start of the page.
+     *
+     * The first result of the query is ignored. All sort fields of the query must have a value in the last entity.
+     */
+    protected <T> List<T> findByQueryAfter(Bson filter, ListQueryParameterObject query, Map<String, String> orderByFields, Entity lastEntity) {
+        LinkedHashMap<String, Boolean> sortKeys = createSortKeys(query, orderByFields);
+        Bson keysetFilter = createKeysetFilter(sortKeys, toDocument(lastEntity));
+        Bson pageFilter = filter != null ? Filters.and(filter, keysetFilter) : keysetFilter;
+        return getMongoDbSession().find(getCollection(), pageFilter, createSort(sortKeys), 0, query.getMaxResults());
+    }
+
+    /**
+     * Translates the order by of a Flowable query (e.g. 'RES.PRIORITY_ desc, RES.ID_ asc') to the document fields to sort on,
+     * with true for ascending, using the given mapping from query property name to document field. Properties without a mapping are ignored.
+     *
+     * The _id is always added as the last sort key, so the order (and thus every page) is deterministic.
+     */
+    protected LinkedHashMap<String, Boolean> createSortKeys(ListQueryParameterObject query, Map<String, String> orderByFields) {
+        LinkedHashMap<String, Boolean> sortKeys = new LinkedHashMap<>();
+
+        String orderBy = query.getOrderBy();
+        if (orderBy != null) {
+            for (String orderByPart : orderBy.split(",")) {
+                String[] orderByTokens = orderByPart.trim().split("\\s+");
+                String field = orderByFields.get(orderByTokens[0]);
+                if (field != null && !sortKeys.containsKey(field)) {
+                    boolean descending = orderByTokens.length > 1 && ListQueryParameterObject.SORTORDER_DESC.equalsIgnoreCase(orderByTokens[1]);
+                    sortKeys.put(field, !descending);
+                }
+            }
+        }
+
+        if (!sortKeys.containsKey("_id")) {
+            sortKeys.put("_id", true);
+        }
+        return sortKeys;
+    }
+
+    protected Bson createSort(ListQueryParameterObject query, Map<String, String> orderByFields) {
+        return createSort(createSortKeys(query, orderByFields));
+    }
+
+    protected Bson createSort(LinkedHashMap<String, Boolean> sortKeys) {
+        List<Bson> sorts = new ArrayList<>(sortKeys.size());
+        for (Map.Entry<String, Boolean> sortKey : sortKeys.entrySet()) {
+            sorts.add(sortKey.getValue() ? Sorts.ascending(sortKey.getKey()) : Sorts.descending(sortKey.getKey()));
+        }
+        return Sorts.orderBy(sorts);
+    }
+
+    /**
+     * Creates the filter matching everything after the given document in the order of the sort keys.
+     * For sort keys (a asc, b desc, _id asc) this is: a > x or (a = x and b < y) or (a = x and b = y and _id > z).
+     */
+    protected Bson createKeysetFilter(LinkedHashMap<String, Boolean> sortKeys, Document lastDocument) {
+        List<Bson> keysetFilters = new ArrayList<>();
+        List<Bson> equalFilters = new ArrayList<>();
+        for (Map.Entry<String, Boolean> sortKey : sortKeys.entrySet()) {
+            String field = sortKey.getKey();
+            Object lastValue = lastDocument.get(field);
+            if (lastValue == null) {
+                throw new FlowableIllegalArgumentException("Keyset pagination is not possible: no value for sort field " + field + " in " + lastDocument.get("_id"));
+            }
+
+            List<Bson> keysetFilter = new ArrayList<>(equalFilters);
+            keysetFilter.add(sortKey.getValue() ? Filters.gt(field, lastValue) : Filters.lt(field, lastValue));
+            keysetFilters.add(makeAndFilter(keysetFilter));
+
+            equalFilters.add(Filters.eq(field, lastValue));
+        }
+        return keysetFilters.size() == 1 ? keysetFilters.get(0) : Filters.or(keysetFilters);
+    }
+
+    /**
+     * The number of results to read from each source when the results of several sources are merged into one page:
+     * the page can start with the results of any of them. Returns 0 (no limit) when all results are requested.
+     */
+    protected int getMergedPageLimit(ListQueryParameterObject query) {
+        long pageEnd = (long) Math.max(query.getFirstResult(), 0) + query.getMaxResults();
+        return pageEnd < Integer.MAX_VALUE ? (int) pageEnd : 0;
+    }
+
+    /**
+     * Sorts the results merged from several sources in the order of the sort keys (see {@link #createSortKeys(ListQueryParameterObject, Map)})
+     * and returns the requested page of them. Like in MongoDB, null values come first in ascending order.
+     */
+    protected <T> List<T> getMergedPage(List<T> entities, ListQueryParameterObject query, LinkedHashMap<String, Boolean> sortKeys) {
+        Map<Object, Document> documents = new IdentityHashMap<>(entities.size());
+        for (T entity : entities) {
+            documents.put(entity, toDocument((Entity) entity));
+        }
+        List<T> sortedEntities = new ArrayList<>(entities);
+        sortedEntities.sort((entity, otherEntity) -> compareDocuments(documents.get(entity), documents.get(otherEntity), sortKeys));
+
+        int fromIndex = Math.min(Math.max(query.getFirstResult(), 0), sortedEntities.size());
+        int toIndex = (int) Math.min((long) fromIndex + query.getMaxResults(), sortedEntities.size());
+        return new ArrayList<>(sortedEntities.subList(fromIndex, toIndex));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected int compareDocuments(Document document, Document otherDocument, LinkedHashMap<String, Boolean> sortKeys) {
+        for (Map.Entry<String, Boolean> sortKey : sortKeys.entrySet()) {
+            Object value = document.get(sortKey.getKey());
+            Object otherValue = otherDocument.get(sortKey.getKey());
+            int comparison;
+            if (value == null) {
+                comparison = otherValue == null ? 0 : -1;
+            } else if (otherValue == null) {
+                comparison = 1;
+            } else {
+                comparison = ((Comparable) value).compareTo(otherValue);
+            }
+            if (comparison != 0) {
+                return sortKey.getValue() ? comparison : -comparison;
+            }
+        }
+        return 0;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Document toDocument(Entity entity) {
+        EntityToDocumentMapper entityMapper = getMongoDbSession().getMongoDbSessionFactory().getMapperForEntityClass(entity.getClass());
+        if (entityMapper == null) {
+            throw new FlowableIllegalArgumentException("No mapper for " + entity.getClass());
+        }
+        return entityMapper.toDocument(entity);
+    }
+
+    /**
+     * Creates a regex filter for a SQL like expression, where % matches any sequence of characters and _ any single character.
+     * The regex is anchored, so a like without a leading wildcard can still use an index (when not ignoring the case).
+     */
+    protected Bson createLikeFilter(String field, String likeValue, boolean ignoreCase) {
+        StringBuilder regex = new StringBuilder("^");
+        StringBuilder literal = new StringBuilder();
+        for (char character : likeValue.toCharArray()) {
+            if (character == '%' || character == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(character == '%' ? ".*" : ".");
+            } else {
+                literal.append(character);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        regex.append("$");
+
+        return ignoreCase ? Filters.regex(field, regex.toString(), "i") : Filters.regex(field, regex.toString());
+    }
+
     protected Bson makeAndFilter(List<Bson> filters) {
         if (filters.size() > 1) {
             return Filters.and(filters);
@@ -0,0 +1,188 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.common.engine.api.FlowableOptimisticLockingException;
+import org.flowable.job.service.impl.JobQueryProperty;
+import org.flowable.job.service.impl.persistence.entity.JobInfoEntity;
+import org.flowable.mongodb.persistence.MongoDbSession;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Base class for the data managers of the job types that can be acquired (and thus locked) by an executor.
+ */
+public abstract class AbstractMongoDbJobDataManager<EntityImpl extends JobInfoEntity> extends AbstractMongoDbDataManager<EntityImpl> {
+
+    /**
+     * The sort fields for the job queries, which all use the {@link JobQueryProperty} values.
+     * Shared by every job collection, including the suspended and dead letter jobs.
+     */
+    protected static final Map<String, String> JOB_ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.JOB_ID.getName(), "_id");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.EXECUTION_ID.getName(), "executionId");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.DUEDATE.getName(), "duedate");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.CREATE_TIME.getName(), "createTime");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.RETRIES.getName(), "retries");
+        JOB_ORDER_BY_FIELDS.put(JobQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
+    /**
+     * The stored keys of the persistent state of the jobs and timer jobs, see {@link #createUpdateObjectFromPersistentState}.
+     * A cleared lock or exception message is unset, so the job can be acquired again.
+     */
+    protected static final Map<String, String> JOB_UPDATE_FIELDS = new HashMap<>();
+
+    static {
+        JOB_UPDATE_FIELDS.put("retries", "retries");
+        JOB_UPDATE_FIELDS.put("createTime", "createTime");
+        JOB_UPDATE_FIELDS.put("duedate", "duedate");
+        JOB_UPDATE_FIELDS.put("exceptionMessage", "exceptionMessage");
+        JOB_UPDATE_FIELDS.put("jobHandlerType", "jobHandlerType");
+        JOB_UPDATE_FIELDS.put("processDefinitionId", "processDefinitionId");
+        JOB_UPDATE_FIELDS.put("category", "category");
+        JOB_UPDATE_FIELDS.put("jobType", "jobType");
+        JOB_UPDATE_FIELDS.put("lockOwner", "lockOwner");
+        JOB_UPDATE_FIELDS.put("lockExpirationTime", "lockExpirationTime");
+    }
+
+    /**
+     * Locks the given jobs in two round trips: one updateMany that stamps all lockable jobs with a unique acquisition token,
+     * and one query that reads back (only the id and revision of) the jobs having that token.
+     * A job can only be locked when it isn't locked or its lock has expired (see {@link #createExpiredJobsFilter(List)}),
+     * so a job that is still being executed isn't locked again, also not by the same lock owner.
+     *
+     * The locked jobs get the new lock values and revision, and are stored again in the entity cache,
+     * so they aren't seen as changed (and updated again) when flushing. The locked jobs are returned.
+     *
+     * The engine executes the jobs of the passed list after locking them, so the jobs that couldn't be locked
+     * (e.g. locked by another owner in the meantime) are removed from the passed list. When the list can't be modified,
+     * a {@link FlowableOptimisticLockingException} is thrown instead, which fails the acquisition as a whole.
+     */
+    protected <T extends JobInfoEntity> List<T> bulkLockJobs(List<T> jobEntities, String lockOwner, Date lockExpirationTime) {
+        if (jobEntities == null || jobEntities.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> jobIds = jobEntities.stream().map(JobInfoEntity::getId).collect(Collectors.toList());
+        String acquisitionToken = UUID.randomUUID().toString();
+
+        Bson filter = Filters.and(
+                Filters.in("_id", jobIds),
+                Filters.or(Filters.eq("lockOwner", null), createExpiredJobsFilter(null))
+        );
+        Bson update = Updates.combine(
+                Updates.set("lockOwner", lockOwner),
+                Updates.set("lockExpirationTime", lockExpirationTime),
+                Updates.set("acquisitionToken", acquisitionToken),
+                Updates.inc("revision", 1)
+        );
+
+        MongoDbSession mongoDbSession = getMongoDbSession();
+        mongoDbSession.updateMany(getCollection(), filter, update);
+
+        Map<String, Integer> lockedJobRevisions = new HashMap<>();
+        Bson lockedFilter = Filters.and(Filters.in("_id", jobIds), Filters.eq("acquisitionToken", acquisitionToken));
+        for (Document document : mongoDbSession.findDocuments(getCollection(), lockedFilter).projection(Projections.include("_id", "revision"))) {
+            lockedJobRevisions.put(document.getString("_id"), document.getInteger("revision"));
+        }
+
+        List<T> lockedJobs = new ArrayList<>(lockedJobRevisions.size());
+        for (T jobEntity : jobEntities) {
+            Integer revision = lockedJobRevisions.get(jobEntity.getId());
+            if (revision != null) {
+                jobEntity.setLockOwner(lockOwner);
+                jobEntity.setLockExpirationTime(lockExpirationTime);
+                jobEntity.setRevision(revision);
+                mongoDbSession.getEntityCache().put(jobEntity, true);
+                lockedJobs.add(jobEntity);
+            }
+        }
+
+        if (lockedJobs.size() < jobEntities.size()) {
+            try {
+                jobEntities.retainAll(lockedJobs);
+            } catch (UnsupportedOperationException e) {
+                throw new FlowableOptimisticLockingException((jobEntities.size() - lockedJobs.size()) + " of the jobs to lock are already locked");
+            }
+        }
+        return lockedJobs;
+    }
+
+    /**
+     * The filter matching the jobs of which the lock has expired. Used both for finding and for resetting the expired jobs.
+     */
+    protected abstract Bson createExpiredJobsFilter(List<String> enabledCategories);
+
+    /**
+     * Resets the lock of at most maxJobs expired jobs with one updateMany, and returns the number of jobs that were reset.
+     *
+     * An updateMany can't be limited, so the ids of the jobs with the oldest expired locks are fetched first
+     * (only the ids, using the lockExpirationTime index). The expired filter is repeated in the update,
+     * which makes sure a job that got locked again in the meantime isn't touched.
+     */
+    public long bulkResetExpiredJobs(List<String> enabledCategories, int maxJobs) {
+        Bson expiredJobsFilter = createExpiredJobsFilter(enabledCategories);
+
+        MongoDbSession mongoDbSession = getMongoDbSession();
+        List<String> jobIds = new ArrayList<>();
+        for (Document document : mongoDbSession.findDocuments(getCollection(), expiredJobsFilter, Sorts.ascending("lockExpirationTime"), 0, maxJobs)
+                .projection(Projections.include("_id"))) {
+            jobIds.add(document.getString("_id"));
+        }
+
+        if (jobIds.isEmpty()) {
+            return 0L;
+        }
+
+        Bson filter = Filters.and(Filters.in("_id", jobIds), expiredJobsFilter);
+        UpdateResult updateResult = mongoDbSession.updateMany(getCollection(), filter, createResetExpiredJobUpdate());
+        return updateResult.getModifiedCount();
+    }
+
+    /**
+     * Single job form of {@link #bulkResetExpiredJobs(List, int)}: the update is sent as is (not wrapped in a $set),
+     * and only applies when the lock of the job is still expired.
+     */
+    public void resetExpiredJob(String jobId) {
+        Bson filter = Filters.and(Filters.eq("_id", jobId), createExpiredJobsFilter(null));
+        getMongoDbSession().updateMany(getCollection(), filter, createResetExpiredJobUpdate());
+    }
+
+    protected Bson createResetExpiredJobUpdate() {
+        return Updates.combine(
+                Updates.unset("lockOwner"),
+                Updates.unset("lockExpirationTime"),
+                Updates.unset("acquisitionToken"),
+                Updates.inc("revision", 1)
+        );
+    }
+
+}
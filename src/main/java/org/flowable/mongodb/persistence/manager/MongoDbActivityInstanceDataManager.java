@@ -24,6 +24,7 @@ import org.flowable.common.engine.impl.persistence.cache.CachedEntityMatcher;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.history.HistoricProcessInstance;
 import org.flowable.engine.impl.ActivityInstanceQueryImpl;
+import org.flowable.engine.impl.ActivityInstanceQueryProperty;
 import org.flowable.engine.impl.HistoricProcessInstanceQueryImpl;
 import org.flowable.engine.impl.persistence.entity.ActivityInstanceEntity;
 import org.flowable.engine.impl.persistence.entity.ActivityInstanceEntityImpl;
@@ -44,6 +45,22 @@ public class MongoDbActivityInstanceDataManager extends AbstractMongoDbDataManag
 
     public static final String COLLECTION_ACTIVITY_INSTANCES = "activityInstances";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.ACTIVITY_INSTANCE_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.EXECUTION_ID.getName(), "executionId");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.ACTIVITY_ID.getName(), "activityId");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.ACTIVITY_NAME.getName(), "activityName");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.ACTIVITY_TYPE.getName(), "activityType");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.START.getName(), "startTime");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.END.getName(), "endTime");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.DURATION.getName(), "durationInMillis");
+        ORDER_BY_FIELDS.put(ActivityInstanceQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
     protected CachedEntityMatcher<ActivityInstanceEntity> activityInstanceMatcher = new ActivityInstanceMatcher();
 
     public MongoDbActivityInstanceDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
@@ -116,7 +133,7 @@ public class MongoDbActivityInstanceDataManager extends AbstractMongoDbDataManag
 
     @Override
     public List<ActivityInstance> findActivityInstancesByQueryCriteria(ActivityInstanceQueryImpl activityInstanceQuery) {
-        return getMongoDbSession().find(COLLECTION_ACTIVITY_INSTANCES,createFilter(activityInstanceQuery));
+        return findByQuery(createFilter(activityInstanceQuery), activityInstanceQuery, ORDER_BY_FIELDS);
     }
 
     @Override
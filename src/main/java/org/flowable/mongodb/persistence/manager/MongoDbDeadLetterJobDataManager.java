@@ -123,13 +123,7 @@ public class MongoDbDeadLetterJobDataManager extends AbstractMongoDbDataManager<
             query.append("tenantId", jobQuery.getTenantId());
         }
 
-        List<Document> results = getMongoDbSession().find(COLLECTION_DEADLETTER_JOBS, query);
-        List<Job> jobs = new ArrayList<>();
-        for (Document doc : results) {
-            jobs.add(mapToEntity(doc));
-        }
-
-        return jobs;
+        return findByQuery(query, jobQuery, AbstractMongoDbJobDataManager.JOB_ORDER_BY_FIELDS);
     }
 
     @Override
@@ -163,14 +157,9 @@ public class MongoDbDeadLetterJobDataManager extends AbstractMongoDbDataManager<
 
     @Override
     public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
-        BasicDBObject query = new BasicDBObject("deploymentId", deploymentId);
-        List<DeadLetterJobEntity> jobs = getMongoDbSession().find(COLLECTION_DEADLETTER_JOBS, query);
-        if (jobs != null) {
-            for (DeadLetterJobEntity job : jobs) {
-                job.setTenantId(newTenantId);
-                getMongoDbSession().update(job);
-            }
-        }
+        getMongoDbSession().bulkUpdate(COLLECTION_DEADLETTER_JOBS,
+                new BasicDBObject("deploymentId", deploymentId),
+                new BasicDBObject("tenantId", newTenantId));
     }
 
 
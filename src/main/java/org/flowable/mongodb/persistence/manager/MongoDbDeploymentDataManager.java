@@ -12,12 +12,13 @@
  */
 package org.flowable.mongodb.persistence.manager;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.impl.DeploymentQueryImpl;
+import org.flowable.engine.impl.DeploymentQueryProperty;
 import org.flowable.engine.impl.persistence.entity.DeploymentEntity;
 import org.flowable.engine.impl.persistence.entity.DeploymentEntityImpl;
 import org.flowable.engine.impl.persistence.entity.data.DeploymentDataManager;
@@ -25,6 +26,7 @@ import org.flowable.engine.repository.Deployment;
 import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.client.model.Filters;
 
 /**
  * @author Joram Barrez
@@ -33,6 +35,15 @@ public class MongoDbDeploymentDataManager extends AbstractMongoDbDataManager<Dep
 
     public static final String COLLECTION_DEPLOYMENT = "deployments";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(DeploymentQueryProperty.DEPLOYMENT_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(DeploymentQueryProperty.DEPLOYMENT_NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(DeploymentQueryProperty.DEPLOYMENT_TENANT_ID.getName(), "tenantId");
+        ORDER_BY_FIELDS.put(DeploymentQueryProperty.DEPLOY_TIME.getName(), "deploymentTime");
+    }
+
     public MongoDbDeploymentDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -104,15 +115,12 @@ public class MongoDbDeploymentDataManager extends AbstractMongoDbDataManager<Dep
             query.put("name", new BasicDBObject("$regex", deploymentQuery.getNameLike()));
         }
 
-        return getMongoDbSession().find(COLLECTION_DEPLOYMENT, query);
+        return findByQuery(query, deploymentQuery, ORDER_BY_FIELDS);
     }
 
     @Override
     public List<String> getDeploymentResourceNames(String deploymentId) {
-        List<BasicDBObject> resources = getMongoDbSession().find("resources", new BasicDBObject("deploymentId", deploymentId));
-        return resources.stream()
-                .map(doc -> (String) doc.get("name"))
-                .collect(Collectors.toList());
+        return getMongoDbSession().findValues(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY, Filters.eq("deploymentId", deploymentId), "name");
     }
     public List<Deployment> findDeploymentsByNativeQuery(Map<String, Object> parameterMap) {
         BasicDBObject query = new BasicDBObject(parameterMap);
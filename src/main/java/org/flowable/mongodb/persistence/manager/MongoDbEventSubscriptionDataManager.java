@@ -4,12 +4,15 @@ package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.eventsubscription.api.EventSubscription;
 import org.flowable.eventsubscription.service.impl.EventSubscriptionQueryImpl;
+import org.flowable.eventsubscription.service.impl.EventSubscriptionQueryProperty;
 import org.flowable.eventsubscription.service.impl.persistence.entity.*;
 import org.flowable.eventsubscription.service.impl.persistence.entity.data.EventSubscriptionDataManager;
 
@@ -20,6 +23,18 @@ public class MongoDbEventSubscriptionDataManager extends AbstractMongoDbDataMana
 
     public static final String COLLECTION_EVENT_SUBSCRIPTION = "eventSubscriptions";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.EXECUTION_ID.getName(), "executionId");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.CREATED.getName(), "created");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.EVENT_NAME.getName(), "eventName");
+        ORDER_BY_FIELDS.put(EventSubscriptionQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
     @Override
     public String getCollection() {
         return COLLECTION_EVENT_SUBSCRIPTION;
@@ -72,7 +87,7 @@ public class MongoDbEventSubscriptionDataManager extends AbstractMongoDbDataMana
             filters.add(Filters.eq("processInstanceId", query.getProcessInstanceId()));
         }
         Bson combined = filters.isEmpty() ? null : Filters.and(filters);
-        return getMongoDbSession().find(COLLECTION_EVENT_SUBSCRIPTION, combined);
+        return findByQuery(combined, query, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -27,9 +27,10 @@ import org.flowable.common.engine.api.FlowableOptimisticLockingException;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.engine.impl.ExecutionQueryImpl;
+import org.flowable.engine.impl.ExecutionQueryProperty;
 import org.flowable.engine.impl.ProcessInstanceQueryImpl;
+import org.flowable.engine.impl.ProcessInstanceQueryProperty;
 import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
-import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
 import org.flowable.engine.impl.persistence.entity.data.ExecutionDataManager;
 import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionByProcessInstanceMatcher;
 import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionsByParentExecutionIdEntityMatcher;
@@ -42,6 +43,8 @@ import org.flowable.engine.impl.util.ProcessDefinitionUtil;
 import org.flowable.engine.runtime.Execution;
 import org.flowable.engine.runtime.ProcessInstance;
 import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.aggregate.ExecutionAggregateBoundary;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
@@ -54,6 +57,29 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
 
     public static final String COLLECTION_EXECUTIONS = "executions";
 
+    /**
+     * The array of the process instance documents holding the embedded executions, when an {@link ExecutionAggregateBoundary} is configured.
+     */
+    public static final String EMBEDDED_EXECUTIONS = "embeddedExecutions";
+
+    protected static final Map<String, String> EXECUTION_ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        EXECUTION_ORDER_BY_FIELDS.put(ExecutionQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        EXECUTION_ORDER_BY_FIELDS.put(ExecutionQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        EXECUTION_ORDER_BY_FIELDS.put(ExecutionQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
+    protected static final Map<String, String> PROCESS_INSTANCE_ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        PROCESS_INSTANCE_ORDER_BY_FIELDS.put(ProcessInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "_id");
+        PROCESS_INSTANCE_ORDER_BY_FIELDS.put(ProcessInstanceQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        PROCESS_INSTANCE_ORDER_BY_FIELDS.put(ProcessInstanceQueryProperty.BUSINESS_KEY.getName(), "businessKey");
+        PROCESS_INSTANCE_ORDER_BY_FIELDS.put(ProcessInstanceQueryProperty.PROCESS_START_TIME.getName(), "startTime");
+        PROCESS_INSTANCE_ORDER_BY_FIELDS.put(ProcessInstanceQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
     protected ExecutionsByParentExecutionIdEntityMatcher executionsByParentIdMatcher = new ExecutionsByParentExecutionIdEntityMatcher();
 
     protected ExecutionsByProcessInstanceIdEntityMatcher executionsByProcessInstanceIdMatcher = new ExecutionsByProcessInstanceIdEntityMatcher();
@@ -73,7 +99,7 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
     }
 
     public ExecutionEntity create() {
-       return new ExecutionEntityImpl();
+       return new MongoDbExecutionEntityImpl();
     }
 
     @Override
@@ -108,19 +134,19 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
 
     public List<ExecutionEntity> findChildExecutionsByParentExecutionId(String parentExecutionId) {
         Bson filter = Filters.eq("parentId", parentExecutionId);
-        return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, parentExecutionId, ExecutionEntityImpl.class, executionsByParentIdMatcher, true);
+        return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, parentExecutionId, MongoDbExecutionEntityImpl.class, executionsByParentIdMatcher, true);
     }
 
     public List<ExecutionEntity> findChildExecutionsByProcessInstanceId(String processInstanceId) {
         if (isExecutionTreeFetched(processInstanceId)) {
-            return getMongoDbSession().findFromCache(executionByProcessInstanceMatcher, processInstanceId, ExecutionEntityImpl.class);
+            return getMongoDbSession().findFromCache(executionByProcessInstanceMatcher, processInstanceId, MongoDbExecutionEntityImpl.class);
         } else {
             Bson filter = Filters.and(
                 Filters.eq("processInstanceId", processInstanceId),
                 Filters.exists("parentId")
             );
-            return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter,
-                processInstanceId, ExecutionEntityImpl.class, executionsByProcessInstanceIdMatcher, true);
+            return prefetchParentExecutions(getMongoDbSession().find(COLLECTION_EXECUTIONS, filter,
+                processInstanceId, MongoDbExecutionEntityImpl.class, executionsByProcessInstanceIdMatcher, true));
         }
     }
 
@@ -134,7 +160,7 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
     }
 
     public List<ExecutionEntity> findExecutionsByQueryCriteria(ExecutionQueryImpl executionQuery) {
-        return getMongoDbSession().find(COLLECTION_EXECUTIONS, createFilter(executionQuery));
+        return findByQuery(createFilter(executionQuery), executionQuery, EXECUTION_ORDER_BY_FIELDS);
     }
 
     protected Bson createFilter(ExecutionQueryImpl executionQuery) {
@@ -236,24 +262,24 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
     }
 
     public List<ProcessInstance> findProcessInstanceByQueryCriteria(ProcessInstanceQueryImpl processInstanceQuery) {
-        return getMongoDbSession().find(COLLECTION_EXECUTIONS, createFilter(processInstanceQuery));
+        return findByQuery(createFilter(processInstanceQuery), processInstanceQuery, PROCESS_INSTANCE_ORDER_BY_FIELDS);
     }
 
     public List<ExecutionEntity> findExecutionsByRootProcessInstanceId(String rootProcessInstanceId) {
         if (isExecutionTreeFetched(rootProcessInstanceId)) {
-            return getMongoDbSession().findFromCache(executionsByRootProcessInstanceMatcher, rootProcessInstanceId, ExecutionEntityImpl.class);
+            return getMongoDbSession().findFromCache(executionsByRootProcessInstanceMatcher, rootProcessInstanceId, MongoDbExecutionEntityImpl.class);
         } else {
             return getMongoDbSession().find(COLLECTION_EXECUTIONS, Filters.eq("rootProcessInstanceId", rootProcessInstanceId),
-                rootProcessInstanceId, ExecutionEntityImpl.class, inactiveExecutionsInActivityAndProcInstMatcher, true);
+                rootProcessInstanceId, MongoDbExecutionEntityImpl.class, executionsByRootProcessInstanceMatcher, true);
         }
     }
 
     public List<ExecutionEntity> findExecutionsByProcessInstanceId(String processInstanceId) {
         if (isExecutionTreeFetched(processInstanceId)) {
-            return getMongoDbSession().findFromCache(executionByProcessInstanceMatcher, processInstanceId, ExecutionEntityImpl.class);
+            return getMongoDbSession().findFromCache(executionByProcessInstanceMatcher, processInstanceId, MongoDbExecutionEntityImpl.class);
         } else {
-            return getMongoDbSession().find(COLLECTION_EXECUTIONS, Filters.eq("processInstanceId", processInstanceId), processInstanceId,
-                ExecutionEntityImpl.class, executionByProcessInstanceMatcher, true);
+            return prefetchParentExecutions(getMongoDbSession().find(COLLECTION_EXECUTIONS, Filters.eq("processInstanceId", processInstanceId), processInstanceId,
+                MongoDbExecutionEntityImpl.class, executionByProcessInstanceMatcher, true));
         }
     }
 
@@ -267,16 +293,25 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
         params.put("isActive", false);
 
         if (isExecutionTreeFetched(processInstanceId)) {
-            return getMongoDbSession().findFromCache(inactiveExecutionsByProcInstMatcher, processInstanceId, ExecutionEntityImpl.class);
+            return getMongoDbSession().findFromCache(inactiveExecutionsByProcInstMatcher, params, MongoDbExecutionEntityImpl.class);
         } else {
             Bson filter = Filters.and(
                 Filters.eq("processInstanceId", processInstanceId),
                 Filters.eq("isActive", false)
             );
-            return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, params, ExecutionEntityImpl.class, inactiveExecutionsByProcInstMatcher, true);
+            return prefetchParentExecutions(getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, params, MongoDbExecutionEntityImpl.class, inactiveExecutionsByProcInstMatcher, true));
         }
     }
 
+    /**
+     * The parents of the executions are typically looked up next (e.g. when joining the inactive executions of a gateway),
+     * so they're loaded together on the first lookup when find by id batching is enabled.
+     */
+    protected List<ExecutionEntity> prefetchParentExecutions(List<ExecutionEntity> executions) {
+        prefetchReferencedIds(COLLECTION_EXECUTIONS, executions, ExecutionEntity::getParentId);
+        return executions;
+    }
+
     public Collection<ExecutionEntity> findInactiveExecutionsByActivityIdAndProcessInstanceId(String activityId, String processInstanceId) {
         HashMap<String, Object> params = new HashMap<>(3);
         params.put("activityId", activityId);
@@ -284,14 +319,14 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
         params.put("isActive", false);
 
         if (isExecutionTreeFetched(processInstanceId)) {
-            return getMongoDbSession().findFromCache(inactiveExecutionsInActivityAndProcInstMatcher, params, ExecutionEntityImpl.class);
+            return getMongoDbSession().findFromCache(inactiveExecutionsInActivityAndProcInstMatcher, params, MongoDbExecutionEntityImpl.class);
         } else {
             Bson filter = Filters.and(
                 Filters.eq("activityId", activityId),
                 Filters.eq("processInstanceId", processInstanceId),
                 Filters.eq("isActive", false)
             );
-            return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, params, ExecutionEntityImpl.class, inactiveExecutionsInActivityAndProcInstMatcher, true);
+            return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter, params, MongoDbExecutionEntityImpl.class, inactiveExecutionsInActivityAndProcInstMatcher, true);
         }
     }
 
@@ -301,7 +336,7 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
             Filters.eq("processDefinitionId", processDefinitionId),
             Filters.not(Filters.exists("parentId"))
         );
-        return getMongoDbSession().find(COLLECTION_EXECUTIONS, filter);
+        return getMongoDbSession().findIds(COLLECTION_EXECUTIONS, filter);
     }
 
     public List<Execution> findExecutionsByNativeQuery(Map<String, Object> parameterMap) {
@@ -339,8 +374,8 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
         BasicDBObject updateObject = new BasicDBObject();
         updateObject.append("lockTime", lockDate);
 
-        Bson filter = Filters.and(Filters.eq("_id", processInstanceId), Filters.or(Filters.eq("lockTime", null), Filters.lt("lockTime", expirationTime)));
-        UpdateResult updateResult = getMongoDbSession().updateImmediately(COLLECTION_EXECUTIONS, filter, updateObject);
+        Bson condition = Filters.or(Filters.eq("lockTime", null), Filters.lt("lockTime", expirationTime));
+        UpdateResult updateResult = getMongoDbSession().updateImmediately(COLLECTION_EXECUTIONS, processInstanceId, condition, updateObject);
         if (updateResult.getModifiedCount() != 1) {
             throw new FlowableOptimisticLockingException("Could not lock process instance");
         }
@@ -350,7 +385,7 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
         BasicDBObject updateObject = new BasicDBObject();
         updateObject.append("lockTime", null);
 
-        getMongoDbSession().updateImmediately(COLLECTION_EXECUTIONS, Filters.eq("_id", processInstanceId), updateObject);
+        getMongoDbSession().updateImmediately(COLLECTION_EXECUTIONS, processInstanceId, null, updateObject);
     }
 
     @Override
@@ -361,7 +396,7 @@ public class MongoDbExecutionDataManager extends AbstractMongoDbDataManager<Exec
     protected boolean isExecutionTreeFetched(final String executionId) {
 
         // Need to get the cache result before doing the findById
-        ExecutionEntity cachedExecutionEntity = getMongoDbSession().getEntityCache().findInCache(ExecutionEntityImpl.class, executionId);
+        ExecutionEntity cachedExecutionEntity = getMongoDbSession().getEntityCache().findInCache(MongoDbExecutionEntityImpl.class, executionId);
 
         // Find execution in db or cache to check process definition setting for execution fetch.
         // If not set, no extra work is done. The execution is in the cache however now as a side-effect of calling this method.
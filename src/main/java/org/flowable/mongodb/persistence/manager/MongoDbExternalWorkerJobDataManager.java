@@ -12,16 +12,21 @@
  */
 package org.flowable.mongodb.persistence.manager;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import org.bson.conversions.Bson;
+import org.flowable.common.engine.api.scope.ScopeTypes;
 import org.flowable.common.engine.impl.Page;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
 import org.flowable.job.api.ExternalWorkerJob;
 import org.flowable.job.api.Job;
+import org.flowable.job.service.JobServiceConfiguration;
 import org.flowable.job.service.impl.ExternalWorkerJobAcquireBuilderImpl;
 import org.flowable.job.service.impl.ExternalWorkerJobQueryImpl;
 import org.flowable.job.service.impl.SuspendedJobQueryImpl;
@@ -33,14 +38,25 @@ import org.flowable.job.service.impl.persistence.entity.data.SuspendedJobDataMan
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
 
 /**
  * @author Joram Barrez
  */
-public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataManager<ExternalWorkerJobEntity> implements ExternalWorkerJobDataManager {
+public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbJobDataManager<ExternalWorkerJobEntity> implements ExternalWorkerJobDataManager {
 
     public static final String COLLECTION_EXTERNAL_WORKER_JOBS = "externalWorkerJobs";
 
+    protected JobServiceConfiguration jobServiceConfiguration;
+
+    public MongoDbExternalWorkerJobDataManager() {
+    }
+
+    public MongoDbExternalWorkerJobDataManager(JobServiceConfiguration jobServiceConfiguration) {
+        this.jobServiceConfiguration = jobServiceConfiguration;
+    }
+
     @Override
     public ExternalWorkerJobEntity findJobByCorrelationId(String correlationId) {
         Bson filter = Filters.eq("correlationId", correlationId);
@@ -50,7 +66,7 @@ public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataMana
     @Override
     public List<ExternalWorkerJob> findJobsByQueryCriteria(ExternalWorkerJobQueryImpl jobQuery) {
         Bson filter = buildQueryFilter(jobQuery);
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, filter);
+        return findByQuery(filter, jobQuery, JOB_ORDER_BY_FIELDS);
     }
 
     @Override
@@ -68,13 +84,77 @@ public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataMana
         }
     }
 
+    /**
+     * Claims up to numberOfJobs jobs of the topic, one findOneAndUpdate per job, so two workers never get the same job.
+     * The claimed jobs get the lock expiration time of the builder, and a temporary lock owner:
+     * the acquire command replaces it with the worker id (the worker id isn't passed to the data manager).
+     * Backed by the (jobHandlerConfiguration, lockOwner, tenantId) index.
+     */
     @Override
     public List<ExternalWorkerJobEntity> findExternalJobsToExecute(ExternalWorkerJobAcquireBuilderImpl builder, int numberOfJobs) {
-        Bson filter = Filters.and(
-                Filters.eq("lockOwner", null),
-                Filters.eq("suspended", false)
+        Bson filter = createExternalJobsToExecuteFilter(builder);
+        if (filter == null) {
+            return new ArrayList<>();
+        }
+
+        Date now = jobServiceConfiguration != null ? jobServiceConfiguration.getClock().getCurrentTime() : new Date();
+        long lockTimeInMillis = builder.getLockDuration() != null ? builder.getLockDuration().abs().toMillis() : 0L;
+        Bson update = Updates.combine(
+                Updates.set("lockOwner", UUID.randomUUID().toString()),
+                Updates.set("lockExpirationTime", new Date(now.getTime() + lockTimeInMillis)),
+                Updates.inc("revision", 1)
         );
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, filter,null,numberOfJobs);
+
+        List<ExternalWorkerJobEntity> jobs = new ArrayList<>();
+        while (jobs.size() < numberOfJobs) {
+            ExternalWorkerJobEntity job = getMongoDbSession().findOneAndUpdate(COLLECTION_EXTERNAL_WORKER_JOBS, filter, update);
+            if (job == null) {
+                break;
+            }
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    /**
+     * Returns null when the builder restricts the jobs to a user or groups that aren't a candidate for any job.
+     */
+    protected Bson createExternalJobsToExecuteFilter(ExternalWorkerJobAcquireBuilderImpl builder) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("jobHandlerConfiguration", builder.getTopic()));
+        filters.add(Filters.eq("lockOwner", null));
+
+        if (builder.getTenantId() != null) {
+            filters.add(Filters.eq("tenantId", builder.getTenantId()));
+        }
+
+        if (builder.getScopeType() != null) {
+            // Process (bpmn) jobs don't have a scope type
+            filters.add(Filters.eq("scopeType", ScopeTypes.BPMN.equals(builder.getScopeType()) ? null : builder.getScopeType()));
+        }
+
+        if (builder.getAuthorizedUser() != null || (builder.getAuthorizedGroups() != null && !builder.getAuthorizedGroups().isEmpty())) {
+            List<String> correlationIds = findAuthorizedCorrelationIds(builder.getAuthorizedUser(), builder.getAuthorizedGroups());
+            if (correlationIds.isEmpty()) {
+                return null;
+            }
+            filters.add(Filters.in("correlationId", correlationIds));
+        }
+
+        return Filters.and(filters);
+    }
+
+    protected List<String> findAuthorizedCorrelationIds(String authorizedUser, Collection<String> authorizedGroups) {
+        List<Bson> candidateFilters = new ArrayList<>();
+        if (authorizedUser != null) {
+            candidateFilters.add(Filters.eq("userId", authorizedUser));
+        }
+        if (authorizedGroups != null && !authorizedGroups.isEmpty()) {
+            candidateFilters.add(Filters.in("groupId", authorizedGroups));
+        }
+
+        Bson filter = Filters.and(Filters.eq("scopeType", ScopeTypes.EXTERNAL_WORKER), Filters.or(candidateFilters));
+        return getMongoDbSession().findValues(MongoDbIdentityLinkDataManager.COLLECTION_IDENTITY_LINKS, filter, "scopeId");
     }
 
     @Override
@@ -88,18 +168,25 @@ public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataMana
 
     @Override
     public List<ExternalWorkerJobEntity> findJobsByWorkerId(String workerId) {
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, Filters.eq("workerId", workerId));
+        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, Filters.eq("lockOwner", workerId));
     }
 
     @Override
     public List<ExternalWorkerJobEntity> findJobsByWorkerIdAndTenantId(String workerId, String tenantId) {
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, Filters.and(Filters.eq("workerId", workerId), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, Filters.and(Filters.eq("lockOwner", workerId), Filters.eq("tenantId", tenantId)));
     }
 
     @Override
     public List<ExternalWorkerJobEntity> findJobsToExecute(List<String> enabledCategories, Page page) {
-        Bson filter = Filters.in("category", enabledCategories);
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, filter);
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("lockOwner", null));
+        if (enabledCategories != null && !enabledCategories.isEmpty()) {
+            filters.add(Filters.in("category", enabledCategories));
+        }
+
+        int skip = page != null ? page.getFirstResult() : 0;
+        int limit = page != null ? page.getMaxResults() : 100;
+        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, Filters.and(filters), null, skip, limit);
     }
 
     @Override
@@ -116,37 +203,35 @@ public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataMana
 
     @Override
     public List<ExternalWorkerJobEntity> findExpiredJobs(List<String> enabledCategories, Page page) {
-        Bson filter = Filters.and(
-                Filters.in("category", enabledCategories),
-                Filters.lt("expirationTime", new java.util.Date())
-        );
-        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, filter);
+        int skip = page != null ? page.getFirstResult() : 0;
+        int limit = page != null ? page.getMaxResults() : 100;
+        return getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, createExpiredJobsFilter(enabledCategories),
+                Sorts.ascending("lockExpirationTime"), skip, limit);
     }
 
     @Override
-    public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
-        Bson filter = Filters.eq("deploymentId", deploymentId);
-        List<ExternalWorkerJobEntity> jobs = getMongoDbSession().find(COLLECTION_EXTERNAL_WORKER_JOBS, filter);
-        for (ExternalWorkerJobEntity job : jobs) {
-            job.setTenantId(newTenantId);
-            getMongoDbSession().update(job);
+    protected Bson createExpiredJobsFilter(List<String> enabledCategories) {
+        Date now = jobServiceConfiguration != null ? jobServiceConfiguration.getClock().getCurrentTime() : new Date();
+        Bson filter = Filters.lt("lockExpirationTime", now);
+        if (enabledCategories != null && !enabledCategories.isEmpty()) {
+            filter = Filters.and(filter, Filters.in("category", enabledCategories));
         }
+        return filter;
     }
 
     @Override
-    public void bulkUpdateJobLockWithoutRevisionCheck(List<ExternalWorkerJobEntity> jobEntities, String lockOwner, Date lockExpirationTime) {
-        jobEntities.forEach(jobEntity -> {
-            getMongoDbSession().update(jobEntity);
-        });
+    public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
+        Bson filter = Filters.eq("deploymentId", deploymentId);
+        getMongoDbSession().bulkUpdate(COLLECTION_EXTERNAL_WORKER_JOBS, filter, new BasicDBObject("tenantId", newTenantId));
     }
 
+    /**
+     * Only locks the jobs that aren't locked or of which the lock has expired: the other jobs are removed from the passed list,
+     * which thus needs to be modifiable. See {@link #bulkLockJobs(List, String, Date)}.
+     */
     @Override
-    public void resetExpiredJob(String jobId) {
-        Bson filter = Filters.eq("_id", jobId);
-        Bson update =  new BasicDBObject("lockOwner", null)
-                .append("lockExpirationTime", null)
-                .append("retries", 0);
-        getMongoDbSession().updateOne(COLLECTION_EXTERNAL_WORKER_JOBS, filter, update);
+    public void bulkUpdateJobLockWithoutRevisionCheck(List<ExternalWorkerJobEntity> jobEntities, String lockOwner, Date lockExpirationTime) {
+        bulkLockJobs(jobEntities, lockOwner, lockExpirationTime);
     }
 
     @Override
@@ -231,13 +316,12 @@ public class MongoDbExternalWorkerJobDataManager extends AbstractMongoDbDataMana
         return update;
     }
 
-
     @Override
     public ExternalWorkerJobEntity create() {
         return new ExternalWorkerJobEntityImpl();
     }
     protected Bson buildQueryFilter(ExternalWorkerJobQueryImpl jobQuery) {
-        List<Bson> filters = new java.util.ArrayList<>();
+        List<Bson> filters = new ArrayList<>();
 
         if (jobQuery.getId() != null) {
             filters.add(Filters.eq("_id", jobQuery.getId()));
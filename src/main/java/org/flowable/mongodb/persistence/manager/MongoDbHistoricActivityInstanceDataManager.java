@@ -14,6 +14,7 @@ package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +23,7 @@ import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.engine.history.HistoricActivityInstance;
 import org.flowable.engine.impl.HistoricActivityInstanceQueryImpl;
+import org.flowable.engine.impl.HistoricActivityInstanceQueryProperty;
 import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
 import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntityImpl;
 import org.flowable.engine.impl.persistence.entity.data.HistoricActivityInstanceDataManager;
@@ -47,6 +49,39 @@ public class MongoDbHistoricActivityInstanceDataManager extends AbstractMongoDbD
 
     public static final String COLLECTION_HISTORIC_ACTIVITY_INSTANCES = "historicActivityInstances";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.HISTORIC_ACTIVITY_INSTANCE_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.EXECUTION_ID.getName(), "executionId");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.ACTIVITY_ID.getName(), "activityId");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.ACTIVITY_NAME.getName(), "activityName");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.ACTIVITY_TYPE.getName(), "activityType");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.START.getName(), "startTime");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.END.getName(), "endTime");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.DURATION.getName(), "durationInMillis");
+        ORDER_BY_FIELDS.put(HistoricActivityInstanceQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
+    /**
+     * The stored keys of the persistent state, see {@link #createUpdateObjectFromPersistentState(Entity, Map)}.
+     */
+    protected static final Map<String, String> UPDATE_FIELDS = new HashMap<>();
+
+    static {
+        UPDATE_FIELDS.put("activityId", "activityId");
+        UPDATE_FIELDS.put("activityName", "activityName");
+        UPDATE_FIELDS.put("executionId", "executionId");
+        UPDATE_FIELDS.put("taskId", "taskId");
+        UPDATE_FIELDS.put("calledProcessInstanceId", "calledProcessInstanceId");
+        UPDATE_FIELDS.put("assignee", "assignee");
+        UPDATE_FIELDS.put("endTime", "endTime");
+        UPDATE_FIELDS.put("durationInMillis", "durationInMillis");
+        UPDATE_FIELDS.put("deleteReason", "deleteReason");
+    }
+
     public MongoDbHistoricActivityInstanceDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -63,21 +98,7 @@ public class MongoDbHistoricActivityInstanceDataManager extends AbstractMongoDbD
 
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
-        HistoricActivityInstanceEntity historicActivity = (HistoricActivityInstanceEntity) entity;
-        BasicDBObject update = new BasicDBObject();
-        update.append("executionId", historicActivity.getExecutionId());
-        update.append("processInstanceId", historicActivity.getProcessInstanceId());
-        update.append("processDefinitionId", historicActivity.getProcessDefinitionId());
-        update.append("activityId", historicActivity.getActivityId());
-        update.append("activityName", historicActivity.getActivityName());
-        update.append("activityType", historicActivity.getActivityType());
-        update.append("assignee", historicActivity.getAssignee());
-        update.append("startTime", historicActivity.getStartTime());
-        update.append("endTime", historicActivity.getEndTime());
-        update.append("durationInMillis", historicActivity.getDurationInMillis());
-        update.append("deleteReason", historicActivity.getDeleteReason());
-        update.append("tenantId", historicActivity.getTenantId());
-        return update;
+        return createUpdateObjectFromPersistentState(entity, UPDATE_FIELDS);
     }
 
     @Override
@@ -115,7 +136,7 @@ public class MongoDbHistoricActivityInstanceDataManager extends AbstractMongoDbD
 
     @Override
     public List<HistoricActivityInstance> findHistoricActivityInstancesByQueryCriteria(HistoricActivityInstanceQueryImpl query) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_ACTIVITY_INSTANCES, createFilter(query));
+        return findByQuery(createFilter(query), query, ORDER_BY_FIELDS);
     }
 
     @Override
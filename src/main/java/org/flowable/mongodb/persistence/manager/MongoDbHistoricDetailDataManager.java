@@ -13,6 +13,7 @@
 package org.flowable.mongodb.persistence.manager;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,7 @@ import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.history.HistoricDetail;
 import org.flowable.engine.impl.HistoricDetailQueryImpl;
+import org.flowable.engine.impl.HistoricDetailQueryProperty;
 import org.flowable.engine.impl.persistence.entity.HistoricDetailAssignmentEntity;
 import org.flowable.engine.impl.persistence.entity.HistoricDetailAssignmentEntityImpl;
 import org.flowable.engine.impl.persistence.entity.HistoricDetailEntity;
@@ -40,6 +42,16 @@ public class MongoDbHistoricDetailDataManager extends AbstractMongoDbDataManager
 
     public static final String COLLECTION_HISTORIC_DETAILS = "historicDetails";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(HistoricDetailQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(HistoricDetailQueryProperty.VARIABLE_NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(HistoricDetailQueryProperty.VARIABLE_TYPE.getName(), "type");
+        ORDER_BY_FIELDS.put(HistoricDetailQueryProperty.VARIABLE_REVISION.getName(), "revision");
+        ORDER_BY_FIELDS.put(HistoricDetailQueryProperty.TIME.getName(), "time");
+    }
+
     public MongoDbHistoricDetailDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -92,7 +104,7 @@ public class MongoDbHistoricDetailDataManager extends AbstractMongoDbDataManager
 
     @Override
     public List<HistoricDetail> findHistoricDetailsByQueryCriteria(HistoricDetailQueryImpl historicVariableUpdateQuery) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_DETAILS, createFilter(historicVariableUpdateQuery));
+        return findByQuery(createFilter(historicVariableUpdateQuery), historicVariableUpdateQuery, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -125,8 +137,8 @@ public class MongoDbHistoricDetailDataManager extends AbstractMongoDbDataManager
             BasicDBObject update = new BasicDBObject();
             update.append("name", detail.getName());
             update.append("variableTypeName", detail.getVariableTypeName());
-            update.append("textValue", detail.getTextValue());
-            update.append("textValue2", detail.getTextValue2());
+            update.append("textValue", getPayloadCompression().compress(detail.getTextValue()));
+            update.append("textValue2", getPayloadCompression().compress(detail.getTextValue2()));
             update.append("longValue", detail.getLongValue());
             update.append("doubleValue", detail.getDoubleValue());
             update.append("processInstanceId", detail.getProcessInstanceId());
@@ -13,17 +13,18 @@
 package org.flowable.mongodb.persistence.manager;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.history.HistoricProcessInstance;
 import org.flowable.engine.impl.HistoricProcessInstanceQueryImpl;
+import org.flowable.engine.impl.HistoricProcessInstanceQueryProperty;
 import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
 import org.flowable.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
 import org.flowable.engine.impl.persistence.entity.HistoricProcessInstanceEntityImpl;
 import org.flowable.engine.impl.persistence.entity.data.HistoricProcessInstanceDataManager;
 import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.MongoDbCursor;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
@@ -33,6 +34,18 @@ public class MongoDbHistoricProcessInstanceDataManager extends AbstractMongoDbDa
 
     public static final String COLLECTION_HISTORIC_PROCESS_INSTANCES = "historicProcessInstances";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.PROCESS_INSTANCE_ID_.getName(), "_id");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.BUSINESS_KEY.getName(), "businessKey");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.START_TIME.getName(), "startTime");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.END_TIME.getName(), "endTime");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.DURATION.getName(), "durationInMillis");
+        ORDER_BY_FIELDS.put(HistoricProcessInstanceQueryProperty.TENANT_ID.getName(), "tenantId");
+    }
+
     public MongoDbHistoricProcessInstanceDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -67,13 +80,7 @@ public class MongoDbHistoricProcessInstanceDataManager extends AbstractMongoDbDa
 
     @Override
     public List<String> findHistoricProcessInstanceIdsByProcessDefinitionId(String processDefinitionId) {
-        List<HistoricProcessInstance> historicProcessInstances = getMongoDbSession()
-                .find(COLLECTION_HISTORIC_PROCESS_INSTANCES, Filters.eq("processDefinitionId", processDefinitionId));
-        if (historicProcessInstances != null && !historicProcessInstances.isEmpty()) {
-            return historicProcessInstances.stream().map(HistoricProcessInstance::getId).collect(Collectors.toList());
-        } else {
-            return Collections.emptyList();
-        }
+        return getMongoDbSession().findIds(COLLECTION_HISTORIC_PROCESS_INSTANCES, Filters.eq("processDefinitionId", processDefinitionId));
     }
 
     @Override
@@ -84,12 +91,31 @@ public class MongoDbHistoricProcessInstanceDataManager extends AbstractMongoDbDa
 
     @Override
     public List<String> findHistoricProcessInstanceIdsBySuperProcessInstanceIds(Collection<String> superProcessInstanceIds) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_PROCESS_INSTANCES,Filters.in("superProcessInstanceId", superProcessInstanceIds));
+        return getMongoDbSession().findIds(COLLECTION_HISTORIC_PROCESS_INSTANCES, Filters.in("superProcessInstanceId", superProcessInstanceIds));
     }
 
     @Override
     public List<HistoricProcessInstance> findHistoricProcessInstancesByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_PROCESS_INSTANCES, createFilter(historicProcessInstanceQuery));
+        return findByQuery(createFilter(historicProcessInstanceQuery), historicProcessInstanceQuery, ORDER_BY_FIELDS);
+    }
+
+    /**
+     * Returns the page of historic process instances that comes after the given process instance,
+     * which is the last one of the previous page, in the order of the query. The max results of the query is the page size.
+     *
+     * Prefer this over a first result when paging deep into the history, as it doesn't need to skip all preceding documents.
+     */
+    public List<HistoricProcessInstance> findHistoricProcessInstancesByQueryCriteriaAfter(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery,
+            HistoricProcessInstanceEntity lastHistoricProcessInstance) {
+        return findByQueryAfter(createFilter(historicProcessInstanceQuery), historicProcessInstanceQuery, ORDER_BY_FIELDS, lastHistoricProcessInstance);
+    }
+
+    /**
+     * Returns a read-only cursor over all historic process instances matching the query, for processing more of them than fit in memory.
+     * The cursor must be closed when done.
+     */
+    public MongoDbCursor<HistoricProcessInstance> streamHistoricProcessInstancesByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
+        return findCursorByQuery(createFilter(historicProcessInstanceQuery), historicProcessInstanceQuery, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -100,7 +126,7 @@ public class MongoDbHistoricProcessInstanceDataManager extends AbstractMongoDbDa
     @Override
     public List<HistoricProcessInstance> findHistoricProcessInstancesAndVariablesByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
         // Assuming variables are stored within the same document under "variables" field
-        return getMongoDbSession().find(COLLECTION_HISTORIC_PROCESS_INSTANCES, createFilter(historicProcessInstanceQuery));
+        return findByQuery(createFilter(historicProcessInstanceQuery), historicProcessInstanceQuery, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -117,7 +143,7 @@ public class MongoDbHistoricProcessInstanceDataManager extends AbstractMongoDbDa
 
     @Override
     public void deleteHistoricProcessInstances(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
-        getMongoDbSession().delete(COLLECTION_HISTORIC_PROCESS_INSTANCES, getMongoDbSession().findOne(COLLECTION_HISTORIC_PROCESS_INSTANCES,createFilter(historicProcessInstanceQuery)));
+        getMongoDbSession().bulkDelete(COLLECTION_HISTORIC_PROCESS_INSTANCES, createFilter(historicProcessInstanceQuery));
     }
 
     @Override
@@ -14,13 +14,16 @@ package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.mongodb.persistence.MongoDbCursor;
 import org.flowable.task.api.history.HistoricTaskInstance;
 import org.flowable.task.service.impl.HistoricTaskInstanceQueryImpl;
+import org.flowable.task.service.impl.HistoricTaskInstanceQueryProperty;
 import org.flowable.task.service.impl.persistence.entity.HistoricTaskInstanceEntity;
 import org.flowable.task.service.impl.persistence.entity.HistoricTaskInstanceEntityImpl;
 import org.flowable.task.service.impl.persistence.entity.TaskEntity;
@@ -33,6 +36,31 @@ public class MongoDbHistoricTaskInstanceDataManager extends AbstractMongoDbDataM
 
     public static final String COLLECTION_HISTORIC_TASK_INSTANCES = "historicTaskInstances";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.HISTORIC_TASK_INSTANCE_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.EXECUTION_ID.getName(), "executionId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_DESCRIPTION.getName(), "description");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_ASSIGNEE.getName(), "assignee");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_OWNER.getName(), "owner");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_DEFINITION_KEY.getName(), "taskDefinitionKey");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.DELETE_REASON.getName(), "deleteReason");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.START.getName(), "startTime");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.END.getName(), "endTime");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.DURATION.getName(), "durationInMillis");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_PRIORITY.getName(), "priority");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TASK_DUE_DATE.getName(), "dueDate");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.TENANT_ID_.getName(), "tenantId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.SCOPE_DEFINITION_ID.getName(), "scopeDefinitionId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.SCOPE_ID.getName(), "scopeId");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.SCOPE_TYPE.getName(), "scopeType");
+        ORDER_BY_FIELDS.put(HistoricTaskInstanceQueryProperty.CATEGORY.getName(), "category");
+    }
+
     @Override
     public String getCollection() {
         return COLLECTION_HISTORIC_TASK_INSTANCES;
@@ -78,7 +106,7 @@ public class MongoDbHistoricTaskInstanceDataManager extends AbstractMongoDbDataM
 
     @Override
     public List<String> findHistoricTaskIdsByParentTaskIds(Collection<String> parentTaskIds) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.in("parentTaskId", parentTaskIds));
+        return getMongoDbSession().findIds(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.in("parentTaskId", parentTaskIds));
     }
 
     @Override
@@ -88,16 +116,15 @@ public class MongoDbHistoricTaskInstanceDataManager extends AbstractMongoDbDataM
 
     @Override
     public List<String> findHistoricTaskIdsForProcessInstanceIds(Collection<String> processInstanceIds) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.in("processInstanceId", processInstanceIds));
+        return getMongoDbSession().findIds(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.in("processInstanceId", processInstanceIds));
     }
 
     @Override
     public List<String> findHistoricTaskIdsForScopeIdsAndScopeType(Collection<String> scopeIds, String scopeType) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.and(
-                Filters.eq("scopeId", scopeIds),
-                       Filters.eq("scopeType", scopeType)
-                )
-        );
+        return getMongoDbSession().findIds(COLLECTION_HISTORIC_TASK_INSTANCES, Filters.and(
+                Filters.in("scopeId", scopeIds),
+                Filters.eq("scopeType", scopeType)
+        ));
     }
 
     @Override
@@ -108,7 +135,22 @@ public class MongoDbHistoricTaskInstanceDataManager extends AbstractMongoDbDataM
 
     @Override
     public List<HistoricTaskInstance> findHistoricTaskInstancesByQueryCriteria(HistoricTaskInstanceQueryImpl query) {
-        return getMongoDbSession().find(COLLECTION_HISTORIC_TASK_INSTANCES, createFilter(query));
+        return findByQuery(createFilter(query), query, ORDER_BY_FIELDS);
+    }
+
+    /**
+     * Keyset variant of {@link #findHistoricTaskInstancesByQueryCriteria(HistoricTaskInstanceQueryImpl)}:
+     * returns the page (of max results size) following the given task, which is the last task of the previous page.
+     */
+    public List<HistoricTaskInstance> findHistoricTaskInstancesByQueryCriteriaAfter(HistoricTaskInstanceQueryImpl query, HistoricTaskInstanceEntity lastHistoricTaskInstance) {
+        return findByQueryAfter(createFilter(query), query, ORDER_BY_FIELDS, lastHistoricTaskInstance);
+    }
+
+    /**
+     * Returns a read-only cursor over all historic tasks matching the query. The cursor must be closed when done.
+     */
+    public MongoDbCursor<HistoricTaskInstance> streamHistoricTaskInstancesByQueryCriteria(HistoricTaskInstanceQueryImpl query) {
+        return findCursorByQuery(createFilter(query), query, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -131,9 +173,7 @@ public class MongoDbHistoricTaskInstanceDataManager extends AbstractMongoDbDataM
 
     @Override
     public void deleteHistoricTaskInstances(HistoricTaskInstanceQueryImpl query) {
-        getMongoDbSession().find(COLLECTION_HISTORIC_TASK_INSTANCES,createFilter(query)).forEach(taskInstance -> {
-            getMongoDbSession().delete(COLLECTION_HISTORIC_TASK_INSTANCES,(HistoricTaskInstanceEntity) taskInstance);
-        });
+        getMongoDbSession().bulkDelete(COLLECTION_HISTORIC_TASK_INSTANCES, createFilter(query));
     }
 
     @Override
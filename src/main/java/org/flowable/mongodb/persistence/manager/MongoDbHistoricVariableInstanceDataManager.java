@@ -7,6 +7,7 @@ import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.variable.api.history.HistoricVariableInstance;
 import org.flowable.variable.service.impl.HistoricVariableInstanceQueryImpl;
+import org.flowable.variable.service.impl.HistoricVariableInstanceQueryProperty;
 import org.flowable.variable.service.impl.persistence.entity.HistoricVariableInstanceEntity;
 import org.flowable.variable.service.impl.persistence.entity.HistoricVariableInstanceEntityImpl;
 import org.flowable.variable.service.impl.persistence.entity.data.HistoricVariableInstanceDataManager;
@@ -19,6 +20,14 @@ public class MongoDbHistoricVariableInstanceDataManager extends AbstractMongoDbD
 
     public static final String COLLECTION_HISTORIC_VARIABLE_INSTANCES = "historicVariableInstances";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(HistoricVariableInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(HistoricVariableInstanceQueryProperty.SCOPE_ID.getName(), "scopeId");
+        ORDER_BY_FIELDS.put(HistoricVariableInstanceQueryProperty.VARIABLE_NAME.getName(), "name");
+    }
+
     protected HistoricVariableInstanceByProcInstMatcher historicVariableInstanceByProcInstMatcher = new HistoricVariableInstanceByProcInstMatcher();
 
     @Override
@@ -66,7 +75,7 @@ public class MongoDbHistoricVariableInstanceDataManager extends AbstractMongoDbD
 
     @Override
     public List<HistoricVariableInstance> findHistoricVariableInstancesByQueryCriteria(HistoricVariableInstanceQueryImpl query) {
-        return new ArrayList<>(getMongoDbSession().find(COLLECTION_HISTORIC_VARIABLE_INSTANCES, createFilter(query)));
+        return new ArrayList<>(findByQuery(createFilter(query), query, ORDER_BY_FIELDS));
     }
 
     @Override
@@ -31,6 +31,39 @@ public class MongoDbIdentityLinkDataManager extends AbstractMongoDbDataManager<I
         return new IdentityLinkEntityImpl();
     }
 
+    @Override
+    public void insert(IdentityLinkEntity link) {
+        super.insert(link);
+        updateTaskIdentityLinks(link, "$addToSet");
+    }
+
+    @Override
+    public void delete(IdentityLinkEntity link) {
+        super.delete(link);
+        updateTaskIdentityLinks(link, "$pull");
+    }
+
+    /**
+     * Adds the user or group of a task identity link to, or removes it from, the identity link arrays of the task document
+     * (see {@link MongoDbTaskDataManager#IDENTITY_LINK_USERS}).
+     */
+    protected void updateTaskIdentityLinks(IdentityLinkEntity link, String operator) {
+        if (link.getTaskId() == null || link.getType() == null) {
+            return;
+        }
+
+        BasicDBObject values = new BasicDBObject();
+        if (link.getUserId() != null) {
+            values.append(MongoDbTaskDataManager.IDENTITY_LINK_USERS, MongoDbTaskDataManager.getIdentityLinkValue(link.getUserId(), link.getType()));
+        }
+        if (link.getGroupId() != null) {
+            values.append(MongoDbTaskDataManager.IDENTITY_LINK_GROUPS, MongoDbTaskDataManager.getIdentityLinkValue(link.getGroupId(), link.getType()));
+        }
+        if (!values.isEmpty()) {
+            getMongoDbSession().addDerivedUpdate(MongoDbTaskDataManager.COLLECTION_TASKS, Filters.eq("_id", link.getTaskId()), new BasicDBObject(operator, values));
+        }
+    }
+
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
         IdentityLinkEntity link = (IdentityLinkEntity) entity;
@@ -165,6 +198,8 @@ public class MongoDbIdentityLinkDataManager extends AbstractMongoDbDataManager<I
     @Override
     public void deleteIdentityLinksByTaskId(String taskId) {
         getMongoDbSession().bulkDelete(COLLECTION_IDENTITY_LINKS, Filters.eq("taskId", taskId));
+        getMongoDbSession().addDerivedUpdate(MongoDbTaskDataManager.COLLECTION_TASKS, Filters.eq("_id", taskId),
+                new BasicDBObject("$unset", new BasicDBObject(MongoDbTaskDataManager.IDENTITY_LINK_USERS, "").append(MongoDbTaskDataManager.IDENTITY_LINK_GROUPS, "")));
     }
 
     @Override
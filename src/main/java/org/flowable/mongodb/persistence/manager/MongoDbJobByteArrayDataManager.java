@@ -3,9 +3,9 @@ package org.flowable.mongodb.persistence.manager;
 import java.util.List;
 
 import org.flowable.common.engine.impl.persistence.entity.ByteArrayEntity;
-import org.flowable.common.engine.impl.persistence.entity.ByteArrayEntityImpl;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.common.engine.impl.persistence.entity.data.ByteArrayDataManager;
+import org.flowable.mongodb.persistence.entity.MongoDbByteArrayEntityImpl;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
@@ -29,16 +29,20 @@ public class MongoDbJobByteArrayDataManager extends AbstractMongoDbDataManager<B
 
     @Override
     public ByteArrayEntity create() {
-        return new ByteArrayEntityImpl();
+        return new MongoDbByteArrayEntityImpl();
     }
 
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
+        // The persistent state of a byte array can only be compared as a whole, and the deployment id never changes
+        if (entity.getPersistentState().equals(entity.getOriginalPersistentState())) {
+            return null;
+        }
+
         ByteArrayEntity byteArray = (ByteArrayEntity) entity;
         BasicDBObject update = new BasicDBObject();
         update.append("name", byteArray.getName());
-        update.append("bytes", byteArray.getBytes());
-        update.append("deploymentId", byteArray.getDeploymentId());
+        update.append("bytes", getPayloadCompression().compress(byteArray.getBytes()));
         return update;
     }
 
@@ -9,18 +9,19 @@ import org.flowable.common.engine.impl.Page;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.job.api.Job;
-import org.flowable.job.api.JobInfo;
 import org.flowable.job.service.JobServiceConfiguration;
 import org.flowable.job.service.impl.JobQueryImpl;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
 import org.flowable.job.service.impl.persistence.entity.JobEntity;
 import org.flowable.job.service.impl.persistence.entity.JobEntityImpl;
 import org.flowable.job.service.impl.persistence.entity.data.JobDataManager;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 
-public class MongoDbJobDataManager extends AbstractMongoDbDataManager<JobEntity> implements JobDataManager {
+public class MongoDbJobDataManager extends AbstractMongoDbJobDataManager<JobEntity> implements JobDataManager {
 
     public static final String COLLECTION_JOBS = "jobs";
 
@@ -42,39 +43,55 @@ public class MongoDbJobDataManager extends AbstractMongoDbDataManager<JobEntity>
 
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
-        JobEntity jobEntity = (JobEntity) entity;
-        BasicDBObject updateObject = new BasicDBObject();
+        return createUpdateObjectFromPersistentState(entity, JOB_UPDATE_FIELDS);
+    }
 
-        updateObject.put("retries", jobEntity.getRetries());
+    /**
+     * Claims the jobs on the server, one findOneAndUpdate per job, by setting the lock owner and lock expiration time.
+     * Since every claim is atomic, concurrent acquiring nodes never get the same job, and the returned jobs are already locked.
+     * Note that no transaction is active at this point when called from the acquire command,
+     * so the claims are immediately visible for the other nodes.
+     */
+    @Override
+    public List<JobEntity> findJobsToExecute(List<String> enabledCategories, Page page) {
+        Bson filter = createJobsToExecuteFilter(enabledCategories);
 
-        if (jobEntity.getExceptionMessage() != null) {
-            updateObject.put("exceptionMessage", jobEntity.getExceptionMessage());
-        }
-        if (jobEntity.getLockOwner() != null) {
-            updateObject.put("lockOwner", jobEntity.getLockOwner());
-        }
-        if (jobEntity.getLockExpirationTime() != null) {
-            updateObject.put("lockExpirationTime", jobEntity.getLockExpirationTime());
-        }
-        if (jobEntity.getTenantId() != null) {
-            updateObject.put("tenantId", jobEntity.getTenantId());
+        AsyncExecutor asyncExecutor = jobServiceConfiguration.getAsyncExecutor();
+        if (asyncExecutor == null) {
+            return getMongoDbSession().find(COLLECTION_JOBS, filter, null, page.getMaxResults());
         }
 
-        return updateObject;
+        Date lockExpirationTime = new Date(jobServiceConfiguration.getClock().getCurrentTime().getTime() + asyncExecutor.getAsyncJobLockTimeInMillis());
+        Bson update = Updates.combine(
+                Updates.set("lockOwner", asyncExecutor.getLockOwner()),
+                Updates.set("lockExpirationTime", lockExpirationTime),
+                Updates.inc("revision", 1)
+        );
+
+        List<JobEntity> jobs = new ArrayList<>();
+        int maxResults = Math.max(page.getMaxResults(), 1);
+        while (jobs.size() < maxResults) {
+            JobEntity job = getMongoDbSession().findOneAndUpdate(COLLECTION_JOBS, filter, update);
+            if (job == null) {
+                break;
+            }
+            jobs.add(job);
+        }
+        return jobs;
     }
 
-    @Override
-    public List<JobEntity> findJobsToExecute(List<String> enabledCategories, Page page) {
-        Bson filter;
+    protected Bson createJobsToExecuteFilter(List<String> enabledCategories) {
+        List<Bson> filters = new ArrayList<>();
         if (jobServiceConfiguration.getJobExecutionScope() == null) {
-            filter = Filters.and(Filters.eq("scopeType", null), Filters.eq("lockExpirationTime", null));
+            filters.add(Filters.eq("scopeType", null));
         } else if (!"all".equals(jobServiceConfiguration.getJobExecutionScope())) {
-            filter = Filters.and(Filters.eq("scopeType", jobServiceConfiguration.getJobExecutionScope()),
-                    Filters.eq("lockExpirationTime", null));
-        } else {
-            filter = Filters.eq("lockExpirationTime", null);
+            filters.add(Filters.eq("scopeType", jobServiceConfiguration.getJobExecutionScope()));
+        }
+        filters.add(Filters.eq("lockExpirationTime", null));
+        if (enabledCategories != null && !enabledCategories.isEmpty()) {
+            filters.add(Filters.in("category", enabledCategories));
         }
-        return getMongoDbSession().find(COLLECTION_JOBS, filter, null, 1);
+        return makeAndFilter(filters);
     }
 
     @Override
@@ -86,53 +103,54 @@ public class MongoDbJobDataManager extends AbstractMongoDbDataManager<JobEntity>
     @Override
     public List<JobEntity> findJobsByProcessInstanceId(String processInstanceId) {
         Bson filter = Filters.eq("processInstanceId", processInstanceId);
-        return getMongoDbSession().find(COLLECTION_JOBS, filter);
+        List<JobEntity> jobs = getMongoDbSession().find(COLLECTION_JOBS, filter);
+        prefetchReferencedIds(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, jobs, JobEntity::getExecutionId);
+        return jobs;
     }
 
     @Override
     public List<JobEntity> findExpiredJobs(List<String> enabledCategories, Page page) {
-        Bson filter;
+        int skip = page != null ? page.getFirstResult() : 0;
+        int limit = page != null ? page.getMaxResults() : 100;
+        return getMongoDbSession().find(COLLECTION_JOBS, createExpiredJobsFilter(enabledCategories), Sorts.ascending("lockExpirationTime"), skip, limit);
+    }
+
+    @Override
+    protected Bson createExpiredJobsFilter(List<String> enabledCategories) {
+        List<Bson> filters = new ArrayList<>();
         if (jobServiceConfiguration.getJobExecutionScope() == null) {
-            filter = Filters.eq("scopeType", null);
+            filters.add(Filters.eq("scopeType", null));
         } else if (!"all".equals(jobServiceConfiguration.getJobExecutionScope())) {
-            filter = Filters.eq("scopeType", jobServiceConfiguration.getJobExecutionScope());
-        } else {
-            filter = null;
+            filters.add(Filters.eq("scopeType", jobServiceConfiguration.getJobExecutionScope()));
         }
 
         Date now = jobServiceConfiguration.getClock().getCurrentTime();
         Date maxTimeout = new Date(now.getTime() - jobServiceConfiguration.getAsyncExecutorResetExpiredJobsMaxTimeout());
 
-        Bson expirationFilter = Filters.or(
+        // A job locked without an expiration time is seen as expired once it has been locked for longer than the max timeout
+        filters.add(Filters.or(
                 Filters.lt("lockExpirationTime", now),
-                Filters.and(Filters.eq("lockExpirationTime", null), Filters.lt("createTime", maxTimeout))
-        );
-
-        Bson finalFilter = (filter != null) ? Filters.and(filter, expirationFilter) : expirationFilter;
-
-        return getMongoDbSession().find(COLLECTION_JOBS, finalFilter, null, 1);
-    }
-
-    @Override
-    public void resetExpiredJob(String jobId) {
-        Bson filter = Filters.eq("_id", jobId);
-        Bson update = Updates.combine(
-                Updates.unset("lockOwner"),
-                Updates.unset("lockExpirationTime")
-        );
-        getMongoDbSession().updateOne(COLLECTION_JOBS, filter, update);
+                Filters.and(Filters.eq("lockExpirationTime", null), Filters.ne("lockOwner", null), Filters.lt("createTime", maxTimeout))
+        ));
+        if (enabledCategories != null && !enabledCategories.isEmpty()) {
+            filters.add(Filters.in("category", enabledCategories));
+        }
+        return makeAndFilter(filters);
     }
 
     @Override
     public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
         Bson filter = Filters.eq("deploymentId", deploymentId);
-        Bson update = Updates.set("tenantId", newTenantId);
-        getMongoDbSession().bulkUpdate(COLLECTION_JOBS, filter, update);
+        getMongoDbSession().bulkUpdate(COLLECTION_JOBS, filter, new BasicDBObject("tenantId", newTenantId));
     }
 
+    /**
+     * Only locks the jobs that aren't locked or of which the lock has expired: the other jobs are removed from the passed list,
+     * which thus needs to be modifiable. See {@link #bulkLockJobs(List, String, Date)}.
+     */
     @Override
     public void bulkUpdateJobLockWithoutRevisionCheck(List<JobEntity> jobEntities, String lockOwner, Date lockExpirationTime) {
-        getMongoDbSession().bulkDelete(COLLECTION_JOBS,Filters.in("_id", jobEntities.stream().map(JobInfo::getId).toArray()));
+        bulkLockJobs(jobEntities, lockOwner, lockExpirationTime);
     }
 
     @Override
@@ -143,7 +161,7 @@ public class MongoDbJobDataManager extends AbstractMongoDbDataManager<JobEntity>
 
     @Override
     public List<Job> findJobsByQueryCriteria(JobQueryImpl jobQuery) {
-        return getMongoDbSession().find(COLLECTION_JOBS, createFilter(jobQuery));
+        return findByQuery(createFilter(jobQuery), jobQuery, JOB_ORDER_BY_FIELDS);
     }
 
     @Override
@@ -13,6 +13,7 @@
 package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,7 @@ import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.engine.impl.ModelQueryImpl;
+import org.flowable.engine.impl.ModelQueryProperty;
 import org.flowable.engine.impl.persistence.entity.ModelEntity;
 import org.flowable.engine.impl.persistence.entity.data.ModelDataManager;
 import org.flowable.engine.repository.Model;
@@ -39,6 +41,19 @@ public class MongoDbModelDataManager extends AbstractMongoDbDataManager<ModelEnt
 
     public static final String COLLECTION_MODELS = "models";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_CATEGORY.getName(), "category");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_VERSION.getName(), "version");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_CREATE_TIME.getName(), "createTime");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_LAST_UPDATE_TIME.getName(), "lastUpdateTime");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_KEY.getName(), "key");
+        ORDER_BY_FIELDS.put(ModelQueryProperty.MODEL_TENANT_ID.getName(), "tenantId");
+    }
+
     public MongoDbModelDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -115,7 +130,7 @@ public class MongoDbModelDataManager extends AbstractMongoDbDataManager<ModelEnt
 
     @Override
     public List<Model> findModelsByQueryCriteria(ModelQueryImpl query) {
-        return getMongoDbSession().find(COLLECTION_MODELS, queryToFilter(query));
+        return findByQuery(queryToFilter(query), query, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -13,6 +13,7 @@
 package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +21,11 @@ import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.engine.impl.ProcessDefinitionQueryImpl;
+import org.flowable.engine.impl.ProcessDefinitionQueryProperty;
 import org.flowable.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.flowable.engine.impl.persistence.entity.data.ProcessDefinitionDataManager;
 import org.flowable.engine.repository.ProcessDefinition;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
 import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
 import org.flowable.mongodb.persistence.entity.MongoDbProcessDefinitionEntityImpl;
 
@@ -34,6 +37,18 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
 
     public static final String COLLECTION_PROCESS_DEFINITIONS = "processDefinitions";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_KEY.getName(), "key");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_VERSION.getName(), "version");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_CATEGORY.getName(), "category");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.DEPLOYMENT_ID.getName(), "deploymentId");
+        ORDER_BY_FIELDS.put(ProcessDefinitionQueryProperty.PROCESS_DEFINITION_TENANT_ID.getName(), "tenantId");
+    }
+
     public MongoDbProcessDefinitionDataManager(MongoDbProcessEngineConfiguration processEngineConfiguration) {
         super(processEngineConfiguration);
     }
@@ -66,7 +81,7 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
         if (latest == null || entity.getVersion() > latest.getVersion()) {
             if (latest != null) {
                 latest.setLatest(false);
-                getMongoDbSession().update(entity);
+                getMongoDbSession().update(latest);
             }
             ((MongoDbProcessDefinitionEntityImpl) entity).setLatest(true);
         }
@@ -76,26 +91,30 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
 
     @Override
     public ProcessDefinitionEntity findLatestProcessDefinitionByKey(String key) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("key", key), Filters.eq("latest", true)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("key", key), Filters.eq("latest", true)),
+                MongoDbDefinitionCache.lookupKey("latest", key));
     }
 
     @Override
     public ProcessDefinitionEntity findLatestProcessDefinitionByKeyAndTenantId(String key, String tenantId) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("key", key), Filters.eq("latest", true), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("key", key), Filters.eq("latest", true), Filters.eq("tenantId", tenantId)),
+                MongoDbDefinitionCache.lookupKey("latestForTenant", key, tenantId));
     }
 
     @Override
     public ProcessDefinitionEntity findLatestDerivedProcessDefinitionByKey(String key) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("key", key), Filters.eq("derivedFrom", true), Filters.eq("latest", true)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("key", key), Filters.eq("derivedFrom", true), Filters.eq("latest", true)),
+                MongoDbDefinitionCache.lookupKey("latestDerived", key));
     }
 
     @Override
     public ProcessDefinitionEntity findLatestDerivedProcessDefinitionByKeyAndTenantId(String key, String tenantId) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("key", key), Filters.eq("derivedFrom", true), Filters.eq("latest", true), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("key", key), Filters.eq("derivedFrom", true), Filters.eq("latest", true), Filters.eq("tenantId", tenantId)),
+                MongoDbDefinitionCache.lookupKey("latestDerivedForTenant", key, tenantId));
     }
 
     @Override
@@ -105,7 +124,7 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
 
     @Override
     public List<ProcessDefinition> findProcessDefinitionsByQueryCriteria(ProcessDefinitionQueryImpl query) {
-        return getMongoDbSession().find(COLLECTION_PROCESS_DEFINITIONS, createFilter(query));
+        return findByQuery(createFilter(query), query, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -115,42 +134,48 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByDeploymentAndKey(String deploymentId, String key) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
                 Filters.and(Filters.eq("deploymentId", deploymentId), Filters.eq("key", key),
                         Filters.or(Filters.eq("tenantId", ProcessEngineConfiguration.NO_TENANT_ID),
-                                Filters.not(Filters.exists("tenantId")))));
+                                Filters.not(Filters.exists("tenantId")))),
+                MongoDbDefinitionCache.lookupKey("deployment", deploymentId, key));
     }
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByDeploymentAndKeyAndTenantId(String deploymentId, String key, String tenantId) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("deploymentId", deploymentId), Filters.eq("key", key), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("deploymentId", deploymentId), Filters.eq("key", key), Filters.eq("tenantId", tenantId)),
+                MongoDbDefinitionCache.lookupKey("deploymentForTenant", deploymentId, key, tenantId));
     }
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByParentDeploymentAndKey(String parentDeploymentId, String key) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("parentDeploymentId", parentDeploymentId), Filters.eq("key", key)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("parentDeploymentId", parentDeploymentId), Filters.eq("key", key)),
+                MongoDbDefinitionCache.lookupKey("parentDeployment", parentDeploymentId, key));
     }
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByParentDeploymentAndKeyAndTenantId(String parentDeploymentId, String key, String tenantId) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("parentDeploymentId", parentDeploymentId), Filters.eq("key", key), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("parentDeploymentId", parentDeploymentId), Filters.eq("key", key), Filters.eq("tenantId", tenantId)),
+                MongoDbDefinitionCache.lookupKey("parentDeploymentForTenant", parentDeploymentId, key, tenantId));
     }
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByKeyAndVersion(String key, Integer version) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
                 Filters.and(Filters.eq("key", key), Filters.eq("version", version),
                         Filters.or(Filters.eq("tenantId", ProcessEngineConfiguration.NO_TENANT_ID),
-                                Filters.not(Filters.exists("tenantId")))));
+                                Filters.not(Filters.exists("tenantId")))),
+                MongoDbDefinitionCache.lookupKey("version", key, version));
     }
 
     @Override
     public ProcessDefinitionEntity findProcessDefinitionByKeyAndVersionAndTenantId(String key, Integer version, String tenantId) {
-        return getMongoDbSession().findOne(COLLECTION_PROCESS_DEFINITIONS,
-                Filters.and(Filters.eq("key", key), Filters.eq("version", version), Filters.eq("tenantId", tenantId)));
+        return getMongoDbSession().findOneCached(COLLECTION_PROCESS_DEFINITIONS,
+                Filters.and(Filters.eq("key", key), Filters.eq("version", version), Filters.eq("tenantId", tenantId)),
+                MongoDbDefinitionCache.lookupKey("versionForTenant", key, version, tenantId));
     }
 
     @Override
@@ -168,7 +193,7 @@ public class MongoDbProcessDefinitionDataManager extends AbstractMongoDbDataMana
     @Override
     public void updateProcessDefinitionTenantIdForDeployment(String deploymentId, String newTenantId) {
         Bson filter = Filters.eq("deploymentId", deploymentId);
-        BasicDBObject update = new BasicDBObject("$set", new BasicDBObject("tenantId", newTenantId));
+        BasicDBObject update = new BasicDBObject("tenantId", newTenantId);
         getMongoDbSession().bulkUpdate(COLLECTION_PROCESS_DEFINITIONS, filter, update);
     }
 
@@ -18,7 +18,9 @@ import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.engine.impl.persistence.entity.ResourceEntity;
 import org.flowable.engine.impl.persistence.entity.ResourceEntityImpl;
 import org.flowable.engine.impl.persistence.entity.data.ResourceDataManager;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
 import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.entity.MongoDbResourceEntityImpl;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
@@ -45,7 +47,7 @@ public class MongoDbResourceDataManager extends AbstractMongoDbDataManager<Resou
 
     @Override
     public ResourceEntity create() {
-        return new ResourceEntityImpl();
+        return new MongoDbResourceEntityImpl();
     }
 
     @Override
@@ -60,7 +62,7 @@ public class MongoDbResourceDataManager extends AbstractMongoDbDataManager<Resou
             updateObject.append("deploymentId", resource.getDeploymentId());
         }
         if (resource.getBytes() != null) {
-            updateObject.append("bytes", resource.getBytes());
+            updateObject.append("bytes", getPayloadCompression().compress(resource.getBytes()));
         }
 
         return updateObject;
@@ -73,11 +75,12 @@ public class MongoDbResourceDataManager extends AbstractMongoDbDataManager<Resou
 
     @Override
     public ResourceEntity findResourceByDeploymentIdAndResourceName(String deploymentId, String resourceName) {
-        return getMongoDbSession().findOne(COLLECTION_BYTE_ARRAY,
+        return getMongoDbSession().findOneCached(COLLECTION_BYTE_ARRAY,
                 Filters.and(
                         Filters.eq("deploymentId", deploymentId),
                         Filters.eq("name", resourceName)
-                )
+                ),
+                MongoDbDefinitionCache.lookupKey("deploymentResource", deploymentId, resourceName)
         );
     }
 
@@ -64,7 +64,7 @@ public class MongoDbSuspendedJobDataManager extends AbstractMongoDbDataManager<S
 
     @Override
     public List<Job> findJobsByQueryCriteria(SuspendedJobQueryImpl jobQuery) {
-        return new ArrayList<>(getMongoDbSession().find(COLLECTION_SUSPENDED_JOBS, createFilter(jobQuery)));
+        return new ArrayList<>(findByQuery(createFilter(jobQuery), jobQuery, AbstractMongoDbJobDataManager.JOB_ORDER_BY_FIELDS));
     }
 
     @Override
@@ -99,6 +99,6 @@ public class MongoDbSuspendedJobDataManager extends AbstractMongoDbDataManager<S
     public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
         getMongoDbSession().bulkUpdate(COLLECTION_SUSPENDED_JOBS,
                 Filters.eq("deploymentId", deploymentId),
-                new BasicDBObject("$set", new BasicDBObject("tenantId", newTenantId)));
+                new BasicDBObject("tenantId", newTenantId));
     }
 }
@@ -13,11 +13,17 @@
 package org.flowable.mongodb.persistence.manager;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.bson.conversions.Bson;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.identitylink.api.IdentityLinkType;
 import org.flowable.task.api.Task;
 import org.flowable.task.service.impl.TaskQueryImpl;
 import org.flowable.task.service.impl.TaskQueryProperty;
@@ -27,12 +33,75 @@ import org.flowable.task.service.impl.persistence.entity.data.TaskDataManager;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.Sorts;
 
 public class MongoDbTaskDataManager extends AbstractMongoDbDataManager<TaskEntity> implements TaskDataManager {
 
     public static final String COLLECTION_TASKS = "tasks";
 
+    /**
+     * The users and groups of the identity links of a task, stored on the task document as "id\u001Ftype" values
+     * (see {@link #getIdentityLinkValue(String, String)}) and kept up to date by the {@link MongoDbIdentityLinkDataManager}.
+     * The multikey indices on these arrays back the candidate and involved filters of the task query.
+     */
+    public static final String IDENTITY_LINK_USERS = "identityLinkUsers";
+    public static final String IDENTITY_LINK_GROUPS = "identityLinkGroups";
+
+    protected static final char IDENTITY_LINK_TYPE_SEPARATOR = '\u001F';
+
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(TaskQueryProperty.TASK_ID.getName(), "_id");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.NAME.getName(), "name");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.DESCRIPTION.getName(), "description");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.PRIORITY.getName(), "priority");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.ASSIGNEE.getName(), "assignee");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.OWNER.getName(), "owner");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.CREATE_TIME.getName(), "createTime");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.EXECUTION_ID.getName(), "executionId");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.PROCESS_DEFINITION_ID.getName(), "processDefinitionId");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.DUE_DATE.getName(), "dueDate");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.TENANT_ID.getName(), "tenantId");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.TASK_DEFINITION_KEY.getName(), "taskDefinitionKey");
+        ORDER_BY_FIELDS.put(TaskQueryProperty.CATEGORY.getName(), "category");
+    }
+
+    /**
+     * The stored keys of the persistent state, see {@link #createUpdateObjectFromPersistentState(Entity, Map)}.
+     * The delegation state is stored as its string value.
+     */
+    protected static final Map<String, String> UPDATE_FIELDS = new HashMap<>();
+
+    static {
+        UPDATE_FIELDS.put("assignee", "assignee");
+        UPDATE_FIELDS.put("owner", "owner");
+        UPDATE_FIELDS.put("name", "name");
+        UPDATE_FIELDS.put("description", "description");
+        UPDATE_FIELDS.put("priority", "priority");
+        UPDATE_FIELDS.put("category", "category");
+        UPDATE_FIELDS.put("formKey", "formKey");
+        UPDATE_FIELDS.put("parentTaskId", "parentTaskId");
+        UPDATE_FIELDS.put("executionId", "executionId");
+        UPDATE_FIELDS.put("processInstanceId", "processInstanceId");
+        UPDATE_FIELDS.put("processDefinitionId", "processDefinitionId");
+        UPDATE_FIELDS.put("taskDefinitionId", "taskDefinitionId");
+        UPDATE_FIELDS.put("taskDefinitionKey", "taskDefinitionKey");
+        UPDATE_FIELDS.put("scopeId", "scopeId");
+        UPDATE_FIELDS.put("subScopeId", "subScopeId");
+        UPDATE_FIELDS.put("scopeType", "scopeType");
+        UPDATE_FIELDS.put("scopeDefinitionId", "scopeDefinitionId");
+        UPDATE_FIELDS.put("createTime", "createTime");
+        UPDATE_FIELDS.put("claimTime", "claimTime");
+        UPDATE_FIELDS.put("dueDate", "dueDate");
+        UPDATE_FIELDS.put("delegationStateString", "delegationState");
+        UPDATE_FIELDS.put("suspensionState", "suspensionState");
+        UPDATE_FIELDS.put("isCountEnabled", "countEnabled");
+        UPDATE_FIELDS.put("variableCount", "variableCount");
+        UPDATE_FIELDS.put("identityLinkCount", "identityLinkCount");
+        UPDATE_FIELDS.put("subTaskCount", "subTaskCount");
+    }
+
     @Override
     public String getCollection() {
         return COLLECTION_TASKS;
@@ -46,21 +115,15 @@ public class MongoDbTaskDataManager extends AbstractMongoDbDataManager<TaskEntit
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
         TaskEntity taskEntity = (TaskEntity) entity;
-        BasicDBObject updateObject = new BasicDBObject();
-        if (taskEntity.getAssignee() != null) {
-            updateObject.put("assignee", taskEntity.getAssignee());
-        }
-        if (taskEntity.getOwner() != null) {
-            updateObject.put("owner", taskEntity.getOwner());
-        }
-        if (taskEntity.getName() != null) {
-            updateObject.put("name", taskEntity.getName());
-        }
+        BasicDBObject updateObject = createUpdateObjectFromPersistentState(taskEntity, UPDATE_FIELDS);
+        // The tenant id isn't part of the persistent state
         if (taskEntity.getTenantId() != null) {
+            if (updateObject == null) {
+                updateObject = new BasicDBObject();
+            }
             updateObject.put("tenantId", taskEntity.getTenantId());
         }
-
-        return new BasicDBObject("$set", updateObject);
+        return updateObject;
     }
 
     @Override
@@ -70,7 +133,9 @@ public class MongoDbTaskDataManager extends AbstractMongoDbDataManager<TaskEntit
 
     @Override
     public List<TaskEntity> findTasksByProcessInstanceId(String processInstanceId) {
-        return getMongoDbSession().find(COLLECTION_TASKS, Filters.eq("processInstanceId", processInstanceId));
+        List<TaskEntity> tasks = getMongoDbSession().find(COLLECTION_TASKS, Filters.eq("processInstanceId", processInstanceId));
+        prefetchReferencedIds(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, tasks, TaskEntity::getExecutionId);
+        return tasks;
     }
 
     @Override
@@ -93,7 +158,7 @@ public class MongoDbTaskDataManager extends AbstractMongoDbDataManager<TaskEntit
 
     @Override
     public List<Task> findTasksByQueryCriteria(TaskQueryImpl taskQuery) {
-        return getMongoDbSession().find(COLLECTION_TASKS, createFilter(taskQuery), createSort(taskQuery));
+        return findByQuery(createFilter(taskQuery), taskQuery, ORDER_BY_FIELDS);
     }
 
     @Override
@@ -155,42 +220,336 @@ public class MongoDbTaskDataManager extends AbstractMongoDbDataManager<TaskEntit
     }
 
     protected Bson createFilter(TaskQueryImpl taskQuery) {
+        List<Bson> filters = createFilters(taskQuery);
+
+        if (taskQuery.getOrQueryObjects() != null) {
+            // The criteria of one or-query are combined with OR, the or-queries themselves with AND
+            for (TaskQueryImpl orQuery : taskQuery.getOrQueryObjects()) {
+                List<Bson> orFilters = createFilters(orQuery);
+                if (!orFilters.isEmpty()) {
+                    filters.add(Filters.or(orFilters));
+                }
+            }
+        }
+
+        return filters.isEmpty() ? new BasicDBObject() : Filters.and(filters);
+    }
+
+    protected List<Bson> createFilters(TaskQueryImpl taskQuery) {
         List<Bson> filters = new ArrayList<>();
 
-        if (taskQuery.getExecutionId() != null) {
-            filters.add(Filters.eq("executionId", taskQuery.getExecutionId()));
+        if (taskQuery.getTaskId() != null) {
+            filters.add(Filters.eq("_id", taskQuery.getTaskId()));
         }
-        if (taskQuery.getProcessInstanceId() != null) {
-            filters.add(Filters.eq("processInstanceId", taskQuery.getProcessInstanceId()));
+        if (taskQuery.getTaskIds() != null) {
+            filters.add(Filters.in("_id", taskQuery.getTaskIds()));
+        }
+        if (taskQuery.getName() != null) {
+            filters.add(Filters.eq("name", taskQuery.getName()));
+        }
+        if (taskQuery.getNameLike() != null) {
+            filters.add(createLikeFilter("name", taskQuery.getNameLike(), false));
+        }
+        if (taskQuery.getNameLikeIgnoreCase() != null) {
+            filters.add(createLikeFilter("name", taskQuery.getNameLikeIgnoreCase(), true));
+        }
+        if (taskQuery.getNameList() != null) {
+            filters.add(Filters.in("name", taskQuery.getNameList()));
+        }
+        if (taskQuery.getNameListIgnoreCase() != null) {
+            List<Bson> nameFilters = new ArrayList<>();
+            for (String name : taskQuery.getNameListIgnoreCase()) {
+                // An exact match ignoring case: % and _ in a name are no wildcards here
+                nameFilters.add(Filters.regex("name", "^" + Pattern.quote(name) + "$", "i"));
+            }
+            filters.add(nameFilters.isEmpty() ? Filters.in("_id", Collections.emptyList()) : Filters.or(nameFilters));
+        }
+        if (taskQuery.getDescription() != null) {
+            filters.add(Filters.eq("description", taskQuery.getDescription()));
+        }
+        if (taskQuery.getDescriptionLike() != null) {
+            filters.add(createLikeFilter("description", taskQuery.getDescriptionLike(), false));
+        }
+        if (taskQuery.getDescriptionLikeIgnoreCase() != null) {
+            filters.add(createLikeFilter("description", taskQuery.getDescriptionLikeIgnoreCase(), true));
         }
+        if (taskQuery.getPriority() != null) {
+            filters.add(Filters.eq("priority", taskQuery.getPriority()));
+        }
+        if (taskQuery.getMinPriority() != null) {
+            filters.add(Filters.gte("priority", taskQuery.getMinPriority()));
+        }
+        if (taskQuery.getMaxPriority() != null) {
+            filters.add(Filters.lte("priority", taskQuery.getMaxPriority()));
+        }
+
         if (taskQuery.getAssignee() != null) {
             filters.add(Filters.eq("assignee", taskQuery.getAssignee()));
         }
+        if (taskQuery.getAssigneeLike() != null) {
+            filters.add(createLikeFilter("assignee", taskQuery.getAssigneeLike(), false));
+        }
+        if (taskQuery.getAssigneeLikeIgnoreCase() != null) {
+            filters.add(createLikeFilter("assignee", taskQuery.getAssigneeLikeIgnoreCase(), true));
+        }
+        if (taskQuery.getAssigneeIds() != null) {
+            filters.add(Filters.in("assignee", taskQuery.getAssigneeIds()));
+        }
         if (taskQuery.getUnassigned()) {
             filters.add(Filters.eq("assignee", null));
         }
-        if (taskQuery.getName() != null) {
-            filters.add(Filters.eq("name", taskQuery.getName()));
+        if (taskQuery.isWithAssignee()) {
+            filters.add(Filters.ne("assignee", null));
+        }
+        if (taskQuery.getOwner() != null) {
+            filters.add(Filters.eq("owner", taskQuery.getOwner()));
+        }
+        if (taskQuery.getOwnerLike() != null) {
+            filters.add(createLikeFilter("owner", taskQuery.getOwnerLike(), false));
+        }
+        if (taskQuery.getOwnerLikeIgnoreCase() != null) {
+            filters.add(createLikeFilter("owner", taskQuery.getOwnerLikeIgnoreCase(), true));
+        }
+        if (taskQuery.getDelegationState() != null) {
+            filters.add(Filters.eq("delegationState", taskQuery.getDelegationStateString()));
+        }
+        if (taskQuery.getNoDelegationState()) {
+            filters.add(Filters.eq("delegationState", null));
         }
 
-        return filters.isEmpty() ? new BasicDBObject() : Filters.and(filters);
+        // The candidate groups also contain the groups of the candidate user (or the user of taskCandidateOrAssigned)
+        if ((taskQuery.getCandidateUser() != null || taskQuery.getCandidateGroup() != null || taskQuery.getCandidateGroups() != null)
+                && taskQuery.getUserIdForCandidateAndAssignee() == null) {
+            Bson candidateFilter = createIdentityLinkFilter(IdentityLinkType.CANDIDATE, taskQuery.getCandidateUser(), taskQuery.getCandidateGroups());
+            if (!taskQuery.isIgnoreAssigneeValue()) {
+                candidateFilter = Filters.and(Filters.eq("assignee", null), candidateFilter);
+            }
+            filters.add(candidateFilter);
+        }
+        if (taskQuery.getUserIdForCandidateAndAssignee() != null) {
+            String userId = taskQuery.getUserIdForCandidateAndAssignee();
+            Bson candidateFilter = createIdentityLinkFilter(IdentityLinkType.CANDIDATE, userId, taskQuery.getCandidateGroups());
+            if (!taskQuery.isBothCandidateAndAssigned()) {
+                candidateFilter = Filters.and(Filters.eq("assignee", null), candidateFilter);
+            }
+            filters.add(Filters.or(Filters.eq("assignee", userId), candidateFilter));
+        }
+        if (taskQuery.getInvolvedUser() != null) {
+            String userId = taskQuery.getInvolvedUser();
+            filters.add(Filters.or(
+                    Filters.eq("assignee", userId),
+                    Filters.eq("owner", userId),
+                    createIdentityLinkFilter(null, userId, null)
+            ));
+        }
+        if (taskQuery.getInvolvedGroups() != null) {
+            filters.add(createIdentityLinkFilter(null, null, taskQuery.getInvolvedGroups()));
+        }
+
+        if (taskQuery.getProcessInstanceId() != null) {
+            filters.add(Filters.eq("processInstanceId", taskQuery.getProcessInstanceId()));
+        }
+        if (taskQuery.getProcessInstanceIds() != null) {
+            filters.add(Filters.in("processInstanceId", taskQuery.getProcessInstanceIds()));
+        }
+        if (taskQuery.isWithoutProcessInstanceId()) {
+            filters.add(Filters.eq("processInstanceId", null));
+        }
+        if (taskQuery.getExecutionId() != null) {
+            filters.add(Filters.eq("executionId", taskQuery.getExecutionId()));
+        }
+        if (taskQuery.getProcessDefinitionId() != null) {
+            filters.add(Filters.eq("processDefinitionId", taskQuery.getProcessDefinitionId()));
+        }
+        if (taskQuery.getProcessInstanceBusinessKey() != null) {
+            filters.add(Filters.in("processInstanceId", findProcessInstanceIds(Filters.eq("businessKey", taskQuery.getProcessInstanceBusinessKey()))));
+        }
+        if (taskQuery.getProcessInstanceBusinessKeyLike() != null) {
+            filters.add(Filters.in("processInstanceId", findProcessInstanceIds(createLikeFilter("businessKey", taskQuery.getProcessInstanceBusinessKeyLike(), false))));
+        }
+        if (taskQuery.getProcessInstanceBusinessKeyLikeIgnoreCase() != null) {
+            filters.add(Filters.in("processInstanceId", findProcessInstanceIds(createLikeFilter("businessKey", taskQuery.getProcessInstanceBusinessKeyLikeIgnoreCase(), true))));
+        }
+
+        List<Bson> processDefinitionFilters = createProcessDefinitionFilters(taskQuery);
+        if (!processDefinitionFilters.isEmpty()) {
+            filters.add(Filters.in("processDefinitionId", findProcessDefinitionIds(Filters.and(processDefinitionFilters))));
+        }
+
+        if (taskQuery.getScopeId() != null) {
+            filters.add(Filters.eq("scopeId", taskQuery.getScopeId()));
+        }
+        if (taskQuery.isWithoutScopeId()) {
+            filters.add(Filters.eq("scopeId", null));
+        }
+        if (taskQuery.getSubScopeId() != null) {
+            filters.add(Filters.eq("subScopeId", taskQuery.getSubScopeId()));
+        }
+        if (taskQuery.getScopeType() != null) {
+            filters.add(Filters.eq("scopeType", taskQuery.getScopeType()));
+        }
+        if (taskQuery.getScopeDefinitionId() != null) {
+            filters.add(Filters.eq("scopeDefinitionId", taskQuery.getScopeDefinitionId()));
+        }
+
+        if (taskQuery.getCreateTime() != null) {
+            filters.add(Filters.eq("createTime", taskQuery.getCreateTime()));
+        }
+        if (taskQuery.getCreateTimeBefore() != null) {
+            filters.add(Filters.lt("createTime", taskQuery.getCreateTimeBefore()));
+        }
+        if (taskQuery.getCreateTimeAfter() != null) {
+            filters.add(Filters.gt("createTime", taskQuery.getCreateTimeAfter()));
+        }
+        if (taskQuery.getDueDate() != null) {
+            filters.add(Filters.eq("dueDate", taskQuery.getDueDate()));
+        }
+        if (taskQuery.getDueBefore() != null) {
+            filters.add(Filters.lt("dueDate", taskQuery.getDueBefore()));
+        }
+        if (taskQuery.getDueAfter() != null) {
+            filters.add(Filters.gt("dueDate", taskQuery.getDueAfter()));
+        }
+        if (taskQuery.isWithoutDueDate()) {
+            filters.add(Filters.eq("dueDate", null));
+        }
+
+        if (taskQuery.getTaskDefinitionId() != null) {
+            filters.add(Filters.eq("taskDefinitionId", taskQuery.getTaskDefinitionId()));
+        }
+        if (taskQuery.getKey() != null) {
+            filters.add(Filters.eq("taskDefinitionKey", taskQuery.getKey()));
+        }
+        if (taskQuery.getKeyLike() != null) {
+            filters.add(createLikeFilter("taskDefinitionKey", taskQuery.getKeyLike(), false));
+        }
+        if (taskQuery.getKeys() != null) {
+            filters.add(Filters.in("taskDefinitionKey", taskQuery.getKeys()));
+        }
+        if (taskQuery.getCategory() != null) {
+            filters.add(Filters.eq("category", taskQuery.getCategory()));
+        }
+        if (taskQuery.getCategoryInList() != null) {
+            filters.add(Filters.in("category", taskQuery.getCategoryInList()));
+        }
+        if (taskQuery.getCategoryNotInList() != null) {
+            filters.add(Filters.nin("category", taskQuery.getCategoryNotInList()));
+        }
+        if (taskQuery.isWithoutCategory()) {
+            filters.add(Filters.eq("category", null));
+        }
+        if (taskQuery.getFormKey() != null) {
+            filters.add(Filters.eq("formKey", taskQuery.getFormKey()));
+        }
+        if (taskQuery.isWithFormKey()) {
+            filters.add(Filters.ne("formKey", null));
+        }
+        if (taskQuery.getSuspensionState() != null) {
+            filters.add(Filters.eq("suspensionState", taskQuery.getSuspensionState().getStateCode()));
+        }
+        if (taskQuery.getExcludeSubtasks()) {
+            filters.add(Filters.eq("parentTaskId", null));
+        }
+
+        if (taskQuery.getTenantId() != null) {
+            filters.add(Filters.eq("tenantId", taskQuery.getTenantId()));
+        }
+        if (taskQuery.getTenantIdLike() != null) {
+            filters.add(createLikeFilter("tenantId", taskQuery.getTenantIdLike(), false));
+        }
+        if (taskQuery.isWithoutTenantId()) {
+            filters.add(Filters.or(Filters.eq("tenantId", ProcessEngineConfiguration.NO_TENANT_ID), Filters.eq("tenantId", null)));
+        }
+
+        return filters;
+    }
+
+    /**
+     * The criteria on the process definition of the task, which need to be resolved to process definition ids first.
+     */
+    protected List<Bson> createProcessDefinitionFilters(TaskQueryImpl taskQuery) {
+        List<Bson> filters = new ArrayList<>();
+        if (taskQuery.getProcessDefinitionKey() != null) {
+            filters.add(Filters.eq("key", taskQuery.getProcessDefinitionKey()));
+        }
+        if (taskQuery.getProcessDefinitionKeyLike() != null) {
+            filters.add(createLikeFilter("key", taskQuery.getProcessDefinitionKeyLike(), false));
+        }
+        if (taskQuery.getProcessDefinitionKeyLikeIgnoreCase() != null) {
+            filters.add(createLikeFilter("key", taskQuery.getProcessDefinitionKeyLikeIgnoreCase(), true));
+        }
+        if (taskQuery.getProcessDefinitionKeys() != null) {
+            filters.add(Filters.in("key", taskQuery.getProcessDefinitionKeys()));
+        }
+        if (taskQuery.getProcessDefinitionName() != null) {
+            filters.add(Filters.eq("name", taskQuery.getProcessDefinitionName()));
+        }
+        if (taskQuery.getProcessDefinitionNameLike() != null) {
+            filters.add(createLikeFilter("name", taskQuery.getProcessDefinitionNameLike(), false));
+        }
+        if (taskQuery.getProcessCategoryInList() != null) {
+            filters.add(Filters.in("category", taskQuery.getProcessCategoryInList()));
+        }
+        if (taskQuery.getProcessCategoryNotInList() != null) {
+            filters.add(Filters.nin("category", taskQuery.getProcessCategoryNotInList()));
+        }
+        if (taskQuery.getDeploymentId() != null) {
+            filters.add(Filters.eq("deploymentId", taskQuery.getDeploymentId()));
+        }
+        if (taskQuery.getDeploymentIds() != null) {
+            filters.add(Filters.in("deploymentId", taskQuery.getDeploymentIds()));
+        }
+        return filters;
+    }
+
+    /**
+     * Matches the tasks having an identity link (of the given type, if any) for the user or one of the groups,
+     * on the identity link arrays of the task document. Without a type, the values are matched on their "id\u001F" prefix.
+     */
+    protected Bson createIdentityLinkFilter(String type, String userId, Collection<String> groupIds) {
+        List<Bson> userOrGroupFilters = new ArrayList<>();
+        if (userId != null) {
+            userOrGroupFilters.add(createIdentityLinkArrayFilter(IDENTITY_LINK_USERS, type, Collections.singletonList(userId)));
+        }
+        if (groupIds != null && !groupIds.isEmpty()) {
+            userOrGroupFilters.add(createIdentityLinkArrayFilter(IDENTITY_LINK_GROUPS, type, groupIds));
+        }
+
+        if (userOrGroupFilters.isEmpty()) {
+            // Matches no task, like an empty list of candidate groups does
+            return Filters.in("_id", Collections.emptyList());
+        }
+        return userOrGroupFilters.size() == 1 ? userOrGroupFilters.get(0) : Filters.or(userOrGroupFilters);
+    }
+
+    protected Bson createIdentityLinkArrayFilter(String field, String type, Collection<String> ids) {
+        List<Object> values = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (type != null) {
+                values.add(getIdentityLinkValue(id, type));
+            } else {
+                values.add(Pattern.compile("^" + Pattern.quote(id + IDENTITY_LINK_TYPE_SEPARATOR)));
+            }
+        }
+        return values.size() == 1 ? Filters.eq(field, values.get(0)) : Filters.in(field, values);
+    }
+
+    /**
+     * The value of a user or group of an identity link in the {@link #IDENTITY_LINK_USERS} or {@link #IDENTITY_LINK_GROUPS} array.
+     */
+    public static String getIdentityLinkValue(String userOrGroupId, String type) {
+        return userOrGroupId + IDENTITY_LINK_TYPE_SEPARATOR + type;
+    }
+
+    protected List<String> findProcessDefinitionIds(Bson processDefinitionFilter) {
+        return findIds(MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS, processDefinitionFilter);
+    }
+
+    protected List<String> findProcessInstanceIds(Bson processInstanceFilter) {
+        return findIds(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, Filters.and(Filters.eq("parentId", null), processInstanceFilter));
     }
 
-    protected Bson createSort(TaskQueryImpl taskQuery) {
-        List<Bson> bsonSorts = new ArrayList<>();
-//        for (Map.Entry<String, Boolean> entry : taskQuery.getOrderByColumnMap().entrySet()) {
-//            String column = entry.getKey();
-//            boolean ascending = entry.getValue();
-//
-//            String columnName = null;
-//            if (TaskQueryProperty.NAME.getName().equals(column)) {
-//                columnName = "name";
-//            }
-//
-//            if (columnName != null) {
-//                bsonSorts.add(ascending ? Sorts.ascending(columnName) : Sorts.descending(columnName));
-//            }
-//        }
-        return bsonSorts.isEmpty() ? null : Sorts.orderBy(bsonSorts);
+    protected List<String> findIds(String collection, Bson filter) {
+        return getMongoDbSession().findIds(collection, filter);
     }
 }
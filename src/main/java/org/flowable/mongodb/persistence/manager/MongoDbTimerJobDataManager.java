@@ -30,9 +30,9 @@ import org.flowable.job.service.impl.persistence.entity.data.TimerJobDataManager
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.Sorts;
 
-public class MongoDbTimerJobDataManager extends AbstractMongoDbDataManager<TimerJobEntity> implements TimerJobDataManager {
+public class MongoDbTimerJobDataManager extends AbstractMongoDbJobDataManager<TimerJobEntity> implements TimerJobDataManager {
 
     public static final String COLLECTION_TIMER_JOBS = "timerJobs";
 
@@ -54,24 +54,7 @@ public class MongoDbTimerJobDataManager extends AbstractMongoDbDataManager<Timer
 
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
-        TimerJobEntity jobEntity = (TimerJobEntity) entity;
-        BasicDBObject updateObject = new BasicDBObject();
-
-        updateObject.append("retries", jobEntity.getRetries());
-        if (jobEntity.getExceptionMessage() != null) {
-            updateObject.append("exceptionMessage", jobEntity.getExceptionMessage());
-        }
-        if (jobEntity.getLockOwner() != null) {
-            updateObject.append("lockOwner", jobEntity.getLockOwner());
-        }
-        if (jobEntity.getLockExpirationTime() != null) {
-            updateObject.append("lockExpirationTime", jobEntity.getLockExpirationTime());
-        }
-        if (jobEntity.getDuedate() != null) {
-            updateObject.append("duedate", jobEntity.getDuedate());
-        }
-
-        return updateObject;
+        return createUpdateObjectFromPersistentState(entity, JOB_UPDATE_FIELDS);
     }
 
     @Override
@@ -120,25 +103,36 @@ public class MongoDbTimerJobDataManager extends AbstractMongoDbDataManager<Timer
         return getMongoDbSession().find(COLLECTION_TIMER_JOBS, filter);
     }
 
+    /**
+     * Returns the oldest due timers first, so overdue timers are never left behind newer ones.
+     * Backed by the (scopeType, lockOwner, duedate) index.
+     */
     @Override
     public List<TimerJobEntity> findJobsToExecute(List<String> enabledCategories, Page page) {
         List<Bson> filterParts = new ArrayList<>();
+        addJobExecutionScopeFilter(filterParts);
+        filterParts.add(Filters.eq("lockOwner", null));
+        filterParts.add(Filters.lte("duedate", jobServiceConfiguration.getClock().getCurrentTime()));
+        addCategoryFilter(filterParts, enabledCategories);
 
+        int skip = page != null ? page.getFirstResult() : 0;
+        int limit = page != null ? page.getMaxResults() : 100;
+
+        return getMongoDbSession().find(COLLECTION_TIMER_JOBS, Filters.and(filterParts), Sorts.ascending("duedate"), skip, limit);
+    }
+
+    protected void addJobExecutionScopeFilter(List<Bson> filterParts) {
         if (jobServiceConfiguration.getJobExecutionScope() == null) {
             filterParts.add(Filters.eq("scopeType", null));
         } else if (!"all".equals(jobServiceConfiguration.getJobExecutionScope())) {
             filterParts.add(Filters.eq("scopeType", jobServiceConfiguration.getJobExecutionScope()));
         }
+    }
 
-        filterParts.add(Filters.lte("duedate", jobServiceConfiguration.getClock().getCurrentTime()));
-        filterParts.add(Filters.eq("lockOwner", null));
-
-        Bson filter = Filters.and(filterParts);
-
-        int skip = page != null ? page.getFirstResult() : 0;
-        int limit = page != null ? page.getMaxResults() : 100;
-
-        return getMongoDbSession().find(COLLECTION_TIMER_JOBS, filter, null, limit);
+    protected void addCategoryFilter(List<Bson> filterParts, List<String> enabledCategories) {
+        if (enabledCategories != null && !enabledCategories.isEmpty()) {
+            filterParts.add(Filters.in("category", enabledCategories));
+        }
     }
 
     @Override
@@ -148,22 +142,32 @@ public class MongoDbTimerJobDataManager extends AbstractMongoDbDataManager<Timer
 
     @Override
     public List<TimerJobEntity> findJobsByProcessInstanceId(String processInstanceId) {
-        return getMongoDbSession().find(COLLECTION_TIMER_JOBS, Filters.eq("processInstanceId", processInstanceId));
+        List<TimerJobEntity> timerJobs = getMongoDbSession().find(COLLECTION_TIMER_JOBS, Filters.eq("processInstanceId", processInstanceId));
+        prefetchReferencedIds(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, timerJobs, TimerJobEntity::getExecutionId);
+        return timerJobs;
     }
 
     @Override
     public List<TimerJobEntity> findExpiredJobs(List<String> enabledCategories, Page page) {
-        Bson filter = Filters.lte("duedate", jobServiceConfiguration.getClock().getCurrentTime());
-
         int skip = page != null ? page.getFirstResult() : 0;
         int limit = page != null ? page.getMaxResults() : 100;
 
-        return getMongoDbSession().find(COLLECTION_TIMER_JOBS, filter, null, limit);
+        return getMongoDbSession().find(COLLECTION_TIMER_JOBS, createExpiredJobsFilter(enabledCategories), Sorts.ascending("lockExpirationTime"), skip, limit);
+    }
+
+    @Override
+    protected Bson createExpiredJobsFilter(List<String> enabledCategories) {
+        // Expired means the lock expired: the timer was acquired, but never moved to an executable job
+        List<Bson> filterParts = new ArrayList<>();
+        addJobExecutionScopeFilter(filterParts);
+        filterParts.add(Filters.lt("lockExpirationTime", jobServiceConfiguration.getClock().getCurrentTime()));
+        addCategoryFilter(filterParts, enabledCategories);
+        return Filters.and(filterParts);
     }
 
     @Override
     public List<Job> findJobsByQueryCriteria(TimerJobQueryImpl timerJobQuery) {
-        return new ArrayList<>(getMongoDbSession().find(COLLECTION_TIMER_JOBS, createFilter(timerJobQuery)));
+        return new ArrayList<>(findByQuery(createFilter(timerJobQuery), timerJobQuery, JOB_ORDER_BY_FIELDS));
     }
 
     @Override
@@ -208,24 +212,15 @@ public class MongoDbTimerJobDataManager extends AbstractMongoDbDataManager<Timer
     @Override
     public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
         Bson filter = Filters.eq("deploymentId", deploymentId);
-        Bson update = Updates.set("tenantId", newTenantId);
-        getMongoDbSession().bulkUpdate(COLLECTION_TIMER_JOBS, filter, update);
+        getMongoDbSession().bulkUpdate(COLLECTION_TIMER_JOBS, filter, new BasicDBObject("tenantId", newTenantId));
     }
 
+    /**
+     * Only locks the jobs that aren't locked or of which the lock has expired: the other jobs are removed from the passed list,
+     * which thus needs to be modifiable. See {@link #bulkLockJobs(List, String, Date)}.
+     */
     @Override
     public void bulkUpdateJobLockWithoutRevisionCheck(List<TimerJobEntity> jobEntities, String lockOwner, Date lockExpirationTime) {
-        jobEntities.forEach(jobEntity -> {
-            getMongoDbSession().update(jobEntity);
-        });
-    }
-
-    @Override
-    public void resetExpiredJob(String jobId) {
-        Bson filter = Filters.eq("_id", jobId);
-        Bson update = Updates.combine(
-                Updates.set("lockOwner", null),
-                Updates.set("lockExpirationTime", null)
-        );
-        getMongoDbSession().updateOne(COLLECTION_TIMER_JOBS, filter, update);
+        bulkLockJobs(jobEntities, lockOwner, lockExpirationTime);
     }
 }
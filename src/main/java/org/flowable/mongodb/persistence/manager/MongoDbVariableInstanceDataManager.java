@@ -6,9 +6,13 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.flowable.common.engine.api.FlowableIllegalArgumentException;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.mongodb.persistence.MongoDbSession;
+import org.flowable.mongodb.persistence.aggregate.MongoDbColocatedEntities;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
 import org.flowable.variable.api.persistence.entity.VariableInstance;
 import org.flowable.variable.service.impl.InternalVariableInstanceQueryImpl;
 import org.flowable.variable.service.impl.VariableInstanceQueryImpl;
+import org.flowable.variable.service.impl.VariableInstanceQueryProperty;
 import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntity;
 import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntityImpl;
 import org.flowable.variable.service.impl.persistence.entity.data.VariableInstanceDataManager;
@@ -21,6 +25,14 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
 
     public static final String COLLECTION_VARIABLES = "variables";
 
+    protected static final Map<String, String> ORDER_BY_FIELDS = new HashMap<>();
+
+    static {
+        ORDER_BY_FIELDS.put(VariableInstanceQueryProperty.PROCESS_INSTANCE_ID.getName(), "processInstanceId");
+        ORDER_BY_FIELDS.put(VariableInstanceQueryProperty.SCOPE_ID.getName(), "scopeId");
+        ORDER_BY_FIELDS.put(VariableInstanceQueryProperty.VARIABLE_NAME.getName(), "name");
+    }
+
     protected VariableInstanceByExecutionIdMatcher variableInstanceByExecutionIdMatcher = new VariableInstanceByExecutionIdMatcher();
 
     @Override
@@ -30,15 +42,15 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
 
     @Override
     public VariableInstanceEntity create() {
-        return new VariableInstanceEntityImpl();
+        return new MongoDbVariableInstanceEntityImpl();
     }
 
     @Override
     public BasicDBObject createUpdateObject(Entity entity) {
         VariableInstanceEntity variableEntity = (VariableInstanceEntity) entity;
         BasicDBObject updateObject = null;
-        updateObject = setUpdateProperty(variableEntity, "textValue", variableEntity.getTextValue(), updateObject);
-        updateObject = setUpdateProperty(variableEntity, "textValue2", variableEntity.getTextValue2(), updateObject);
+        updateObject = setCompressedUpdateProperty(variableEntity, "textValue", variableEntity.getTextValue(), updateObject);
+        updateObject = setCompressedUpdateProperty(variableEntity, "textValue2", variableEntity.getTextValue2(), updateObject);
         updateObject = setUpdateProperty(variableEntity, "doubleValue", variableEntity.getDoubleValue(), updateObject);
         updateObject = setUpdateProperty(variableEntity, "longValue", variableEntity.getLongValue(), updateObject);
         updateObject = setUpdateProperty(variableEntity, "typeName", variableEntity.getTypeName(), updateObject);
@@ -49,7 +61,103 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
     public List<VariableInstanceEntity> findVariablesInstancesByQuery(InternalVariableInstanceQueryImpl query) {
         Bson filter=createFilter(query);
 
-        return getMongoDbSession().find(COLLECTION_VARIABLES, filter);
+        if (!isColocated()) {
+            return getMongoDbSession().find(COLLECTION_VARIABLES, filter);
+        }
+
+        if (isLoadedWithOwners(query)) {
+            return getMongoDbSession().findFromCache(query, query, MongoDbVariableInstanceEntityImpl.class);
+        }
+
+        List<VariableInstanceEntity> variables = new ArrayList<>(getMongoDbSession().find(COLLECTION_VARIABLES, filter));
+        if (query.getScopeId() == null && query.getScopeIds() == null && query.getSubScopeId() == null && query.getSubScopeIds() == null) {
+            variables.addAll(findColocatedVariables(createColocatedExecutionFilter(query), createColocatedTaskFilter(query)));
+        }
+        variables.removeIf(variable -> !query.isRetained(variable, query));
+        return variables;
+    }
+
+    /**
+     * Whether the variables of the execution(s) or task(s) of the query are all in the entity cache,
+     * as they're stored in the documents of executions or tasks that were read or created in this session.
+     */
+    protected boolean isLoadedWithOwners(InternalVariableInstanceQueryImpl query) {
+        if (query.getTaskId() != null) {
+            return getMongoDbSession().isColocatedOwnerLoaded(query.getTaskId());
+        } else if (query.getTaskIds() != null) {
+            return !query.getTaskIds().isEmpty() && query.getTaskIds().stream().allMatch(getMongoDbSession()::isColocatedOwnerLoaded);
+        } else if (query.getExecutionId() != null && query.isWithoutTaskId()) {
+            return getMongoDbSession().isColocatedOwnerLoaded(query.getExecutionId());
+        } else if (query.getExecutionIds() != null && query.isWithoutTaskId()) {
+            return !query.getExecutionIds().isEmpty() && query.getExecutionIds().stream().allMatch(getMongoDbSession()::isColocatedOwnerLoaded);
+        }
+        return false;
+    }
+
+    /**
+     * The filter on the execution documents that can hold variables matching the query, or null when none can.
+     * Variables of a task are stored in the task document.
+     */
+    protected Bson createColocatedExecutionFilter(InternalVariableInstanceQueryImpl query) {
+        if (query.getTaskId() != null || query.getTaskIds() != null) {
+            return null;
+        } else if (query.getExecutionId() != null) {
+            return Filters.eq("_id", query.getExecutionId());
+        } else if (query.getExecutionIds() != null) {
+            return Filters.in("_id", query.getExecutionIds());
+        } else if (query.getProcessInstanceId() != null) {
+            return Filters.eq("processInstanceId", query.getProcessInstanceId());
+        } else if (query.getId() != null) {
+            return Filters.exists(getColocatedVariables().getPath(query.getId()));
+        }
+        return new Document();
+    }
+
+    /**
+     * The filter on the task documents that can hold variables matching the query, or null when none can.
+     */
+    protected Bson createColocatedTaskFilter(InternalVariableInstanceQueryImpl query) {
+        if (query.isWithoutTaskId()) {
+            return null;
+        } else if (query.getTaskId() != null) {
+            return Filters.eq("_id", query.getTaskId());
+        } else if (query.getTaskIds() != null) {
+            return Filters.in("_id", query.getTaskIds());
+        } else if (query.getExecutionId() != null) {
+            return Filters.eq("executionId", query.getExecutionId());
+        } else if (query.getExecutionIds() != null) {
+            return Filters.in("executionId", query.getExecutionIds());
+        } else if (query.getProcessInstanceId() != null) {
+            return Filters.eq("processInstanceId", query.getProcessInstanceId());
+        } else if (query.getId() != null) {
+            return Filters.exists(getColocatedVariables().getPath(query.getId()));
+        }
+        return new Document();
+    }
+
+    /**
+     * Finds the variables stored in the execution and task documents matching the given filters. A null filter skips the collection.
+     */
+    protected <T> List<T> findColocatedVariables(Bson executionFilter, Bson taskFilter) {
+        List<T> variables = new ArrayList<>();
+        if (executionFilter != null) {
+            variables.addAll(getMongoDbSession().findColocated(COLLECTION_VARIABLES, MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, executionFilter));
+        }
+        if (taskFilter != null) {
+            variables.addAll(getMongoDbSession().findColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS, taskFilter));
+        }
+        return variables;
+    }
+
+    /**
+     * Whether variables are stored in the document of their execution or task, see {@link MongoDbColocatedEntities}.
+     */
+    protected boolean isColocated() {
+        return getColocatedVariables() != null;
+    }
+
+    protected MongoDbColocatedEntities getColocatedVariables() {
+        return getMongoDbSession().getMongoDbSessionFactory().getColocatedEntities(COLLECTION_VARIABLES);
     }
 
     private Bson createFilter(InternalVariableInstanceQueryImpl query) {
@@ -103,12 +211,76 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
 
     @Override
     public long findVariableInstanceCountByQueryCriteria(VariableInstanceQueryImpl variableInstanceQuery) {
-        return getMongoDbSession().count(COLLECTION_VARIABLES,createFilter(variableInstanceQuery));
+        long count = getMongoDbSession().count(COLLECTION_VARIABLES,createFilter(variableInstanceQuery));
+        if (isColocated()) {
+            count += countColocatedVariables(variableInstanceQuery);
+        }
+        return count;
     }
 
     @Override
     public List<VariableInstance> findVariableInstancesByQueryCriteria(VariableInstanceQueryImpl variableInstanceQuery) {
-        return getMongoDbSession().find(COLLECTION_VARIABLES, createFilter(variableInstanceQuery));
+        Bson filter = createFilter(variableInstanceQuery);
+        if (!isColocated()) {
+            return findByQuery(filter, variableInstanceQuery, ORDER_BY_FIELDS);
+        }
+
+        // Every source returns its first variables up to the end of the page, of which the page is taken after merging them
+        LinkedHashMap<String, Boolean> sortKeys = createSortKeys(variableInstanceQuery, ORDER_BY_FIELDS);
+        Bson sort = createSort(sortKeys);
+        int limit = getMergedPageLimit(variableInstanceQuery);
+        List<VariableInstance> variables = new ArrayList<>(getMongoDbSession().find(COLLECTION_VARIABLES, filter, sort, 0, limit));
+        variables.addAll(findColocatedVariables(variableInstanceQuery, filter, sort, limit));
+        return getMergedPage(variables, variableInstanceQuery, sortKeys);
+    }
+
+    /**
+     * The first (limit) variables in the sort order that are stored in execution and task documents and match the variable filter
+     * (see {@link #createFilter(VariableInstanceQueryImpl)}).
+     */
+    protected List<VariableInstance> findColocatedVariables(VariableInstanceQueryImpl query, Bson variableFilter, Bson sort, int limit) {
+        if (query.getScopeId() != null && query.getScopeType() != null) {
+            return new ArrayList<>();
+        }
+
+        MongoDbSession mongoDbSession = getMongoDbSession();
+        List<VariableInstance> variables = new ArrayList<>();
+        if (query.getTaskId() != null) {
+            variables.addAll(mongoDbSession.findColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS,
+                    Filters.eq("_id", query.getTaskId()), variableFilter, sort, limit));
+
+        } else {
+            Bson executionFilter = query.getExecutionId() != null ? Filters.eq("_id", query.getExecutionId()) : null;
+            Bson taskFilter = query.getExecutionId() != null ? Filters.eq("executionId", query.getExecutionId()) : null;
+            variables.addAll(mongoDbSession.findColocated(COLLECTION_VARIABLES, MongoDbExecutionDataManager.COLLECTION_EXECUTIONS,
+                    executionFilter, variableFilter, sort, limit));
+            variables.addAll(mongoDbSession.findColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS,
+                    taskFilter, variableFilter, sort, limit));
+        }
+        return variables;
+    }
+
+    /**
+     * Counts the variables stored in execution and task documents on the server, with the same criteria as {@link #findColocatedVariables(VariableInstanceQueryImpl, Bson, Bson, int)}.
+     */
+    protected long countColocatedVariables(VariableInstanceQueryImpl query) {
+        if (query.getScopeId() != null && query.getScopeType() != null) {
+            return 0L;
+        }
+
+        MongoDbSession mongoDbSession = getMongoDbSession();
+        if (query.getTaskId() != null) {
+            Bson variableFilter = query.getExecutionId() != null ? Filters.eq("executionId", query.getExecutionId()) : null;
+            return mongoDbSession.countColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS, Filters.eq("_id", query.getTaskId()), variableFilter);
+
+        } else if (query.getExecutionId() != null) {
+            Bson variableFilter = Filters.eq("executionId", query.getExecutionId());
+            return mongoDbSession.countColocated(COLLECTION_VARIABLES, MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, Filters.eq("_id", query.getExecutionId()), variableFilter)
+                    + mongoDbSession.countColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS, variableFilter, variableFilter);
+        }
+
+        return mongoDbSession.countColocated(COLLECTION_VARIABLES, MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, null, null)
+                + mongoDbSession.countColocated(COLLECTION_VARIABLES, MongoDbTaskDataManager.COLLECTION_TASKS, null, null);
     }
 
     @Override
@@ -126,11 +298,38 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
     public void deleteVariablesByTaskId(String taskId) {
         Bson filter = Filters.eq("taskId", taskId);
         getMongoDbSession().bulkDelete(COLLECTION_VARIABLES, filter);
+
+        if (isColocated()) {
+            InternalVariableInstanceQueryImpl query = new InternalVariableInstanceQueryImpl(this);
+            query.taskId(taskId);
+            List<VariableInstanceEntity> variables = isLoadedWithOwners(query)
+                    ? getMongoDbSession().findFromCache(query, query, MongoDbVariableInstanceEntityImpl.class)
+                    : findColocatedVariables(null, Filters.eq("_id", taskId));
+            for (VariableInstanceEntity variable : variables) {
+                getMongoDbSession().delete(COLLECTION_VARIABLES, variable);
+            }
+        }
     }
 
     protected List<VariableInstanceEntity> findVariableInstancesByExecutionId(String executionId) {
-        return getMongoDbSession().find(COLLECTION_VARIABLES, Filters.eq("executionId", executionId), executionId,
-                VariableInstanceEntityImpl.class, variableInstanceByExecutionIdMatcher, true);
+        List<VariableInstanceEntity> variables = getMongoDbSession().find(COLLECTION_VARIABLES, Filters.eq("executionId", executionId), executionId,
+                MongoDbVariableInstanceEntityImpl.class, variableInstanceByExecutionIdMatcher, true);
+
+        if (isColocated()) {
+            Map<String, VariableInstanceEntity> variablesById = new LinkedHashMap<>();
+            for (VariableInstanceEntity variable : variables) {
+                variablesById.put(variable.getId(), variable);
+            }
+            // The variables of a loaded execution are in the cache, but the ones of its tasks might not be
+            Bson executionFilter = getMongoDbSession().isColocatedOwnerLoaded(executionId) ? null : Filters.eq("_id", executionId);
+            for (VariableInstanceEntity variable : this.<VariableInstanceEntity>findColocatedVariables(executionFilter, Filters.eq("executionId", executionId))) {
+                if (!getMongoDbSession().isEntityToBeDeleted(variable)) {
+                    variablesById.putIfAbsent(variable.getId(), variable);
+                }
+            }
+            variables = new ArrayList<>(variablesById.values());
+        }
+        return variables;
     }
 
     @Override
@@ -168,7 +367,7 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
     }
 
     public VariableInstanceEntityImpl transformToEntity(Document document) {
-        VariableInstanceEntityImpl variable = new VariableInstanceEntityImpl();
+        VariableInstanceEntityImpl variable = new MongoDbVariableInstanceEntityImpl();
         variable.setId(document.getString("_id"));
         variable.setName(document.getString("name"));
         variable.setTaskId(document.getString("taskId"));
@@ -178,8 +377,8 @@ public class MongoDbVariableInstanceDataManager extends AbstractMongoDbDataManag
         variable.setSubScopeId(document.getString("subScopeId"));
         variable.setScopeType(document.getString("scopeType"));
         variable.setTypeName(document.getString("typeName"));
-        variable.setTextValue(document.getString("textValue"));
-        variable.setTextValue2(document.getString("textValue2"));
+        variable.setTextValue(getPayloadCompression().getString(document.get("textValue")));
+        variable.setTextValue2(getPayloadCompression().getString(document.get("textValue2")));
         variable.setDoubleValue(document.getDouble("doubleValue"));
         variable.setLongValue(document.getLong("longValue"));
         return variable;
@@ -15,14 +15,18 @@ package org.flowable.mongodb.persistence.mapper;
 import java.util.Date;
 
 import org.bson.Document;
+import org.bson.types.Binary;
 import org.flowable.common.engine.impl.persistence.entity.Entity;
 import org.flowable.mongodb.persistence.EntityToDocumentMapper;
+import org.flowable.mongodb.persistence.compression.MongoDbPayloadCompression;
 
 /**
  * @author Joram Barrez
  */
 public abstract class AbstractEntityToDocumentMapper<T extends Entity> implements EntityToDocumentMapper<T> {
 
+    protected MongoDbPayloadCompression payloadCompression;
+
     protected void appendIfNotNull(Document document, String field, String value) {
         if (value != null) {
             document.append(field, value);
@@ -65,4 +69,45 @@ public abstract class AbstractEntityToDocumentMapper<T extends Entity> implement
         }
     }
 
+    /**
+     * Appends the value compressed when it is large enough, see {@link MongoDbPayloadCompression}.
+     */
+    protected void appendCompressedIfNotNull(Document document, String field, String value) {
+        if (value != null) {
+            document.append(field, payloadCompression != null ? payloadCompression.compress(value) : value);
+        }
+    }
+
+    protected void appendCompressedIfNotNull(Document document, String field, byte[] value) {
+        if (value != null) {
+            document.append(field, payloadCompression != null ? payloadCompression.compress(value) : value);
+        }
+    }
+
+    /**
+     * Reads a text field that is possibly compressed.
+     */
+    protected String getCompressedString(Document document, String field) {
+        return payloadCompression != null ? payloadCompression.getString(document.get(field)) : document.getString(field);
+    }
+
+    /**
+     * Reads a binary field that is possibly compressed.
+     */
+    protected byte[] getCompressedBytes(Document document, String field) {
+        if (payloadCompression != null) {
+            return payloadCompression.getBytes(document.get(field));
+        }
+        Binary binary = (Binary) document.get(field);
+        return binary != null ? binary.getData() : null;
+    }
+
+    public MongoDbPayloadCompression getPayloadCompression() {
+        return payloadCompression;
+    }
+
+    public void setPayloadCompression(MongoDbPayloadCompression payloadCompression) {
+        this.payloadCompression = payloadCompression;
+    }
+
 }
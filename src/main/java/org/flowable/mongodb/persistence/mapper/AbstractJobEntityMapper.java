@@ -39,6 +39,7 @@ public abstract class AbstractJobEntityMapper<T extends Entity> extends Abstract
         jobEntity.setScopeType(document.getString("scopeType"));
         jobEntity.setSubScopeId(document.getString("subScopeId"));
         jobEntity.setTenantId(document.getString("tenantId"));
+        jobEntity.setCategory(document.getString("category"));
     }
     
     public Document copyJobInfoToDocument(AbstractRuntimeJobEntity jobEntity) {
@@ -63,6 +64,7 @@ public abstract class AbstractJobEntityMapper<T extends Entity> extends Abstract
         appendIfNotNull(jobDocument, "scopeType", jobEntity.getScopeType());
         appendIfNotNull(jobDocument, "subScopeId", jobEntity.getSubScopeId());
         appendIfNotNull(jobDocument, "tenantId", jobEntity.getTenantId());
+        appendIfNotNull(jobDocument, "category", jobEntity.getCategory());
         return jobDocument;
     }
 
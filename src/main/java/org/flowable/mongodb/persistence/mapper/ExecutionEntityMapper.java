@@ -15,6 +15,7 @@ package org.flowable.mongodb.persistence.mapper;
 import org.bson.Document;
 import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
 import org.flowable.mongodb.persistence.EntityToDocumentMapper;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
 
 /**
  * @author Joram Barrez
@@ -23,7 +24,7 @@ public class ExecutionEntityMapper extends AbstractEntityToDocumentMapper<Execut
 
     @Override
     public ExecutionEntityImpl fromDocument(Document document) {
-        ExecutionEntityImpl executionEntity = new ExecutionEntityImpl();
+        ExecutionEntityImpl executionEntity = new MongoDbExecutionEntityImpl();
         executionEntity.setId(document.getString("_id"));
         executionEntity.setRevision(document.getInteger("revision"));
         executionEntity.setProcessInstanceId(document.getString("processInstanceId"));
@@ -44,7 +45,7 @@ public class ExecutionEntityMapper extends AbstractEntityToDocumentMapper<Execut
         executionEntity.setStartActivityId(document.getString("startActivityId"));
         executionEntity.setStartTime(document.getDate("startTime"));
         executionEntity.setStartUserId(document.getString("startUserId"));
-        executionEntity.setCallbackId(document.getString("callBackId"));
+        executionEntity.setCallbackId(document.getString("callbackId"));
         executionEntity.setCallbackType(document.getString("callbackType"));
 
         // Entity counts settings
@@ -38,11 +38,12 @@ public class HistoricDetailEntityMapper extends AbstractEntityToDocumentMapper<H
         if ("variableUpdate".equals(type)) {
             HistoricDetailVariableInstanceUpdateEntityImpl historicDetailVariableInstanceUpdateEntity = new HistoricDetailVariableInstanceUpdateEntityImpl();
             historicDetailVariableInstanceUpdateEntity.setName(document.getString("name"));
+            historicDetailVariableInstanceUpdateEntity.setRevision(document.getInteger("revision", 1));
             historicDetailVariableInstanceUpdateEntity.setVariableType(CommandContextUtil.getProcessEngineConfiguration().getVariableTypes()
                 .getVariableType(document.getString("typeName")));
             historicDetailVariableInstanceUpdateEntity.setDoubleValue(document.getDouble("doubleValue"));
-            historicDetailVariableInstanceUpdateEntity.setTextValue(document.getString("textValue"));
-            historicDetailVariableInstanceUpdateEntity.setTextValue2(document.getString("textValue2"));
+            historicDetailVariableInstanceUpdateEntity.setTextValue(getCompressedString(document, "textValue"));
+            historicDetailVariableInstanceUpdateEntity.setTextValue2(getCompressedString(document, "textValue2"));
             historicDetailVariableInstanceUpdateEntity.setLongValue(document.getLong("longValue"));
 
             // TODO: bytes
@@ -72,7 +73,7 @@ public class HistoricDetailEntityMapper extends AbstractEntityToDocumentMapper<H
 
     @Override
     public Document toDocument(HistoricDetailEntityImpl entity) {
-        // Note: no revision entity
+        // Note: only the variable update has a revision
         Document document = new Document();
         appendIfNotNull(document, "_id", entity.getId());
         appendIfNotNull(document, "processInstanceId", entity.getProcessInstanceId());
@@ -85,11 +86,12 @@ public class HistoricDetailEntityMapper extends AbstractEntityToDocumentMapper<H
             HistoricDetailVariableInstanceUpdateEntity variableInstanceUpdateEntity = (HistoricDetailVariableInstanceUpdateEntity) entity;
             appendIfNotNull(document, "type", "variableUpdate");
             appendIfNotNull(document, "name", variableInstanceUpdateEntity.getName());
+            appendIfNotNull(document, "revision", variableInstanceUpdateEntity.getRevision());
             appendIfNotNull(document, "variableType", variableInstanceUpdateEntity.getVariableType().getTypeName());
 //            appendIfNotNull(document, "byteArrayRef", variableInstanceUpdateEntity.getByteArrayRef() != null ? variableInstanceUpdateEntity.getByteArrayRef().getBytes() : null);
             appendIfNotNull(document, "doubleValue", variableInstanceUpdateEntity.getDoubleValue());
-            appendIfNotNull(document, "textValue", variableInstanceUpdateEntity.getTextValue());
-            appendIfNotNull(document, "textValue2", variableInstanceUpdateEntity.getTextValue2());
+            appendCompressedIfNotNull(document, "textValue", variableInstanceUpdateEntity.getTextValue());
+            appendCompressedIfNotNull(document, "textValue2", variableInstanceUpdateEntity.getTextValue2());
             appendIfNotNull(document, "longValue", variableInstanceUpdateEntity.getLongValue());
 
         } else if (entity instanceof HistoricFormPropertyEntity) {
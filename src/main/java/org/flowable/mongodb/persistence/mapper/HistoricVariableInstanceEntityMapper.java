@@ -38,8 +38,8 @@ public class HistoricVariableInstanceEntityMapper extends AbstractEntityToDocume
         variableEntity.setSubScopeId(document.getString("subScopeId"));
         variableEntity.setDoubleValue(document.getDouble("doubleValue"));
         variableEntity.setLongValue(document.getLong("longValue"));
-        variableEntity.setTextValue(document.getString("textValue"));
-        variableEntity.setTextValue2(document.getString("textValue2"));
+        variableEntity.setTextValue(getCompressedString(document, "textValue"));
+        variableEntity.setTextValue2(getCompressedString(document, "textValue2"));
         variableEntity.setVariableType(CommandContextUtil.getProcessEngineConfiguration().getVariableTypes()
                 .getVariableType(document.getString("typeName")));
         
@@ -62,8 +62,8 @@ public class HistoricVariableInstanceEntityMapper extends AbstractEntityToDocume
         appendIfNotNull(variableDocument, "scopeType", variableEntity.getScopeType());
         appendIfNotNull(variableDocument, "doubleValue", variableEntity.getDoubleValue());
         appendIfNotNull(variableDocument, "longValue", variableEntity.getLongValue());
-        appendIfNotNull(variableDocument, "textValue", variableEntity.getTextValue());
-        appendIfNotNull(variableDocument, "textValue2", variableEntity.getTextValue2());
+        appendCompressedIfNotNull(variableDocument, "textValue", variableEntity.getTextValue());
+        appendCompressedIfNotNull(variableDocument, "textValue2", variableEntity.getTextValue2());
         appendIfNotNull(variableDocument, "typeName", variableEntity.getVariableTypeName());
         
         return variableDocument;
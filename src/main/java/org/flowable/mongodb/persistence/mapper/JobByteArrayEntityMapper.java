@@ -13,8 +13,10 @@
 package org.flowable.mongodb.persistence.mapper;
 
 import org.bson.Document;
-import org.bson.types.Binary;
+import org.bson.types.ObjectId;
 import org.flowable.common.engine.impl.persistence.entity.ByteArrayEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbByteArrayEntityImpl;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
 
 /**
  * @author Joram Barrez
@@ -23,13 +25,18 @@ public class JobByteArrayEntityMapper extends AbstractJobEntityMapper<ByteArrayE
 
     @Override
     public ByteArrayEntityImpl fromDocument(Document document) {
-        ByteArrayEntityImpl jobByteArrayEntity = new ByteArrayEntityImpl();
+        MongoDbByteArrayEntityImpl jobByteArrayEntity = new MongoDbByteArrayEntityImpl();
         jobByteArrayEntity.setId(document.getString("_id"));
         jobByteArrayEntity.setName(document.getString("name"));
         jobByteArrayEntity.setDeploymentId(document.getString("deploymentId"));
+        jobByteArrayEntity.setRevision(document.getInteger("revision", 1));
 
-        Binary binary = (Binary) document.get("bytes");
-        jobByteArrayEntity.setBytes(binary.getData());
+        ObjectId gridFsId = MongoDbGridFsStorage.getReference(document, "bytes");
+        if (gridFsId != null) {
+            jobByteArrayEntity.setGridFsId(gridFsId);
+        } else {
+            jobByteArrayEntity.setBytes(getCompressedBytes(document, "bytes"));
+        }
         return jobByteArrayEntity;
     }
 
@@ -39,7 +46,8 @@ public class JobByteArrayEntityMapper extends AbstractJobEntityMapper<ByteArrayE
         appendIfNotNull(document, "_id", jobByteArrayEntity.getId());
         appendIfNotNull(document, "name", jobByteArrayEntity.getName());
         appendIfNotNull(document, "deploymentId", jobByteArrayEntity.getDeploymentId());
-        appendIfNotNull(document, "bytes", jobByteArrayEntity.getBytes());
+        appendIfNotNull(document, "revision", jobByteArrayEntity.getRevision());
+        appendCompressedIfNotNull(document, "bytes", jobByteArrayEntity.getBytes());
         return document;
     }
 
@@ -13,8 +13,10 @@
 package org.flowable.mongodb.persistence.mapper;
 
 import org.bson.Document;
-import org.bson.types.Binary;
+import org.bson.types.ObjectId;
 import org.flowable.engine.impl.persistence.entity.ResourceEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbResourceEntityImpl;
+import org.flowable.mongodb.persistence.gridfs.MongoDbGridFsStorage;
 
 /**
  * @author Joram Barrez
@@ -23,12 +25,16 @@ public class ResourceEntityMapper extends AbstractEntityToDocumentMapper<Resourc
 
     @Override
     public ResourceEntityImpl fromDocument(Document document) {
-        ResourceEntityImpl resourceEntity = new ResourceEntityImpl();
+        MongoDbResourceEntityImpl resourceEntity = new MongoDbResourceEntityImpl();
         resourceEntity.setId(document.getString("_id"));
         resourceEntity.setName(document.getString("name"));
 
-        Binary binary = (Binary) document.get("bytes");
-        resourceEntity.setBytes(binary.getData());
+        ObjectId gridFsId = MongoDbGridFsStorage.getReference(document, "bytes");
+        if (gridFsId != null) {
+            resourceEntity.setGridFsId(gridFsId);
+        } else {
+            resourceEntity.setBytes(getCompressedBytes(document, "bytes"));
+        }
 
         resourceEntity.setDeploymentId(document.getString("deploymentId"));
         resourceEntity.setGenerated(document.getBoolean("generated"));
@@ -41,7 +47,7 @@ public class ResourceEntityMapper extends AbstractEntityToDocumentMapper<Resourc
         Document resourceDocument = new Document();
         appendIfNotNull(resourceDocument, "_id", resourceEntity.getId());
         appendIfNotNull(resourceDocument, "name", resourceEntity.getName());
-        appendIfNotNull(resourceDocument, "bytes", resourceEntity.getBytes());
+        appendCompressedIfNotNull(resourceDocument, "bytes", resourceEntity.getBytes());
         appendIfNotNull(resourceDocument, "deploymentId", resourceEntity.getDeploymentId());
         appendIfNotNull(resourceDocument, "generated", resourceEntity.isGenerated());
         return resourceDocument;
@@ -28,6 +28,7 @@ public class TaskEntityMapper extends AbstractEntityToDocumentMapper<TaskEntityI
         taskEntity.setId(document.getString("_id"));
         taskEntity.setRevision(document.getInteger("revision"));
         taskEntity.setName(document.getString("name"));
+        taskEntity.setParentTaskId(document.getString("parentTaskId"));
         taskEntity.setDescription(document.getString("description"));
         taskEntity.setPriority(document.getInteger("priority"));
         taskEntity.setCreateTime(document.getDate("createTime"));
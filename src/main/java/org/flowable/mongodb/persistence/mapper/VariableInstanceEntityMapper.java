@@ -15,6 +15,7 @@ package org.flowable.mongodb.persistence.mapper;
 import org.bson.Document;
 import org.flowable.engine.impl.util.CommandContextUtil;
 import org.flowable.mongodb.persistence.EntityToDocumentMapper;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
 import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntityImpl;
 
 /**
@@ -24,7 +25,7 @@ public class VariableInstanceEntityMapper extends AbstractEntityToDocumentMapper
 
     @Override
     public VariableInstanceEntityImpl fromDocument(Document document) {
-        VariableInstanceEntityImpl variableEntity = new VariableInstanceEntityImpl();
+        VariableInstanceEntityImpl variableEntity = new MongoDbVariableInstanceEntityImpl();
         
         variableEntity.setId(document.getString("_id"));
         variableEntity.setRevision(document.getInteger("revision"));
@@ -39,8 +40,8 @@ public class VariableInstanceEntityMapper extends AbstractEntityToDocumentMapper
         variableEntity.setSubScopeId(document.getString("subScopeId"));
         variableEntity.setDoubleValue(document.getDouble("doubleValue"));
         variableEntity.setLongValue(document.getLong("longValue"));
-        variableEntity.setTextValue(document.getString("textValue"));
-        variableEntity.setTextValue2(document.getString("textValue2"));
+        variableEntity.setTextValue(getCompressedString(document, "textValue"));
+        variableEntity.setTextValue2(getCompressedString(document, "textValue2"));
         variableEntity.setType(CommandContextUtil.getProcessEngineConfiguration().getVariableTypes()
                 .getVariableType(document.getString("typeName")));
         variableEntity.setTypeName(document.getString("typeName"));
@@ -65,8 +66,8 @@ public class VariableInstanceEntityMapper extends AbstractEntityToDocumentMapper
         appendIfNotNull(variableDocument, "scopeType", variableEntity.getScopeType());
         appendIfNotNull(variableDocument, "doubleValue", variableEntity.getDoubleValue());
         appendIfNotNull(variableDocument, "longValue", variableEntity.getLongValue());
-        appendIfNotNull(variableDocument, "textValue", variableEntity.getTextValue());
-        appendIfNotNull(variableDocument, "textValue2", variableEntity.getTextValue2());
+        appendCompressedIfNotNull(variableDocument, "textValue", variableEntity.getTextValue());
+        appendCompressedIfNotNull(variableDocument, "textValue2", variableEntity.getTextValue2());
         appendIfNotNull(variableDocument, "typeName", variableEntity.getTypeName());
         
         return variableDocument;
@@ -13,6 +13,7 @@
 package org.flowable.mongodb.schema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
@@ -30,6 +31,7 @@ import org.flowable.mongodb.persistence.MongoDbSession;
 import org.flowable.mongodb.persistence.MongoDbSessionFactory;
 import org.flowable.mongodb.persistence.manager.MongoDbEventSubscriptionDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbExternalWorkerJobDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricActivityInstanceDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricIdentityLinkDataManager;
 import org.flowable.mongodb.persistence.manager.MongoDbHistoricProcessInstanceDataManager;
@@ -130,7 +132,7 @@ public class MongoProcessSchemaManager implements SchemaManager {
     protected void initDefaultIndices(MongoDbProcessEngineConfiguration engineConfiguration) {
         MongoDatabase mongoDatabase = engineConfiguration.getMongoDatabase();
         
-        mongoDatabase.getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY).createIndex(new Document("deploymentId", 1));
+        mongoDatabase.getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY).createIndex(new Document().append("deploymentId", 1).append("name", 1));
         
         mongoDatabase.getCollection(MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS).createIndex(new Document("deploymentId", 1));
         
@@ -145,6 +147,13 @@ public class MongoProcessSchemaManager implements SchemaManager {
         mongoDatabase.getCollection(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS).createIndex(new Document("parentId", 1));
         mongoDatabase.getCollection(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS).createIndex(new Document("superExecutionId", 1));
         mongoDatabase.getCollection(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS).createIndex(new Document("rootProcessInstanceId", 1));
+        if (engineConfiguration.getExecutionAggregateBoundary() != null) {
+            // Queries also match the executions embedded in the process instance documents
+            for (String field : Arrays.asList("_id", "businessKey", "processInstanceId", "processDefinitionId", "parentId", "superExecutionId", "rootProcessInstanceId")) {
+                mongoDatabase.getCollection(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS)
+                    .createIndex(new Document(MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS + "." + field, 1));
+            }
+        }
         
         mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document("executionId", 1));
         mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document("processInstanceId", 1));
@@ -153,6 +162,12 @@ public class MongoProcessSchemaManager implements SchemaManager {
         mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("subScopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("scopeDefinitionId", 1).append("scopeType", 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("assignee", 1).append("priority", -1).append("createTime", 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("assignee", 1).append("dueDate", 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document().append("taskDefinitionKey", 1).append("tenantId", 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document("dueDate", 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document(MongoDbTaskDataManager.IDENTITY_LINK_USERS, 1));
+        mongoDatabase.getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).createIndex(new Document(MongoDbTaskDataManager.IDENTITY_LINK_GROUPS, 1));
         
         mongoDatabase.getCollection(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES).createIndex(new Document("executionId", 1));
         mongoDatabase.getCollection(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES).createIndex(new Document("processInstanceId", 1));
@@ -175,12 +190,19 @@ public class MongoProcessSchemaManager implements SchemaManager {
         mongoDatabase.getCollection(MongoDbJobDataManager.COLLECTION_JOBS).createIndex(new Document("processDefinitionId", 1));
         mongoDatabase.getCollection(MongoDbJobDataManager.COLLECTION_JOBS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbJobDataManager.COLLECTION_JOBS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
+        mongoDatabase.getCollection(MongoDbJobDataManager.COLLECTION_JOBS).createIndex(new Document().append("lockExpirationTime", 1).append("scopeType", 1));
         
         mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document("executionId", 1));
         mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document("processInstanceId", 1));
         mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document("processDefinitionId", 1));
         mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
+        mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document().append("scopeType", 1).append("lockOwner", 1).append("duedate", 1));
+        mongoDatabase.getCollection(MongoDbTimerJobDataManager.COLLECTION_TIMER_JOBS).createIndex(new Document("lockExpirationTime", 1));
+
+        mongoDatabase.getCollection(MongoDbExternalWorkerJobDataManager.COLLECTION_EXTERNAL_WORKER_JOBS).createIndex(new Document().append("jobHandlerConfiguration", 1).append("lockOwner", 1).append("tenantId", 1));
+        mongoDatabase.getCollection(MongoDbExternalWorkerJobDataManager.COLLECTION_EXTERNAL_WORKER_JOBS).createIndex(new Document("correlationId", 1));
+        mongoDatabase.getCollection(MongoDbExternalWorkerJobDataManager.COLLECTION_EXTERNAL_WORKER_JOBS).createIndex(new Document("lockExpirationTime", 1));
 
         mongoDatabase.getCollection(MongoDbJobByteArrayDataManager.COLLECTION_JOB_BYTE_ARRAY).createIndex(new Document("deploymentId", 1));
         
@@ -198,16 +220,20 @@ public class MongoProcessSchemaManager implements SchemaManager {
         mongoDatabase.getCollection(MongoDbHistoricIdentityLinkDataManager.COLLECTION_HISTORIC_IDENTITY_LINKS).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
         
         mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document("processInstanceId", 1));
+        mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document().append("superProcessInstanceId", 1).append("_id", 1));
         mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document("businessKey", 1));
-        mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document("processDefinitionId", 1));
+        mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document().append("processDefinitionId", 1).append("_id", 1));
         mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document("startTime", 1));
         mongoDatabase.getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES).createIndex(new Document("endTime", 1));
         
-        mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document("processInstanceId", 1));
+        mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("processInstanceId", 1).append("_id", 1));
+        mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("parentTaskId", 1).append("_id", 1));
         mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document("processDefinitionId", 1));
         mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("subScopeId", 1).append("scopeType", 1));
         mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("scopeDefinitionId", 1).append("scopeType", 1));
+        mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("startTime", 1).append("_id", 1));
+        mongoDatabase.getCollection(MongoDbHistoricTaskInstanceDataManager.COLLECTION_HISTORIC_TASK_INSTANCES).createIndex(new Document().append("endTime", 1).append("_id", 1));
         
         mongoDatabase.getCollection(MongoDbHistoricVariableInstanceDataManager.COLLECTION_HISTORIC_VARIABLE_INSTANCES).createIndex(new Document().append("name", 1).append("typeName", 1));
         mongoDatabase.getCollection(MongoDbHistoricVariableInstanceDataManager.COLLECTION_HISTORIC_VARIABLE_INSTANCES).createIndex(new Document().append("scopeId", 1).append("scopeType", 1));
@@ -406,6 +432,11 @@ public class MongoProcessSchemaManager implements SchemaManager {
         Set<String> collectionNames = new HashSet<>();
         collectionNames.addAll(mongoDbSessionFactory.getCollectionNames());
         collectionNames.add(COLLECTION_PROPERTIES);
+        if (mongoDbSessionFactory.getGridFsStorage() != null) {
+            String bucketName = mongoDbSessionFactory.getGridFsStorage().getBucket().getBucketName();
+            collectionNames.add(bucketName + ".files");
+            collectionNames.add(bucketName + ".chunks");
+        }
         return collectionNames;
     }
     
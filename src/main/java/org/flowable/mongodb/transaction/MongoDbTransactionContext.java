@@ -31,6 +31,8 @@ import org.flowable.mongodb.persistence.MongoDbSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mongodb.MongoException;
+
 /**
  * @author Joram Barrez
  */
@@ -40,25 +42,67 @@ public class MongoDbTransactionContext implements TransactionContext {
 
     protected CommandContext commandContext;
     protected MongoDbSession mongoDbSession;
+    protected MongoDbTransactionRetryPolicy retryPolicy;
     protected Map<TransactionState, List<TransactionListener>> stateTransactionListeners;
     
     public MongoDbTransactionContext(CommandContext commandContext) {
+        this(commandContext, null);
+    }
+
+    public MongoDbTransactionContext(CommandContext commandContext, MongoDbTransactionRetryPolicy retryPolicy) {
         this.commandContext = commandContext;
         this.mongoDbSession = commandContext.getSession(MongoDbSession.class);
+        this.retryPolicy = retryPolicy;
     }
 
     public void commit() {
         LOGGER.debug("firing event committing...");
         fireTransactionEvent(TransactionState.COMMITTING, false);
 
-        LOGGER.debug("committing transaction...");
-        mongoDbSession.getClientSession().commitTransaction();
+        // Nothing was written (e.g. a query command): there's no transaction to commit
+        if (mongoDbSession.hasActiveTransaction()) {
+            LOGGER.debug("committing transaction...");
+            commitTransaction();
+            mongoDbSession.transactionCommitted();
+        }
         LOGGER.debug("firing event committed...");
         fireTransactionEvent(TransactionState.COMMITTED, true);
     }
 
+    /**
+     * When the commit result is unknown (e.g. a network error or a failover during the commit),
+     * the commit is retried: committing an already committed transaction is a no-op.
+     * A TransientTransactionError is passed on, so the whole command can be retried by the {@link MongoDbTransactionRetryInterceptor}.
+     */
+    protected void commitTransaction() {
+        int retry = 0;
+        while (true) {
+            try {
+                mongoDbSession.getClientSession().commitTransaction();
+                return;
+
+            } catch (MongoException e) {
+                if (retryPolicy == null || !retryPolicy.isUnknownTransactionCommitResult(e)) {
+                    throw e;
+                }
+
+                if (retry >= retryPolicy.getMaxRetries()) {
+                    retryPolicy.getStatistics().incrementRetriesExhaustedCount();
+                    throw e;
+                }
+
+                retry++;
+                LOGGER.debug("Unknown transaction commit result. Retrying commit (retry {})", retry, e);
+                retryPolicy.getStatistics().incrementCommitRetryCount();
+                retryPolicy.waitBeforeRetry(retry);
+            }
+        }
+    }
+
     public void rollback() {
-        mongoDbSession.getClientSession().abortTransaction();
+        if (mongoDbSession.hasActiveTransaction()) {
+            mongoDbSession.getClientSession().abortTransaction();
+        }
     }
 
     public void addTransactionListener(TransactionState transactionState, TransactionListener transactionListener) {
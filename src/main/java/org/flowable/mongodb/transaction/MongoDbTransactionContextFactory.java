@@ -24,9 +24,25 @@ import com.mongodb.MongoClient;
 public class MongoDbTransactionContextFactory implements TransactionContextFactory {
     
     protected MongoClient mongoClient;
+    protected MongoDbTransactionRetryPolicy retryPolicy;
+
+    public MongoDbTransactionContextFactory() {
+    }
+
+    public MongoDbTransactionContextFactory(MongoDbTransactionRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
 
     public TransactionContext openTransactionContext(CommandContext commandContext) {
-        return new MongoDbTransactionContext(commandContext);
+        return new MongoDbTransactionContext(commandContext, retryPolicy);
+    }
+
+    public MongoDbTransactionRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(MongoDbTransactionRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
     }
 
 }
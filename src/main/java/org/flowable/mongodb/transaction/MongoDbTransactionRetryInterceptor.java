@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import org.flowable.common.engine.impl.cfg.TransactionPropagation;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.interceptor.AbstractCommandInterceptor;
+import org.flowable.common.engine.impl.interceptor.Command;
+import org.flowable.common.engine.impl.interceptor.CommandConfig;
+import org.flowable.common.engine.impl.interceptor.CommandExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the command again when the MongoDB transaction failed with a TransientTransactionError.
+ *
+ * Placed before the command context interceptor, so every attempt gets a new command context
+ * (and thus a new {@link org.flowable.mongodb.persistence.MongoDbSession} and transaction).
+ * Commands that reuse the command context of a calling command are not retried here,
+ * as their transaction belongs to the calling command, which will be retried instead.
+ *
+ * Only the database changes are rolled back between attempts: anything else the command did (calls to external systems,
+ * listeners, mails, ...) happens again, so it must be idempotent.
+ */
+public class MongoDbTransactionRetryInterceptor extends AbstractCommandInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbTransactionRetryInterceptor.class);
+
+    protected MongoDbTransactionRetryPolicy retryPolicy;
+
+    public MongoDbTransactionRetryInterceptor(MongoDbTransactionRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public <T> T execute(CommandConfig config, Command<T> command, CommandExecutor commandExecutor) {
+        if (!isRetryAllowed(config)) {
+            return next.execute(config, command, commandExecutor);
+        }
+
+        int retry = 0;
+        while (true) {
+            try {
+                return next.execute(config, command, commandExecutor);
+
+            } catch (RuntimeException e) {
+                if (!retryPolicy.isTransientTransactionError(e)) {
+                    throw e;
+                }
+
+                if (retry >= retryPolicy.getMaxRetries()) {
+                    LOGGER.debug("Transient transaction error for command {}, but the maximum number of retries ({}) is reached", command, retry);
+                    retryPolicy.getStatistics().incrementRetriesExhaustedCount();
+                    throw e;
+                }
+
+                retry++;
+                LOGGER.debug("Transient transaction error for command {}. Retrying (retry {})", command, retry, e);
+                retryPolicy.getStatistics().incrementCommandRetryCount();
+                retryPolicy.waitBeforeRetry(retry);
+            }
+        }
+    }
+
+    protected boolean isRetryAllowed(CommandConfig config) {
+        return Context.getCommandContext() == null || config.getTransactionPropagation() == TransactionPropagation.REQUIRES_NEW;
+    }
+
+    public MongoDbTransactionRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+}
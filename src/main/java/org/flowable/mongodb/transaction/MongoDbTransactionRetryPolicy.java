@@ -0,0 +1,126 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+
+/**
+ * Determines which MongoDB errors can be retried, how many times and how long to wait in between.
+ *
+ * The wait time starts at the initial wait time and is doubled for every next retry, up to the max wait time.
+ */
+public class MongoDbTransactionRetryPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbTransactionRetryPolicy.class);
+
+    protected int maxRetries = 3;
+    protected long initialWaitTime = 10L;
+    protected long maxWaitTime = 500L;
+
+    protected MongoDbTransactionRetryStatistics statistics = new MongoDbTransactionRetryStatistics();
+
+    public MongoDbTransactionRetryPolicy() {
+    }
+
+    public MongoDbTransactionRetryPolicy(int maxRetries, long initialWaitTime, long maxWaitTime) {
+        this.maxRetries = maxRetries;
+        this.initialWaitTime = initialWaitTime;
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    /**
+     * The transaction was aborted by the server (e.g. a write conflict or a primary step down):
+     * the whole transaction, meaning the whole command, can be executed again.
+     */
+    public boolean isTransientTransactionError(Throwable throwable) {
+        return hasErrorLabel(throwable, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+    }
+
+    /**
+     * It's unknown whether the commit succeeded: the commit itself can safely be sent again.
+     */
+    public boolean isUnknownTransactionCommitResult(Throwable throwable) {
+        return hasErrorLabel(throwable, MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL);
+    }
+
+    protected boolean hasErrorLabel(Throwable throwable, String errorLabel) {
+        // The MongoException is possibly wrapped (e.g. in a FlowableException)
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof MongoException && ((MongoException) cause).hasErrorLabel(errorLabel)) {
+                return true;
+            }
+            cause = cause.getCause() != cause ? cause.getCause() : null;
+        }
+        return false;
+    }
+
+    /**
+     * @param retry the number of the retry that is about to happen, starting from 1.
+     */
+    public long getWaitTime(int retry) {
+        long waitTime = initialWaitTime;
+        for (int i = 1; i < retry && waitTime < maxWaitTime; i++) {
+            waitTime = waitTime * 2;
+        }
+        return Math.min(waitTime, maxWaitTime);
+    }
+
+    public void waitBeforeRetry(int retry) {
+        long waitTime = getWaitTime(retry);
+        if (waitTime > 0) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                LOGGER.debug("Interrupted while waiting for a retry.");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getInitialWaitTime() {
+        return initialWaitTime;
+    }
+
+    public void setInitialWaitTime(long initialWaitTime) {
+        this.initialWaitTime = initialWaitTime;
+    }
+
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(long maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public MongoDbTransactionRetryStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(MongoDbTransactionRetryStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+}
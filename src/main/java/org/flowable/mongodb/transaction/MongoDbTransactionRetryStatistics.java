@@ -0,0 +1,65 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the retries done by the {@link MongoDbTransactionContext} and the {@link MongoDbTransactionRetryInterceptor}.
+ */
+public class MongoDbTransactionRetryStatistics {
+
+    protected AtomicLong commitRetryCount = new AtomicLong();
+    protected AtomicLong commandRetryCount = new AtomicLong();
+    protected AtomicLong retriesExhaustedCount = new AtomicLong();
+
+    public void incrementCommitRetryCount() {
+        commitRetryCount.incrementAndGet();
+    }
+
+    public void incrementCommandRetryCount() {
+        commandRetryCount.incrementAndGet();
+    }
+
+    public void incrementRetriesExhaustedCount() {
+        retriesExhaustedCount.incrementAndGet();
+    }
+
+    /**
+     * Number of times a commit was retried after an UnknownTransactionCommitResult.
+     */
+    public long getCommitRetryCount() {
+        return commitRetryCount.get();
+    }
+
+    /**
+     * Number of times a command was executed again after a TransientTransactionError.
+     */
+    public long getCommandRetryCount() {
+        return commandRetryCount.get();
+    }
+
+    /**
+     * Number of times the error was passed to the caller because the maximum number of retries was reached.
+     */
+    public long getRetriesExhaustedCount() {
+        return retriesExhaustedCount.get();
+    }
+
+    public void reset() {
+        commitRetryCount.set(0);
+        commandRetryCount.set(0);
+        retriesExhaustedCount.set(0);
+    }
+
+}
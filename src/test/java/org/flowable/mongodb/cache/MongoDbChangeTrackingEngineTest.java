@@ -0,0 +1,77 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.Test;
+
+/**
+ * With change tracking enabled, the changes the engine makes through the setters of executions and variables are still flushed.
+ */
+public class MongoDbChangeTrackingEngineTest extends AbstractMongoDbTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setChangeTrackingEnabled(true);
+    }
+
+    @Test
+    public void testExecutionChangesAreFlushed() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTask");
+
+        runtimeService.setProcessInstanceName(processInstance.getId(), "order 1");
+        runtimeService.updateBusinessKey(processInstance.getId(), "order-1");
+
+        ProcessInstance updatedProcessInstance = runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).singleResult();
+        assertEquals("order 1", updatedProcessInstance.getName());
+        assertEquals("order-1", updatedProcessInstance.getBusinessKey());
+    }
+
+    @Test
+    public void testVariableChangesAreFlushed() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTask",
+                Collections.<String, Object>singletonMap("amount", 10));
+
+        runtimeService.setVariable(processInstance.getId(), "amount", 20);
+        assertEquals(20, runtimeService.getVariable(processInstance.getId(), "amount"));
+
+        runtimeService.setVariable(processInstance.getId(), "amount", "twenty");
+        assertEquals("twenty", runtimeService.getVariable(processInstance.getId(), "amount"));
+
+        runtimeService.removeVariable(processInstance.getId(), "amount");
+        assertNull(runtimeService.getVariable(processInstance.getId(), "amount"));
+    }
+
+    @Test
+    public void testProcessCompletes() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTask");
+
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+        taskService.complete(task.getId(), Collections.<String, Object>singletonMap("approved", true));
+
+        assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+        assertEquals(0, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count());
+    }
+
+}
@@ -0,0 +1,161 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.flowable.common.engine.impl.persistence.cache.CachedEntity;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Change tracked entities are only compared at flush time when one of their persistent state setters was called.
+ */
+public class MongoDbChangeTrackingTest {
+
+    protected MongoDbEntityCache entityCache = new MongoDbEntityCache(Collections.emptyList(), true);
+
+    @Test
+    public void testReadEntityIsNotChanged() {
+        MongoDbVariableInstanceEntityImpl variable = createVariable();
+        CachedEntity cachedEntity = entityCache.put(variable, true);
+
+        assertTrue(cachedEntity instanceof MongoDbChangeTrackedCachedEntity);
+        assertFalse(cachedEntity.hasChanged());
+        assertFalse(variable.isChanged());
+    }
+
+    @Test
+    public void testSetterMarksEntityChanged() {
+        MongoDbVariableInstanceEntityImpl variable = createVariable();
+        CachedEntity cachedEntity = entityCache.put(variable, true);
+
+        variable.setTextValue("changed");
+
+        assertTrue(variable.isChanged());
+        assertTrue(cachedEntity.hasChanged());
+        assertEquals("original", ((Map<?, ?>) cachedEntity.getOriginalPersistentState()).get("textValue"));
+    }
+
+    @Test
+    public void testValueSetBackIsNoChange() {
+        MongoDbVariableInstanceEntityImpl variable = createVariable();
+        CachedEntity cachedEntity = entityCache.put(variable, true);
+
+        variable.setTextValue("changed");
+        variable.setTextValue("original");
+
+        assertTrue(variable.isChanged());
+        assertFalse(cachedEntity.hasChanged());
+    }
+
+    @Test
+    public void testEntityCachedWithoutStateIsAlwaysChanged() {
+        CachedEntity cachedEntity = entityCache.put(createVariable(), false);
+
+        assertTrue(cachedEntity.hasChanged());
+    }
+
+    @Test
+    public void testWithoutChangeTrackingStateIsCompared() {
+        MongoDbEntityCache comparingEntityCache = new MongoDbEntityCache(Collections.emptyList(), false);
+        CachedEntity cachedEntity = comparingEntityCache.put(createVariable(), true);
+
+        assertFalse(cachedEntity instanceof MongoDbChangeTrackedCachedEntity);
+        assertFalse(cachedEntity.hasChanged());
+    }
+
+    @Test
+    public void testAllExecutionSettersAreTracked() {
+        assertAllSettersTracked(() -> {
+            MongoDbExecutionEntityImpl execution = new MongoDbExecutionEntityImpl();
+            execution.setId("execution1");
+            return execution;
+        });
+    }
+
+    @Test
+    public void testAllVariableSettersAreTracked() {
+        assertAllSettersTracked(this::createVariable);
+    }
+
+    /**
+     * Every setter that changes the persistent state of a fresh entity needs to mark it as changed,
+     * otherwise the change is silently lost at flush time.
+     */
+    protected void assertAllSettersTracked(Supplier<? extends MongoDbChangeTrackedEntity> entitySupplier) {
+        List<String> untrackedSetters = new ArrayList<>();
+        for (Method method : entitySupplier.get().getClass().getMethods()) {
+            if (!method.getName().startsWith("set") || method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Object value = createValue(method.getParameterTypes()[0]);
+            if (value == null) {
+                continue;
+            }
+
+            MongoDbChangeTrackedEntity entity = entitySupplier.get();
+            entity.startChangeTracking();
+            Object persistentState = entity.getPersistentState();
+            try {
+                method.invoke(entity, value);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                continue;
+            }
+            if (!Objects.equals(persistentState, entity.getPersistentState()) && !entity.isChanged()) {
+                untrackedSetters.add(method.getName());
+            }
+        }
+        assertEquals(Collections.emptyList(), untrackedSetters);
+    }
+
+    protected Object createValue(Class<?> type) {
+        if (type == String.class) {
+            return "changed";
+        } else if (type == int.class || type == Integer.class) {
+            return 42;
+        } else if (type == long.class || type == Long.class) {
+            return 42L;
+        } else if (type == double.class || type == Double.class) {
+            return 4.2;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return true;
+        } else if (type == Date.class) {
+            return new Date(42L);
+        }
+        return null;
+    }
+
+    protected MongoDbVariableInstanceEntityImpl createVariable() {
+        MongoDbVariableInstanceEntityImpl variable = new MongoDbVariableInstanceEntityImpl();
+        variable.setId("variable1");
+        variable.setName("var");
+        variable.setTypeName("string");
+        variable.setTextValue("original");
+        return variable;
+    }
+
+}
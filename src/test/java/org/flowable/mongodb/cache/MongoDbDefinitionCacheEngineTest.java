@@ -0,0 +1,85 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.Document;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbProcessDefinitionDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The definition cache serves repeated definition lookups, and is invalidated by new deployments and by changes of other nodes.
+ */
+public class MongoDbDefinitionCacheEngineTest extends AbstractMongoDbTest {
+
+    protected static final String COLLECTION = MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setDefinitionCacheEnabled(true);
+        processEngineConfiguration.setDefinitionCacheChangeStreamEnabled(true);
+    }
+
+    @Test
+    public void testLatestProcessDefinitionLookupIsCached() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        MongoDbDefinitionCache definitionCache = processEngineConfiguration.getDefinitionCache();
+
+        runtimeService.startProcessInstanceByKey("oneTask");
+        long hitCount = definitionCache.getHitCount();
+        runtimeService.startProcessInstanceByKey("oneTask");
+
+        assertTrue(definitionCache.getHitCount() > hitCount);
+        assertTrue(definitionCache.size(COLLECTION) > 0);
+    }
+
+    @Test
+    public void testNewVersionInvalidatesLatestLookup() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        assertEquals(1, getVersion(runtimeService.startProcessInstanceByKey("oneTask")));
+
+        deploy("oneTaskProcess.bpmn20.xml");
+        assertEquals(2, getVersion(runtimeService.startProcessInstanceByKey("oneTask")));
+    }
+
+    @Test
+    public void testChangeOfOtherNodeInvalidatesCache() throws Exception {
+        deploy("oneTaskProcess.bpmn20.xml");
+        MongoDbDefinitionCache definitionCache = processEngineConfiguration.getDefinitionCache();
+
+        // The first invalidation can also come from the change stream being opened, the second one can only come from the change
+        for (int i = 0; i < 2; i++) {
+            runtimeService.startProcessInstanceByKey("oneTask");
+            assertTrue(definitionCache.size(COLLECTION) > 0);
+
+            processEngineConfiguration.getMongoDatabase().getCollection(COLLECTION)
+                    .updateMany(new Document(), new Document("$set", new Document("category", "changed" + i)));
+
+            long timeout = System.currentTimeMillis() + 10000L;
+            while (definitionCache.size(COLLECTION) > 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(50L);
+            }
+            assertEquals(0, definitionCache.size(COLLECTION));
+        }
+    }
+
+    protected int getVersion(ProcessInstance processInstance) {
+        return repositoryService.getProcessDefinition(processInstance.getProcessDefinitionId()).getVersion();
+    }
+
+}
@@ -0,0 +1,92 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.Document;
+import org.flowable.mongodb.persistence.manager.MongoDbDeploymentDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbProcessDefinitionDataManager;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The definition cache is a bounded LRU cache per collection, invalidated as a whole on every write to the collection.
+ */
+public class MongoDbDefinitionCacheTest {
+
+    protected static final String COLLECTION = MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS;
+
+    protected MongoDbDefinitionCache definitionCache = new MongoDbDefinitionCache(2);
+
+    @Test
+    public void testGetByIdAndLookupKey() {
+        Document document = new Document("_id", "pd1").append("key", "oneTask");
+        String lookupKey = MongoDbDefinitionCache.lookupKey("latestByKey", "oneTask", null);
+        definitionCache.put(COLLECTION, lookupKey, document, definitionCache.getGeneration(COLLECTION));
+
+        assertSame(document, definitionCache.get(COLLECTION, "pd1"));
+        assertSame(document, definitionCache.getByLookupKey(COLLECTION, lookupKey));
+        assertNull(definitionCache.getByLookupKey(COLLECTION, MongoDbDefinitionCache.lookupKey("latestByKey", "oneTask", "tenant")));
+        assertEquals(2, definitionCache.getHitCount());
+        assertEquals(1, definitionCache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDocumentIsEvicted() {
+        long generation = definitionCache.getGeneration(COLLECTION);
+        definitionCache.put(COLLECTION, new Document("_id", "pd1"), generation);
+        definitionCache.put(COLLECTION, new Document("_id", "pd2"), generation);
+        definitionCache.get(COLLECTION, "pd1");
+        definitionCache.put(COLLECTION, new Document("_id", "pd3"), generation);
+
+        assertEquals(2, definitionCache.size(COLLECTION));
+        assertNull(definitionCache.get(COLLECTION, "pd2"));
+        assertEquals("pd1", definitionCache.get(COLLECTION, "pd1").getString("_id"));
+    }
+
+    @Test
+    public void testInvalidateOnlyClearsCollection() {
+        definitionCache.put(COLLECTION, new Document("_id", "pd1"), definitionCache.getGeneration(COLLECTION));
+        String deploymentCollection = MongoDbDeploymentDataManager.COLLECTION_DEPLOYMENT;
+        definitionCache.put(deploymentCollection, new Document("_id", "d1"), definitionCache.getGeneration(deploymentCollection));
+
+        definitionCache.invalidate(COLLECTION);
+
+        assertEquals(0, definitionCache.size(COLLECTION));
+        assertEquals(1, definitionCache.size(deploymentCollection));
+        assertEquals(1, definitionCache.getInvalidationCount());
+    }
+
+    @Test
+    public void testDocumentReadBeforeInvalidationIsNotCached() {
+        long generation = definitionCache.getGeneration(COLLECTION);
+        definitionCache.invalidate(COLLECTION);
+        definitionCache.put(COLLECTION, new Document("_id", "pd1"), generation);
+
+        assertNull(definitionCache.get(COLLECTION, "pd1"));
+    }
+
+    @Test
+    public void testOnlyConfiguredCollectionsAreCached() {
+        assertTrue(definitionCache.isCached(COLLECTION));
+        assertFalse(definitionCache.isCached("tasks"));
+
+        definitionCache.invalidate("tasks");
+        assertEquals(0, definitionCache.getInvalidationCount());
+    }
+
+}
@@ -0,0 +1,59 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs nested parallel gateways, which look up the (cached) child executions when joining, with the indexed entity cache disabled.
+ */
+public class MongoDbEntityCacheWithoutIndexesTest extends AbstractMongoDbTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setIndexedEntityCacheEnabled(false);
+    }
+
+    @Test
+    public void testNestedForkJoin() {
+        deploy("org/flowable/test/ParallelGatewayTest.testNestedForkJoin.bpmn20.xml");
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("nestedForkJoin");
+
+        completeTask(processInstance, "Task 0");
+        assertEquals(2, taskService.createTaskQuery().processInstanceId(processInstance.getId()).count());
+
+        completeTask(processInstance, "Task B");
+        assertEquals(3, taskService.createTaskQuery().processInstanceId(processInstance.getId()).count());
+
+        completeTask(processInstance, "Task A");
+        completeTask(processInstance, "Task B1");
+        completeTask(processInstance, "Task B2");
+        assertEquals("Task C", taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult().getName());
+        assertEquals(1, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).onlyChildExecutions().count());
+
+        completeTask(processInstance, "Task C");
+        assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+    }
+
+    protected void completeTask(ProcessInstance processInstance, String name) {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskName(name).singleResult();
+        taskService.complete(task.getId());
+    }
+
+}
@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.flowable.common.engine.api.scope.ScopeTypes;
+import org.flowable.job.service.JobServiceConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The acquire thread can be woken up before its wait time has passed, and a wake up while it's acquiring isn't lost.
+ */
+public class MongoDbAcquireAsyncJobsDueRunnableTest {
+
+    protected MongoDbAcquireAsyncJobsDueRunnable runnable;
+
+    @BeforeEach
+    public void createRunnable() {
+        MongoDbAsyncExecutor asyncExecutor = new MongoDbAsyncExecutor(null);
+        asyncExecutor.setJobServiceConfiguration(new JobServiceConfiguration(ScopeTypes.BPMN));
+        runnable = new MongoDbAcquireAsyncJobsDueRunnable("test", asyncExecutor, null, null, null);
+    }
+
+    @Test
+    public void testWakeUpWhileWaiting() {
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            executorService.schedule(runnable::wakeUp, 200L, TimeUnit.MILLISECONDS);
+            assertTrue(sleep(30000L) < 10000L);
+
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWakeUpWhileAcquiringSkipsNextWait() {
+        runnable.wakeUp();
+        assertTrue(sleep(30000L) < 10000L);
+
+        // Only the next wait is skipped
+        assertTrue(sleep(200L) >= 200L);
+    }
+
+    protected long sleep(long millisToWait) {
+        long start = System.currentTimeMillis();
+        runnable.sleep(millisToWait);
+        return System.currentTimeMillis() - start;
+    }
+
+}
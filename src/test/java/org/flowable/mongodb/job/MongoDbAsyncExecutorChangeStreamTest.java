@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * With the job change stream, a new async job is executed without waiting for the next acquire cycle.
+ */
+public class MongoDbAsyncExecutorChangeStreamTest extends AbstractMongoDbTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setAsyncExecutorChangeStreamEnabled(true);
+        processEngineConfiguration.setAsyncExecutorActivate(true);
+        processEngineConfiguration.setAsyncExecutorDefaultAsyncJobAcquireWaitTime(60000);
+    }
+
+    @Test
+    public void testNewJobWakesUpAcquisition() throws Exception {
+        assertTrue(processEngineConfiguration.getAsyncExecutor() instanceof MongoDbAsyncExecutor);
+        deploy("asyncExpression.bpmn20.xml");
+
+        // Let the first acquire cycle pass and the change stream open
+        Thread.sleep(2000L);
+        runtimeService.startProcessInstanceByKey("asyncExpressionProcess");
+
+        long deadline = System.currentTimeMillis() + 20000L;
+        while (managementService.createJobQuery().count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100L);
+        }
+        assertEquals(0, managementService.createJobQuery().count());
+        assertEquals(1, taskService.createTaskQuery().count());
+    }
+
+}
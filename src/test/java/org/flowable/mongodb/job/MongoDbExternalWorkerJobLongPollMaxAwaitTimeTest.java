@@ -0,0 +1,35 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The max await time of the change stream cursor is capped to the timeout of the caller.
+ */
+public class MongoDbExternalWorkerJobLongPollMaxAwaitTimeTest {
+
+    @Test
+    public void testMaxAwaitTimeIsCappedToTimeout() {
+        MongoDbExternalWorkerJobLongPoll longPoll = new MongoDbExternalWorkerJobLongPoll(null);
+        longPoll.setMaxAwaitTimeInMillis(500L);
+
+        assertEquals(500L, longPoll.getMaxAwaitTimeInMillis(10000L));
+        assertEquals(500L, longPoll.getMaxAwaitTimeInMillis(500L));
+        assertEquals(100L, longPoll.getMaxAwaitTimeInMillis(100L));
+        assertEquals(1L, longPoll.getMaxAwaitTimeInMillis(0L));
+    }
+
+}
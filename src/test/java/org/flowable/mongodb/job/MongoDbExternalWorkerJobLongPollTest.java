@@ -0,0 +1,93 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.flowable.job.api.AcquiredExternalWorkerJob;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Long polling of external worker jobs through the long poll of the process engine configuration.
+ */
+public class MongoDbExternalWorkerJobLongPollTest extends AbstractMongoDbTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setExternalWorkerJobLongPollMaxAwaitTime(500L);
+    }
+
+    @Test
+    public void testLongPollIsConfigured() {
+        MongoDbExternalWorkerJobLongPoll longPoll = processEngineConfiguration.getExternalWorkerJobLongPoll();
+        assertEquals(500L, longPoll.getMaxAwaitTimeInMillis());
+    }
+
+    @Test
+    public void testAvailableJobIsAcquiredWithoutWaiting() {
+        deploy("externalWorker.bpmn20.xml");
+        runtimeService.startProcessInstanceByKey("externalWorkerProcess");
+
+        long start = System.currentTimeMillis();
+        List<AcquiredExternalWorkerJob> jobs = acquireAndLock(Duration.ofSeconds(30));
+        assertEquals(1, jobs.size());
+        assertTrue(System.currentTimeMillis() - start < 30000L);
+    }
+
+    @Test
+    public void testNoJobAvailableWaitsUntilTimeout() {
+        deploy("externalWorker.bpmn20.xml");
+
+        long start = System.currentTimeMillis();
+        List<AcquiredExternalWorkerJob> jobs = acquireAndLock(Duration.ofMillis(200));
+        long duration = System.currentTimeMillis() - start;
+        assertTrue(jobs.isEmpty());
+        assertTrue(duration >= 200L);
+        // A short timeout isn't overrun by the max await time of the change stream
+        assertTrue(duration < 200L + 500L, "waited " + duration + "ms");
+    }
+
+    @Test
+    public void testJobCreatedWhileWaitingIsAcquired() {
+        deploy("externalWorker.bpmn20.xml");
+
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            executorService.schedule(() -> runtimeService.startProcessInstanceByKey("externalWorkerProcess"), 500L, TimeUnit.MILLISECONDS);
+
+            long start = System.currentTimeMillis();
+            List<AcquiredExternalWorkerJob> jobs = acquireAndLock(Duration.ofSeconds(30));
+            assertEquals(1, jobs.size());
+            assertTrue(System.currentTimeMillis() - start < 30000L);
+
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    protected List<AcquiredExternalWorkerJob> acquireAndLock(Duration timeout) {
+        return processEngineConfiguration.getExternalWorkerJobLongPoll()
+                .acquireAndLock(managementService.createExternalWorkerJobAcquireBuilder().topic("orderService", Duration.ofMinutes(5)),
+                        1, "worker1", timeout);
+    }
+
+}
@@ -0,0 +1,117 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.flowable.job.api.Job;
+import org.flowable.job.service.JobServiceConfiguration;
+import org.flowable.job.service.impl.persistence.entity.JobEntity;
+import org.flowable.mongodb.persistence.manager.MongoDbJobDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Expired job locks are reset with one updateMany per batch.
+ */
+public class MongoDbResetExpiredJobsTest extends AbstractMongoDbTest {
+
+    protected MongoDbJobDataManager jobDataManager;
+    protected List<String> jobIds;
+
+    /**
+     * Five jobs of which the lock expired, and one that is still locked.
+     */
+    @BeforeEach
+    public void lockJobs() {
+        jobDataManager = (MongoDbJobDataManager) processEngineConfiguration.getJobServiceConfiguration().getJobDataManager();
+        deploy("async.bpmn20.xml");
+        for (int i = 0; i < 6; i++) {
+            runtimeService.startProcessInstanceByKey("asyncProcess");
+        }
+        jobIds = managementService.createJobQuery().list().stream().map(Job::getId).collect(Collectors.toList());
+
+        lockJobs(jobIds.subList(0, 5), new Date(System.currentTimeMillis() - 60000L));
+        lockJobs(jobIds.subList(5, 6), new Date(System.currentTimeMillis() + 60000L));
+    }
+
+    @Test
+    public void testBulkResetInBatches() {
+        assertEquals(2, bulkResetExpiredJobs(2));
+        assertEquals(2, bulkResetExpiredJobs(2));
+        assertEquals(1, bulkResetExpiredJobs(2));
+        assertEquals(0, bulkResetExpiredJobs(2));
+
+        for (String jobId : jobIds.subList(0, 5)) {
+            JobEntity job = findJob(jobId);
+            assertNull(job.getLockOwner());
+            assertNull(job.getLockExpirationTime());
+            assertEquals(3, job.getRevision());
+        }
+        assertEquals("node1", findJob(jobIds.get(5)).getLockOwner());
+    }
+
+    @Test
+    public void testRunnableResetsAllBatches() {
+        JobServiceConfiguration jobServiceConfiguration = processEngineConfiguration.getJobServiceConfiguration();
+        MongoDbResetExpiredJobsRunnable runnable = new MongoDbResetExpiredJobsRunnable("reset-expired-jobs", processEngineConfiguration.getAsyncExecutor(),
+                2, jobServiceConfiguration.getJobEntityManager());
+
+        runnable.resetJobs(jobServiceConfiguration.getJobEntityManager());
+        assertEquals(5, runnable.getResetJobCount());
+        assertEquals(0, bulkResetExpiredJobs(10));
+    }
+
+    @Test
+    public void testResetSingleExpiredJob() {
+        managementService.executeCommand(commandContext -> {
+            jobDataManager.resetExpiredJob(jobIds.get(0));
+            jobDataManager.resetExpiredJob(jobIds.get(5));
+            return null;
+        });
+
+        JobEntity job = findJob(jobIds.get(0));
+        assertNull(job.getLockOwner());
+        assertEquals(3, job.getRevision());
+
+        // Not expired, so not reset
+        assertEquals("node1", findJob(jobIds.get(5)).getLockOwner());
+    }
+
+    protected long bulkResetExpiredJobs(int maxJobs) {
+        return managementService.executeCommand(commandContext -> jobDataManager.bulkResetExpiredJobs(null, maxJobs));
+    }
+
+    protected JobEntity findJob(String jobId) {
+        return managementService.executeCommand(commandContext -> jobDataManager.findById(jobId));
+    }
+
+    protected void lockJobs(List<String> ids, Date lockExpirationTime) {
+        managementService.executeCommand(commandContext -> {
+            List<JobEntity> jobs = new ArrayList<>();
+            for (String jobId : ids) {
+                jobs.add(jobDataManager.findById(jobId));
+            }
+            jobDataManager.bulkUpdateJobLockWithoutRevisionCheck(jobs, "node1", lockExpirationTime);
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.flowable.common.engine.api.FlowableOptimisticLockingException;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Flushing with one bulkWrite per collection.
+ */
+public class MongoDbBulkWriteFlushTest extends AbstractMongoDbTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setBulkWriteFlushEnabled(true);
+    }
+
+    @Test
+    public void testProcessInstanceLifecycle() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTask");
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+        assertEquals("my task", task.getName());
+
+        task.setName("renamed task");
+        taskService.saveTask(task);
+        assertEquals("renamed task", taskService.createTaskQuery().taskId(task.getId()).singleResult().getName());
+
+        taskService.complete(task.getId());
+        assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+        assertEquals(0, taskService.createTaskQuery().count());
+        assertEquals(1, historyService.createHistoricProcessInstanceQuery().finished().count());
+    }
+
+    @Test
+    public void testConcurrentUpdateIsDetected() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        runtimeService.startProcessInstanceByKey("oneTask");
+        Task task = taskService.createTaskQuery().singleResult();
+        Task staleTask = taskService.createTaskQuery().singleResult();
+
+        task.setName("first update");
+        taskService.saveTask(task);
+
+        staleTask.setName("second update");
+        assertThrows(FlowableOptimisticLockingException.class, () -> taskService.saveTask(staleTask));
+        assertEquals("first update", taskService.createTaskQuery().singleResult().getName());
+    }
+
+}
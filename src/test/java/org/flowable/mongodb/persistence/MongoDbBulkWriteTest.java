@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.Document;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.Filters;
+
+/**
+ * The write models of one collection in a bulk write flush.
+ */
+public class MongoDbBulkWriteTest {
+
+    @Test
+    public void testBulkDeletesAreSentWithTheOtherWrites() {
+        MongoDbBulkWrite bulkWrite = new MongoDbBulkWrite("tasks");
+        bulkWrite.addInsert(new Document("_id", "1"));
+        bulkWrite.addUpdate(new TaskEntityImpl(), Filters.eq("_id", "2"), new Document("$set", new Document("name", "task")));
+        bulkWrite.addDelete(new TaskEntityImpl(), Filters.eq("_id", "3"), false);
+        bulkWrite.addBulkDelete(Filters.eq("processInstanceId", "4"));
+
+        assertEquals(4, bulkWrite.getWriteModels().size());
+        assertTrue(bulkWrite.getWriteModels().get(3) instanceof DeleteManyModel);
+        assertTrue(bulkWrite.getSeparateBulkDeleteModels().isEmpty());
+        assertEquals(1, bulkWrite.getUpdatedEntities().size());
+        assertEquals(1, bulkWrite.getDeletedEntities().size());
+    }
+
+    @Test
+    public void testBulkDeletesAreSentSeparatelyWhenDeletesAreChecked() {
+        MongoDbBulkWrite bulkWrite = new MongoDbBulkWrite("tasks");
+        bulkWrite.addDelete(new TaskEntityImpl(), Filters.eq("_id", "3"), true);
+        bulkWrite.addBulkDelete(Filters.eq("processInstanceId", "4"));
+
+        // The bulk delete would make the deleted count meaningless for the revision check
+        assertEquals(1, bulkWrite.getWriteModels().size());
+        assertEquals(1, bulkWrite.getSeparateBulkDeleteModels().size());
+        assertEquals(1, bulkWrite.getCheckedDeletedEntities().size());
+    }
+
+    @Test
+    public void testEmpty() {
+        MongoDbBulkWrite bulkWrite = new MongoDbBulkWrite("tasks");
+        assertTrue(bulkWrite.isEmpty());
+
+        bulkWrite.addBulkDelete(Filters.eq("processInstanceId", "4"));
+        assertFalse(bulkWrite.isEmpty());
+    }
+
+}
@@ -0,0 +1,86 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.bson.Document;
+import org.flowable.common.engine.api.FlowableOptimisticLockingException;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.flowable.task.service.impl.persistence.entity.TaskEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+/**
+ * Concurrent modifications are detected by the revision guard of updates and deletes.
+ */
+public class MongoDbConcurrentModificationTest extends AbstractMongoDbTest {
+
+    protected MongoCollection<Document> taskCollection;
+    protected Task task;
+
+    @BeforeEach
+    public void startProcessInstance() {
+        taskCollection = processEngineConfiguration.getMongoDatabase().getCollection(MongoDbTaskDataManager.COLLECTION_TASKS);
+        deploy("oneTaskProcess.bpmn20.xml");
+        runtimeService.startProcessInstanceByKey("oneTask");
+        task = taskService.createTaskQuery().singleResult();
+    }
+
+    @Test
+    public void testRevisionIsIncrementedOnUpdate() {
+        assertEquals(1, getStoredRevision());
+
+        task.setName("renamed task");
+        taskService.saveTask(task);
+        assertEquals(2, getStoredRevision());
+    }
+
+    @Test
+    public void testStaleUpdateIsDetected() {
+        Task staleTask = taskService.createTaskQuery().singleResult();
+        task.setName("first update");
+        taskService.saveTask(task);
+
+        staleTask.setName("second update");
+        assertThrows(FlowableOptimisticLockingException.class, () -> taskService.saveTask(staleTask));
+        assertEquals("first update", taskService.createTaskQuery().singleResult().getName());
+    }
+
+    @Test
+    public void testDeleteOfConcurrentlyUpdatedEntityIsDetected() {
+        assertThrows(FlowableOptimisticLockingException.class, () -> managementService.executeCommand(commandContext -> {
+            MongoDbSession mongoDbSession = commandContext.getSession(MongoDbSession.class);
+            TaskEntity taskEntity = mongoDbSession.findOne(MongoDbTaskDataManager.COLLECTION_TASKS, task.getId());
+
+            // Another node changes the task after it was read
+            taskCollection.updateOne(Filters.eq("_id", task.getId()), Updates.inc("revision", 1));
+
+            mongoDbSession.delete(MongoDbTaskDataManager.COLLECTION_TASKS, taskEntity);
+            return null;
+        }));
+        assertEquals(1, taskService.createTaskQuery().count());
+    }
+
+    protected int getStoredRevision() {
+        return taskCollection.find(Filters.eq("_id", task.getId())).first().getInteger("revision");
+    }
+
+}
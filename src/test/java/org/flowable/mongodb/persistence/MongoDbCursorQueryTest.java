@@ -0,0 +1,132 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.flowable.common.engine.impl.persistence.cache.EntityCache;
+import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.impl.HistoricProcessInstanceQueryImpl;
+import org.flowable.mongodb.persistence.manager.MongoDbHistoricProcessInstanceDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.flowable.task.service.impl.persistence.entity.TaskEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Streaming cursors and id lookups read large results in batches, without keeping them in the entity cache.
+ */
+public class MongoDbCursorQueryTest extends AbstractMongoDbTest {
+
+    protected List<String> processInstanceIds;
+
+    @BeforeEach
+    public void startProcessInstances() {
+        deploy("oneTaskProcess.bpmn20.xml");
+
+        processInstanceIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            processInstanceIds.add(runtimeService.startProcessInstanceByKey("oneTask").getId());
+        }
+    }
+
+    @Test
+    public void testCursorIteratesAllBatches() {
+        List<String> taskIds = managementService.executeCommand(commandContext -> {
+            MongoDbSession mongoDbSession = commandContext.getSession(MongoDbSession.class);
+            List<String> ids = new ArrayList<>();
+            try (MongoDbCursor<TaskEntity> cursor = mongoDbSession.findCursor(MongoDbTaskDataManager.COLLECTION_TASKS, null, null, 2, false)) {
+                for (TaskEntity task : cursor) {
+                    ids.add(task.getId());
+                }
+            }
+            return ids;
+        });
+
+        assertEquals(5, taskIds.size());
+        assertEquals(5, new HashSet<>(taskIds).size());
+    }
+
+    @Test
+    public void testReadOnlyCursorBypassesEntityCache() {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstanceIds.get(0)).singleResult();
+
+        managementService.executeCommand(commandContext -> {
+            MongoDbSession mongoDbSession = commandContext.getSession(MongoDbSession.class);
+            EntityCache entityCache = commandContext.getSession(EntityCache.class);
+            try (MongoDbCursor<TaskEntity> cursor = mongoDbSession.findCursor(MongoDbTaskDataManager.COLLECTION_TASKS, null, false)) {
+                for (TaskEntity taskEntity : cursor) {
+                    assertNull(entityCache.findInCache(taskEntity.getClass(), taskEntity.getId()));
+                }
+            }
+            return null;
+        });
+
+        managementService.executeCommand(commandContext -> {
+            MongoDbSession mongoDbSession = commandContext.getSession(MongoDbSession.class);
+            TaskEntity cachedTask = mongoDbSession.findOne(MongoDbTaskDataManager.COLLECTION_TASKS, task.getId());
+            try (MongoDbCursor<TaskEntity> cursor = mongoDbSession.findCursor(MongoDbTaskDataManager.COLLECTION_TASKS, null, false)) {
+                for (TaskEntity taskEntity : cursor) {
+                    if (taskEntity.getId().equals(task.getId())) {
+                        assertSame(cachedTask, taskEntity);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testFindIds() {
+        List<String> ids = managementService.executeCommand(commandContext -> commandContext.getSession(MongoDbSession.class)
+                .findIds(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES, null));
+
+        assertEquals(new HashSet<>(processInstanceIds), new HashSet<>(ids));
+    }
+
+    @Test
+    public void testStreamAndDeleteHistoricProcessInstancesByQuery() {
+        MongoDbHistoricProcessInstanceDataManager dataManager = (MongoDbHistoricProcessInstanceDataManager) processEngineConfiguration
+                .getHistoricProcessInstanceDataManager();
+
+        List<String> streamedIds = managementService.executeCommand(commandContext -> {
+            HistoricProcessInstanceQueryImpl query = (HistoricProcessInstanceQueryImpl) historyService.createHistoricProcessInstanceQuery()
+                    .orderByProcessInstanceId().asc();
+            List<String> ids = new ArrayList<>();
+            try (MongoDbCursor<HistoricProcessInstance> cursor = dataManager.streamHistoricProcessInstancesByQueryCriteria(query)) {
+                for (HistoricProcessInstance historicProcessInstance : cursor) {
+                    ids.add(historicProcessInstance.getId());
+                }
+            }
+            return ids;
+        });
+        List<String> sortedIds = new ArrayList<>(processInstanceIds);
+        sortedIds.sort(null);
+        assertEquals(sortedIds, streamedIds);
+
+        managementService.executeCommand(commandContext -> {
+            dataManager.deleteHistoricProcessInstances((HistoricProcessInstanceQueryImpl) historyService.createHistoricProcessInstanceQuery());
+            return null;
+        });
+        assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    }
+
+}
@@ -0,0 +1,94 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.MongoCursor;
+
+/**
+ * The cursor maps every document only when it is reached, and closes the underlying cursor.
+ */
+public class MongoDbCursorTest {
+
+    protected AtomicInteger closeCount = new AtomicInteger();
+
+    @Test
+    public void testDocumentsAreMappedLazily() {
+        AtomicInteger mappedCount = new AtomicInteger();
+        MongoDbCursor<String> cursor = new MongoDbCursor<>(createMongoCursor("a", "b", "c"), document -> {
+            mappedCount.incrementAndGet();
+            return document.toUpperCase();
+        });
+
+        assertEquals(0, mappedCount.get());
+        assertEquals("A", cursor.next());
+        assertEquals(1, mappedCount.get());
+
+        List<String> remaining = new ArrayList<>();
+        for (String value : cursor) {
+            remaining.add(value);
+        }
+        assertEquals(Arrays.asList("B", "C"), remaining);
+        assertEquals(3, mappedCount.get());
+    }
+
+    @Test
+    public void testNextAfterLastDocument() {
+        MongoDbCursor<String> cursor = new MongoDbCursor<>(createMongoCursor("a"), document -> document);
+        cursor.next();
+
+        assertFalse(cursor.hasNext());
+        assertThrows(NoSuchElementException.class, cursor::next);
+    }
+
+    @Test
+    public void testCloseClosesMongoCursor() {
+        try (MongoDbCursor<String> cursor = new MongoDbCursor<>(createMongoCursor("a", "b"), document -> document)) {
+            assertTrue(cursor.hasNext());
+        }
+        assertEquals(1, closeCount.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    protected MongoCursor<String> createMongoCursor(String... documents) {
+        Iterator<String> iterator = Arrays.asList(documents).iterator();
+        return (MongoCursor<String>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { MongoCursor.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hasNext":
+                    return iterator.hasNext();
+                case "next":
+                    return iterator.next();
+                case "close":
+                    closeCount.incrementAndGet();
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+}
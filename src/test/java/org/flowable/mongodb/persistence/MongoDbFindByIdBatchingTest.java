@@ -0,0 +1,116 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.flowable.task.service.impl.persistence.entity.TaskEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClientOptions;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * With find by id batching, the executions referenced by the tasks of a process instance are loaded with one query.
+ */
+public class MongoDbFindByIdBatchingTest extends AbstractMongoDbTest {
+
+    protected AtomicInteger executionFindCount = new AtomicInteger();
+
+    protected ProcessInstance processInstance;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setFindByIdBatchingEnabled(true);
+        processEngineConfiguration.setMongoClientOptions(MongoClientOptions.builder().addCommandListener(new CommandListener() {
+
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("find".equals(event.getCommandName())
+                        && MongoDbExecutionDataManager.COLLECTION_EXECUTIONS.equals(event.getCommand().getString("find").getValue())) {
+                    executionFindCount.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+            }
+
+            @Override
+            public void commandFailed(CommandFailedEvent event) {
+            }
+        }).build());
+    }
+
+    @BeforeEach
+    public void startProcessInstance() {
+        deploy("nestedSubProcess.bpmn20.xml");
+        processInstance = runtimeService.startProcessInstanceByKey("nestedSubprocesses");
+    }
+
+    @Test
+    public void testTaskExecutionsAreLoadedWithOneQuery() {
+        assertEquals(1, countExecutionFinds(true));
+    }
+
+    @Test
+    public void testTaskExecutionsAreLoadedOneByOneWithoutBatching() {
+        assertEquals(2, countExecutionFinds(false));
+    }
+
+    @Test
+    public void testProcessCompletes() {
+        for (Task task : taskService.createTaskQuery().processInstanceId(processInstance.getId()).list()) {
+            taskService.complete(task.getId());
+        }
+
+        assertEquals(0, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count());
+        assertNotNull(historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).singleResult().getEndTime());
+    }
+
+    protected int countExecutionFinds(boolean findByIdBatchingEnabled) {
+        return managementService.executeCommand(commandContext -> {
+            MongoDbSession mongoDbSession = commandContext.getSession(MongoDbSession.class);
+            mongoDbSession.getMongoDbSessionFactory().setFindByIdBatchingEnabled(findByIdBatchingEnabled);
+            try {
+                List<TaskEntity> tasks = ((MongoDbTaskDataManager) processEngineConfiguration.getTaskServiceConfiguration().getTaskDataManager())
+                        .findTasksByProcessInstanceId(processInstance.getId());
+                assertEquals(2, tasks.size());
+
+                executionFindCount.set(0);
+                for (TaskEntity task : tasks) {
+                    assertNotNull(mongoDbSession.findOne(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, task.getExecutionId()));
+                }
+                return executionFindCount.get();
+
+            } finally {
+                mongoDbSession.getMongoDbSessionFactory().setFindByIdBatchingEnabled(true);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.FakeClientSession;
+import org.flowable.mongodb.transaction.MongoDbTransactionContext;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The transaction is only started by the first write, so commands that only read don't start nor commit one.
+ */
+public class MongoDbLazyTransactionTest {
+
+    protected FakeClientSession fakeClientSession;
+    protected EntityCacheImpl entityCache;
+    protected MongoDbSession mongoDbSession;
+
+    @BeforeEach
+    public void createSession() {
+        fakeClientSession = new FakeClientSession();
+        entityCache = new EntityCacheImpl();
+        mongoDbSession = new MongoDbSession(new MongoDbSessionFactory(null, null), null, null, entityCache, fakeClientSession.getClientSession());
+        mongoDbSession.externallyManagedTransaction = false;
+    }
+
+    @Test
+    public void testWriteStartsTransaction() {
+        assertFalse(mongoDbSession.hasActiveTransaction());
+
+        mongoDbSession.update(createTask("task1"));
+        assertTrue(mongoDbSession.hasActiveTransaction());
+
+        mongoDbSession.delete(MongoDbTaskDataManager.COLLECTION_TASKS, createTask("task2"));
+        mongoDbSession.insertOne(createTask("task3"));
+        assertEquals(1, fakeClientSession.getStartedTransactionCount());
+    }
+
+    @Test
+    public void testFlushWithoutChangesDoesNotStartTransaction() {
+        TaskEntityImpl task = createTask("task1");
+        entityCache.put(task, true); // loaded and not changed
+
+        mongoDbSession.flush();
+        assertFalse(mongoDbSession.hasActiveTransaction());
+    }
+
+    @Test
+    public void testReadOnlyCommandIsNotCommitted() {
+        MongoDbTransactionContext transactionContext = createTransactionContext();
+        transactionContext.commit();
+        transactionContext.rollback();
+
+        assertEquals(0, fakeClientSession.getStartedTransactionCount());
+        assertEquals(0, fakeClientSession.getCommitCount());
+        assertEquals(0, fakeClientSession.getAbortCount());
+    }
+
+    @Test
+    public void testWritingCommandIsCommitted() {
+        MongoDbTransactionContext transactionContext = createTransactionContext();
+        mongoDbSession.bulkDelete(MongoDbTaskDataManager.COLLECTION_TASKS, null);
+        transactionContext.commit();
+
+        assertEquals(1, fakeClientSession.getCommitCount());
+        assertFalse(fakeClientSession.isTransactionActive());
+    }
+
+    @Test
+    public void testExternallyManagedTransactionIsNotStarted() {
+        mongoDbSession.externallyManagedTransaction = true;
+        mongoDbSession.update(createTask("task1"));
+
+        assertEquals(0, fakeClientSession.getStartedTransactionCount());
+    }
+
+    protected MongoDbTransactionContext createTransactionContext() {
+        CommandContext commandContext = new CommandContext(null);
+        commandContext.getSessions().put(MongoDbSession.class, mongoDbSession);
+        return new MongoDbTransactionContext(commandContext);
+    }
+
+    protected TaskEntityImpl createTask(String id) {
+        TaskEntityImpl task = new TaskEntityImpl();
+        task.setId(id);
+        return task;
+    }
+
+}
@@ -0,0 +1,78 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * Updates only write the changed fields, and remove the fields that were cleared from the document.
+ */
+public class MongoDbPartialUpdateTest extends AbstractMongoDbTest {
+
+    protected Task task;
+
+    @BeforeEach
+    public void startProcessInstance() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        runtimeService.startProcessInstanceByKey("oneTask");
+        task = taskService.createTaskQuery().singleResult();
+    }
+
+    @Test
+    public void testChangedFieldsAreUpdated() {
+        Date dueDate = new Date(1500000000000L);
+        taskService.setDueDate(task.getId(), dueDate);
+        taskService.setPriority(task.getId(), 80);
+
+        Task updatedTask = taskService.createTaskQuery().taskId(task.getId()).singleResult();
+        assertEquals(dueDate, updatedTask.getDueDate());
+        assertEquals(80, updatedTask.getPriority());
+        assertEquals("my task", updatedTask.getName());
+    }
+
+    @Test
+    public void testClearedFieldsAreUnset() {
+        taskService.setDueDate(task.getId(), new Date());
+        taskService.setAssignee(task.getId(), "kermit");
+        assertTrue(getTaskDocument().containsKey("dueDate"));
+
+        taskService.setDueDate(task.getId(), null);
+        taskService.setAssignee(task.getId(), null);
+
+        Document taskDocument = getTaskDocument();
+        assertFalse(taskDocument.containsKey("dueDate"));
+        assertFalse(taskDocument.containsKey("assignee"));
+        assertNull(taskService.createTaskQuery().taskId(task.getId()).singleResult().getDueDate());
+        assertEquals(1, taskService.createTaskQuery().taskUnassigned().count());
+    }
+
+    protected Document getTaskDocument() {
+        return processEngineConfiguration.getMongoDatabase().getCollection(MongoDbTaskDataManager.COLLECTION_TASKS)
+                .find(Filters.eq("_id", task.getId())).first();
+    }
+
+}
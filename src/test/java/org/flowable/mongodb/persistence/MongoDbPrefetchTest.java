@@ -0,0 +1,90 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
+import org.flowable.mongodb.cache.MongoDbDefinitionCache;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbProcessDefinitionEntityImpl;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbProcessDefinitionDataManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Prefetched ids are only registered for lookup when find by id batching is enabled, and when they aren't cached already.
+ */
+public class MongoDbPrefetchTest {
+
+    protected static final String COLLECTION = MongoDbExecutionDataManager.COLLECTION_EXECUTIONS;
+
+    protected MongoDbSessionFactory mongoDbSessionFactory;
+    protected EntityCacheImpl entityCache;
+    protected MongoDbSession mongoDbSession;
+
+    @BeforeEach
+    public void createSession() {
+        mongoDbSessionFactory = new MongoDbSessionFactory(null, null);
+        mongoDbSessionFactory.registerEntityMapper(MongoDbExecutionEntityImpl.class, null, COLLECTION);
+        mongoDbSessionFactory.registerEntityMapper(MongoDbProcessDefinitionEntityImpl.class, null,
+                MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS);
+        mongoDbSessionFactory.setFindByIdBatchingEnabled(true);
+
+        entityCache = new EntityCacheImpl();
+        mongoDbSession = new MongoDbSession(mongoDbSessionFactory, null, null, entityCache, null);
+    }
+
+    @Test
+    public void testPrefetchedIdsArePending() {
+        mongoDbSession.prefetch(COLLECTION, Arrays.asList("e1", "e2"));
+        mongoDbSession.prefetch(COLLECTION, Arrays.asList("e2", "e3"));
+
+        assertEquals(new LinkedHashSet<>(Arrays.asList("e1", "e2", "e3")), mongoDbSession.pendingIdLookups.get(COLLECTION));
+    }
+
+    @Test
+    public void testNullAndCachedIdsAreIgnored() {
+        MongoDbExecutionEntityImpl execution = new MongoDbExecutionEntityImpl();
+        execution.setId("e1");
+        entityCache.put(execution, true);
+
+        mongoDbSession.prefetch(COLLECTION, Arrays.asList("e1", null, "e2"));
+
+        assertEquals(new LinkedHashSet<>(Arrays.asList("e2")), mongoDbSession.pendingIdLookups.get(COLLECTION));
+    }
+
+    @Test
+    public void testNothingIsPendingWhenBatchingIsDisabled() {
+        mongoDbSessionFactory.setFindByIdBatchingEnabled(false);
+
+        mongoDbSession.prefetch(COLLECTION, Arrays.asList("e1", "e2"));
+
+        assertTrue(mongoDbSession.pendingIdLookups.isEmpty());
+    }
+
+    @Test
+    public void testDefinitionCacheCollectionsAreIgnored() {
+        mongoDbSessionFactory.setDefinitionCache(new MongoDbDefinitionCache(10));
+
+        mongoDbSession.prefetch(MongoDbProcessDefinitionDataManager.COLLECTION_PROCESS_DEFINITIONS, Arrays.asList("pd1"));
+
+        assertTrue(mongoDbSession.pendingIdLookups.isEmpty());
+    }
+
+}
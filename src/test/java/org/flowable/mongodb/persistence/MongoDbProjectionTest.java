@@ -0,0 +1,80 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.flowable.common.engine.impl.persistence.cache.EntityCache;
+import org.flowable.mongodb.persistence.manager.MongoDbHistoricProcessInstanceDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * Lightweight lookups only read the requested field, and are covered by an index where one holds that field.
+ */
+public class MongoDbProjectionTest extends AbstractMongoDbTest {
+
+    @Test
+    public void testDeploymentResourceNames() {
+        String deploymentId = deploy("oneTaskProcess.bpmn20.xml");
+
+        assertEquals(Collections.singletonList("oneTaskProcess.bpmn20.xml"), repositoryService.getDeploymentResourceNames(deploymentId));
+    }
+
+    @Test
+    public void testFindValuesDoesNotMapEntities() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        runtimeService.startProcessInstanceByKey("oneTask");
+        Task task = taskService.createTaskQuery().singleResult();
+
+        managementService.executeCommand(commandContext -> {
+            List<String> names = commandContext.getSession(MongoDbSession.class)
+                    .findValues(MongoDbTaskDataManager.COLLECTION_TASKS, Filters.eq("_id", task.getId()), "name");
+            assertEquals(Collections.singletonList("my task"), names);
+            assertNull(commandContext.getSession(EntityCache.class).findInCache(TaskEntityImpl.class, task.getId()));
+            return null;
+        });
+    }
+
+    @Test
+    public void testIdLookupIsCoveredByIndex() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        for (int i = 0; i < 3; i++) {
+            runtimeService.startProcessInstanceByKey("oneTask");
+        }
+        Object processDefinitionId = processEngineConfiguration.getMongoDatabase()
+                .getCollection(MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES)
+                .find().first().get("processDefinitionId");
+
+        Document explain = processEngineConfiguration.getMongoDatabase().runCommand(new Document("explain", new Document()
+                .append("find", MongoDbHistoricProcessInstanceDataManager.COLLECTION_HISTORIC_PROCESS_INSTANCES)
+                .append("filter", new Document("processDefinitionId", processDefinitionId))
+                .append("projection", new Document("_id", 1)))
+                .append("verbosity", "executionStats"));
+
+        Document executionStats = explain.get("executionStats", Document.class);
+        assertEquals(3, executionStats.getInteger("nReturned").intValue());
+        assertEquals(0, executionStats.getInteger("totalDocsExamined").intValue());
+    }
+
+}
@@ -0,0 +1,77 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Updates and deletes of revisioned entities are guarded on the revision that was read, and increment it on the server.
+ */
+public class MongoDbRevisionGuardTest {
+
+    protected MongoDbSession mongoDbSession;
+
+    @BeforeEach
+    public void createSession() {
+        mongoDbSession = new MongoDbSession(new MongoDbSessionFactory(null, null), null, null, null, null);
+    }
+
+    @Test
+    public void testRevisionFilter() {
+        TaskEntityImpl task = createTask(3);
+        assertFilter(Filters.and(Filters.eq("_id", "task"), Filters.eq("revision", 3)), mongoDbSession.createRevisionFilter(task));
+    }
+
+    @Test
+    public void testRevisionFilterMatchesDocumentsWithoutRevision() {
+        TaskEntityImpl task = createTask(1);
+        assertFilter(Filters.and(Filters.eq("_id", "task"), Filters.or(Filters.eq("revision", 1), Filters.exists("revision", false))),
+                mongoDbSession.createRevisionFilter(task));
+    }
+
+    @Test
+    public void testRevisionIsIncrementedOnServer() {
+        TaskEntityImpl task = createTask(2);
+        BasicDBObject updateObject = new BasicDBObject("name", "task").append("revision", 7);
+
+        Document updateDocument = mongoDbSession.createUpdateDocument(task, updateObject);
+        assertEquals(new Document("revision", 1), updateDocument.get("$inc"));
+        assertEquals(new BasicDBObject("name", "task"), updateDocument.get("$set"));
+        assertFalse(updateDocument.containsKey("$unset"));
+    }
+
+    protected TaskEntityImpl createTask(int revision) {
+        TaskEntityImpl task = new TaskEntityImpl();
+        task.setId("task");
+        task.setRevision(revision);
+        return task;
+    }
+
+    protected void assertFilter(Bson expected, Bson actual) {
+        assertEquals(expected.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry()),
+                actual.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry()));
+    }
+
+}
@@ -0,0 +1,73 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.flowable.common.engine.impl.persistence.cache.EntityCache;
+import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntity;
+import org.flowable.engine.impl.persistence.entity.ExecutionEntityImpl;
+import org.flowable.engine.impl.persistence.entity.data.impl.cachematcher.ExecutionsByParentExecutionIdEntityMatcher;
+import org.flowable.mongodb.cache.MongoDbEntityCache;
+import org.flowable.mongodb.cache.MongoDbEntityCacheFactory;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The lookups with a cached entity matcher need to find the entities that are cached as the MongoDB subclass of the requested type,
+ * with and without the indexes of the entity cache.
+ */
+public class MongoDbSessionCachedEntityTest {
+
+    @Test
+    public void testFindFromCacheWithoutIndexes() {
+        assertCachedChildExecutionsFound(new EntityCacheImpl());
+    }
+
+    @Test
+    public void testFindFromCacheWithIndexes() {
+        assertCachedChildExecutionsFound(new MongoDbEntityCache(MongoDbEntityCacheFactory.createDefaultIndexes()));
+    }
+
+    @Test
+    public void testFindFromCacheWithoutMatchingIndex() {
+        assertCachedChildExecutionsFound(new MongoDbEntityCache(Collections.emptyList()));
+    }
+
+    protected void assertCachedChildExecutionsFound(EntityCache entityCache) {
+        MongoDbSession mongoDbSession = new MongoDbSession(new MongoDbSessionFactory(null, null), null, null, entityCache, null);
+        entityCache.put(createExecution("child1", "parent"), false);
+        entityCache.put(createExecution("child2", "parent"), false);
+        entityCache.put(createExecution("other", "otherParent"), false);
+
+        ExecutionsByParentExecutionIdEntityMatcher matcher = new ExecutionsByParentExecutionIdEntityMatcher();
+        List<ExecutionEntity> executions = mongoDbSession.findFromCache(matcher, "parent", MongoDbExecutionEntityImpl.class);
+        assertEquals(2, executions.size());
+
+        // The type of the engine, which the MongoDB entity extends
+        executions = mongoDbSession.findFromCache(matcher, "parent", ExecutionEntityImpl.class);
+        assertEquals(2, executions.size());
+    }
+
+    protected ExecutionEntity createExecution(String id, String parentId) {
+        MongoDbExecutionEntityImpl execution = new MongoDbExecutionEntityImpl();
+        execution.setId(id);
+        execution.setParentId(parentId);
+        return execution;
+    }
+
+}
@@ -0,0 +1,108 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbVariableInstanceDataManager;
+import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntity;
+import org.flowable.variable.service.impl.persistence.entity.VariableInstanceEntityImpl;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Variables are stored in the document of their task, or else of their execution, and are read back by unwinding the owner documents.
+ */
+public class MongoDbColocatedEntitiesTest {
+
+    protected MongoDbColocatedEntities colocatedEntities = new MongoDbColocatedEntities(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES, "variables")
+            .addOwner(MongoDbTaskDataManager.COLLECTION_TASKS, entity -> ((VariableInstanceEntity) entity).getTaskId())
+            .addOwner(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, entity -> ((VariableInstanceEntity) entity).getExecutionId());
+
+    @Test
+    public void testFirstOwnerWithIdIsUsed() {
+        VariableInstanceEntityImpl taskVariable = createVariable("task1", "execution1");
+        assertEquals(MongoDbTaskDataManager.COLLECTION_TASKS, colocatedEntities.getOwnerCollection(taskVariable));
+        assertEquals("task1", colocatedEntities.getOwnerId(taskVariable));
+
+        VariableInstanceEntityImpl executionVariable = createVariable(null, "execution1");
+        assertEquals(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, colocatedEntities.getOwnerCollection(executionVariable));
+        assertEquals("execution1", colocatedEntities.getOwnerId(executionVariable));
+    }
+
+    @Test
+    public void testVariableWithoutOwner() {
+        VariableInstanceEntityImpl variable = createVariable(null, null);
+
+        assertNull(colocatedEntities.getOwnerCollection(variable));
+        assertNull(colocatedEntities.getOwnerId(variable));
+    }
+
+    @Test
+    public void testPipelineOnlyReadsOwnersHoldingTheirVariables() {
+        Bson ownerFilter = Filters.eq("processInstanceId", "pi1");
+        List<BsonDocument> pipeline = toBsonDocuments(colocatedEntities.createPipeline(ownerFilter, Filters.eq("name", "var"), Sorts.ascending("name"), 3));
+
+        assertEquals(toBsonDocument(Filters.and(ownerFilter, Filters.exists("variables"))), pipeline.get(0).getDocument("$match"));
+        assertEquals("$variables", pipeline.get(1).getDocument("$project").getDocument("_colocated").getString("$objectToArray").getValue());
+        assertTrue(pipeline.get(2).containsKey("$unwind"));
+        assertTrue(pipeline.get(3).containsKey("$replaceRoot"));
+        assertEquals(toBsonDocument(Filters.eq("name", "var")), pipeline.get(4).getDocument("$match"));
+        assertTrue(pipeline.get(5).containsKey("$sort"));
+        assertEquals(3, pipeline.get(6).getInt32("$limit").getValue());
+    }
+
+    @Test
+    public void testCountPipelineWithoutEntityFilterDoesNotUnwind() {
+        List<BsonDocument> pipeline = toBsonDocuments(colocatedEntities.createCountPipeline(null, null));
+
+        assertEquals(toBsonDocument(Filters.exists("variables")), pipeline.get(0).getDocument("$match"));
+        for (BsonDocument stage : pipeline) {
+            assertFalse(stage.containsKey("$unwind"));
+        }
+    }
+
+    protected VariableInstanceEntityImpl createVariable(String taskId, String executionId) {
+        VariableInstanceEntityImpl variable = new VariableInstanceEntityImpl();
+        variable.setId("variable1");
+        variable.setTaskId(taskId);
+        variable.setExecutionId(executionId);
+        return variable;
+    }
+
+    protected List<BsonDocument> toBsonDocuments(List<Bson> pipeline) {
+        List<BsonDocument> documents = new ArrayList<>();
+        for (Bson stage : pipeline) {
+            documents.add(toBsonDocument(stage));
+        }
+        return documents;
+    }
+
+    protected BsonDocument toBsonDocument(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+}
@@ -0,0 +1,95 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bson.Document;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbVariableInstanceDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * With colocated variables, the variables are stored in the document of their execution or task instead of in the variables collection.
+ */
+public class MongoDbColocatedVariableTest extends AbstractMongoDbTest {
+
+    protected ProcessInstance processInstance;
+    protected Task task;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setColocatedVariablesEnabled(true);
+    }
+
+    @BeforeEach
+    public void startProcessInstance() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("amount", 10);
+        variables.put("customer", "kermit");
+        processInstance = runtimeService.startProcessInstanceByKey("oneTask", variables);
+        task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    }
+
+    @Test
+    public void testVariablesAreStoredInOwnerDocuments() {
+        taskService.setVariableLocal(task.getId(), "comment", "ok");
+
+        assertEquals(0, processEngineConfiguration.getMongoDatabase().getCollection(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES).countDocuments());
+        assertEquals(2, getVariables(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, processInstance.getId()).size());
+        assertEquals(1, getVariables(MongoDbTaskDataManager.COLLECTION_TASKS, task.getId()).size());
+        assertEquals(3, runtimeService.createVariableInstanceQuery().count());
+        assertEquals(2, runtimeService.createVariableInstanceQuery().processInstanceId(processInstance.getId()).count());
+    }
+
+    @Test
+    public void testVariableUpdatesAndRemovals() {
+        runtimeService.setVariable(processInstance.getId(), "amount", 20);
+        runtimeService.removeVariable(processInstance.getId(), "customer");
+
+        assertEquals(20, runtimeService.getVariable(processInstance.getId(), "amount"));
+        assertNull(runtimeService.getVariable(processInstance.getId(), "customer"));
+        assertEquals(1, getVariables(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS, processInstance.getId()).size());
+    }
+
+    @Test
+    public void testTaskVariablesAreRemovedWithTask() {
+        taskService.setVariableLocal(task.getId(), "comment", "ok");
+        assertEquals("ok", taskService.getVariableLocal(task.getId(), "comment"));
+
+        taskService.complete(task.getId());
+
+        assertEquals(0, runtimeService.createVariableInstanceQuery().count());
+        assertEquals(0, processEngineConfiguration.getMongoDatabase().getCollection(MongoDbTaskDataManager.COLLECTION_TASKS).countDocuments());
+        assertEquals(3, historyService.createHistoricVariableInstanceQuery().processInstanceId(processInstance.getId()).count());
+    }
+
+    protected Document getVariables(String collection, String ownerId) {
+        return processEngineConfiguration.getMongoDatabase().getCollection(collection).find(Filters.eq("_id", ownerId)).first()
+                .get("variables", Document.class);
+    }
+
+}
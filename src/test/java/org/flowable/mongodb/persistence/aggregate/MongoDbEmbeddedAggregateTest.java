@@ -0,0 +1,118 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * The aggregate root of embedded executions, and the pipeline that unwinds the aggregate documents into one document per execution.
+ */
+public class MongoDbEmbeddedAggregateTest {
+
+    protected MongoDbEmbeddedAggregate embeddedAggregate = new MongoDbEmbeddedAggregate(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS,
+            MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS, ExecutionAggregateBoundary.PROCESS_INSTANCE::getAggregateId, 100L);
+
+    @Test
+    public void testAggregateIdOfProcessInstanceBoundary() {
+        assertNull(embeddedAggregate.getAggregateId(createExecution("pi1", "pi1", "pi1")));
+        assertEquals("pi1", embeddedAggregate.getAggregateId(createExecution("e1", "pi1", "pi1")));
+        assertNull(embeddedAggregate.getAggregateId(createExecution("pi2", "pi2", "pi1")));
+    }
+
+    @Test
+    public void testAggregateIdOfRootProcessInstanceBoundary() {
+        MongoDbEmbeddedAggregate rootAggregate = new MongoDbEmbeddedAggregate(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS,
+                MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS, ExecutionAggregateBoundary.ROOT_PROCESS_INSTANCE::getAggregateId, 100L);
+
+        assertNull(rootAggregate.getAggregateId(createExecution("pi1", "pi1", "pi1")));
+        assertEquals("pi1", rootAggregate.getAggregateId(createExecution("pi2", "pi2", "pi1")));
+        assertEquals("pi1", rootAggregate.getAggregateId(createExecution("e2", "pi2", "pi1")));
+    }
+
+    @Test
+    public void testCanEmbedUpToMaxSize() {
+        assertTrue(embeddedAggregate.canEmbed(60L, 40L));
+        assertFalse(embeddedAggregate.canEmbed(60L, 41L));
+    }
+
+    @Test
+    public void testEmbeddedPaths() {
+        assertEquals("embeddedExecutions.$[e0].name", embeddedAggregate.getEmbeddedPath("e0", "name"));
+        assertEquals("embeddedExecutions.$.lockOwner", embeddedAggregate.getPositionalPath("lockOwner"));
+    }
+
+    @Test
+    public void testPipelineMatchesTopLevelAndEmbeddedDocuments() {
+        Bson filter = Filters.eq("processInstanceId", "pi1");
+        List<BsonDocument> pipeline = toBsonDocuments(embeddedAggregate.createPipeline(filter, Sorts.ascending("_id"), 10, 5));
+
+        assertEquals(toBsonDocument(Filters.or(filter, Filters.elemMatch(MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS, filter))),
+                pipeline.get(0).getDocument("$match"));
+        assertTrue(pipeline.get(2).containsKey("$unwind"));
+        assertTrue(pipeline.get(3).containsKey("$replaceRoot"));
+        assertEquals(toBsonDocument(filter), pipeline.get(4).getDocument("$match"));
+        assertEquals(0, pipeline.get(5).getDocument("$project").getInt32(MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS).getValue());
+        assertTrue(pipeline.get(6).containsKey("$sort"));
+        assertEquals(10, pipeline.get(7).getInt32("$skip").getValue());
+        assertEquals(5, pipeline.get(8).getInt32("$limit").getValue());
+        assertEquals(9, pipeline.size());
+    }
+
+    @Test
+    public void testPipelineWithoutFilterUnwindsAll() {
+        List<BsonDocument> pipeline = toBsonDocuments(embeddedAggregate.createCountPipeline(null));
+
+        assertTrue(pipeline.get(0).containsKey("$project"));
+        assertTrue(pipeline.get(pipeline.size() - 1).containsKey("$count"));
+        for (BsonDocument stage : pipeline) {
+            assertFalse(stage.containsKey("$match"));
+        }
+    }
+
+    protected MongoDbExecutionEntityImpl createExecution(String id, String processInstanceId, String rootProcessInstanceId) {
+        MongoDbExecutionEntityImpl execution = new MongoDbExecutionEntityImpl();
+        execution.setId(id);
+        execution.setProcessInstanceId(processInstanceId);
+        execution.setRootProcessInstanceId(rootProcessInstanceId);
+        return execution;
+    }
+
+    protected List<BsonDocument> toBsonDocuments(List<Bson> pipeline) {
+        List<BsonDocument> documents = new ArrayList<>();
+        for (Bson stage : pipeline) {
+            documents.add(toBsonDocument(stage));
+        }
+        return documents;
+    }
+
+    protected BsonDocument toBsonDocument(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+}
@@ -0,0 +1,100 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbExecutionDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.MongoCollection;
+
+/**
+ * With the process instance as aggregate boundary, the execution tree is one document, while the execution queries still see every execution.
+ */
+public class MongoDbEmbeddedExecutionAggregateTest extends AbstractMongoDbTest {
+
+    protected ProcessInstance processInstance;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setExecutionAggregateBoundary(ExecutionAggregateBoundary.PROCESS_INSTANCE);
+    }
+
+    @BeforeEach
+    public void startProcessInstance() {
+        deploy("nestedSubProcess.bpmn20.xml");
+        processInstance = runtimeService.startProcessInstanceByKey("nestedSubprocesses");
+    }
+
+    @Test
+    public void testExecutionTreeDocuments() {
+        long executionCount = runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count();
+        assertTrue(executionCount > 2);
+
+        assertEquals(getExpectedDocumentCount(), getExecutions().countDocuments());
+        long embeddedExecutionCount = 0;
+        for (Document document : getExecutions().find()) {
+            List<?> embeddedExecutions = document.get(MongoDbExecutionDataManager.EMBEDDED_EXECUTIONS, List.class);
+            embeddedExecutionCount += embeddedExecutions != null ? embeddedExecutions.size() : 0;
+        }
+        assertEquals(executionCount - getExpectedDocumentCount(), embeddedExecutionCount);
+        assertEquals(executionCount, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).list().size());
+    }
+
+    @Test
+    public void testEmbeddedExecutionsAreQueriedAndUpdated() {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).taskDefinitionKey("innerTask1").singleResult();
+
+        assertEquals(1, runtimeService.createExecutionQuery().activityId("innerTask1").count());
+        assertEquals(task.getExecutionId(), runtimeService.createExecutionQuery().executionId(task.getExecutionId()).singleResult().getId());
+
+        runtimeService.setVariableLocal(task.getExecutionId(), "local", "value");
+        assertEquals("value", runtimeService.getVariableLocal(task.getExecutionId(), "local"));
+    }
+
+    @Test
+    public void testCompletingTasksUpdatesAggregate() {
+        List<Task> tasks = taskService.createTaskQuery().processInstanceId(processInstance.getId()).list();
+        assertEquals(2, tasks.size());
+
+        taskService.complete(tasks.get(0).getId());
+        assertEquals(getExpectedDocumentCount(), getExecutions().countDocuments());
+        assertEquals(1, taskService.createTaskQuery().processInstanceId(processInstance.getId()).count());
+
+        taskService.complete(tasks.get(1).getId());
+        assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+        assertEquals(0, getExecutions().countDocuments());
+    }
+
+    /**
+     * The number of execution documents of one process instance in this storage mode.
+     */
+    protected long getExpectedDocumentCount() {
+        return 1;
+    }
+
+    protected MongoCollection<Document> getExecutions() {
+        return processEngineConfiguration.getMongoDatabase().getCollection(MongoDbExecutionDataManager.COLLECTION_EXECUTIONS);
+    }
+
+}
@@ -0,0 +1,34 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.aggregate;
+
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+
+/**
+ * Runs the embedded execution tests with a max embedded size that no execution fits in,
+ * so every execution is stored as a document of its own and is still found by the same queries.
+ */
+public class MongoDbEmbeddedExecutionOverflowTest extends MongoDbEmbeddedExecutionAggregateTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        super.configureProcessEngine(processEngineConfiguration);
+        processEngineConfiguration.setMaxEmbeddedExecutionsSize(1L);
+    }
+
+    @Override
+    protected long getExpectedDocumentCount() {
+        return runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count();
+    }
+
+}
@@ -0,0 +1,153 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.function.Supplier;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntityImpl;
+import org.flowable.job.service.impl.persistence.entity.JobEntityImpl;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.EntityToDocumentMapper;
+import org.flowable.mongodb.persistence.entity.MongoDbExecutionEntityImpl;
+import org.flowable.mongodb.persistence.entity.MongoDbVariableInstanceEntityImpl;
+import org.flowable.mongodb.persistence.mapper.ExecutionEntityMapper;
+import org.flowable.mongodb.persistence.mapper.HistoricActivityInstanceEntityMapper;
+import org.flowable.mongodb.persistence.mapper.JobEntityMapper;
+import org.flowable.mongodb.persistence.mapper.TaskEntityMapper;
+import org.flowable.mongodb.persistence.mapper.VariableInstanceEntityMapper;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.flowable.variable.service.impl.types.DefaultVariableTypes;
+import org.flowable.variable.service.impl.types.StringType;
+
+import com.mongodb.MongoClient;
+
+/**
+ * The entities that have both a codec and a mapper, with the means to encode and decode them both ways.
+ * Used by the codec tests and the codec benchmarks (see the jmh profile).
+ */
+public enum EntityCodecFixture {
+
+    EXECUTION(new ExecutionEntityCodec(), new ExecutionEntityMapper(), MongoDbExecutionEntityImpl::new),
+    TASK(new TaskEntityCodec(), new TaskEntityMapper(), TaskEntityImpl::new),
+    VARIABLE(new VariableInstanceEntityCodec(), new VariableInstanceEntityMapper(), MongoDbVariableInstanceEntityImpl::new),
+    JOB(new JobEntityCodec(), new JobEntityMapper(), JobEntityImpl::new),
+    HISTORIC_ACTIVITY(new HistoricActivityInstanceEntityCodec(), new HistoricActivityInstanceEntityMapper(), HistoricActivityInstanceEntityImpl::new);
+
+    protected AbstractEntityCodec<Entity> codec;
+    protected EntityToDocumentMapper<Entity> mapper;
+    protected Supplier<? extends Entity> entitySupplier;
+
+    @SuppressWarnings("unchecked")
+    EntityCodecFixture(AbstractEntityCodec<? extends Entity> codec, EntityToDocumentMapper<? extends Entity> mapper, Supplier<? extends Entity> entitySupplier) {
+        this.codec = (AbstractEntityCodec<Entity>) codec;
+        this.mapper = (EntityToDocumentMapper<Entity>) mapper;
+        this.entitySupplier = entitySupplier;
+    }
+
+    /**
+     * Creates an entity of which every simple property (strings, dates, numbers and booleans) has a distinct value.
+     */
+    public Entity createEntity() {
+        Entity entity = entitySupplier.get();
+        Method[] methods = entity.getClass().getMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName));
+        int index = 0;
+        for (Method method : methods) {
+            if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
+                Object value = createValue(method.getName().substring(3), method.getParameterTypes()[0], ++index);
+                if (value != null) {
+                    try {
+                        method.invoke(entity, value);
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        // not a plain property (e.g. a string holding an enum name), which the codecs and mappers don't write as is
+                    }
+                }
+            }
+        }
+        return entity;
+    }
+
+    protected Object createValue(String property, Class<?> type, int index) {
+        if (type == String.class) {
+            return "TypeName".equals(property) ? StringType.TYPE_NAME : property + "-" + index;
+        } else if (type == Date.class) {
+            return new Date(1577836800000L + index * 1000L);
+        } else if (type == Integer.class || type == int.class) {
+            return index;
+        } else if (type == Long.class || type == long.class) {
+            return 1000L + index;
+        } else if (type == Double.class || type == double.class) {
+            return index + 0.5;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    public BsonDocument encodeWithCodec(Entity entity) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), entity, EncoderContext.builder().build());
+        return document;
+    }
+
+    public BsonDocument encodeWithMapper(Entity entity) {
+        return mapper.toDocument(entity).toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+    public Entity decodeWithCodec(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    public Entity decodeWithMapper(BsonDocument document) {
+        return mapper.fromDocument(new DocumentCodec().decode(new BsonDocumentReader(document), DecoderContext.builder().build()));
+    }
+
+    public AbstractEntityCodec<Entity> getCodec() {
+        return codec;
+    }
+
+    public EntityToDocumentMapper<Entity> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Decoding variables looks up their type in the process engine configuration of the current command context.
+     */
+    public static void openCommandContext() {
+        MongoDbProcessEngineConfiguration processEngineConfiguration = new MongoDbProcessEngineConfiguration();
+        processEngineConfiguration.setVariableTypes(new DefaultVariableTypes().addType(new StringType(4000)));
+        CommandContext commandContext = new CommandContext(null);
+        commandContext.addEngineConfiguration(processEngineConfiguration.getEngineCfgKey(), processEngineConfiguration.getEngineScopeType(),
+                processEngineConfiguration);
+        Context.setCommandContext(commandContext);
+    }
+
+    public static void closeCommandContext() {
+        Context.removeCommandContext();
+    }
+
+}
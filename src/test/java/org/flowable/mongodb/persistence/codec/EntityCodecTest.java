@@ -0,0 +1,78 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.BsonDocument;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The codec of an entity must read and write the same fields as its mapper, as both are used for the same collection.
+ */
+public class EntityCodecTest {
+
+    @BeforeEach
+    public void openCommandContext() {
+        EntityCodecFixture.openCommandContext();
+    }
+
+    @AfterEach
+    public void closeCommandContext() {
+        EntityCodecFixture.closeCommandContext();
+    }
+
+    @Test
+    public void testExecutionRoundTrip() {
+        assertRoundTrip(EntityCodecFixture.EXECUTION);
+    }
+
+    @Test
+    public void testTaskRoundTrip() {
+        assertRoundTrip(EntityCodecFixture.TASK);
+    }
+
+    @Test
+    public void testVariableRoundTrip() {
+        assertRoundTrip(EntityCodecFixture.VARIABLE);
+    }
+
+    @Test
+    public void testJobRoundTrip() {
+        assertRoundTrip(EntityCodecFixture.JOB);
+    }
+
+    @Test
+    public void testHistoricActivityRoundTrip() {
+        assertRoundTrip(EntityCodecFixture.HISTORIC_ACTIVITY);
+    }
+
+    protected void assertRoundTrip(EntityCodecFixture fixture) {
+        Entity entity = fixture.createEntity();
+        BsonDocument mapperDocument = fixture.encodeWithMapper(entity);
+        BsonDocument codecDocument = fixture.encodeWithCodec(entity);
+        assertTrue(mapperDocument.size() > 5, "only " + mapperDocument.keySet() + " written");
+
+        // Both write the same fields with the same values
+        assertEquals(mapperDocument, codecDocument);
+
+        // The codec reads every field the mapper writes, and the other way around
+        assertEquals(mapperDocument, fixture.encodeWithMapper(fixture.decodeWithCodec(mapperDocument)));
+        assertEquals(codecDocument, fixture.encodeWithCodec(fixture.decodeWithMapper(codecDocument)));
+    }
+
+}
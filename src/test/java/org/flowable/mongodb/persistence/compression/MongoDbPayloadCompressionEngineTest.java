@@ -0,0 +1,94 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbResourceDataManager;
+import org.flowable.mongodb.persistence.manager.MongoDbVariableInstanceDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * With payload compression enabled, large variable texts and deployment resources are stored compressed and read back unchanged.
+ */
+public class MongoDbPayloadCompressionEngineTest extends AbstractMongoDbTest {
+
+    protected String longText;
+    protected ProcessInstance processInstance;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setPayloadCompressionEnabled(true);
+        processEngineConfiguration.setPayloadCompressionThresholdInBytes(64);
+    }
+
+    @BeforeEach
+    public void startProcessInstance() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("flowable ");
+        }
+        longText = text.toString();
+
+        deploy("oneTaskProcess.bpmn20.xml");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("longText", longText);
+        variables.put("shortText", "short");
+        processInstance = runtimeService.startProcessInstanceByKey("oneTask", variables);
+    }
+
+    @Test
+    public void testLargeVariableTextIsCompressed() {
+        assertTrue(getVariableDocument("longText").get("textValue") instanceof Binary);
+        assertEquals("short", getVariableDocument("shortText").get("textValue"));
+
+        assertEquals(longText, runtimeService.getVariable(processInstance.getId(), "longText"));
+        assertEquals("short", runtimeService.getVariable(processInstance.getId(), "shortText"));
+        assertTrue(processEngineConfiguration.getPayloadCompressionStatistics().getCompressedCount() > 0);
+    }
+
+    @Test
+    public void testUpdatedVariableTextIsCompressed() {
+        runtimeService.setVariable(processInstance.getId(), "shortText", longText + "updated");
+
+        assertTrue(getVariableDocument("shortText").get("textValue") instanceof Binary);
+        assertEquals(longText + "updated", runtimeService.getVariable(processInstance.getId(), "shortText"));
+    }
+
+    @Test
+    public void testDeploymentResourceIsCompressed() {
+        Document resourceDocument = processEngineConfiguration.getMongoDatabase().getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY)
+                .find(Filters.eq("name", "oneTaskProcess.bpmn20.xml")).first();
+
+        assertEquals(MongoDbPayloadCompression.BINARY_SUBTYPE, resourceDocument.get("bytes", Binary.class).getType());
+        assertEquals("oneTask", repositoryService.createProcessDefinitionQuery().singleResult().getKey());
+    }
+
+    protected Document getVariableDocument(String name) {
+        return processEngineConfiguration.getMongoDatabase().getCollection(MongoDbVariableInstanceDataManager.COLLECTION_VARIABLES)
+                .find(Filters.eq("name", name)).first();
+    }
+
+}
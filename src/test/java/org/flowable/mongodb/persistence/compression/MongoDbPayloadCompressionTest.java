@@ -0,0 +1,152 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.bson.types.Binary;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Payloads over the threshold are compressed when that makes them smaller, and every stored value, compressed or not, reads back the same.
+ */
+public class MongoDbPayloadCompressionTest {
+
+    protected MongoDbPayloadCompression payloadCompression;
+
+    @BeforeEach
+    public void createPayloadCompression() {
+        payloadCompression = new MongoDbPayloadCompression();
+        payloadCompression.setThresholdInBytes(64);
+        payloadCompression.setCompressor(payloadCompression.getCompressor(DeflatePayloadCompressor.NAME));
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        byte[] bytes = createCompressibleText(1000).getBytes(StandardCharsets.UTF_8);
+
+        Object value = payloadCompression.compress(bytes);
+
+        assertTrue(value instanceof Binary);
+        assertEquals(MongoDbPayloadCompression.BINARY_SUBTYPE, ((Binary) value).getType());
+        assertTrue(((Binary) value).getData().length < bytes.length);
+        assertArrayEquals(bytes, payloadCompression.getBytes(value));
+    }
+
+    @Test
+    public void testTextRoundTrip() {
+        String text = createCompressibleText(1000) + " \u00e9\u4e2d";
+
+        Object value = payloadCompression.compress(text);
+
+        assertTrue(value instanceof Binary);
+        assertEquals(text, payloadCompression.getString(value));
+    }
+
+    @Test
+    public void testPayloadsBelowThresholdAreNotCompressed() {
+        byte[] bytes = new byte[63];
+        assertSame(bytes, payloadCompression.compress(bytes));
+        assertEquals("short", payloadCompression.compress("short"));
+    }
+
+    @Test
+    public void testIncompressiblePayloadIsStoredAsIs() {
+        byte[] bytes = new byte[1000];
+        new Random(42).nextBytes(bytes);
+
+        assertSame(bytes, payloadCompression.compress(bytes));
+        assertEquals(1, payloadCompression.getStatistics().getUncompressedCount());
+    }
+
+    @Test
+    public void testUncompressedValuesAreReadAsIs() {
+        byte[] bytes = { 1, 2, 3 };
+        assertSame(bytes, payloadCompression.getBytes(bytes));
+        assertArrayEquals(bytes, payloadCompression.getBytes(new Binary(bytes)));
+        assertEquals("text", payloadCompression.getString("text"));
+    }
+
+    @Test
+    public void testCompressedValuesAreReadWhenCompressionIsDisabled() {
+        String text = createCompressibleText(1000);
+        Object value = payloadCompression.compress(text);
+
+        payloadCompression.setCompressor(null);
+
+        assertEquals(text, payloadCompression.getString(value));
+        assertEquals(text, payloadCompression.compress(text));
+    }
+
+    @Test
+    public void testPayloadOfUnknownCompressor() {
+        byte[] payload = ((Binary) payloadCompression.compress(createCompressibleText(1000))).getData();
+        payload[MongoDbPayloadCompression.MAGIC.length] = 42;
+
+        assertThrows(FlowableException.class, () -> payloadCompression.getBytes(new Binary(MongoDbPayloadCompression.BINARY_SUBTYPE, payload)));
+    }
+
+    @Test
+    public void testCompressorIdsAreUnique() {
+        MongoDbPayloadCompressor otherCompressor = new DeflatePayloadCompressor() {
+
+            @Override
+            public String getName() {
+                return "other";
+            }
+        };
+
+        assertThrows(FlowableIllegalArgumentException.class, () -> payloadCompression.registerCompressor(otherCompressor));
+        assertThrows(FlowableIllegalArgumentException.class, () -> payloadCompression.getCompressor("other"));
+    }
+
+    @Test
+    public void testDecompressIfCompressed() {
+        byte[] bytes = createCompressibleText(1000).getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ((Binary) payloadCompression.compress(bytes)).getData();
+
+        assertTrue(payloadCompression.isCompressed(payload));
+        assertArrayEquals(bytes, payloadCompression.decompressIfCompressed(payload));
+        assertSame(bytes, payloadCompression.decompressIfCompressed(bytes));
+    }
+
+    @Test
+    public void testStatistics() {
+        payloadCompression.getBytes(payloadCompression.compress(createCompressibleText(1000)));
+
+        MongoDbPayloadCompressionStatistics statistics = payloadCompression.getStatistics();
+        assertEquals(1, statistics.getCompressedCount());
+        assertEquals(1, statistics.getDecompressedCount());
+        assertEquals(1000, statistics.getBytesBeforeCompression());
+        assertTrue(statistics.getBytesAfterCompression() < 1000);
+    }
+
+    protected String createCompressibleText(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("flowable ");
+        }
+        return text.substring(0, length);
+    }
+
+}
@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.gridfs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.bson.Document;
+import org.flowable.common.engine.impl.util.IoUtil;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbResourceDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Deployment resources larger than the threshold are stored in GridFS, and are read back and deleted with their deployment.
+ */
+public class MongoDbGridFsResourceTest extends AbstractMongoDbTest {
+
+    protected static final String BPMN_RESOURCE = "oneTaskProcess.bpmn20.xml";
+    protected static final String SMALL_RESOURCE = "small.txt";
+
+    protected String deploymentId;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setGridFsStorageEnabled(true);
+        processEngineConfiguration.setGridFsThresholdInBytes(64);
+    }
+
+    @BeforeEach
+    public void deployResources() {
+        deploymentId = repositoryService.createDeployment()
+                .addClasspathResource(BPMN_RESOURCE)
+                .addString(SMALL_RESOURCE, "small")
+                .deploy()
+                .getId();
+    }
+
+    @Test
+    public void testLargeResourceIsStoredInGridFs() {
+        Document bpmnDocument = getResourceDocument(BPMN_RESOURCE);
+        assertFalse(bpmnDocument.containsKey("bytes"));
+        assertNotNull(bpmnDocument.get("bytesGridFsId"));
+        assertEquals(processEngineConfiguration.getMongoDatabase().getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY)
+                .countDocuments(Filters.exists("bytesGridFsId")), getFiles().countDocuments());
+
+        Document smallDocument = getResourceDocument(SMALL_RESOURCE);
+        assertTrue(smallDocument.containsKey("bytes"));
+        assertFalse(smallDocument.containsKey("bytesGridFsId"));
+    }
+
+    @Test
+    public void testResourceBytesAreLoadedFromGridFs() throws IOException {
+        byte[] expectedBytes;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(BPMN_RESOURCE)) {
+            expectedBytes = IoUtil.readInputStream(inputStream, BPMN_RESOURCE);
+        }
+
+        try (InputStream inputStream = repositoryService.getResourceAsStream(deploymentId, BPMN_RESOURCE)) {
+            assertArrayEquals(expectedBytes, IoUtil.readInputStream(inputStream, BPMN_RESOURCE));
+        }
+        try (InputStream inputStream = repositoryService.getResourceAsStream(deploymentId, SMALL_RESOURCE)) {
+            assertEquals("small", new String(IoUtil.readInputStream(inputStream, SMALL_RESOURCE), StandardCharsets.UTF_8));
+        }
+        assertNotNull(runtimeService.startProcessInstanceByKey("oneTask"));
+    }
+
+    @Test
+    public void testGridFsFileIsDeletedWithDeployment() {
+        repositoryService.deleteDeployment(deploymentId, true);
+
+        assertEquals(0, processEngineConfiguration.getMongoDatabase().getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY).countDocuments());
+        assertEquals(0, getFiles().countDocuments());
+    }
+
+    protected Document getResourceDocument(String name) {
+        return processEngineConfiguration.getMongoDatabase().getCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY)
+                .find(Filters.and(Filters.eq("deploymentId", deploymentId), Filters.eq("name", name))).first();
+    }
+
+    protected MongoCollection<Document> getFiles() {
+        return processEngineConfiguration.getMongoDatabase().getCollection(processEngineConfiguration.getGridFsBucketName() + ".files");
+    }
+
+}
@@ -0,0 +1,75 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.gridfs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.flowable.mongodb.persistence.manager.MongoDbResourceDataManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+
+/**
+ * Only binary values larger than the threshold are stored in GridFS, and documents reference the file in a separate field.
+ */
+public class MongoDbGridFsStorageTest {
+
+    protected MongoClient mongoClient;
+    protected MongoDbGridFsStorage gridFsStorage;
+
+    @BeforeEach
+    public void createStorage() {
+        // Creating the bucket doesn't connect to the server
+        mongoClient = new MongoClient();
+        gridFsStorage = new MongoDbGridFsStorage(mongoClient.getDatabase("flowable-test"), MongoDbGridFsStorage.DEFAULT_BUCKET_NAME, 4);
+        gridFsStorage.registerCollection(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY, "bytes");
+    }
+
+    @AfterEach
+    public void closeClient() {
+        mongoClient.close();
+    }
+
+    @Test
+    public void testOnlyBytesOverThresholdAreStored() {
+        assertNull(gridFsStorage.getBytesToStore(new byte[4]));
+        assertArrayEquals(new byte[5], gridFsStorage.getBytesToStore(new byte[5]));
+        assertArrayEquals(new byte[5], gridFsStorage.getBytesToStore(new Binary(new byte[5])));
+        assertNull(gridFsStorage.getBytesToStore("not binary"));
+        assertNull(gridFsStorage.getBytesToStore(null));
+    }
+
+    @Test
+    public void testRegisteredField() {
+        assertEquals("bytes", gridFsStorage.getField(MongoDbResourceDataManager.COLLECTION_BYTE_ARRAY));
+        assertNull(gridFsStorage.getField("tasks"));
+    }
+
+    @Test
+    public void testReference() {
+        ObjectId gridFsId = new ObjectId();
+
+        assertEquals("bytesGridFsId", MongoDbGridFsStorage.getReferenceField("bytes"));
+        assertEquals(gridFsId, MongoDbGridFsStorage.getReference(new Document("bytesGridFsId", gridFsId), "bytes"));
+        assertEquals(gridFsId, MongoDbGridFsStorage.getReference(new Document("bytesGridFsId", gridFsId.toHexString()), "bytes"));
+        assertNull(MongoDbGridFsStorage.getReference(new Document("bytes", new byte[1]), "bytes"));
+    }
+
+}
@@ -0,0 +1,71 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.bson.types.ObjectId;
+import org.flowable.common.engine.impl.cfg.IdGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The time ordered id strategies generate increasing ids in the expected format.
+ */
+public class MongoDbIdStrategyTest {
+
+    @Test
+    public void testRandomUuid() {
+        String id = MongoDbIdStrategy.RANDOM_UUID.createIdGenerator().getNextId();
+        assertEquals(id, UUID.fromString(id).toString());
+    }
+
+    @Test
+    public void testObjectIdHexStrings() {
+        IdGenerator idGenerator = MongoDbIdStrategy.OBJECT_ID.createIdGenerator();
+        long now = System.currentTimeMillis() / 1000;
+
+        String id = idGenerator.getNextId();
+        assertTrue(ObjectIdStringCodec.isObjectIdHexString(id));
+        long timestamp = new ObjectId(id).getTimestamp();
+        assertTrue(Math.abs(timestamp - now) <= 1);
+    }
+
+    @Test
+    public void testUuidV7() {
+        IdGenerator idGenerator = MongoDbIdStrategy.UUID_V7.createIdGenerator();
+        long before = System.currentTimeMillis();
+
+        UUID uuid = UUID.fromString(idGenerator.getNextId());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void testUuidV7IsStrictlyIncreasing() {
+        IdGenerator idGenerator = MongoDbIdStrategy.UUID_V7.createIdGenerator();
+
+        String previousId = idGenerator.getNextId();
+        for (int i = 0; i < 10000; i++) {
+            String id = idGenerator.getNextId();
+            assertTrue(id.compareTo(previousId) > 0, id + " doesn't follow " + previousId);
+            previousId = id;
+        }
+    }
+
+}
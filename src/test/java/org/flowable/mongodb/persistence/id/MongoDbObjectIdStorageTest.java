@@ -0,0 +1,85 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.flowable.mongodb.persistence.manager.MongoDbTaskDataManager;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+
+/**
+ * With binary id storage, ids and foreign keys are stored as ObjectIds, while the engine keeps working with string ids.
+ */
+public class MongoDbObjectIdStorageTest extends AbstractMongoDbTest {
+
+    protected ProcessInstance processInstance;
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setIdStrategy(MongoDbIdStrategy.OBJECT_ID);
+        processEngineConfiguration.setBinaryIdStorageEnabled(true);
+    }
+
+    @BeforeEach
+    public void startProcessInstance() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        processInstance = runtimeService.startProcessInstanceByKey("oneTask", "order-1");
+    }
+
+    @Test
+    public void testIdsAreStoredAsObjectIds() {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+        assertTrue(ObjectIdStringCodec.isObjectIdHexString(task.getId()));
+
+        // Read with the default codecs, which don't turn ObjectIds back into strings
+        Document taskDocument = processEngineConfiguration.getMongoDatabase()
+                .withCodecRegistry(MongoClient.getDefaultCodecRegistry())
+                .getCollection(MongoDbTaskDataManager.COLLECTION_TASKS)
+                .find(Filters.eq("_id", new ObjectId(task.getId())))
+                .first();
+
+        assertEquals(new ObjectId(task.getId()), taskDocument.get("_id"));
+        assertEquals(new ObjectId(processInstance.getId()), taskDocument.get("processInstanceId"));
+        assertEquals("my task", taskDocument.get("name"));
+    }
+
+    @Test
+    public void testQueriesMatchStringIds() {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+
+        assertEquals(task.getId(), taskService.createTaskQuery().taskId(task.getId()).singleResult().getId());
+        assertEquals(processInstance.getId(), runtimeService.createProcessInstanceQuery().processInstanceBusinessKey("order-1").singleResult().getId());
+        assertEquals(2, runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).count());
+    }
+
+    @Test
+    public void testProcessCompletes() {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+        taskService.complete(task.getId());
+
+        assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+        assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).finished().count());
+    }
+
+}
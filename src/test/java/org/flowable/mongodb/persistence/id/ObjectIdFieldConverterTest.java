@@ -0,0 +1,95 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+
+/**
+ * Only the ObjectId hex strings of id and foreign key fields are converted to ObjectIds, in documents, filters and updates.
+ */
+public class ObjectIdFieldConverterTest {
+
+    protected ObjectIdFieldConverter converter = new ObjectIdFieldConverter();
+
+    protected String id = new ObjectId().toHexString();
+    protected String otherId = new ObjectId().toHexString();
+
+    @Test
+    public void testIdFieldsOfDocumentAreConverted() {
+        Document document = converter.convert(new Document("_id", id)
+                .append("processInstanceId", otherId)
+                .append("name", id)
+                .append("executionId", "not-an-object-id"));
+
+        assertEquals(new ObjectId(id), document.get("_id"));
+        assertEquals(new ObjectId(otherId), document.get("processInstanceId"));
+        assertEquals(id, document.get("name"));
+        assertEquals("not-an-object-id", document.get("executionId"));
+    }
+
+    @Test
+    public void testOperatorsKeepTheirField() {
+        BsonDocument filter = convert(Filters.and(Filters.in("_id", Arrays.asList(id, otherId)), Filters.eq("businessKey", id)));
+
+        BsonDocument inFilter = filter.getDocument("_id");
+        assertEquals(new BsonObjectId(new ObjectId(id)), inFilter.getArray("$in").get(0));
+        assertEquals(new BsonObjectId(new ObjectId(otherId)), inFilter.getArray("$in").get(1));
+        assertEquals(new BsonString(id), filter.get("businessKey"));
+    }
+
+    @Test
+    public void testDottedFieldsAreMatchedOnLastSegment() {
+        assertTrue(converter.isIdField("embeddedExecutions.parentId"));
+        assertEquals(new BsonObjectId(new ObjectId(id)), convert(Filters.eq("embeddedExecutions.parentId", id)).get("embeddedExecutions.parentId"));
+        assertEquals(new BsonString(id), convert(Filters.eq("variables.name", id)).get("variables.name"));
+    }
+
+    @Test
+    public void testWriteModelsAreConverted() {
+        WriteModel<Document> insert = converter.convert(new InsertOneModel<>(new Document("_id", id)), MongoClient.getDefaultCodecRegistry());
+        assertEquals(new ObjectId(id), ((InsertOneModel<Document>) insert).getDocument().get("_id"));
+
+        WriteModel<Document> update = converter.convert(new UpdateOneModel<>(Filters.eq("_id", id), Updates.set("parentTaskId", otherId)),
+                MongoClient.getDefaultCodecRegistry());
+        UpdateOneModel<Document> updateOneModel = (UpdateOneModel<Document>) update;
+        assertEquals(new BsonObjectId(new ObjectId(id)), toBsonDocument(updateOneModel.getFilter()).get("_id"));
+        assertEquals(new BsonObjectId(new ObjectId(otherId)), toBsonDocument(updateOneModel.getUpdate()).getDocument("$set").get("parentTaskId"));
+    }
+
+    protected BsonDocument convert(Bson bson) {
+        return toBsonDocument(converter.convert(bson, MongoClient.getDefaultCodecRegistry()));
+    }
+
+    protected BsonDocument toBsonDocument(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+}
@@ -0,0 +1,70 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+
+/**
+ * ObjectIds are read back as their hex string, while strings are written as strings.
+ */
+public class ObjectIdStringCodecTest {
+
+    protected CodecRegistry codecRegistry = ObjectIdStringCodec.createCodecRegistry(MongoClient.getDefaultCodecRegistry());
+
+    @Test
+    public void testObjectIdHexString() {
+        assertTrue(ObjectIdStringCodec.isObjectIdHexString(new ObjectId().toHexString()));
+        assertFalse(ObjectIdStringCodec.isObjectIdHexString(new ObjectId().toHexString().toUpperCase()));
+        assertFalse(ObjectIdStringCodec.isObjectIdHexString("5f1b2c3d4e5f6a7b8c9d0e1"));
+        assertFalse(ObjectIdStringCodec.isObjectIdHexString("5f1b2c3d4e5f6a7b8c9d0e1g"));
+        assertFalse(ObjectIdStringCodec.isObjectIdHexString("8f8e7e3c-1d2b-4c5a-9f0e-0123456789ab"));
+    }
+
+    @Test
+    public void testDocumentObjectIdsAreDecodedAsStrings() {
+        ObjectId objectId = new ObjectId();
+        BsonDocument bsonDocument = new BsonDocument("_id", new BsonObjectId(objectId)).append("name", new BsonString("task"));
+
+        Document document = codecRegistry.get(Document.class).decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+
+        assertEquals(objectId.toHexString(), document.get("_id"));
+        assertEquals("task", document.get("name"));
+    }
+
+    @Test
+    public void testStringsAreEncodedAsStrings() {
+        String id = new ObjectId().toHexString();
+        BsonDocument bsonDocument = new BsonDocument();
+
+        codecRegistry.get(Document.class).encode(new BsonDocumentWriter(bsonDocument), new Document("_id", id), EncoderContext.builder().build());
+
+        assertEquals(new BsonString(id), bsonDocument.get("_id"));
+    }
+
+}
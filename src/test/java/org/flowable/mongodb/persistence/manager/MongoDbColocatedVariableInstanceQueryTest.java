@@ -0,0 +1,28 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+
+/**
+ * Runs the variable instance query tests with the variables stored in the execution and task documents,
+ * of which the pages are merged with the variables of the variables collection.
+ */
+public class MongoDbColocatedVariableInstanceQueryTest extends MongoDbVariableInstanceQueryTest {
+
+    @Override
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+        processEngineConfiguration.setColocatedVariablesEnabled(true);
+    }
+
+}
@@ -0,0 +1,109 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.flowable.common.engine.impl.Page;
+import org.flowable.job.service.impl.persistence.entity.JobEntity;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Async jobs are claimed on the server with one findOneAndUpdate per job, so concurrent acquiring nodes never get the same job.
+ */
+public class MongoDbJobAcquisitionTest extends AbstractMongoDbTest {
+
+    protected MongoDbJobDataManager jobDataManager;
+
+    @BeforeEach
+    public void deployProcess() {
+        jobDataManager = (MongoDbJobDataManager) processEngineConfiguration.getJobServiceConfiguration().getJobDataManager();
+        deploy("async.bpmn20.xml");
+    }
+
+    @Test
+    public void testAcquiredJobsAreLocked() {
+        startProcessInstances(3);
+
+        List<JobEntity> jobs = acquireJobs(null, 2);
+        assertEquals(2, jobs.size());
+        String lockOwner = processEngineConfiguration.getAsyncExecutor().getLockOwner();
+        for (JobEntity job : jobs) {
+            assertEquals(lockOwner, job.getLockOwner());
+            assertNotNull(job.getLockExpirationTime());
+            assertEquals(2, job.getRevision());
+        }
+
+        assertEquals(1, acquireJobs(null, 2).size());
+        assertEquals(0, acquireJobs(null, 2).size());
+    }
+
+    @Test
+    public void testConcurrentAcquisitionNeverReturnsTheSameJob() throws Exception {
+        startProcessInstances(20);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<JobEntity>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> acquireJobs(null, 10)));
+            }
+
+            Set<String> acquiredJobIds = new HashSet<>();
+            int acquiredJobCount = 0;
+            for (Future<List<JobEntity>> future : futures) {
+                for (JobEntity job : future.get()) {
+                    acquiredJobIds.add(job.getId());
+                    acquiredJobCount++;
+                }
+            }
+            assertEquals(20, acquiredJobCount);
+            assertEquals(20, acquiredJobIds.size());
+
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEnabledCategories() {
+        startProcessInstances(1);
+
+        assertTrue(acquireJobs(Collections.singletonList("otherCategory"), 10).isEmpty());
+        assertEquals(1, acquireJobs(null, 10).size());
+    }
+
+    protected void startProcessInstances(int count) {
+        for (int i = 0; i < count; i++) {
+            runtimeService.startProcessInstanceByKey("asyncProcess");
+        }
+    }
+
+    protected List<JobEntity> acquireJobs(List<String> enabledCategories, int maxResults) {
+        return managementService.executeCommand(commandContext -> jobDataManager.findJobsToExecute(enabledCategories, new Page(0, maxResults)));
+    }
+
+}
@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.flowable.common.engine.api.FlowableOptimisticLockingException;
+import org.flowable.job.api.Job;
+import org.flowable.job.service.impl.persistence.entity.JobEntity;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Locking jobs with one updateMany: only jobs that aren't locked, or of which the lock has expired, are locked.
+ */
+public class MongoDbJobLockTest extends AbstractMongoDbTest {
+
+    protected MongoDbJobDataManager jobDataManager;
+    protected List<String> jobIds;
+
+    @BeforeEach
+    public void startProcessInstances() {
+        jobDataManager = (MongoDbJobDataManager) processEngineConfiguration.getJobServiceConfiguration().getJobDataManager();
+        deploy("async.bpmn20.xml");
+        for (int i = 0; i < 3; i++) {
+            runtimeService.startProcessInstanceByKey("asyncProcess");
+        }
+        jobIds = managementService.createJobQuery().list().stream().map(Job::getId).collect(Collectors.toList());
+        assertEquals(3, jobIds.size());
+    }
+
+    @Test
+    public void testLockedJobsAreNotLockedAgain() {
+        Date lockExpirationTime = new Date(System.currentTimeMillis() + 60000L);
+        assertEquals(2, lockJobs(jobIds.subList(0, 2), "node1", lockExpirationTime).size());
+
+        // Also not by the same lock owner: the jobs are still being executed
+        List<JobEntity> lockedJobs = lockJobs(jobIds, "node1", lockExpirationTime);
+        assertEquals(1, lockedJobs.size());
+        assertEquals(jobIds.get(2), lockedJobs.get(0).getId());
+
+        assertEquals(0, lockJobs(jobIds, "node2", lockExpirationTime).size());
+        for (String jobId : jobIds) {
+            assertEquals("node1", getLockOwner(jobId));
+        }
+    }
+
+    @Test
+    public void testExpiredLockIsLockedAgain() {
+        lockJobs(jobIds.subList(0, 1), "node1", new Date(System.currentTimeMillis() - 60000L));
+
+        List<JobEntity> lockedJobs = lockJobs(jobIds, "node2", new Date(System.currentTimeMillis() + 60000L));
+        assertEquals(3, lockedJobs.size());
+        assertEquals("node2", getLockOwner(jobIds.get(0)));
+    }
+
+    @Test
+    public void testUnmodifiableListWithLockedJob() {
+        Date lockExpirationTime = new Date(System.currentTimeMillis() + 60000L);
+        lockJobs(jobIds.subList(0, 1), "node1", lockExpirationTime);
+
+        assertThrows(FlowableOptimisticLockingException.class, () -> managementService.executeCommand(commandContext -> {
+            List<JobEntity> jobs = new ArrayList<>();
+            for (String jobId : jobIds) {
+                jobs.add(jobDataManager.findById(jobId));
+            }
+            jobDataManager.bulkUpdateJobLockWithoutRevisionCheck(Collections.unmodifiableList(jobs), "node2", lockExpirationTime);
+            return null;
+        }));
+        assertNull(getLockOwner(jobIds.get(1)));
+    }
+
+    protected String getLockOwner(String jobId) {
+        return managementService.executeCommand(commandContext -> jobDataManager.findById(jobId).getLockOwner());
+    }
+
+    protected List<JobEntity> lockJobs(List<String> ids, String lockOwner, Date lockExpirationTime) {
+        return managementService.executeCommand(commandContext -> {
+            List<JobEntity> jobs = new ArrayList<>();
+            for (String jobId : ids) {
+                jobs.add(jobDataManager.findById(jobId));
+            }
+            jobDataManager.bulkUpdateJobLockWithoutRevisionCheck(jobs, lockOwner, lockExpirationTime);
+            return jobs;
+        });
+    }
+
+}
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.flowable.identitylink.api.IdentityLinkType;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.model.Filters;
+
+/**
+ * The like filters and the identity link filters of the task query.
+ */
+public class MongoDbTaskQueryFilterTest {
+
+    protected MongoDbTaskDataManager taskDataManager = new MongoDbTaskDataManager();
+
+    @Test
+    public void testLikeFilterWildcards() {
+        assertTrue(matchesLike("task%", "task 1"));
+        assertTrue(matchesLike("task%", "task"));
+        assertFalse(matchesLike("task%", "my task"));
+        assertTrue(matchesLike("%task%", "my task 1"));
+        assertTrue(matchesLike("task_", "task1"));
+        assertFalse(matchesLike("task_", "task12"));
+    }
+
+    @Test
+    public void testLikeFilterQuotesRegexCharacters() {
+        assertTrue(matchesLike("a.b%", "a.bc"));
+        assertFalse(matchesLike("a.b%", "axbc"));
+        assertTrue(matchesLike("(1+1)*%", "(1+1)*2"));
+        assertFalse(matchesLike("1+1", "11"));
+    }
+
+    @Test
+    public void testLikeFilterIgnoreCase() {
+        BsonDocument filter = toBsonDocument(taskDataManager.createLikeFilter("name", "Task%", true));
+        assertEquals("i", filter.getRegularExpression("name").getOptions());
+    }
+
+    @Test
+    public void testCandidateFilterMatchesUserAndGroups() {
+        Bson filter = taskDataManager.createIdentityLinkFilter(IdentityLinkType.CANDIDATE, "kermit", Arrays.asList("management", "sales"));
+
+        Bson expected = Filters.or(
+                Filters.eq(MongoDbTaskDataManager.IDENTITY_LINK_USERS, MongoDbTaskDataManager.getIdentityLinkValue("kermit", IdentityLinkType.CANDIDATE)),
+                Filters.in(MongoDbTaskDataManager.IDENTITY_LINK_GROUPS,
+                        MongoDbTaskDataManager.getIdentityLinkValue("management", IdentityLinkType.CANDIDATE),
+                        MongoDbTaskDataManager.getIdentityLinkValue("sales", IdentityLinkType.CANDIDATE)));
+        assertEquals(toBsonDocument(expected), toBsonDocument(filter));
+    }
+
+    @Test
+    public void testInvolvedFilterMatchesAnyType() {
+        BsonDocument filter = toBsonDocument(taskDataManager.createIdentityLinkFilter(null, "kermit", null));
+        Pattern pattern = Pattern.compile(filter.getRegularExpression(MongoDbTaskDataManager.IDENTITY_LINK_USERS).getPattern());
+
+        assertTrue(pattern.matcher(MongoDbTaskDataManager.getIdentityLinkValue("kermit", IdentityLinkType.CANDIDATE)).find());
+        assertTrue(pattern.matcher(MongoDbTaskDataManager.getIdentityLinkValue("kermit", "custom")).find());
+        assertFalse(pattern.matcher(MongoDbTaskDataManager.getIdentityLinkValue("kermit2", IdentityLinkType.CANDIDATE)).find());
+    }
+
+    @Test
+    public void testNoUserNorGroupsMatchesNoTask() {
+        BsonDocument filter = toBsonDocument(taskDataManager.createIdentityLinkFilter(IdentityLinkType.CANDIDATE, null, null));
+        assertTrue(filter.getDocument("_id").getArray("$in").isEmpty());
+    }
+
+    protected boolean matchesLike(String likeValue, String value) {
+        BsonDocument filter = toBsonDocument(taskDataManager.createLikeFilter("name", likeValue, false));
+        return Pattern.compile(filter.getRegularExpression("name").getPattern()).matcher(value).find();
+    }
+
+    protected BsonDocument toBsonDocument(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+    }
+
+}
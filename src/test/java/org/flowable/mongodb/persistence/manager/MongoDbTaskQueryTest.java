@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The candidate, involved and like filters of the task query, including sorting and paging.
+ */
+public class MongoDbTaskQueryTest extends AbstractMongoDbTest {
+
+    protected List<String> taskIds;
+
+    @BeforeEach
+    public void startProcessInstances() {
+        deploy("oneTaskProcess.bpmn20.xml");
+
+        taskIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String processInstanceId = runtimeService.startProcessInstanceByKey("oneTask").getId();
+            Task task = taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult();
+            taskService.setPriority(task.getId(), i);
+            taskIds.add(task.getId());
+        }
+        taskService.addCandidateUser(taskIds.get(0), "kermit");
+        taskService.addCandidateGroup(taskIds.get(1), "management");
+        taskService.addCandidateGroup(taskIds.get(2), "sales");
+        taskService.addUserIdentityLink(taskIds.get(2), "gonzo", "custom");
+    }
+
+    @Test
+    public void testCandidateUser() {
+        assertEquals(Arrays.asList(taskIds.get(0)), getTaskIds(taskService.createTaskQuery().taskCandidateUser("kermit").list()));
+        assertEquals(0, taskService.createTaskQuery().taskCandidateUser("gonzo").count());
+    }
+
+    @Test
+    public void testCandidateGroups() {
+        assertEquals(Arrays.asList(taskIds.get(1)), getTaskIds(taskService.createTaskQuery().taskCandidateGroup("management").list()));
+        assertEquals(2, taskService.createTaskQuery().taskCandidateGroupIn(Arrays.asList("management", "sales")).count());
+        assertEquals(0, taskService.createTaskQuery().taskCandidateGroup("engineering").count());
+    }
+
+    @Test
+    public void testAssignedTaskIsNoCandidateTask() {
+        taskService.claim(taskIds.get(0), "kermit");
+
+        assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+        assertEquals(1, taskService.createTaskQuery().taskCandidateUser("kermit").ignoreAssigneeValue().count());
+        assertEquals(1, taskService.createTaskQuery().taskCandidateOrAssigned("kermit").count());
+    }
+
+    @Test
+    public void testDeletedCandidateIsNoLongerMatched() {
+        taskService.deleteCandidateGroup(taskIds.get(1), "management");
+
+        assertEquals(0, taskService.createTaskQuery().taskCandidateGroup("management").count());
+    }
+
+    @Test
+    public void testInvolvedUserAndGroups() {
+        assertEquals(Arrays.asList(taskIds.get(2)), getTaskIds(taskService.createTaskQuery().taskInvolvedUser("gonzo").list()));
+        assertEquals(Arrays.asList(taskIds.get(0)), getTaskIds(taskService.createTaskQuery().taskInvolvedUser("kermit").list()));
+        assertEquals(2, taskService.createTaskQuery().taskInvolvedGroups(Arrays.asList("management", "sales")).count());
+
+        taskService.setOwner(taskIds.get(1), "fozzie");
+        assertEquals(Arrays.asList(taskIds.get(1)), getTaskIds(taskService.createTaskQuery().taskInvolvedUser("fozzie").list()));
+    }
+
+    @Test
+    public void testNameLikeWithSortingAndPaging() {
+        assertEquals(3, taskService.createTaskQuery().taskNameLike("my%").count());
+        assertEquals(3, taskService.createTaskQuery().taskNameLikeIgnoreCase("MY TASK").count());
+        assertEquals(0, taskService.createTaskQuery().taskNameLike("my.task").count());
+
+        List<Task> tasks = taskService.createTaskQuery().taskNameLike("%task").orderByTaskPriority().desc().listPage(1, 2);
+        assertEquals(Arrays.asList(taskIds.get(1), taskIds.get(0)), getTaskIds(tasks));
+    }
+
+    protected List<String> getTaskIds(List<Task> tasks) {
+        List<String> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,124 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.flowable.common.engine.impl.Page;
+import org.flowable.job.service.impl.persistence.entity.TimerJobEntity;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Due timers are acquired with the oldest due date first and paged on the server; expired timers are the ones of which the lock expired.
+ */
+public class MongoDbTimerJobAcquisitionTest extends AbstractMongoDbTest {
+
+    protected static final long MINUTE = 60000L;
+    protected static final long HOUR = 60 * MINUTE;
+
+    protected MongoDbTimerJobDataManager timerJobDataManager;
+    protected long startTime;
+
+    /**
+     * Timers with due dates start + 1 hour + i minutes (i = 0..4), created in reverse order.
+     */
+    @BeforeEach
+    public void startProcessInstances() {
+        timerJobDataManager = (MongoDbTimerJobDataManager) processEngineConfiguration.getJobServiceConfiguration().getTimerJobDataManager();
+        deploy("timerTask.bpmn20.xml");
+
+        startTime = (System.currentTimeMillis() / MINUTE) * MINUTE;
+        for (int i = 4; i >= 0; i--) {
+            setClock(startTime + i * MINUTE);
+            runtimeService.startProcessInstanceByKey("timerTask");
+        }
+    }
+
+    @AfterEach
+    public void resetClock() {
+        if (processEngine != null) {
+            processEngineConfiguration.getClock().reset();
+        }
+    }
+
+    @Test
+    public void testDueTimersInDuedateOrder() {
+        setClock(startTime + 2 * HOUR);
+
+        List<TimerJobEntity> firstPage = findJobsToExecute(0, 2);
+        assertEquals(getDuedates(0, 1), getDuedates(firstPage));
+
+        List<TimerJobEntity> secondPage = findJobsToExecute(2, 10);
+        assertEquals(getDuedates(2, 3, 4), getDuedates(secondPage));
+    }
+
+    @Test
+    public void testTimersNotYetDueAreNotAcquired() {
+        setClock(startTime + HOUR + 2 * MINUTE + MINUTE / 2);
+
+        assertEquals(getDuedates(0, 1, 2), getDuedates(findJobsToExecute(0, 10)));
+    }
+
+    @Test
+    public void testExpiredTimers() {
+        setClock(startTime + 2 * HOUR);
+        List<TimerJobEntity> timerJobs = findJobsToExecute(0, 2);
+        lockTimerJob(timerJobs.get(0).getId(), new Date(startTime + 2 * HOUR - MINUTE));
+        lockTimerJob(timerJobs.get(1).getId(), new Date(startTime + 2 * HOUR + MINUTE));
+
+        List<TimerJobEntity> expiredJobs = managementService.executeCommand(commandContext -> timerJobDataManager.findExpiredJobs(null, new Page(0, 10)));
+        assertEquals(1, expiredJobs.size());
+        assertEquals(timerJobs.get(0).getId(), expiredJobs.get(0).getId());
+
+        // Locked timers aren't acquired again
+        assertEquals(getDuedates(2, 3, 4), getDuedates(findJobsToExecute(0, 10)));
+    }
+
+    protected List<TimerJobEntity> findJobsToExecute(int firstResult, int maxResults) {
+        return managementService.executeCommand(commandContext -> timerJobDataManager.findJobsToExecute(null, new Page(firstResult, maxResults)));
+    }
+
+    protected void lockTimerJob(String timerJobId, Date lockExpirationTime) {
+        managementService.executeCommand(commandContext -> {
+            List<TimerJobEntity> timerJobs = new ArrayList<>();
+            timerJobs.add(timerJobDataManager.findById(timerJobId));
+            timerJobDataManager.bulkUpdateJobLockWithoutRevisionCheck(timerJobs, "node1", lockExpirationTime);
+            return null;
+        });
+    }
+
+    protected List<Date> getDuedates(int... minutes) {
+        List<Date> duedates = new ArrayList<>();
+        for (int minute : minutes) {
+            duedates.add(new Date(startTime + HOUR + minute * MINUTE));
+        }
+        return duedates;
+    }
+
+    protected List<Date> getDuedates(List<TimerJobEntity> timerJobs) {
+        return timerJobs.stream().map(TimerJobEntity::getDuedate).collect(Collectors.toList());
+    }
+
+    protected void setClock(long time) {
+        processEngineConfiguration.getClock().setCurrentTime(new Date(time));
+    }
+
+}
@@ -0,0 +1,115 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.flowable.engine.impl.persistence.entity.ActivityInstanceEntityImpl;
+import org.flowable.engine.impl.persistence.entity.HistoricActivityInstanceEntityImpl;
+import org.flowable.job.service.impl.persistence.entity.JobEntityImpl;
+import org.flowable.task.api.DelegationState;
+import org.flowable.task.service.impl.persistence.entity.TaskEntityImpl;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.BasicDBObject;
+
+/**
+ * Update objects only hold the fields of the persistent state that changed since the entity was read, with cleared fields unset.
+ */
+public class MongoDbUpdateObjectTest {
+
+    @Test
+    public void testUnchangedEntityHasNoUpdate() {
+        JobEntityImpl job = createJob();
+        job.setOriginalPersistentState(job.getPersistentState());
+
+        assertNull(new MongoDbJobDataManager(null).createUpdateObject(job));
+    }
+
+    @Test
+    public void testOnlyChangedFieldsAreSet() {
+        TaskEntityImpl task = createTask();
+        task.setOriginalPersistentState(task.getPersistentState());
+        task.setPriority(80);
+        task.setDelegationState(DelegationState.PENDING);
+
+        BasicDBObject updateObject = new MongoDbTaskDataManager().createUpdateObject(task);
+        assertEquals(new BasicDBObject("priority", 80).append("delegationState", "PENDING").append("tenantId", ""), updateObject);
+    }
+
+    @Test
+    public void testClearedFieldsAreUnset() {
+        JobEntityImpl job = createJob();
+        job.setLockOwner("node1");
+        job.setLockExpirationTime(new Date());
+        job.setOriginalPersistentState(job.getPersistentState());
+        job.setLockOwner(null);
+        job.setLockExpirationTime(null);
+        job.setRetries(2);
+
+        BasicDBObject updateObject = new MongoDbJobDataManager(null).createUpdateObject(job);
+        assertEquals(2, updateObject.get("retries"));
+        assertEquals(new Document("lockOwner", "").append("lockExpirationTime", ""), updateObject.get(AbstractMongoDbDataManager.UNSET_FIELDS));
+        assertEquals(2, updateObject.size());
+    }
+
+    @Test
+    public void testEntityWithoutOriginalStateSetsAllNonNullFields() {
+        JobEntityImpl job = createJob();
+
+        BasicDBObject updateObject = new MongoDbJobDataManager(null).createUpdateObject(job);
+        assertEquals(3, updateObject.get("retries"));
+        assertEquals("message", updateObject.get("jobHandlerType"));
+        assertNull(updateObject.get(AbstractMongoDbDataManager.UNSET_FIELDS));
+    }
+
+    @Test
+    public void testHistoricActivityInstanceOnlySetsChangedFields() {
+        HistoricActivityInstanceEntityImpl historicActivityInstance = new HistoricActivityInstanceEntityImpl(createActivityInstance());
+        historicActivityInstance.setOriginalPersistentState(historicActivityInstance.getPersistentState());
+        historicActivityInstance.setEndTime(new Date(2000L));
+        historicActivityInstance.setDurationInMillis(1000L);
+
+        BasicDBObject updateObject = new MongoDbHistoricActivityInstanceDataManager(null).createUpdateObject(historicActivityInstance);
+        assertEquals(new BasicDBObject("endTime", new Date(2000L)).append("durationInMillis", 1000L), updateObject);
+    }
+
+    protected TaskEntityImpl createTask() {
+        TaskEntityImpl task = new TaskEntityImpl();
+        task.setId("task");
+        task.setName("task");
+        task.setPriority(50);
+        return task;
+    }
+
+    protected JobEntityImpl createJob() {
+        JobEntityImpl job = new JobEntityImpl();
+        job.setId("job");
+        job.setRetries(3);
+        job.setJobHandlerType("message");
+        return job;
+    }
+
+    protected ActivityInstanceEntityImpl createActivityInstance() {
+        ActivityInstanceEntityImpl activityInstance = new ActivityInstanceEntityImpl();
+        activityInstance.setId("activity");
+        activityInstance.setActivityId("theTask");
+        activityInstance.setStartTime(new Date(1000L));
+        return activityInstance;
+    }
+
+}
@@ -0,0 +1,61 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.persistence.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.mongodb.test.AbstractMongoDbTest;
+import org.flowable.task.api.Task;
+import org.flowable.variable.api.persistence.entity.VariableInstance;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The variable instance query is sorted and paged.
+ */
+public class MongoDbVariableInstanceQueryTest extends AbstractMongoDbTest {
+
+    @Test
+    public void testSortedPage() {
+        deploy("oneTaskProcess.bpmn20.xml");
+        Map<String, Object> variables = new HashMap<>();
+        for (String name : Arrays.asList("e", "a", "d", "b", "c")) {
+            variables.put(name, name);
+        }
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTask", variables);
+        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+        taskService.setVariableLocal(task.getId(), "d2", "d2");
+        taskService.setVariableLocal(task.getId(), "b2", "b2");
+
+        assertEquals(Arrays.asList("a", "b", "b2", "c", "d", "d2", "e"),
+                getNames(runtimeService.createVariableInstanceQuery().orderByVariableName().asc().list()));
+        assertEquals(Arrays.asList("b2", "c", "d"),
+                getNames(runtimeService.createVariableInstanceQuery().orderByVariableName().asc().listPage(2, 3)));
+        assertEquals(Arrays.asList("d2", "d"),
+                getNames(runtimeService.createVariableInstanceQuery().orderByVariableName().desc().listPage(1, 2)));
+        assertEquals(Arrays.asList("b2", "d2"),
+                getNames(runtimeService.createVariableInstanceQuery().taskId(task.getId()).orderByVariableName().asc().listPage(0, 5)));
+        assertEquals(7, runtimeService.createVariableInstanceQuery().count());
+    }
+
+    protected List<String> getNames(List<VariableInstance> variables) {
+        return variables.stream().map(VariableInstance::getName).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,127 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.test;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.flowable.engine.HistoryService;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.TaskService;
+import org.flowable.mongodb.cfg.MongoDbProcessEngineConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+
+/**
+ * Base class for the tests that run a process engine against a MongoDB replica set (transactions need one, see the README).
+ * The servers are taken from the "flowable.mongodb.connectionUrl" system property ("host:port, host:port, ..."), localhost:27017 by default.
+ * The tests are skipped when no replica set is reachable. Every test starts with an empty "flowable-test" database.
+ */
+public abstract class AbstractMongoDbTest {
+
+    public static final String CONNECTION_URL_PROPERTY = "flowable.mongodb.connectionUrl";
+    public static final String DEFAULT_CONNECTION_URL = "localhost:27017";
+    public static final String DATABASE_NAME = "flowable-test";
+
+    protected static Boolean replicaSetAvailable;
+
+    protected MongoDbProcessEngineConfiguration processEngineConfiguration;
+    protected ProcessEngine processEngine;
+    protected RepositoryService repositoryService;
+    protected RuntimeService runtimeService;
+    protected TaskService taskService;
+    protected HistoryService historyService;
+    protected ManagementService managementService;
+
+    @BeforeEach
+    public void initProcessEngine() {
+        assumeTrue(isReplicaSetAvailable(), "No MongoDB replica set available at " + getConnectionUrl());
+
+        processEngineConfiguration = new MongoDbProcessEngineConfiguration();
+        processEngineConfiguration.setConnectionUrl(getConnectionUrl());
+        processEngineConfiguration.setDatabaseName(DATABASE_NAME);
+        processEngineConfiguration.setDisableIdmEngine(true);
+        processEngineConfiguration.setAsyncExecutorActivate(false);
+        configureProcessEngine(processEngineConfiguration);
+
+        dropDatabase();
+        processEngine = processEngineConfiguration.buildProcessEngine();
+        repositoryService = processEngine.getRepositoryService();
+        runtimeService = processEngine.getRuntimeService();
+        taskService = processEngine.getTaskService();
+        historyService = processEngine.getHistoryService();
+        managementService = processEngine.getManagementService();
+    }
+
+    /**
+     * Hook for the tests that run with a specific configuration.
+     */
+    protected void configureProcessEngine(MongoDbProcessEngineConfiguration processEngineConfiguration) {
+    }
+
+    @AfterEach
+    public void closeProcessEngine() {
+        if (processEngine != null) {
+            processEngine.close();
+            processEngine = null;
+        }
+    }
+
+    protected String deploy(String resource) {
+        return repositoryService.createDeployment().addClasspathResource(resource).deploy().getId();
+    }
+
+    protected void dropDatabase() {
+        MongoClient mongoClient = createMongoClient();
+        try {
+            mongoClient.getDatabase(DATABASE_NAME).drop();
+        } finally {
+            mongoClient.close();
+        }
+    }
+
+    protected static synchronized boolean isReplicaSetAvailable() {
+        if (replicaSetAvailable == null) {
+            MongoClient mongoClient = createMongoClient();
+            try {
+                Document isMaster = mongoClient.getDatabase("admin").runCommand(new Document("isMaster", 1));
+                replicaSetAvailable = isMaster.get("setName") != null;
+            } catch (MongoException e) {
+                replicaSetAvailable = false;
+            } finally {
+                mongoClient.close();
+            }
+        }
+        return replicaSetAvailable;
+    }
+
+    protected static MongoClient createMongoClient() {
+        List<ServerAddress> serverAddresses = new MongoDbProcessEngineConfiguration().setConnectionUrl(getConnectionUrl()).getServerAddresses();
+        return new MongoClient(serverAddresses, MongoClientOptions.builder().serverSelectionTimeout(2000).build());
+    }
+
+    protected static String getConnectionUrl() {
+        return System.getProperty(CONNECTION_URL_PROPERTY, DEFAULT_CONNECTION_URL);
+    }
+
+}
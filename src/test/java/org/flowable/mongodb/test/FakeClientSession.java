@@ -0,0 +1,95 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.mongodb.client.ClientSession;
+
+/**
+ * A {@link ClientSession} that only keeps track of its transaction, for the tests that don't need a MongoDB server.
+ * Commits can be made to fail with {@link #failNextCommit(RuntimeException)}; the transaction then stays active, like it does with the driver.
+ */
+public class FakeClientSession implements InvocationHandler {
+
+    protected ClientSession clientSession = (ClientSession) Proxy.newProxyInstance(FakeClientSession.class.getClassLoader(),
+            new Class<?>[] { ClientSession.class }, this);
+
+    protected boolean transactionActive;
+    protected int startedTransactionCount;
+    protected int commitCount;
+    protected int abortCount;
+    protected Deque<RuntimeException> commitFailures = new ArrayDeque<>();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "startTransaction":
+                transactionActive = true;
+                startedTransactionCount++;
+                return null;
+            case "hasActiveTransaction":
+                return transactionActive;
+            case "commitTransaction":
+                commitCount++;
+                if (!commitFailures.isEmpty()) {
+                    throw commitFailures.poll();
+                }
+                transactionActive = false;
+                return null;
+            case "abortTransaction":
+                abortCount++;
+                transactionActive = false;
+                return null;
+            case "close":
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "FakeClientSession";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    public void failNextCommit(RuntimeException exception) {
+        commitFailures.add(exception);
+    }
+
+    public ClientSession getClientSession() {
+        return clientSession;
+    }
+
+    public boolean isTransactionActive() {
+        return transactionActive;
+    }
+
+    public int getStartedTransactionCount() {
+        return startedTransactionCount;
+    }
+
+    public int getCommitCount() {
+        return commitCount;
+    }
+
+    public int getAbortCount() {
+        return abortCount;
+    }
+
+}
@@ -0,0 +1,84 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import static org.flowable.mongodb.transaction.MongoDbTransactionRetryPolicyTest.createException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.persistence.cache.EntityCacheImpl;
+import org.flowable.mongodb.persistence.MongoDbSession;
+import org.flowable.mongodb.persistence.MongoDbSessionFactory;
+import org.flowable.mongodb.test.FakeClientSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoException;
+
+/**
+ * A commit with an unknown result is sent again, up to the max number of retries.
+ */
+public class MongoDbTransactionCommitRetryTest {
+
+    protected FakeClientSession fakeClientSession;
+    protected MongoDbTransactionRetryPolicy retryPolicy;
+    protected MongoDbTransactionContext transactionContext;
+
+    @BeforeEach
+    public void createTransactionContext() {
+        fakeClientSession = new FakeClientSession();
+        fakeClientSession.getClientSession().startTransaction();
+        MongoDbSession mongoDbSession = new MongoDbSession(new MongoDbSessionFactory(null, null), null, null, new EntityCacheImpl(),
+                fakeClientSession.getClientSession());
+
+        CommandContext commandContext = new CommandContext(null);
+        commandContext.getSessions().put(MongoDbSession.class, mongoDbSession);
+        retryPolicy = new MongoDbTransactionRetryPolicy(2, 0L, 0L);
+        transactionContext = new MongoDbTransactionContext(commandContext, retryPolicy);
+    }
+
+    @Test
+    public void testUnknownCommitResultIsRetried() {
+        fakeClientSession.failNextCommit(createException(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL));
+        fakeClientSession.failNextCommit(createException(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL));
+
+        transactionContext.commit();
+        assertEquals(3, fakeClientSession.getCommitCount());
+        assertFalse(fakeClientSession.isTransactionActive());
+        assertEquals(2, retryPolicy.getStatistics().getCommitRetryCount());
+    }
+
+    @Test
+    public void testCommitRetriesExhausted() {
+        for (int i = 0; i < 3; i++) {
+            fakeClientSession.failNextCommit(createException(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL));
+        }
+
+        assertThrows(MongoException.class, transactionContext::commit);
+        assertEquals(3, fakeClientSession.getCommitCount());
+        assertEquals(1, retryPolicy.getStatistics().getRetriesExhaustedCount());
+    }
+
+    @Test
+    public void testTransientTransactionErrorIsPassedOn() {
+        // The whole command is retried for this one, by the retry interceptor
+        fakeClientSession.failNextCommit(createException(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+
+        assertThrows(MongoException.class, transactionContext::commit);
+        assertEquals(1, fakeClientSession.getCommitCount());
+        assertEquals(0, retryPolicy.getStatistics().getCommitRetryCount());
+    }
+
+}
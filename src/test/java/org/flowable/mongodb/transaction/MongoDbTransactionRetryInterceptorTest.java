@@ -0,0 +1,99 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import static org.flowable.mongodb.transaction.MongoDbTransactionRetryPolicyTest.createException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.flowable.common.engine.impl.interceptor.AbstractCommandInterceptor;
+import org.flowable.common.engine.impl.interceptor.Command;
+import org.flowable.common.engine.impl.interceptor.CommandConfig;
+import org.flowable.common.engine.impl.interceptor.CommandExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoException;
+
+/**
+ * Commands failing with a TransientTransactionError are executed again, up to the max number of retries.
+ */
+public class MongoDbTransactionRetryInterceptorTest {
+
+    protected MongoDbTransactionRetryPolicy retryPolicy;
+    protected MongoDbTransactionRetryInterceptor retryInterceptor;
+    protected FailingCommandInterceptor failingInterceptor;
+
+    @BeforeEach
+    public void createInterceptors() {
+        retryPolicy = new MongoDbTransactionRetryPolicy(2, 0L, 0L);
+        retryInterceptor = new MongoDbTransactionRetryInterceptor(retryPolicy);
+        failingInterceptor = new FailingCommandInterceptor();
+        retryInterceptor.setNext(failingInterceptor);
+    }
+
+    @Test
+    public void testTransientTransactionErrorIsRetried() {
+        failingInterceptor.failures = 2;
+        failingInterceptor.exception = createException(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        assertEquals("done", execute());
+        assertEquals(3, failingInterceptor.executions);
+        assertEquals(2, retryPolicy.getStatistics().getCommandRetryCount());
+        assertEquals(0, retryPolicy.getStatistics().getRetriesExhaustedCount());
+    }
+
+    @Test
+    public void testRetriesExhausted() {
+        failingInterceptor.failures = 3;
+        failingInterceptor.exception = createException(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        MongoException exception = assertThrows(MongoException.class, this::execute);
+        assertSame(failingInterceptor.exception, exception);
+        assertEquals(3, failingInterceptor.executions);
+        assertEquals(1, retryPolicy.getStatistics().getRetriesExhaustedCount());
+    }
+
+    @Test
+    public void testOtherErrorIsNotRetried() {
+        failingInterceptor.failures = 1;
+        failingInterceptor.exception = new MongoException("duplicate key");
+
+        assertThrows(MongoException.class, this::execute);
+        assertEquals(1, failingInterceptor.executions);
+        assertEquals(0, retryPolicy.getStatistics().getCommandRetryCount());
+    }
+
+    protected String execute() {
+        return retryInterceptor.execute(new CommandConfig(), commandContext -> "done", null);
+    }
+
+    protected static class FailingCommandInterceptor extends AbstractCommandInterceptor {
+
+        protected int failures;
+        protected RuntimeException exception;
+        protected int executions;
+
+        @Override
+        public <T> T execute(CommandConfig config, Command<T> command, CommandExecutor commandExecutor) {
+            executions++;
+            if (executions <= failures) {
+                throw exception;
+            }
+            return command.execute(null);
+        }
+
+    }
+
+}
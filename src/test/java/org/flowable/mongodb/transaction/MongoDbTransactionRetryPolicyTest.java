@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.flowable.mongodb.transaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.flowable.common.engine.api.FlowableException;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.MongoException;
+
+/**
+ * The errors that can be retried and the wait time in between retries.
+ */
+public class MongoDbTransactionRetryPolicyTest {
+
+    protected MongoDbTransactionRetryPolicy retryPolicy = new MongoDbTransactionRetryPolicy(3, 10L, 50L);
+
+    @Test
+    public void testTransientTransactionError() {
+        MongoException exception = createException(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        assertTrue(retryPolicy.isTransientTransactionError(exception));
+        assertFalse(retryPolicy.isUnknownTransactionCommitResult(exception));
+
+        // Also when wrapped by the engine
+        assertTrue(retryPolicy.isTransientTransactionError(new FlowableException("command failed", exception)));
+    }
+
+    @Test
+    public void testUnknownTransactionCommitResult() {
+        MongoException exception = createException(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL);
+        assertTrue(retryPolicy.isUnknownTransactionCommitResult(exception));
+        assertFalse(retryPolicy.isTransientTransactionError(exception));
+    }
+
+    @Test
+    public void testOtherErrorsAreNotRetried() {
+        assertFalse(retryPolicy.isTransientTransactionError(new MongoException("duplicate key")));
+        assertFalse(retryPolicy.isTransientTransactionError(new FlowableException("no mongo exception")));
+    }
+
+    @Test
+    public void testWaitTimeIsDoubledUpToMaxWaitTime() {
+        assertEquals(10L, retryPolicy.getWaitTime(1));
+        assertEquals(20L, retryPolicy.getWaitTime(2));
+        assertEquals(40L, retryPolicy.getWaitTime(3));
+        assertEquals(50L, retryPolicy.getWaitTime(4));
+        assertEquals(50L, retryPolicy.getWaitTime(100));
+    }
+
+    public static MongoException createException(String errorLabel) {
+        MongoException exception = new MongoException("transaction failed");
+        exception.addLabel(errorLabel);
+        return exception;
+    }
+
+}